@@ -0,0 +1,139 @@
+package com.litsynp;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.Diagnostic;
+import com.litsynp.parser.ast.Ast;
+
+/**
+ * Result of lexically and syntactically analyzing a source file: its syntax
+ * tree if it has been accepted, and its errors otherwise.
+ */
+public final class CompileResult {
+
+	/**
+	 * Name of the source, such as its path.
+	 */
+	private final String name;
+
+	/**
+	 * Tokens of the source, or null if it has a lexical error.
+	 */
+	private final TokenStream tokens;
+
+	/**
+	 * Syntax tree of the source, or null if it has not been accepted.
+	 */
+	private final Ast ast;
+
+	/**
+	 * Syntax errors of the source, in order.
+	 */
+	private final List<Diagnostic> diagnostics;
+
+	/**
+	 * Lexical error of the source, or null if it has been tokenized.
+	 */
+	private final NullTokenException lexError;
+
+	/**
+	 * Creates a result.
+	 *
+	 * @param name        the name of the source
+	 * @param tokens      the tokens, or null
+	 * @param ast         the syntax tree, or null
+	 * @param diagnostics the syntax errors
+	 * @param lexError    the lexical error, or null
+	 */
+	public CompileResult(String name, TokenStream tokens, Ast ast, List<Diagnostic> diagnostics,
+			NullTokenException lexError) {
+		this.name = name;
+		this.tokens = tokens;
+		this.ast = ast;
+		this.diagnostics = diagnostics;
+		this.lexError = lexError;
+	}
+
+	/**
+	 * Returns the name of the source.
+	 *
+	 * @return the name, such as the path of the source file
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns whether the source is accepted, without lexical or syntax errors.
+	 *
+	 * @return boolean value of whether the source is accepted
+	 */
+	public boolean isAccepted() {
+		return lexError == null && diagnostics.isEmpty();
+	}
+
+	/**
+	 * Returns the number of tokens of the source.
+	 *
+	 * @return the number of tokens, or 0 if the source has a lexical error
+	 */
+	public int getTokenCount() {
+		return (tokens == null) ? 0 : tokens.size();
+	}
+
+	/**
+	 * Returns the tokens of the source.
+	 *
+	 * @return the tokens, or null if the source has a lexical error
+	 */
+	public TokenStream getTokens() {
+		return tokens;
+	}
+
+	/**
+	 * Returns the syntax tree of the source.
+	 *
+	 * @return the syntax tree, or null if the source has not been accepted, or
+	 *         has been answered from a cache without syntax trees
+	 */
+	public Ast getAst() {
+		return ast;
+	}
+
+	/**
+	 * Returns the syntax errors of the source.
+	 *
+	 * @return the unmodifiable list of syntax errors, in order
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return Collections.unmodifiableList(diagnostics);
+	}
+
+	/**
+	 * Returns the lexical error of the source. The source is not parsed after a
+	 * lexical error.
+	 *
+	 * @return the lexical error, or null if the source has been tokenized
+	 */
+	public NullTokenException getLexError() {
+		return lexError;
+	}
+
+	/**
+	 * Returns string value of the result, in the form of
+	 * <code>files/a.c: accepted, 108 tokens</code>.
+	 */
+	@Override
+	public String toString() {
+		if (lexError != null) {
+			return name + ": lexical error: " + lexError.getMessage();
+		} else if (!diagnostics.isEmpty()) {
+			return name + ": " + diagnostics.size() + (diagnostics.size() == 1 ? " syntax error" : " syntax errors")
+					+ ", " + getTokenCount() + " tokens";
+		}
+		return name + ": accepted, " + getTokenCount() + " tokens";
+	}
+}
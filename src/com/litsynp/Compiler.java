@@ -0,0 +1,83 @@
+package com.litsynp;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import com.litsynp.lexer.LexicalAnalyzer;
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.Diagnostic;
+import com.litsynp.parser.SyntaxAnalyzer;
+import com.litsynp.parser.trace.ParseTracer;
+
+/**
+ * Compiler front end that lexically and syntactically analyzes source files in
+ * memory, for programs that check many sources in one run.
+ * <p>
+ * Nothing is printed and the JVM is never exited: the errors of a source are
+ * returned in its result, and only an input that cannot be read is thrown, or
+ * a failure of the parser itself as an unchecked exception. The transition
+ * table and the parsing table are generated once and shared, so any number of
+ * sources can be checked at once from different threads.
+ */
+public final class Compiler {
+
+	private Compiler() {
+	}
+
+	/**
+	 * Lexically and syntactically analyzes a source file.
+	 *
+	 * @param source the path of the source file
+	 * @return the result, named after the path
+	 * @throws IOException when the source file cannot be read
+	 */
+	public static CompileResult check(Path source) throws IOException {
+		String name = source.toString();
+		TokenStream tokens;
+		try {
+			tokens = LexicalAnalyzer.tokenize(source.toFile(), false);
+		} catch (NullTokenException e) {
+			return new CompileResult(name, null, null, Collections.<Diagnostic>emptyList(), e);
+		}
+		return parse(name, tokens);
+	}
+
+	/**
+	 * Lexically and syntactically analyzes a source in memory.
+	 *
+	 * @param name   the name of the source, to report it by
+	 * @param source the bytes of the source
+	 * @return the result
+	 */
+	public static CompileResult check(String name, byte[] source) {
+		TokenStream tokens;
+		try {
+			tokens = LexicalAnalyzer.lex(SourceBuffer.wrap(source, source.length), 0);
+		} catch (NullTokenException e) {
+			return new CompileResult(name, null, null, Collections.<Diagnostic>emptyList(),
+					new NullTokenException(e.getMessage() + " in " + name));
+		}
+		return parse(name, tokens);
+	}
+
+	/**
+	 * Syntactically analyzes the tokens of a source.
+	 *
+	 * @param name   the name of the source
+	 * @param tokens the tokens of the source
+	 * @return the result
+	 * @throws IllegalStateException when the parser fails without a syntax
+	 *                               error, such as on a missing table entry
+	 */
+	private static CompileResult parse(String name, TokenStream tokens) {
+		SyntaxAnalyzer parser = new SyntaxAnalyzer(tokens);
+		parser.setTracer(ParseTracer.quiet());
+		if (!parser.parse() && parser.getDiagnostics().isEmpty()) {
+			throw new IllegalStateException("The parser failed on " + name + " without a syntax error");
+		}
+		return new CompileResult(name, tokens, parser.getAst(), parser.getDiagnostics(), null);
+	}
+}
@@ -0,0 +1,117 @@
+package com.litsynp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.litsynp.batch.BatchChecker;
+import com.litsynp.batch.BatchReport;
+import com.litsynp.batch.SourceFinder;
+import com.litsynp.cache.CompileCache;
+
+/**
+ * Main class of the compiler program, which lexically and syntactically
+ * analyzes a batch of source files in one run, without writing .tok files,
+ * optionally answering unchanged files from a cache.
+ */
+public class Main {
+
+	/**
+	 * Main method of the compiler program. The exit status is 0 if every source
+	 * file is accepted, and 1 otherwise.
+	 *
+	 * @param args the directories, globs, file lists (@list) and source files
+	 *             (default: "files/a.c"), optionally preceded by "--jobs=n"
+	 *             (default: the number of processors), the number of files to
+	 *             check at once, "--cache=dir", the directory of a cache of the
+	 *             results, and "--cache-size=mb" (default: 256), the size limit
+	 *             of the cache in megabytes
+	 */
+	public static void main(String[] args) {
+		int jobs = Runtime.getRuntime().availableProcessors();
+		String cacheDirectory = null;
+		long cacheSize = 256;
+		List<String> names = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--jobs=")) {
+				jobs = (int) parseOption(arg, "--jobs=", Integer.MAX_VALUE);
+			} else if (arg.startsWith("--cache=")) {
+				cacheDirectory = arg.substring("--cache=".length());
+			} else if (arg.startsWith("--cache-size=")) {
+				cacheSize = parseOption(arg, "--cache-size=", Long.MAX_VALUE / 1000000);
+			} else if (arg.startsWith("--")) {
+				System.out.println("Unknown option: " + arg);
+				System.exit(1);
+			} else {
+				names.add(arg);
+			}
+		}
+		if (names.isEmpty()) {
+			// Default input file name
+			names.add("files" + File.separator + "a.c");
+		}
+
+		List<Path> sources;
+		try {
+			sources = SourceFinder.find(names);
+		} catch (IOException e) {
+			System.out.println(e);
+			System.exit(1);
+			return;
+		}
+
+		CompileCache cache = null;
+		if (cacheDirectory != null) {
+			try {
+				cache = CompileCache.open(Paths.get(cacheDirectory), cacheSize * 1000 * 1000, false);
+			} catch (IOException e) {
+				System.out.println(e);
+				System.exit(1);
+				return;
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(Math.max(jobs, 1));
+		BatchReport report;
+		try {
+			report = new BatchChecker(pool, cache).check(sources);
+		} finally {
+			pool.shutdown();
+		}
+
+		report.print(System.out);
+		if (cache != null) {
+			System.out.println(cache);
+		}
+		if (!report.isAllAccepted()) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Parses the value of a numeric option, or prints the option and exits if it
+	 * is not a positive number up to a maximum.
+	 *
+	 * @param arg    the argument of the option
+	 * @param prefix the name of the option followed by '='
+	 * @param max    the largest value allowed
+	 * @return the value
+	 */
+	private static long parseOption(String arg, String prefix, long max) {
+		long value = 0;
+		try {
+			value = Long.parseLong(arg.substring(prefix.length()));
+		} catch (NumberFormatException e) {
+			// Reported below along with the values out of range
+		}
+		if (value < 1 || value > max) {
+			System.out.println("Invalid option: " + arg);
+			System.exit(1);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,166 @@
+package com.litsynp.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.litsynp.CompileResult;
+import com.litsynp.Compiler;
+import com.litsynp.cache.CompileCache;
+
+/**
+ * Checker that lexically and syntactically analyzes a batch of source files
+ * concurrently on a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * Each file is checked as a task of its own, by {@link Compiler#check(Path)}.
+ * The tasks are submitted from the largest file to the smallest, so that the
+ * largest files do not start last and keep a single thread busy at the end of
+ * the batch, while the small files fill in the gaps of the other threads.
+ * <p>
+ * With a {@link CompileCache}, the files that have not changed since they were
+ * last checked are answered from the cache instead.
+ */
+public final class BatchChecker {
+
+	/**
+	 * Pool to check the files on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Cache of the results, or null.
+	 */
+	private final CompileCache cache;
+
+	/**
+	 * Creates a new batch checker.
+	 *
+	 * @param pool pool to check the files on
+	 */
+	public BatchChecker(ForkJoinPool pool) {
+		this(pool, null);
+	}
+
+	/**
+	 * Creates a new batch checker that answers unchanged files from a cache.
+	 *
+	 * @param pool  pool to check the files on
+	 * @param cache cache of the results, or null to check every file
+	 */
+	public BatchChecker(ForkJoinPool pool, CompileCache cache) {
+		this.pool = pool;
+		this.cache = cache;
+	}
+
+	/**
+	 * Checks source files.
+	 *
+	 * @param sources the paths of the source files
+	 * @return the report of the batch, with the results in the order of the paths
+	 */
+	public BatchReport check(List<Path> sources) {
+		long start = System.nanoTime();
+
+		// Submit the largest files first
+		final long[] sizes = new long[sources.size()];
+		List<Integer> order = new ArrayList<Integer>(sources.size());
+		for (int i = 0; i < sources.size(); i++) {
+			sizes[i] = sizeOf(sources.get(i));
+			order.add(i);
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(sizes[b], sizes[a]);
+			}
+		});
+
+		List<ForkJoinTask<FileResult>> tasks = new ArrayList<ForkJoinTask<FileResult>>(
+				Collections.<ForkJoinTask<FileResult>>nCopies(sources.size(), null));
+		for (int i : order) {
+			tasks.set(i, pool.submit(new CheckTask(sources.get(i), sizes[i], cache)));
+		}
+
+		// Collect the results in order
+		FileResult[] results = new FileResult[sources.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = tasks.get(i).join();
+		}
+		return new BatchReport(Arrays.asList(results), pool.getParallelism(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Returns the size of a file.
+	 *
+	 * @param path the path of the file
+	 * @return the size in bytes, or -1 if it cannot be read
+	 */
+	private static long sizeOf(Path path) {
+		try {
+			return Files.size(path);
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Task that checks a single file.
+	 */
+	private static class CheckTask implements Callable<FileResult> {
+
+		/**
+		 * Path of the file.
+		 */
+		private final Path path;
+
+		/**
+		 * Size of the file, or -1.
+		 */
+		private final long size;
+
+		/**
+		 * Cache of the results, or null.
+		 */
+		private final CompileCache cache;
+
+		/**
+		 * Creates a new task.
+		 *
+		 * @param path  path of the file
+		 * @param size  size of the file, or -1
+		 * @param cache cache of the results, or null
+		 */
+		CheckTask(Path path, long size, CompileCache cache) {
+			this.path = path;
+			this.size = size;
+			this.cache = cache;
+		}
+
+		/**
+		 * Checks the file.
+		 *
+		 * @return the result of the file
+		 */
+		@Override
+		public FileResult call() {
+			long start = System.nanoTime();
+			try {
+				CompileResult result = (cache != null) ? cache.check(path) : Compiler.check(path);
+				return FileResult.of(path, size, result, System.nanoTime() - start);
+			} catch (IOException e) {
+				return FileResult.unreadable(path, size, e, System.nanoTime() - start);
+			} catch (RuntimeException e) {
+				// Report the file, rather than end the batch without a report
+				return FileResult.failed(path, size, e, System.nanoTime() - start);
+			}
+		}
+	}
+}
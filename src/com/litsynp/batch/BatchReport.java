@@ -0,0 +1,159 @@
+package com.litsynp.batch;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+
+import com.litsynp.parser.Diagnostic;
+
+/**
+ * Aggregated report of a batch of source files, with the result of each file
+ * and the totals of the batch.
+ */
+public final class BatchReport {
+
+	/**
+	 * Results of the files, in the order they were given.
+	 */
+	private final List<FileResult> results;
+
+	/**
+	 * Number of threads that checked the files.
+	 */
+	private final int threadCount;
+
+	/**
+	 * Time taken to check the whole batch in nanoseconds.
+	 */
+	private final long wallNanos;
+
+	/**
+	 * Creates a report.
+	 *
+	 * @param results     the results of the files, in order
+	 * @param threadCount the number of threads
+	 * @param wallNanos   the time taken in nanoseconds
+	 */
+	BatchReport(List<FileResult> results, int threadCount, long wallNanos) {
+		this.results = results;
+		this.threadCount = threadCount;
+		this.wallNanos = wallNanos;
+	}
+
+	/**
+	 * Returns the results of the files.
+	 *
+	 * @return the unmodifiable list of results, in the order the files were given
+	 */
+	public List<FileResult> getResults() {
+		return Collections.unmodifiableList(results);
+	}
+
+	/**
+	 * Returns the number of files with a status.
+	 *
+	 * @param status the status
+	 * @return the number of files
+	 */
+	public int count(FileResult.Status status) {
+		int count = 0;
+		for (FileResult result : results) {
+			if (result.getStatus() == status) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns whether every file of the batch is accepted.
+	 *
+	 * @return boolean value of whether every file is accepted
+	 */
+	public boolean isAllAccepted() {
+		return count(FileResult.Status.ACCEPTED) == results.size();
+	}
+
+	/**
+	 * Returns the total number of tokens of the files.
+	 *
+	 * @return the number of tokens
+	 */
+	public long getTokenCount() {
+		long count = 0;
+		for (FileResult result : results) {
+			count += result.getTokenCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the total size of the files that could be read.
+	 *
+	 * @return the size in bytes
+	 */
+	public long getByteCount() {
+		long count = 0;
+		for (FileResult result : results) {
+			count += Math.max(result.getSize(), 0);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the time taken by the threads to check the files, which is the sum
+	 * of the times of the files.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getBusyNanos() {
+		long nanos = 0;
+		for (FileResult result : results) {
+			nanos += result.getNanos();
+		}
+		return nanos;
+	}
+
+	/**
+	 * Returns the time taken to check the whole batch.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Prints the result of each file, followed by its syntax errors, and the
+	 * totals of the batch.
+	 *
+	 * @param out the stream to print to
+	 */
+	public void print(PrintStream out) {
+		for (FileResult result : results) {
+			out.println(result);
+			for (Diagnostic diagnostic : result.getDiagnostics()) {
+				out.println("    " + diagnostic);
+			}
+		}
+		out.println(summary());
+	}
+
+	/**
+	 * Returns the totals of the batch, in the form of
+	 * <code>Checked 3 file(s), 1024 bytes, 250 tokens on 4 thread(s) in 1.20 ms
+	 * (busy 2.50 ms): 2 accepted, 1 with syntax errors, 0 with lexical errors, 0
+	 * unreadable, 0 failed.</code>
+	 *
+	 * @return string value of the totals
+	 */
+	public String summary() {
+		return String.format(
+				"Checked %d file(s), %d bytes, %d tokens on %d thread(s) in %.2f ms (busy %.2f ms): "
+						+ "%d accepted, %d with syntax errors, %d with lexical errors, %d unreadable, %d failed.",
+				results.size(), getByteCount(), getTokenCount(), threadCount, wallNanos / 1e6, getBusyNanos() / 1e6,
+				count(FileResult.Status.ACCEPTED), count(FileResult.Status.SYNTAX_ERRORS),
+				count(FileResult.Status.LEXICAL_ERROR), count(FileResult.Status.UNREADABLE),
+				count(FileResult.Status.FAILED));
+	}
+}
@@ -0,0 +1,236 @@
+package com.litsynp.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import com.litsynp.CompileResult;
+import com.litsynp.parser.Diagnostic;
+
+/**
+ * Result of checking one source file of a batch. Only what is reported is
+ * kept, not the tokens or the syntax tree, so that a batch of thousands of
+ * files fits in memory.
+ */
+public final class FileResult {
+
+	/**
+	 * Status of a checked source file.
+	 */
+	public enum Status {
+		/**
+		 * The file is accepted.
+		 */
+		ACCEPTED,
+		/**
+		 * The file has syntax errors.
+		 */
+		SYNTAX_ERRORS,
+		/**
+		 * The file has a lexical error, and has not been parsed.
+		 */
+		LEXICAL_ERROR,
+		/**
+		 * The file cannot be read.
+		 */
+		UNREADABLE,
+		/**
+		 * The compiler failed on the file, instead of accepting or rejecting it.
+		 */
+		FAILED
+	}
+
+	/**
+	 * Path of the file.
+	 */
+	private final Path path;
+
+	/**
+	 * Size of the file in bytes, or -1 if it is unknown.
+	 */
+	private final long size;
+
+	/**
+	 * Status of the file.
+	 */
+	private final Status status;
+
+	/**
+	 * Number of tokens of the file.
+	 */
+	private final int tokenCount;
+
+	/**
+	 * Syntax errors of the file.
+	 */
+	private final List<Diagnostic> diagnostics;
+
+	/**
+	 * Message of the lexical error, the read error or the failure, or null.
+	 */
+	private final String error;
+
+	/**
+	 * Time taken to check the file in nanoseconds.
+	 */
+	private final long nanos;
+
+	/**
+	 * Creates a result.
+	 *
+	 * @param path        the path of the file
+	 * @param size        the size of the file, or -1
+	 * @param status      the status of the file
+	 * @param tokenCount  the number of tokens
+	 * @param diagnostics the syntax errors
+	 * @param error       the message of the error, or null
+	 * @param nanos       the time taken in nanoseconds
+	 */
+	private FileResult(Path path, long size, Status status, int tokenCount, List<Diagnostic> diagnostics,
+			String error, long nanos) {
+		this.path = path;
+		this.size = size;
+		this.status = status;
+		this.tokenCount = tokenCount;
+		this.diagnostics = diagnostics;
+		this.error = error;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * Creates the result of a file that has been checked.
+	 *
+	 * @param path   the path of the file
+	 * @param size   the size of the file, or -1
+	 * @param result the result of the compiler
+	 * @param nanos  the time taken in nanoseconds
+	 * @return the result of the file
+	 */
+	static FileResult of(Path path, long size, CompileResult result, long nanos) {
+		Status status = Status.ACCEPTED;
+		String error = null;
+		if (result.getLexError() != null) {
+			status = Status.LEXICAL_ERROR;
+			error = result.getLexError().getMessage();
+		} else if (!result.getDiagnostics().isEmpty()) {
+			status = Status.SYNTAX_ERRORS;
+		}
+		return new FileResult(path, size, status, result.getTokenCount(), result.getDiagnostics(), error, nanos);
+	}
+
+	/**
+	 * Creates the result of a file that cannot be read.
+	 *
+	 * @param path  the path of the file
+	 * @param size  the size of the file, or -1
+	 * @param e     the read error
+	 * @param nanos the time taken in nanoseconds
+	 * @return the result of the file
+	 */
+	static FileResult unreadable(Path path, long size, IOException e, long nanos) {
+		return new FileResult(path, size, Status.UNREADABLE, 0, Collections.<Diagnostic>emptyList(), e.toString(),
+				nanos);
+	}
+
+	/**
+	 * Creates the result of a file that the compiler failed on.
+	 *
+	 * @param path  the path of the file
+	 * @param size  the size of the file, or -1
+	 * @param e     the failure
+	 * @param nanos the time taken in nanoseconds
+	 * @return the result of the file
+	 */
+	static FileResult failed(Path path, long size, RuntimeException e, long nanos) {
+		return new FileResult(path, size, Status.FAILED, 0, Collections.<Diagnostic>emptyList(),
+				"compiler failed: " + e, nanos);
+	}
+
+	/**
+	 * Returns the path of the file.
+	 *
+	 * @return the path
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Returns the size of the file.
+	 *
+	 * @return the size in bytes, or -1 if it is unknown
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the status of the file.
+	 *
+	 * @return the status
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns the number of tokens of the file.
+	 *
+	 * @return the number of tokens, or 0 if the file has not been tokenized
+	 */
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	/**
+	 * Returns the syntax errors of the file.
+	 *
+	 * @return the unmodifiable list of syntax errors, in order
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return Collections.unmodifiableList(diagnostics);
+	}
+
+	/**
+	 * Returns the message of the lexical error or the read error of the file.
+	 *
+	 * @return the message, or null if there is none
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Returns the time taken to check the file.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Returns string value of the result, in the form of
+	 * <code>files/a.c: accepted, 108 tokens in 0.25 ms</code>.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder svalue = new StringBuilder(path.toString()).append(": ");
+		switch (status) {
+		case ACCEPTED:
+			svalue.append("accepted, ").append(tokenCount).append(" tokens");
+			break;
+		case SYNTAX_ERRORS:
+			svalue.append(diagnostics.size()).append(diagnostics.size() == 1 ? " syntax error, " : " syntax errors, ")
+					.append(tokenCount).append(" tokens");
+			break;
+		case LEXICAL_ERROR:
+			svalue.append("lexical error: ").append(error);
+			break;
+		default:
+			svalue.append(error);
+		}
+		return svalue.append(String.format(" in %.2f ms", nanos / 1e6)).toString();
+	}
+}
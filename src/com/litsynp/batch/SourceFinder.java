@@ -0,0 +1,165 @@
+package com.litsynp.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finder of the source files named by the arguments of a batch.
+ * <p>
+ * An argument is one of:
+ * <ul>
+ * <li>a directory, for all .c files under it,</li>
+ * <li>a glob such as <code>src/**&#47;*.c</code>, for the files that match it
+ * under the directory before its first wildcard,</li>
+ * <li><code>@list</code>, for the arguments on the lines of the file list,
+ * without blank lines and lines starting with '#',</li>
+ * <li>or anything else, which is taken as a source file.</li>
+ * </ul>
+ * The files of a directory or a glob are sorted by path, and a file that is
+ * named more than once is only checked once.
+ */
+public final class SourceFinder {
+
+	/**
+	 * Extension of the source files in a directory.
+	 */
+	private static final String SOURCE_EXTENSION = ".c";
+
+	/**
+	 * The source files found so far, in order.
+	 */
+	private final Set<Path> sources = new LinkedHashSet<Path>();
+
+	private SourceFinder() {
+	}
+
+	/**
+	 * Finds the source files named by arguments.
+	 *
+	 * @param args the directories, globs, file lists and source files
+	 * @return the source files, in the order of the arguments
+	 * @throws IOException when a directory or a file list cannot be read
+	 */
+	public static List<Path> find(List<String> args) throws IOException {
+		SourceFinder finder = new SourceFinder();
+		for (String arg : args) {
+			finder.add(arg);
+		}
+		return new ArrayList<Path>(finder.sources);
+	}
+
+	/**
+	 * Adds the source files named by an argument.
+	 *
+	 * @param arg the argument
+	 * @throws IOException when a directory or a file list cannot be read
+	 */
+	private void add(String arg) throws IOException {
+		if (arg.startsWith("@")) {
+			addList(Paths.get(arg.substring(1)));
+		} else if (indexOfWildcard(arg) >= 0) {
+			addGlob(arg);
+		} else if (Files.isDirectory(Paths.get(arg))) {
+			addMatches(Paths.get(arg), null);
+		} else {
+			sources.add(Paths.get(arg).normalize());
+		}
+	}
+
+	/**
+	 * Adds the source files named by the lines of a file list.
+	 *
+	 * @param list the file list
+	 * @throws IOException when the file list cannot be read
+	 */
+	private void addList(Path list) throws IOException {
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(list), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					add(line);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Adds the files that match a glob.
+	 *
+	 * @param glob the glob
+	 * @throws IOException when a directory cannot be read
+	 */
+	private void addGlob(String glob) throws IOException {
+		// Walk the directory before the first wildcard, which the paths of the walk
+		// start with just like the glob
+		int wildcard = indexOfWildcard(glob);
+		int separator = Math.max(glob.lastIndexOf('/', wildcard), glob.lastIndexOf('\\', wildcard));
+		Path base = Paths.get(separator < 0 ? "" : glob.substring(0, separator + 1));
+		if (Files.isDirectory(base.toString().isEmpty() ? Paths.get(".") : base)) {
+			addMatches(base, FileSystems.getDefault().getPathMatcher("glob:" + glob));
+		}
+	}
+
+	/**
+	 * Adds the regular files under a directory that match a pattern, sorted by
+	 * path.
+	 *
+	 * @param directory the directory
+	 * @param matcher   the pattern, or null for the .c files
+	 * @throws IOException when the directory cannot be read
+	 */
+	private void addMatches(Path directory, final PathMatcher matcher) throws IOException {
+		final List<Path> matches = new ArrayList<Path>();
+		Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				boolean isMatch = (matcher == null) ? file.toString().endsWith(SOURCE_EXTENSION)
+						: matcher.matches(file);
+				if (attrs.isRegularFile() && isMatch) {
+					matches.add(file.normalize());
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		Collections.sort(matches);
+		sources.addAll(matches);
+	}
+
+	/**
+	 * Returns the position of the first wildcard of a glob in an argument.
+	 *
+	 * @param arg the argument
+	 * @return the position of the first wildcard, or -1 if the argument is not a
+	 *         glob
+	 */
+	private static int indexOfWildcard(String arg) {
+		for (int i = 0; i < arg.length(); i++) {
+			char c = arg.charAt(i);
+			if (c == '*' || c == '?' || c == '[' || c == '{') {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
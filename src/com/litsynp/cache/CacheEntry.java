@@ -0,0 +1,244 @@
+package com.litsynp.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.litsynp.CompileResult;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenFileWriter;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.Diagnostic;
+import com.litsynp.parser.TokenFileReader;
+import com.litsynp.parser.ast.Ast;
+import com.litsynp.parser.symbol.Symbol;
+
+/**
+ * Layout of an entry of the {@link CompileCache}, which holds the result of
+ * checking one source.
+ * <p>
+ * All fixed-size integers are big-endian. An entry consists of:
+ * <ul>
+ * <li>a header: magic, the version stamp of the cache, the hash and the length
+ * of the source, and the status (0 accepted, 1 syntax errors, 2 lexical
+ * error)</li>
+ * <li>for a lexical error, its message without the name of the source, and
+ * nothing else</li>
+ * <li>otherwise, the syntax errors, the length of a token file (.tok) of the
+ * tokens followed by the token file itself, and the syntax tree if it is
+ * stored</li>
+ * </ul>
+ */
+final class CacheEntry {
+
+	/**
+	 * Magic number at the beginning of an entry ("CCHE").
+	 */
+	static final int MAGIC = 0x43434845;
+
+	/**
+	 * Status of an accepted source.
+	 */
+	private static final int ACCEPTED = 0;
+
+	/**
+	 * Status of a source with syntax errors.
+	 */
+	private static final int SYNTAX_ERRORS = 1;
+
+	/**
+	 * Status of a source with a lexical error.
+	 */
+	private static final int LEXICAL_ERROR = 2;
+
+	/**
+	 * All symbols, indexed by ordinal.
+	 */
+	private static final Symbol[] SYMBOLS = Symbol.values();
+
+	private CacheEntry() {
+	}
+
+	/**
+	 * Encodes the result of a source as an entry.
+	 *
+	 * @param stamp        the version stamp of the cache
+	 * @param hash         the hash of the source
+	 * @param sourceLength the length of the source in bytes
+	 * @param result       the result of the source
+	 * @param lexMessage   the message of the lexical error without the name of the
+	 *                     source, or null
+	 * @param withAst      whether to store the syntax tree of an accepted source
+	 * @return the bytes of the entry
+	 * @throws IOException when the tokens cannot be encoded
+	 */
+	static byte[] encode(long stamp, long hash, int sourceLength, CompileResult result, String lexMessage,
+			boolean withAst) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + result.getTokenCount() * 4);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeLong(stamp);
+		out.writeLong(hash);
+		out.writeInt(sourceLength);
+		if (lexMessage != null) {
+			out.writeByte(LEXICAL_ERROR);
+			writeString(out, lexMessage);
+			return bytes.toByteArray();
+		}
+
+		List<Diagnostic> diagnostics = result.getDiagnostics();
+		out.writeByte(diagnostics.isEmpty() ? ACCEPTED : SYNTAX_ERRORS);
+		out.writeInt(diagnostics.size());
+		for (Diagnostic diagnostic : diagnostics) {
+			out.writeInt(diagnostic.getLineNo());
+			out.writeInt(diagnostic.getTokenIndex());
+			out.writeInt(diagnostic.getState());
+			out.writeByte(diagnostic.getFound() == null ? -1 : diagnostic.getFound().ordinal());
+			out.writeBoolean(diagnostic.getText() != null);
+			if (diagnostic.getText() != null) {
+				writeString(out, diagnostic.getText());
+			}
+			out.writeByte(diagnostic.getExpected().size());
+			for (Symbol terminal : diagnostic.getExpected()) {
+				out.writeByte(terminal.ordinal());
+			}
+		}
+
+		ByteArrayOutputStream tokenFile = new ByteArrayOutputStream(result.getTokenCount() * 3 + 64);
+		TokenFileWriter.write(tokenFile, result.getTokens(), false);
+		out.writeInt(tokenFile.size());
+		tokenFile.writeTo(out);
+
+		boolean hasAst = withAst && result.getAst() != null;
+		out.writeBoolean(hasAst);
+		if (hasAst) {
+			result.getAst().write(out);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decodes an entry into the result of a source.
+	 *
+	 * @param entry        the bytes of the entry, which the tokens refer to
+	 *                     afterwards
+	 * @param stamp        the version stamp of the cache
+	 * @param hash         the hash of the source
+	 * @param sourceLength the length of the source in bytes
+	 * @param name         the name of the source, to name the result after
+	 * @param shortName    the name of the source in the message of a lexical
+	 *                     error
+	 * @return the result
+	 * @throws IOException when the entry is malformed, or is of another source
+	 *                     or version
+	 */
+	static CompileResult decode(ByteBuffer entry, long stamp, long hash, int sourceLength, String name,
+			String shortName) throws IOException {
+		try {
+			if (entry.getInt() != MAGIC || entry.getLong() != stamp || entry.getLong() != hash
+					|| entry.getInt() != sourceLength) {
+				throw new IOException("Cache entry of another source or version");
+			}
+
+			int status = entry.get();
+			if (status == LEXICAL_ERROR) {
+				NullTokenException lexError = new NullTokenException(readString(entry) + " in " + shortName);
+				return new CompileResult(name, null, null, Collections.<Diagnostic>emptyList(), lexError);
+			} else if (status != ACCEPTED && status != SYNTAX_ERRORS) {
+				throw new IOException("Malformed cache entry status " + status);
+			}
+
+			int diagnosticCount = entry.getInt();
+			if (diagnosticCount < 0 || diagnosticCount > entry.remaining()) {
+				throw new IOException("Malformed cache entry of " + diagnosticCount + " syntax errors");
+			}
+			List<Diagnostic> diagnostics = new ArrayList<Diagnostic>(diagnosticCount);
+			for (int i = 0; i < diagnosticCount; i++) {
+				int lineNo = entry.getInt();
+				int tokenIndex = entry.getInt();
+				int state = entry.getInt();
+				int found = entry.get();
+				String text = entry.get() != 0 ? readString(entry) : null;
+				Set<Symbol> expected = EnumSet.noneOf(Symbol.class);
+				for (int count = entry.get() & 0xFF; count > 0; count--) {
+					expected.add(symbol(entry.get()));
+				}
+				diagnostics.add(new Diagnostic(lineNo, tokenIndex, state, found < 0 ? null : symbol(found), text,
+						expected));
+			}
+			if ((status == ACCEPTED) != diagnostics.isEmpty()) {
+				throw new IOException("Malformed cache entry status " + status);
+			}
+
+			int tokenFileSize = entry.getInt();
+			if (tokenFileSize < 0 || tokenFileSize > entry.remaining()) {
+				throw new IOException("Truncated cache entry");
+			}
+			ByteBuffer tokenFile = entry.slice();
+			tokenFile.limit(tokenFileSize);
+			TokenStream tokens = new TokenFileReader(tokenFile, name).read();
+			entry.position(entry.position() + tokenFileSize);
+
+			Ast ast = (entry.get() != 0) ? Ast.read(entry, tokens) : null;
+			if (entry.hasRemaining()) {
+				throw new IOException("Malformed cache entry with " + entry.remaining() + " bytes left");
+			}
+			return new CompileResult(name, tokens, ast, diagnostics, null);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated cache entry");
+		}
+	}
+
+	/**
+	 * Returns a symbol by ordinal.
+	 *
+	 * @param ordinal the ordinal
+	 * @return the symbol
+	 * @throws IOException when there is no symbol of the ordinal
+	 */
+	private static Symbol symbol(int ordinal) throws IOException {
+		if (ordinal < 0 || ordinal >= SYMBOLS.length) {
+			throw new IOException("Malformed symbol " + ordinal + " in cache entry");
+		}
+		return SYMBOLS[ordinal];
+	}
+
+	/**
+	 * Writes a string as its length and its UTF-8 bytes.
+	 *
+	 * @param out   the output to write to
+	 * @param value the string
+	 * @throws IOException when the output cannot be written
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+	 *
+	 * @param in the buffer to read from
+	 * @return the string
+	 * @throws IOException when the length is malformed
+	 */
+	private static String readString(ByteBuffer in) throws IOException {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException("Truncated cache entry");
+		}
+		String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+}
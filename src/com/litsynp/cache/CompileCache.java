@@ -0,0 +1,467 @@
+package com.litsynp.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.litsynp.CompileResult;
+import com.litsynp.Compiler;
+import com.litsynp.lexer.generator.TokenSpec;
+import com.litsynp.lexer.token.TokenFile;
+import com.litsynp.parser.Rule;
+import com.litsynp.parser.ast.NodeKind;
+import com.litsynp.parser.symbol.Symbol;
+
+/**
+ * Content-addressed cache of the results of {@link Compiler} in a directory,
+ * so that a source that has been checked before is answered without lexing or
+ * parsing it again.
+ * <p>
+ * An entry is named after a 64-bit hash of the bytes of the source, seeded
+ * with a version stamp of the token specification, the grammar and the
+ * formats, so an entry is never used by a compiler that would analyze the
+ * source differently. It holds the tokens, the syntax errors or the lexical
+ * error, and optionally the syntax tree, as laid out in {@link CacheEntry}.
+ * <p>
+ * Entries are written to a temporary file that is then moved in place, so
+ * that other threads and processes sharing the directory never read a partial
+ * entry, and an entry that cannot be read is treated as missing. When the
+ * entries grow over the size limit, the least recently used ones are deleted:
+ * the modification time of an entry is updated whenever it is used.
+ */
+public final class CompileCache {
+
+	/**
+	 * Version of the analysis and of the entry layout. Raise it whenever the
+	 * results of the compiler change in a way that the specifications in the
+	 * version stamp do not show, such as a fix in the scanner or the parser.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Version stamp of the compiler, which seeds the hash of every source.
+	 */
+	private static final long STAMP = stamp();
+
+	/**
+	 * File name extension of an entry.
+	 */
+	private static final String ENTRY_SUFFIX = ".entry";
+
+	/**
+	 * File name extension of an entry that is being written.
+	 */
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	/**
+	 * Age after which a temporary file is left over from a process that did not
+	 * finish writing it, in milliseconds.
+	 */
+	private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+	/**
+	 * The directory of the entries.
+	 */
+	private final Path directory;
+
+	/**
+	 * Maximum total size of the entries in bytes.
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Whether the syntax trees of accepted sources are stored.
+	 */
+	private final boolean withAst;
+
+	/**
+	 * Total size of the entries in bytes, as counted at the last eviction plus
+	 * the entries written since.
+	 */
+	private final AtomicLong size;
+
+	/**
+	 * Number of sources answered from the cache.
+	 */
+	private final AtomicInteger hits = new AtomicInteger();
+
+	/**
+	 * Number of sources checked by the compiler.
+	 */
+	private final AtomicInteger misses = new AtomicInteger();
+
+	/**
+	 * Number of entries that could not be written.
+	 */
+	private final AtomicInteger writeErrors = new AtomicInteger();
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param directory the directory of the entries
+	 * @param maxBytes  the maximum total size of the entries in bytes
+	 * @param withAst   whether to store the syntax trees of accepted sources
+	 * @param size      the total size of the entries in bytes
+	 */
+	private CompileCache(Path directory, long maxBytes, boolean withAst, long size) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.withAst = withAst;
+		this.size = new AtomicLong(size);
+	}
+
+	/**
+	 * Opens a cache in a directory, which is created if it does not exist.
+	 *
+	 * @param directory the directory of the entries
+	 * @param maxBytes  the maximum total size of the entries in bytes
+	 * @param withAst   whether to store the syntax trees of accepted sources.
+	 *                  Without them, an accepted source answered from the cache
+	 *                  has no syntax tree in its result
+	 * @return the cache
+	 * @throws IOException when the directory cannot be created or listed
+	 */
+	public static CompileCache open(Path directory, long maxBytes, boolean withAst) throws IOException {
+		Files.createDirectories(directory);
+		long size = 0;
+		for (Entry entry : listEntries(directory)) {
+			size += entry.size;
+		}
+		return new CompileCache(directory, maxBytes, withAst, size);
+	}
+
+	/**
+	 * Checks a source file, from the cache if it has not changed since it was
+	 * last checked.
+	 *
+	 * @param source the path of the source file
+	 * @return the result, named after the path
+	 * @throws IOException when the source file cannot be read
+	 */
+	public CompileResult check(Path source) throws IOException {
+		Path fileName = source.getFileName();
+		return check(source.toString(), (fileName == null) ? source.toString() : fileName.toString(),
+				Files.readAllBytes(source));
+	}
+
+	/**
+	 * Checks a source in memory, from the cache if it has been checked before.
+	 *
+	 * @param name   the name of the source, to report it by
+	 * @param source the bytes of the source
+	 * @return the result
+	 */
+	public CompileResult check(String name, byte[] source) {
+		return check(name, name, source);
+	}
+
+	/**
+	 * Returns the number of sources answered from the cache.
+	 *
+	 * @return the number of hits
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of sources checked by the compiler, because they were
+	 * not in the cache.
+	 *
+	 * @return the number of misses
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns string value of the cache, in the form of
+	 * <code>Cache .cache: 95 hits, 5 misses, 1.2 MB of 256.0 MB</code>.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder svalue = new StringBuilder("Cache ").append(directory).append(": ").append(hits.get())
+				.append(hits.get() == 1 ? " hit, " : " hits, ").append(misses.get())
+				.append(misses.get() == 1 ? " miss, " : " misses, ")
+				.append(String.format("%.1f MB of %.1f MB", size.get() / 1e6, maxBytes / 1e6));
+		if (writeErrors.get() > 0) {
+			svalue.append(", ").append(writeErrors.get()).append(" entries not written");
+		}
+		return svalue.toString();
+	}
+
+	/**
+	 * Checks a source, from the cache if it has been checked before.
+	 *
+	 * @param name      the name of the source, to name the result after
+	 * @param shortName the name of the source in the message of a lexical error
+	 * @param source    the bytes of the source
+	 * @return the result
+	 */
+	private CompileResult check(String name, String shortName, byte[] source) {
+		long hash = ContentHash.hash(source, source.length, STAMP);
+		Path entry = directory.resolve(String.format("%016x", hash) + ENTRY_SUFFIX);
+
+		CompileResult result = load(entry, hash, source.length, name, shortName);
+		if (result != null) {
+			hits.incrementAndGet();
+			return result;
+		}
+
+		misses.incrementAndGet();
+		result = Compiler.check(shortName, source);
+		String lexMessage = null;
+		if (result.getLexError() != null) {
+			// Keep the message without the name, which the same source may have another of
+			lexMessage = result.getLexError().getMessage();
+			String suffix = " in " + shortName;
+			if (lexMessage.endsWith(suffix)) {
+				lexMessage = lexMessage.substring(0, lexMessage.length() - suffix.length());
+			}
+		}
+		if (!name.equals(shortName)) {
+			result = new CompileResult(name, result.getTokens(), result.getAst(), result.getDiagnostics(),
+					result.getLexError());
+		}
+		store(entry, hash, source.length, result, lexMessage);
+		return result;
+	}
+
+	/**
+	 * Reads an entry, and marks it as used. An entry that cannot be read is
+	 * deleted.
+	 *
+	 * @param entry        the path of the entry
+	 * @param hash         the hash of the source
+	 * @param sourceLength the length of the source in bytes
+	 * @param name         the name of the source
+	 * @param shortName    the name of the source in the message of a lexical
+	 *                     error
+	 * @return the result, or null if there is no valid entry
+	 */
+	private CompileResult load(Path entry, long hash, int sourceLength, String name, String shortName) {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(entry);
+		} catch (IOException e) {
+			// Not cached yet, or evicted
+			return null;
+		}
+
+		CompileResult result;
+		try {
+			result = CacheEntry.decode(ByteBuffer.wrap(bytes), STAMP, hash, sourceLength, name, shortName);
+		} catch (IOException e) {
+			delete(entry);
+			return null;
+		}
+
+		try {
+			Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			// Evicted in the meantime, which is no reason to check the source again
+		}
+		return result;
+	}
+
+	/**
+	 * Writes an entry through a temporary file, and evicts entries if the cache
+	 * has grown over its limit. An entry that cannot be written is skipped, as
+	 * the source is checked again next time.
+	 *
+	 * @param entry        the path of the entry
+	 * @param hash         the hash of the source
+	 * @param sourceLength the length of the source in bytes
+	 * @param result       the result of the source
+	 * @param lexMessage   the message of the lexical error without the name of the
+	 *                     source, or null
+	 */
+	private void store(Path entry, long hash, int sourceLength, CompileResult result, String lexMessage) {
+		Path temp = null;
+		try {
+			byte[] bytes = CacheEntry.encode(STAMP, hash, sourceLength, result, lexMessage, withAst);
+			temp = Files.createTempFile(directory, entry.getFileName().toString(), TEMP_SUFFIX);
+			Files.write(temp, bytes);
+			try {
+				Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+			}
+			temp = null;
+
+			if (size.addAndGet(bytes.length) > maxBytes) {
+				evict();
+			}
+		} catch (IOException e) {
+			writeErrors.incrementAndGet();
+		} finally {
+			if (temp != null) {
+				delete(temp);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the least recently used entries until the entries take three
+	 * quarters of the size limit, so that the directory is not listed again
+	 * after every entry written. Temporary files left over are deleted too.
+	 *
+	 * @throws IOException when the directory cannot be listed
+	 */
+	private synchronized void evict() throws IOException {
+		if (size.get() <= maxBytes) {
+			// Evicted by another thread in the meantime
+			return;
+		}
+
+		List<Entry> entries = listEntries(directory);
+		long total = 0;
+		for (Entry entry : entries) {
+			total += entry.size;
+		}
+		Collections.sort(entries, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry a, Entry b) {
+				return Long.compare(a.lastUsed, b.lastUsed);
+			}
+		});
+
+		long target = maxBytes / 4 * 3;
+		for (int i = 0; i < entries.size() && total > target; i++) {
+			if (delete(entries.get(i).path)) {
+				total -= entries.get(i).size;
+			}
+		}
+
+		long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+		DirectoryStream<Path> temps = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX);
+		try {
+			for (Path temp : temps) {
+				if (Files.getLastModifiedTime(temp).toMillis() < staleBefore) {
+					delete(temp);
+				}
+			}
+		} finally {
+			temps.close();
+		}
+		size.set(total);
+	}
+
+	/**
+	 * Lists the entries of a directory.
+	 *
+	 * @param directory the directory
+	 * @return the entries, in no particular order
+	 * @throws IOException when the directory cannot be listed
+	 */
+	private static List<Entry> listEntries(Path directory) throws IOException {
+		List<Entry> entries = new ArrayList<Entry>();
+		DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX);
+		try {
+			for (Path path : paths) {
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+					entries.add(new Entry(path, attributes.size(), attributes.lastModifiedTime().toMillis()));
+				} catch (NoSuchFileException e) {
+					// Evicted by another process in the meantime
+				}
+			}
+		} finally {
+			paths.close();
+		}
+		return entries;
+	}
+
+	/**
+	 * Deletes a file, unless it has been deleted already.
+	 *
+	 * @param path the path of the file
+	 * @return boolean value of whether the file has been deleted by this call
+	 */
+	private static boolean delete(Path path) {
+		try {
+			return Files.deleteIfExists(path);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Computes the version stamp of the compiler from the version of the cache
+	 * and the token file, the token specification, the grammar and the kinds of
+	 * the nodes of the syntax tree.
+	 *
+	 * @return the version stamp
+	 */
+	private static long stamp() {
+		StringBuilder spec = new StringBuilder().append(VERSION).append(' ').append(TokenFile.VERSION).append('\n');
+		for (TokenSpec.Rule rule : TokenSpec.simplifiedC().getRules()) {
+			spec.append(rule.getTokenType()).append(' ').append(rule.getPattern()).append('\n');
+		}
+		for (Symbol symbol : Symbol.values()) {
+			spec.append(symbol).append(' ');
+		}
+		spec.append('\n');
+		for (Rule rule : Rule.values()) {
+			spec.append(rule.ruleNumber).append(' ').append(rule.head).append(" ->");
+			for (Symbol symbol : rule.body) {
+				spec.append(' ').append(symbol);
+			}
+			spec.append('\n');
+		}
+		for (NodeKind kind : NodeKind.values()) {
+			spec.append(kind).append(' ');
+		}
+
+		byte[] bytes = spec.toString().getBytes(StandardCharsets.UTF_8);
+		return ContentHash.hash(bytes, bytes.length, 0);
+	}
+
+	/**
+	 * An entry found in the directory of the cache.
+	 */
+	private static class Entry {
+
+		/**
+		 * Path of the entry.
+		 */
+		final Path path;
+
+		/**
+		 * Size of the entry in bytes.
+		 */
+		final long size;
+
+		/**
+		 * Time the entry was last used, in milliseconds since the epoch.
+		 */
+		final long lastUsed;
+
+		/**
+		 * Creates an entry.
+		 *
+		 * @param path     path of the entry
+		 * @param size     size of the entry in bytes
+		 * @param lastUsed time the entry was last used
+		 */
+		Entry(Path path, long size, long lastUsed) {
+			this.path = path;
+			this.size = size;
+			this.lastUsed = lastUsed;
+		}
+	}
+}
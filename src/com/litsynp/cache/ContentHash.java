@@ -0,0 +1,105 @@
+package com.litsynp.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fast non-cryptographic 64-bit hash of byte arrays, to identify the contents
+ * of source files (xxHash64).
+ * <p>
+ * The input is read eight bytes at a time into four independent lanes, so a
+ * hash takes a fraction of the time that lexing the same bytes does.
+ */
+final class ContentHash {
+
+	private static final long PRIME1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME3 = 0x165667B19E3779F9L;
+	private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+	private ContentHash() {
+	}
+
+	/**
+	 * Hashes the first bytes of an array.
+	 *
+	 * @param data   the bytes
+	 * @param length the number of bytes to hash
+	 * @param seed   the seed, which gives a different hash of the same bytes for
+	 *               each seed
+	 * @return the hash
+	 */
+	static long hash(byte[] data, int length, long seed) {
+		ByteBuffer in = ByteBuffer.wrap(data, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+		long hash;
+		if (length >= 32) {
+			long v1 = seed + PRIME1 + PRIME2;
+			long v2 = seed + PRIME2;
+			long v3 = seed;
+			long v4 = seed - PRIME1;
+			while (in.remaining() >= 32) {
+				v1 = round(v1, in.getLong());
+				v2 = round(v2, in.getLong());
+				v3 = round(v3, in.getLong());
+				v4 = round(v4, in.getLong());
+			}
+			hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12)
+					+ Long.rotateLeft(v4, 18);
+			hash = merge(hash, v1);
+			hash = merge(hash, v2);
+			hash = merge(hash, v3);
+			hash = merge(hash, v4);
+		} else {
+			hash = seed + PRIME5;
+		}
+		hash += length;
+
+		// The last 31 bytes at most
+		while (in.remaining() >= 8) {
+			hash ^= round(0, in.getLong());
+			hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+		}
+		if (in.remaining() >= 4) {
+			hash ^= (in.getInt() & 0xFFFFFFFFL) * PRIME1;
+			hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+		}
+		while (in.hasRemaining()) {
+			hash ^= (in.get() & 0xFF) * PRIME5;
+			hash = Long.rotateLeft(hash, 11) * PRIME1;
+		}
+
+		// Mix the bits, so that every input bit affects every output bit
+		hash ^= hash >>> 33;
+		hash *= PRIME2;
+		hash ^= hash >>> 29;
+		hash *= PRIME3;
+		hash ^= hash >>> 32;
+		return hash;
+	}
+
+	/**
+	 * Mixes eight bytes of input into a lane.
+	 *
+	 * @param lane  the lane
+	 * @param input the input
+	 * @return the new lane
+	 */
+	private static long round(long lane, long input) {
+		lane += input * PRIME2;
+		lane = Long.rotateLeft(lane, 31);
+		return lane * PRIME1;
+	}
+
+	/**
+	 * Mixes a lane into the hash.
+	 *
+	 * @param hash the hash
+	 * @param lane the lane
+	 * @return the new hash
+	 */
+	private static long merge(long hash, long lane) {
+		hash ^= round(0, lane);
+		return hash * PRIME1 + PRIME4;
+	}
+}
@@ -0,0 +1,160 @@
+package com.litsynp.lexer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.source.SourceInput;
+import com.litsynp.lexer.token.NameTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.Token;
+import com.litsynp.lexer.token.TokenStream;
+
+/**
+ * Incremental lexical analyzer that hands out tokens one at a time.
+ * <p>
+ * Unlike {@link LexicalAnalyzer#lex(File)}, the whole input is never tokenized
+ * up front. The lexer keeps only the current source buffer and the tokens of
+ * the current line, and scans the next line when they run out, so a consumer
+ * such as the parser can pull tokens on demand while the input is still being
+ * read. Symbol ids stay the same across lines.
+ */
+public class Lexer implements Closeable {
+
+	/**
+	 * The input to read source buffers from.
+	 */
+	private final SourceInput input;
+
+	/**
+	 * Scanner that scans the current line.
+	 */
+	private final LineScanner lines = new LineScanner();
+
+	/**
+	 * The current source buffer, or null if the next one has to be read.
+	 */
+	private SourceBuffer source = null;
+
+	/**
+	 * Position of the next line in the current source buffer.
+	 */
+	private int pos = 0;
+
+	/**
+	 * Index of the next token in the current line.
+	 */
+	private int next = 0;
+
+	/**
+	 * Creates a new lexer that reads an input file.
+	 *
+	 * @param inputFile the input file
+	 * @throws IOException when the input file cannot be opened
+	 */
+	public Lexer(File inputFile) throws IOException {
+		this(SourceInput.open(inputFile));
+	}
+
+	/**
+	 * Creates a new lexer that reads a source input.
+	 *
+	 * @param input the source input
+	 */
+	public Lexer(SourceInput input) {
+		this.input = input;
+	}
+
+	/**
+	 * Returns whether there is another token, scanning ahead as many lines as
+	 * necessary.
+	 *
+	 * @return boolean value of whether there is another token
+	 * @throws IOException        when the input cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	public boolean hasNext() throws IOException, NullTokenException {
+		while (next >= lines.getTokens().size()) {
+			if (source == null || pos >= source.length()) {
+				source = input.next();
+				pos = 0;
+				if (source == null) {
+					return false;
+				}
+			}
+
+			next = 0;
+			pos = lines.scanLine(source, pos);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the next token.
+	 *
+	 * @return the next token, or null at the end of the input
+	 * @throws IOException        when the input cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	public Token nextToken() throws IOException, NullTokenException {
+		if (!hasNext()) {
+			return null;
+		}
+		return lines.getTokens().getToken(next++);
+	}
+
+	/**
+	 * Adds the next token at the end of a token stream, without creating a token
+	 * object.
+	 *
+	 * @param tokens the token stream, which must share the names of the lexer
+	 * @return boolean value of whether there was another token
+	 * @throws IOException        when the input cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 * @see #getNames()
+	 */
+	public boolean nextToken(TokenStream tokens) throws IOException, NullTokenException {
+		if (!hasNext()) {
+			return false;
+		}
+		tokens.add(lines.getTokens(), next++);
+		return true;
+	}
+
+	/**
+	 * Returns the names of the identifiers and literal strings, whose symbol ids
+	 * stay the same for the whole input.
+	 *
+	 * @return the name table
+	 */
+	public NameTable getNames() {
+		return lines.getNames();
+	}
+
+	/**
+	 * Returns the number of lines scanned so far.
+	 *
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return lines.getLineCount();
+	}
+
+	/**
+	 * Returns the position of the character being scanned in the current line.
+	 *
+	 * @return the position of the current character
+	 */
+	public int getCharCount() {
+		return lines.getCharCount();
+	}
+
+	/**
+	 * Closes the input.
+	 */
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+}
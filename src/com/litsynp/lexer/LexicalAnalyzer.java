@@ -1,18 +1,18 @@
 package com.litsynp.lexer;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.util.concurrent.ForkJoinPool;
 
-import com.litsynp.lexer.state.State;
+import com.litsynp.lexer.generator.LexerGenerator;
+import com.litsynp.lexer.generator.TokenSpec;
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.source.SourceInput;
+import com.litsynp.lexer.state.TransitionTable;
 import com.litsynp.lexer.token.NullTokenException;
 import com.litsynp.lexer.token.SymbolTable;
-import com.litsynp.lexer.token.Token;
-import com.litsynp.lexer.token.TokenType;
+import com.litsynp.lexer.token.TokenFileWriter;
+import com.litsynp.lexer.token.TokenStream;
 
 /**
  * Lexical analyzer that lexically analyzes an input file and creates a symbol
@@ -20,128 +20,159 @@ import com.litsynp.lexer.token.TokenType;
  */
 public class LexicalAnalyzer {
 
+	/**
+	 * Transition table of the DFA, generated once from the token specification
+	 */
+	static final TransitionTable table = LexerGenerator.generate(TokenSpec.simplifiedC());
+
+	static {
+		assert table.findMismatch(TransitionTable.fromStates()) == null : "Generated transition table differs from "
+				+ "the DFA at " + table.findMismatch(TransitionTable.fromStates());
+	}
+
 	/**
 	 * Lexically analyzes an input file line by line and character by character to
 	 * tokenize it into a symbol table.
+	 * <p>
+	 * A regular file is memory-mapped, and anything else (e.g. a pipe) is read
+	 * in large chunks. Either way, no string is created per line, and tokens only
+	 * refer to the span of their text in the mapped file or chunk.
+	 * 
+	 * @param inputFile the input file to read
+	 * @throws IOException        when the input file cannot be read, or the .tok
+	 *                            file cannot be written
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	public static void lex(File inputFile) throws IOException, NullTokenException {
+		lex(inputFile, false);
+	}
+
+	/**
+	 * Lexically analyzes an input file to tokenize it into a symbol table,
+	 * optionally splitting it into chunks of lines that are scanned in parallel.
 	 * 
 	 * @param inputFile the input file to read
+	 * @param parallel  whether to scan the chunks in parallel on the common
+	 *                  fork-join pool
+	 * @throws IOException        when the input file cannot be read, or the .tok
+	 *                            file cannot be written
+	 * @throws NullTokenException when the input does not belong to any token type,
+	 *                            with the position and the file name in its message
 	 */
-	public static void lex(File inputFile) {
+	public static void lex(File inputFile, boolean parallel) throws IOException, NullTokenException {
 
 		// Symbol Table
 		SymbolTable symtab = new SymbolTable();
-		int lineCount = 0;
-		int charCount = 0;
-
-		BufferedReader reader = null;
-		try {
-			// Create input stream
-			reader = new BufferedReader(new FileReader(inputFile));
-
-			// String of the one whole line
-			String line;
-
-			// Read the input file line by line
-			while ((line = reader.readLine()) != null) {
-				// Initialize variables for reading the line
-				State currentState = State.START;
-				String workingString = "";
-				char ch = 0;
-
-				// Read character by character in the line and transition the state
-				for (charCount = 0; charCount < line.length() + 1; charCount++) {
-
-					// Check if it is the last character
-					ch = (charCount == line.length()) ? ' ' : line.charAt(charCount);
-
-					// Transition
-					currentState = currentState.transition(ch);
-
-					// If accepted
-					if (currentState.isAccepted()) {
-						symtab.put(new Token(currentState.getTokenType(), workingString, lineCount));
-
-						currentState = State.START;
-						workingString = Character.toString(ch);
-						currentState = currentState.transition(ch);
-					} else {
-						// If not yet accepted
-						workingString += ch;
-					}
-				}
-
-				// Check if the token still has not been made at the end
-				if (workingString.length() > 0 && !workingString.equals(" ")
-						&& (currentState.getTokenType() == TokenType.NOT_YET_A_TOKEN
-								|| currentState.getTokenType() == TokenType.NOT_ACCEPTED)) {
-					throw new NullTokenException("Input \"" + workingString + "\" not accepted");
-				}
-
-				// Prepare for next line
-				lineCount = lineCount + 1;
-			}
-		} catch (FileNotFoundException e) {
-			System.out.println(e);
-			System.exit(1);
-		} catch (IOException e) {
-			System.out.println(e);
-			System.exit(1);
-		} catch (NullTokenException e) {
-			System.out.println(
-					e + " at character " + charCount + " in line " + (lineCount + 1) + " in " + inputFile.getName());
-			System.exit(1);
-		} finally {
-			// Close the reader
-			if (reader != null) {
-				try {
-					reader.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-		}
+		SourceScanner scanner = new SourceScanner(table, symtab);
+		scan(inputFile, parallel, scanner);
+		int lineCount = scanner.getLineCount();
 
 		System.out.println("\nRead " + lineCount + " line(s) from the file \"" + inputFile.getPath() + "\".");
 
 		// Print information in symbol table
 		symtab.printTable();
 
-		// Export the instance information of the token list in the symbol table as .ser
-		// file to read it in the parser
-		try {
-			String inputFilePath = inputFile.getPath();
-			int pos = inputFilePath.lastIndexOf(".");
-			if (pos > 0 && pos < (inputFilePath.length() - 1)) { // If '.' is not the first or last character.
-				inputFilePath = inputFilePath.substring(0, pos);
-			}
+		// Export the tokens in the symbol table as .tok file to read it in the parser
+		String inputFilePath = inputFile.getPath();
+		int pos = inputFilePath.lastIndexOf(".");
+		if (pos > 0 && pos < (inputFilePath.length() - 1)) { // If '.' is not the first or last character.
+			inputFilePath = inputFilePath.substring(0, pos);
+		}
 
-			File outputFile = new File(inputFilePath + ".ser");
+		File outputFile = new File(inputFilePath + ".tok");
 
-			// Write ArrayList<Token> class information as .ser file
-			writeInstanceToFile(outputFile, symtab.getTokens());
+		// Write the token stream as .tok file
+		TokenFileWriter.write(outputFile, symtab.getTokenStream(), true);
 
-			System.out.println("Output file is generated as \"" + outputFile.getPath() + "\".");
-		} catch (FileNotFoundException e) {
-			System.out.println(e);
-			System.exit(1);
-		} catch (IOException e) {
-			System.out.println(e);
-			System.exit(1);
+		System.out.println("Output file is generated as \"" + outputFile.getPath() + "\".");
+	}
+
+	/**
+	 * Lexically analyzes a source buffer in memory, such as a part of a file that
+	 * is being edited. The line numbers of the tokens start from 0 at the first
+	 * line of the source buffer.
+	 * 
+	 * @param source   the source buffer, which must not end in the middle of a line
+	 *                 unless it is the end of the input
+	 * @param lineBase the number of lines before the source buffer, to report an
+	 *                 error at the right line
+	 * @return the tokens of the source buffer
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	public static TokenStream lex(SourceBuffer source, int lineBase) throws NullTokenException {
+		SymbolTable symtab = new SymbolTable();
+		SourceScanner scanner = new SourceScanner(table, symtab);
+
+		try {
+			scanner.scan(source);
+		} catch (NullTokenException e) {
+			throw new NullTokenException(e.getMessage() + " at character " + scanner.getCharCount() + " in line "
+					+ (lineBase + scanner.getLineCount() + 1));
+		}
+		return symtab.getTokenStream();
+	}
+
+	/**
+	 * Lexically analyzes an input file into tokens in memory, without printing or
+	 * writing anything, optionally splitting it into chunks of lines that are
+	 * scanned in parallel.
+	 * 
+	 * @param inputFile the input file to read
+	 * @param parallel  whether to scan the chunks in parallel on the common
+	 *                  fork-join pool
+	 * @return the tokens of the input file
+	 * @throws IOException        when the input file cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	public static TokenStream tokenize(File inputFile, boolean parallel) throws IOException, NullTokenException {
+		SymbolTable symtab = new SymbolTable();
+		scan(inputFile, parallel, new SourceScanner(table, symtab));
+		return symtab.getTokenStream();
+	}
+
+	/**
+	 * Scans an input file, optionally in parallel chunks of lines.
+	 * 
+	 * @param inputFile the input file to read
+	 * @param parallel  whether to scan the chunks in parallel on the common
+	 *                  fork-join pool
+	 * @param scanner   the scanner to scan the input file with
+	 * @throws IOException        when the input file cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type,
+	 *                            with the position and the file name in its message
+	 */
+	private static void scan(File inputFile, boolean parallel, SourceScanner scanner)
+			throws IOException, NullTokenException {
+		try {
+			if (parallel) {
+				new ParallelLexer(table, ForkJoinPool.commonPool()).scanFile(inputFile, scanner);
+			} else {
+				scanFile(inputFile, scanner);
+			}
+		} catch (NullTokenException e) {
+			throw new NullTokenException(e.getMessage() + " at character " + scanner.getCharCount() + " in line "
+					+ (scanner.getLineCount() + 1) + " in " + inputFile.getName());
 		}
 	}
 
-	/***
-	 * Saves class instance information as a file
+	/**
+	 * Scans all source buffers of an input file.
 	 * 
-	 * @param file the file to save the instance information
-	 * @param obj  the object to save information
-	 * @throws IOException
-	 * @throws FileNotFoundException
+	 * @param inputFile the input file to read
+	 * @param scanner   the scanner to scan the source buffers with
+	 * @throws IOException        when the input file cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
 	 */
-	public static void writeInstanceToFile(File file, Object obj) throws FileNotFoundException, IOException {
-		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
-		out.writeObject(obj);
-		out.flush();
-		out.close();
+	private static void scanFile(File inputFile, SourceScanner scanner) throws IOException, NullTokenException {
+		SourceInput input = SourceInput.open(inputFile);
+		try {
+			SourceBuffer source;
+			while ((source = input.next()) != null) {
+				scanner.scan(source);
+			}
+		} finally {
+			// Close the input
+			input.close();
+		}
 	}
 }
@@ -0,0 +1,77 @@
+package com.litsynp.lexer;
+
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.token.NameTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.SymbolTable;
+import com.litsynp.lexer.token.TokenStream;
+
+/**
+ * Scanner that lexically analyzes source buffers one line at a time, for a
+ * consumer that takes the tokens of each line as soon as it has been scanned.
+ * <p>
+ * The line numbers and the symbol ids of the tokens continue across lines and
+ * source buffers, as if all of them were one input.
+ */
+public final class LineScanner {
+
+	/**
+	 * Symbol table that holds the tokens of the current line.
+	 */
+	private final SymbolTable lineTokens = new SymbolTable();
+
+	/**
+	 * Scanner that scans a line into the symbol table.
+	 */
+	private final SourceScanner scanner = new SourceScanner(LexicalAnalyzer.table, lineTokens);
+
+	/**
+	 * Scans a line, replacing the tokens of the previous line.
+	 *
+	 * @param source the source buffer
+	 * @param pos    the position where the line begins
+	 * @return the position where the next line begins
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	public int scanLine(SourceBuffer source, int pos) throws NullTokenException {
+		lineTokens.clear();
+		return scanner.scanLine(source, pos, source.length());
+	}
+
+	/**
+	 * Returns the tokens of the line that has been scanned last.
+	 *
+	 * @return the tokens, whose names are those of {@link #getNames()}
+	 */
+	public TokenStream getTokens() {
+		return lineTokens.getTokenStream();
+	}
+
+	/**
+	 * Returns the names of the identifiers and literal strings, whose symbol ids
+	 * stay the same for all lines.
+	 *
+	 * @return the name table
+	 */
+	public NameTable getNames() {
+		return lineTokens.getTokenStream().getNames();
+	}
+
+	/**
+	 * Returns the number of lines scanned so far.
+	 *
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return scanner.getLineCount();
+	}
+
+	/**
+	 * Returns the position of the character being scanned in the current line.
+	 *
+	 * @return the position of the current character
+	 */
+	public int getCharCount() {
+		return scanner.getCharCount();
+	}
+}
@@ -1,6 +1,9 @@
 package com.litsynp.lexer;
 
 import java.io.File;
+import java.io.IOException;
+
+import com.litsynp.lexer.token.NullTokenException;
 
 /**
  * Main class of the compiler program.
@@ -10,23 +13,40 @@ public class Main {
     /**
      * Main method of the compiler program.
      * 
-     * @param args args[1] contains the input file path (default: "files/a.c")
+     * @param args the input file path (default: "files/a.c"), optionally preceded
+     *             by "--parallel" to lex the file in parallel chunks
      */
     public static void main(String[] args) {
         
         // Input file name
         String fileName = null;
+        boolean parallel = false;
+
+        // Read options
+        int argIndex = 0;
+        if (argIndex < args.length && args[argIndex].equals("--parallel")) {
+            parallel = true;
+            argIndex++;
+        }
 
         // Read argument for input file name
-        if (args.length > 0) {
-            fileName = args[0];
+        if (argIndex < args.length) {
+            fileName = args[argIndex];
         } else {
             // Default input file name
             fileName = "files" + File.separator + "a.c";
         }
 
         // Lexically analyze the input file
-        LexicalAnalyzer.lex(new File(fileName));
+        try {
+            LexicalAnalyzer.lex(new File(fileName), parallel);
+        } catch (IOException e) {
+            System.out.println(e);
+            System.exit(1);
+        } catch (NullTokenException e) {
+            System.out.println(e);
+            System.exit(1);
+        }
     }
 
 }
@@ -0,0 +1,159 @@
+package com.litsynp.lexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.source.SourceInput;
+import com.litsynp.lexer.state.TransitionTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.SymbolTable;
+
+/**
+ * Lexer that splits a file into chunks of whole lines and lexically analyzes
+ * the chunks in parallel.
+ * <p>
+ * Every line is scanned from the start state, so a chunk that begins on a line
+ * boundary can be scanned on its own. Each chunk is scanned into a symbol table
+ * of its own on a {@link ForkJoinPool}, and the symbol tables are then appended
+ * in order, shifting their line numbers by the number of lines before them.
+ */
+class ParallelLexer {
+
+	/**
+	 * Approximate number of bytes in a chunk.
+	 */
+	static final int CHUNK_SIZE = 1 << 22;
+
+	/**
+	 * Transition table of the DFA.
+	 */
+	private final TransitionTable table;
+
+	/**
+	 * Pool to scan the chunks on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a new parallel lexer.
+	 *
+	 * @param table transition table of the DFA
+	 * @param pool  pool to scan the chunks on
+	 */
+	ParallelLexer(TransitionTable table, ForkJoinPool pool) {
+		this.table = table;
+		this.pool = pool;
+	}
+
+	/**
+	 * Scans an input file chunk by chunk in parallel, and appends the results to a
+	 * scanner in order.
+	 * <p>
+	 * When a chunk fails, the chunks before it are still appended, and the
+	 * scanner is moved to the failing position, so the error is reported at the
+	 * same line and character as if it had scanned the whole file by itself.
+	 *
+	 * @param inputFile the input file to read
+	 * @param scanner   the scanner to append the results to
+	 * @throws IOException        when the input file cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	void scanFile(File inputFile, SourceScanner scanner) throws IOException, NullTokenException {
+		SourceInput input = SourceInput.open(inputFile);
+		try {
+			SourceBuffer source;
+			while ((source = input.next()) != null) {
+				scan(source, scanner);
+			}
+		} finally {
+			// Close the input
+			input.close();
+		}
+	}
+
+	/**
+	 * Scans a source buffer chunk by chunk in parallel, and appends the results to
+	 * a scanner in order.
+	 *
+	 * @param source  the source buffer
+	 * @param scanner the scanner to append the results to
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	void scan(SourceBuffer source, SourceScanner scanner) throws NullTokenException {
+		List<ForkJoinTask<NullTokenException>> tasks = new ArrayList<ForkJoinTask<NullTokenException>>();
+		List<SourceScanner> chunkScanners = new ArrayList<SourceScanner>();
+
+		// Split the source buffer at line boundaries and scan each chunk
+		int length = source.length();
+		for (int start = 0; start < length;) {
+			int end = (length - start <= CHUNK_SIZE) ? length : source.nextLineStart(start + CHUNK_SIZE);
+
+			SourceScanner chunkScanner = new SourceScanner(table, new SymbolTable());
+			chunkScanners.add(chunkScanner);
+			tasks.add(pool.submit(new ChunkTask(chunkScanner, source.slice(start, end - start))));
+
+			start = end;
+		}
+
+		// Stitch the results in order
+		for (int i = 0; i < tasks.size(); i++) {
+			NullTokenException error = tasks.get(i).join();
+			if (error != null) {
+				for (int j = i + 1; j < tasks.size(); j++) {
+					tasks.get(j).cancel(false);
+				}
+				scanner.failAt(chunkScanners.get(i));
+				throw error;
+			}
+			scanner.append(chunkScanners.get(i));
+		}
+	}
+
+	/**
+	 * Task that scans a single chunk.
+	 */
+	private static class ChunkTask implements Callable<NullTokenException> {
+
+		/**
+		 * Scanner of the chunk.
+		 */
+		private final SourceScanner scanner;
+
+		/**
+		 * The chunk.
+		 */
+		private final SourceBuffer chunk;
+
+		/**
+		 * Creates a new task.
+		 *
+		 * @param scanner scanner of the chunk
+		 * @param chunk   the chunk
+		 */
+		ChunkTask(SourceScanner scanner, SourceBuffer chunk) {
+			this.scanner = scanner;
+			this.chunk = chunk;
+		}
+
+		/**
+		 * Scans the chunk.
+		 *
+		 * @return the error of the chunk, or null if it has been scanned
+		 */
+		@Override
+		public NullTokenException call() {
+			try {
+				scanner.scan(chunk);
+				return null;
+			} catch (NullTokenException e) {
+				return e;
+			}
+		}
+	}
+}
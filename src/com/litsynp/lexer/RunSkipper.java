@@ -0,0 +1,209 @@
+package com.litsynp.lexer;
+
+import java.util.Arrays;
+
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.state.TransitionTable;
+import com.litsynp.lexer.token.TokenType;
+
+/**
+ * Fast path of the scanner that skips a run of characters over which the DFA
+ * stays in the same state, such as the body of an identifier or a literal
+ * string, or a run of blanks.
+ * <p>
+ * The runs are found in the transition table itself. A state has a run on the
+ * ASCII characters that move it to itself, or on those that end a whitespace
+ * token and start the next one in the same state, since whitespace tokens are
+ * dropped by the symbol table anyway. Line breaks never belong to a run.
+ * <p>
+ * A run is checked 8 bytes at a time with SWAR (SIMD within a register): the
+ * characters of a run are described by a few byte ranges, and every byte of a
+ * <code>long</code> is tested against all ranges with a handful of additions
+ * and masks.
+ */
+class RunSkipper {
+
+	/**
+	 * Maximum number of byte ranges of a run that is checked with SWAR.
+	 */
+	private static final int MAX_RANGES = 6;
+
+	/**
+	 * A byte of value 0x01 in every lane of a long.
+	 */
+	private static final long ONES = 0x0101010101010101L;
+
+	/**
+	 * The high bit of every byte lane of a long.
+	 */
+	private static final long HIGHS = 0x8080808080808080L;
+
+	/**
+	 * Characters of the run of each state, indexed by [state][ASCII character],
+	 * or null if the state has no run.
+	 */
+	private final boolean[][] runs;
+
+	/**
+	 * Whether the run of each state is made of whitespace tokens.
+	 */
+	private final boolean[] whitespaceRuns;
+
+	/**
+	 * Numbers to add to each byte lane to test it against the lower and upper
+	 * bound of every range of the run of each state, or null if the run is
+	 * checked a byte at a time.
+	 */
+	private final long[][] lowerAdds, upperAdds;
+
+	/**
+	 * Creates a new run skipper for a transition table.
+	 *
+	 * @param table the transition table
+	 */
+	RunSkipper(TransitionTable table) {
+		int stateCount = table.getStateCount();
+		int startState = table.getStartState();
+		runs = new boolean[stateCount][];
+		whitespaceRuns = new boolean[stateCount];
+		lowerAdds = new long[stateCount][];
+		upperAdds = new long[stateCount][];
+
+		for (int s = 0; s < stateCount; s++) {
+			if (table.isAccepted(s)) {
+				continue;
+			}
+
+			boolean[] run = new boolean[TransitionTable.ASCII_SIZE];
+			boolean hasLoop = false;
+			boolean hasWhitespace = false;
+			for (char ch = 0; ch < TransitionTable.ASCII_SIZE; ch++) {
+				if (ch == '\n' || ch == '\r') {
+					continue;
+				}
+
+				int next = table.next(s, ch);
+				if (next == s) {
+					run[ch] = true;
+					hasLoop = true;
+				} else if (table.getTokenType(next) == TokenType.WHITESPACE && table.next(startState, ch) == s) {
+					run[ch] = true;
+					hasWhitespace = true;
+				}
+			}
+
+			// A run either continues a single token or is made of whitespace tokens
+			if (hasLoop == hasWhitespace) {
+				continue;
+			}
+
+			runs[s] = run;
+			whitespaceRuns[s] = hasWhitespace;
+			setRanges(s, run);
+		}
+	}
+
+	/**
+	 * Finds the byte ranges of a run, and prepares them for SWAR if there are
+	 * few enough.
+	 *
+	 * @param state the state
+	 * @param run   characters of the run
+	 */
+	private void setRanges(int state, boolean[] run) {
+		long[] lower = new long[MAX_RANGES];
+		long[] upper = new long[MAX_RANGES];
+		int count = 0;
+
+		for (int ch = 0; ch < run.length; ch++) {
+			if (!run[ch] || (ch > 0 && run[ch - 1])) {
+				continue;
+			}
+			int last = ch;
+			while (last + 1 < run.length && run[last + 1]) {
+				last++;
+			}
+			if (count == MAX_RANGES) {
+				return;
+			}
+
+			// The high bit of a lane becomes set by the addition when the byte
+			// is at least the lower bound, and when it is above the upper bound
+			lower[count] = (0x80 - ch) * ONES;
+			upper[count] = (0x7F - last) * ONES;
+			count++;
+		}
+
+		lowerAdds[state] = Arrays.copyOf(lower, count);
+		upperAdds[state] = Arrays.copyOf(upper, count);
+	}
+
+	/**
+	 * Returns whether a state has a run.
+	 *
+	 * @param state the state
+	 * @return boolean value of whether the state has a run
+	 */
+	boolean hasRun(int state) {
+		return runs[state] != null;
+	}
+
+	/**
+	 * Returns whether the run of a state is made of whitespace tokens, in which
+	 * case the current token starts at the last character of the run.
+	 *
+	 * @param state the state
+	 * @return boolean value of whether the run is made of whitespace tokens
+	 */
+	boolean isWhitespaceRun(int state) {
+		return whitespaceRuns[state];
+	}
+
+	/**
+	 * Skips the run of a state.
+	 *
+	 * @param state  the state, which must have a run
+	 * @param source the source buffer
+	 * @param pos    the position to start from
+	 * @param length the length of the source buffer
+	 * @return the position of the first character that is not in the run
+	 */
+	int skip(int state, SourceBuffer source, int pos, int length) {
+		boolean[] run = runs[state];
+		long[] lower = lowerAdds[state];
+		long[] upper = upperAdds[state];
+
+		// Most runs are short, so check the first character on its own
+		if (pos >= length || source.byteAt(pos) < 0 || !run[source.byteAt(pos)]) {
+			return pos;
+		}
+		pos++;
+
+		if (lower != null) {
+			while (pos + 8 <= length) {
+				long word = source.longAt(pos);
+				long inRun = 0;
+				for (int r = 0; r < lower.length; r++) {
+					inRun |= (word + lower[r]) & ~(word + upper[r]);
+				}
+
+				// A non-ASCII byte is never in a run, and only the lanes after it can
+				// be disturbed by a carry out of it
+				inRun &= ~word & HIGHS;
+				if (inRun != HIGHS) {
+					return pos + (Long.numberOfTrailingZeros(~inRun & HIGHS) >>> 3);
+				}
+				pos += 8;
+			}
+		}
+
+		while (pos < length) {
+			byte b = source.byteAt(pos);
+			if (b < 0 || !run[b]) {
+				break;
+			}
+			pos++;
+		}
+		return pos;
+	}
+}
@@ -0,0 +1,242 @@
+package com.litsynp.lexer;
+
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.state.TransitionTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.SymbolTable;
+
+/**
+ * Scanner that runs the DFA over source buffers and puts the recognized tokens
+ * into a symbol table.
+ * <p>
+ * The scanner reads the bytes of a source buffer directly and tracks line
+ * numbers itself, so no string is ever created for a line. Every line is
+ * scanned from the start state and ends with an extra blank, exactly as if it
+ * had been read with {@link java.io.BufferedReader#readLine()}.
+ */
+class SourceScanner {
+
+	/**
+	 * Replacement character for malformed UTF-8 input.
+	 */
+	private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+	/**
+	 * Transition table of the DFA.
+	 */
+	private final TransitionTable table;
+
+	/**
+	 * Symbol table that receives the tokens.
+	 */
+	private final SymbolTable symtab;
+
+	/**
+	 * Fast path that skips runs of characters that leave the state as it is.
+	 */
+	private final RunSkipper skipper;
+
+	/**
+	 * Number of lines scanned so far, which is also the line number of the
+	 * current line.
+	 */
+	private int lineCount = 0;
+
+	/**
+	 * Position of the current character in the current line.
+	 */
+	private int charCount = 0;
+
+	/**
+	 * Creates a new scanner.
+	 *
+	 * @param table  transition table of the DFA
+	 * @param symtab symbol table that receives the tokens
+	 */
+	SourceScanner(TransitionTable table, SymbolTable symtab) {
+		this.table = table;
+		this.symtab = symtab;
+		this.skipper = new RunSkipper(table);
+	}
+
+	/**
+	 * Scans all lines of a source buffer.
+	 *
+	 * @param source the source buffer, which must not end in the middle of a line
+	 *               unless it is the last one
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	void scan(SourceBuffer source) throws NullTokenException {
+		int length = source.length();
+		int pos = 0;
+
+		while (pos < length) {
+			pos = scanLine(source, pos, length);
+		}
+	}
+
+	/**
+	 * Scans a single line, character by character, transitioning the state.
+	 * <p>
+	 * The minus-merging rule of the symbol table never looks beyond the line, so
+	 * the tokens of a line are final once the line has been scanned.
+	 *
+	 * @param source the source buffer
+	 * @param pos    the position where the line begins
+	 * @param length the length of the source buffer
+	 * @return the position where the next line begins
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	int scanLine(SourceBuffer source, int pos, int length) throws NullTokenException {
+		int startState = table.getStartState();
+		int currentState = startState;
+		int tokenStart = pos;
+		int nextLine;
+
+		for (charCount = 0;; charCount++) {
+			// Skip a run of characters that leave the state as it is
+			if (skipper.hasRun(currentState)) {
+				int runEnd = skipper.skip(currentState, source, pos, length);
+				if (runEnd > pos) {
+					if (skipper.isWhitespaceRun(currentState)) {
+						tokenStart = runEnd - 1;
+					}
+					charCount += runEnd - pos;
+					pos = runEnd;
+				}
+			}
+
+			char ch;
+			int width = 1;
+			byte b = (pos < length) ? source.byteAt(pos) : (byte) '\n';
+
+			if (b == '\n' || b == '\r') {
+				// Treat the end of the line as a blank
+				ch = ' ';
+				nextLine = pos + 1;
+				if (b == '\r' && nextLine < length && source.byteAt(nextLine) == '\n') {
+					nextLine++;
+				}
+			} else if (b >= 0) {
+				ch = (char) b;
+				nextLine = -1;
+			} else {
+				int decoded = decode(source, pos, length);
+				ch = (char) decoded;
+				width = decoded >>> 16;
+				nextLine = -1;
+			}
+
+			// Transition
+			currentState = table.next(currentState, ch);
+
+			// If accepted
+			if (table.isAccepted(currentState)) {
+				symtab.put(table.getTokenType(currentState), source, tokenStart, pos - tokenStart, lineCount);
+
+				tokenStart = pos;
+				currentState = table.next(startState, ch);
+			}
+
+			if (nextLine >= 0) {
+				break;
+			}
+			pos += width;
+		}
+
+		// Check if the token still has not been made at the end
+		if (tokenStart < pos) {
+			charCount++;
+			throw new NullTokenException("Input \"" + source.getString(tokenStart, pos - tokenStart) + " \" not accepted");
+		}
+
+		// Prepare for next line
+		lineCount = lineCount + 1;
+		return nextLine;
+	}
+
+	/**
+	 * Appends the tokens and lines of a scanner that scanned the lines following
+	 * the lines of this scanner.
+	 *
+	 * @param next the scanner of the following lines
+	 */
+	void append(SourceScanner next) {
+		symtab.putAll(next.symtab, lineCount);
+		lineCount += next.lineCount;
+	}
+
+	/**
+	 * Moves the position of this scanner to where a scanner of the following
+	 * lines failed, so that the error is reported at the right line.
+	 *
+	 * @param next the scanner of the following lines that failed
+	 */
+	void failAt(SourceScanner next) {
+		lineCount += next.lineCount;
+		charCount = next.charCount;
+	}
+
+	/**
+	 * Decodes a multi-byte UTF-8 sequence.
+	 * <p>
+	 * A code point outside the basic multilingual plane is decoded to its high
+	 * surrogate, which the DFA never accepts as a letter or a digit anyway.
+	 *
+	 * @param source the source buffer
+	 * @param pos    the position of the first byte of the sequence
+	 * @param length the length of the source buffer
+	 * @return the decoded character in the lower 16 bits and the number of bytes
+	 *         of the sequence in the upper 16 bits
+	 */
+	private static int decode(SourceBuffer source, int pos, int length) {
+		int b = source.byteAt(pos) & 0xFF;
+		int width;
+		int codePoint;
+
+		if (b >= 0xF0) {
+			width = 4;
+			codePoint = b & 0x07;
+		} else if (b >= 0xE0) {
+			width = 3;
+			codePoint = b & 0x0F;
+		} else if (b >= 0xC0) {
+			width = 2;
+			codePoint = b & 0x1F;
+		} else {
+			return (1 << 16) | REPLACEMENT_CHAR;
+		}
+
+		if (pos + width > length) {
+			return (1 << 16) | REPLACEMENT_CHAR;
+		}
+		for (int i = 1; i < width; i++) {
+			int next = source.byteAt(pos + i) & 0xFF;
+			if ((next & 0xC0) != 0x80) {
+				return (1 << 16) | REPLACEMENT_CHAR;
+			}
+			codePoint = (codePoint << 6) | (next & 0x3F);
+		}
+
+		char ch = (codePoint > Character.MAX_VALUE) ? Character.highSurrogate(codePoint) : (char) codePoint;
+		return (width << 16) | ch;
+	}
+
+	/**
+	 * Returns the number of lines scanned so far.
+	 *
+	 * @return the number of lines
+	 */
+	int getLineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * Returns the position of the character being scanned in the current line.
+	 *
+	 * @return the position of the current character
+	 */
+	int getCharCount() {
+		return charCount;
+	}
+}
@@ -0,0 +1,37 @@
+package com.litsynp.lexer;
+
+import com.litsynp.lexer.state.TransitionTable;
+
+/**
+ * Check that the transition table the lexer runs on is equivalent to the
+ * hand-written DFA in {@link com.litsynp.lexer.state.State}, which it has
+ * replaced.
+ * <p>
+ * It compares the table built from the states with their transitions for
+ * every state and character, and then the table generated from the token
+ * specification with the table built from the states.
+ */
+public class TableCheck {
+
+	/**
+	 * Main method of the check. The exit status is 0 if the tables are
+	 * equivalent, and 1 otherwise.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		TransitionTable reference = TransitionTable.fromStates();
+		String mismatch = reference.findMismatch();
+		if (mismatch != null) {
+			System.out.println("The table built from the states differs from the DFA at " + mismatch);
+			System.exit(1);
+		}
+
+		mismatch = LexicalAnalyzer.table.findMismatch(reference);
+		if (mismatch != null) {
+			System.out.println("The generated table differs from the DFA at " + mismatch);
+			System.exit(1);
+		}
+		System.out.println("The transition table of the lexer is equivalent to the DFA.");
+	}
+}
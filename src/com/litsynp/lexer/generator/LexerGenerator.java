@@ -0,0 +1,365 @@
+package com.litsynp.lexer.generator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.litsynp.lexer.state.TransitionTable;
+import com.litsynp.lexer.token.TokenType;
+
+/**
+ * Generator of the transition table of the lexer from a {@link TokenSpec}.
+ * <p>
+ * The rules of the specification are compiled into an NFA, which is turned
+ * into a DFA by subset construction and minimized by Hopcroft's algorithm. The
+ * minimized DFA is then emitted in the form the scanner expects: a token ends
+ * when its DFA has no move on the next character, so every missing move leads
+ * to a final state of the token type of the state it leaves, or to the
+ * NOT_ACCEPTED state if that state does not accept. Final states are never
+ * continued from, because the scanner starts a new token from the start state.
+ */
+public final class LexerGenerator {
+
+	/**
+	 * Marks an absent state.
+	 */
+	private static final int NONE = -1;
+
+	private LexerGenerator() {
+	}
+
+	/**
+	 * Generates the transition table of a token specification.
+	 *
+	 * @param spec the token specification
+	 * @return the transition table of the minimized DFA
+	 * @throws IllegalArgumentException when a regular expression of the
+	 *                                  specification is malformed
+	 */
+	public static TransitionTable generate(TokenSpec spec) {
+		List<TokenSpec.Rule> rules = spec.getRules();
+		Nfa nfa = new Nfa();
+		for (int i = 0; i < rules.size(); i++) {
+			nfa.addRule(rules.get(i).getPattern(), i);
+		}
+
+		// Input symbols that no rule tells apart are handled as a single class
+		int[] symbolClasses = nfa.symbolClasses();
+		int classCount = 0;
+		for (int c : symbolClasses) {
+			classCount = Math.max(classCount, c + 1);
+		}
+		int[] representatives = new int[classCount];
+		for (int symbol = symbolClasses.length - 1; symbol >= 0; symbol--) {
+			representatives[symbolClasses[symbol]] = symbol;
+		}
+
+		// Subset construction
+		List<int[]> moves = new ArrayList<int[]>();
+		List<TokenType> types = new ArrayList<TokenType>();
+		determinize(nfa, rules, representatives, moves, types);
+
+		// Minimization
+		int[] block = minimize(moves, types, classCount);
+
+		return emit(moves, types, block, symbolClasses);
+	}
+
+	/**
+	 * Turns an NFA into a DFA by subset construction. The DFA state 0 is the start
+	 * state.
+	 *
+	 * @param nfa             the NFA
+	 * @param rules           the rules of the specification
+	 * @param representatives an input symbol of each symbol class
+	 * @param moves           receives the moves of each DFA state, indexed by
+	 *                        symbol class, NONE where there is no move
+	 * @param types           receives the token type of each DFA state, or null
+	 *                        if it does not accept
+	 */
+	private static void determinize(Nfa nfa, List<TokenSpec.Rule> rules, int[] representatives, List<int[]> moves,
+			List<TokenType> types) {
+		Map<BitSet, Integer> ids = new HashMap<BitSet, Integer>();
+		List<BitSet> sets = new ArrayList<BitSet>();
+
+		BitSet startSet = new BitSet(nfa.size());
+		startSet.set(nfa.getStart());
+		closure(nfa, startSet);
+		ids.put(startSet, 0);
+		sets.add(startSet);
+
+		for (int d = 0; d < sets.size(); d++) {
+			BitSet set = sets.get(d);
+
+			// The rule added first wins
+			int rule = NONE;
+			for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+				int accept = nfa.getAccept(s);
+				if (accept != NONE && (rule == NONE || accept < rule)) {
+					rule = accept;
+				}
+			}
+			types.add(rule == NONE ? null : rules.get(rule).getTokenType());
+
+			int[] move = new int[representatives.length];
+			for (int c = 0; c < move.length; c++) {
+				BitSet next = new BitSet(nfa.size());
+				for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+					int target = nfa.move(s, representatives[c]);
+					if (target != Nfa.NONE) {
+						next.set(target);
+					}
+				}
+
+				if (next.isEmpty()) {
+					move[c] = NONE;
+					continue;
+				}
+				closure(nfa, next);
+				Integer id = ids.get(next);
+				if (id == null) {
+					id = sets.size();
+					ids.put(next, id);
+					sets.add(next);
+				}
+				move[c] = id;
+			}
+			moves.add(move);
+		}
+	}
+
+	/**
+	 * Adds all states that can be reached by epsilon moves to a set of NFA
+	 * states.
+	 *
+	 * @param nfa the NFA
+	 * @param set the set of states
+	 */
+	private static void closure(Nfa nfa, BitSet set) {
+		Deque<Integer> pending = new ArrayDeque<Integer>();
+		for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+			pending.push(s);
+		}
+
+		while (!pending.isEmpty()) {
+			int s = pending.pop();
+			int[] targets = { nfa.epsilon1(s), nfa.epsilon2(s) };
+			for (int target : targets) {
+				if (target != Nfa.NONE && !set.get(target)) {
+					set.set(target);
+					pending.push(target);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Minimizes a DFA by Hopcroft's partition refinement.
+	 * <p>
+	 * The DFA is completed with a dead state, numbered after all other states,
+	 * that every missing move leads to. States are first partitioned by token
+	 * type, and a block is split whenever some of its states move into another
+	 * block on an input symbol and the others do not.
+	 *
+	 * @param moves      the moves of each DFA state
+	 * @param types      the token type of each DFA state
+	 * @param classCount the number of symbol classes
+	 * @return the block of each state, including the dead state
+	 */
+	private static int[] minimize(List<int[]> moves, List<TokenType> types, int classCount) {
+		int dead = moves.size();
+		int total = dead + 1;
+
+		// Complete the DFA, and index the moves backwards
+		int[][] delta = new int[total][];
+		for (int s = 0; s < dead; s++) {
+			delta[s] = moves.get(s).clone();
+			for (int c = 0; c < classCount; c++) {
+				if (delta[s][c] == NONE) {
+					delta[s][c] = dead;
+				}
+			}
+		}
+		delta[dead] = new int[classCount];
+		Arrays.fill(delta[dead], dead);
+
+		int[][][] inverse = new int[classCount][][];
+		for (int c = 0; c < classCount; c++) {
+			int[] counts = new int[total];
+			for (int s = 0; s < total; s++) {
+				counts[delta[s][c]]++;
+			}
+			inverse[c] = new int[total][];
+			for (int t = 0; t < total; t++) {
+				inverse[c][t] = new int[counts[t]];
+				counts[t] = 0;
+			}
+			for (int s = 0; s < total; s++) {
+				int t = delta[s][c];
+				inverse[c][t][counts[t]++] = s;
+			}
+		}
+
+		// Initial partition by token type, the dead state going with the states
+		// that do not accept
+		int[] block = new int[total];
+		List<BitSet> blocks = new ArrayList<BitSet>();
+		Map<TokenType, Integer> blockOfType = new LinkedHashMap<TokenType, Integer>();
+		for (int s = 0; s < total; s++) {
+			TokenType type = (s == dead) ? null : types.get(s);
+			Integer b = blockOfType.get(type);
+			if (b == null) {
+				b = blocks.size();
+				blockOfType.put(type, b);
+				blocks.add(new BitSet(total));
+			}
+			block[s] = b;
+			blocks.get(b).set(s);
+		}
+
+		Deque<Integer> work = new ArrayDeque<Integer>();
+		List<Boolean> inWork = new ArrayList<Boolean>();
+		for (int b = 0; b < blocks.size(); b++) {
+			work.add(b);
+			inWork.add(true);
+		}
+
+		while (!work.isEmpty()) {
+			int splitter = work.poll();
+			inWork.set(splitter, false);
+			BitSet members = (BitSet) blocks.get(splitter).clone();
+
+			for (int c = 0; c < classCount; c++) {
+				// States that move into the splitter on the symbol class
+				BitSet preimage = new BitSet(total);
+				for (int t = members.nextSetBit(0); t >= 0; t = members.nextSetBit(t + 1)) {
+					for (int s : inverse[c][t]) {
+						preimage.set(s);
+					}
+				}
+				if (preimage.isEmpty()) {
+					continue;
+				}
+
+				BitSet touched = new BitSet(blocks.size());
+				for (int s = preimage.nextSetBit(0); s >= 0; s = preimage.nextSetBit(s + 1)) {
+					touched.set(block[s]);
+				}
+
+				for (int b = touched.nextSetBit(0); b >= 0; b = touched.nextSetBit(b + 1)) {
+					BitSet inside = (BitSet) blocks.get(b).clone();
+					inside.and(preimage);
+					BitSet outside = (BitSet) blocks.get(b).clone();
+					outside.andNot(preimage);
+					if (outside.isEmpty()) {
+						continue;
+					}
+
+					// Split the block, keeping the states inside the preimage in it
+					int newBlock = blocks.size();
+					blocks.set(b, inside);
+					blocks.add(outside);
+					for (int s = outside.nextSetBit(0); s >= 0; s = outside.nextSetBit(s + 1)) {
+						block[s] = newBlock;
+					}
+
+					if (inWork.get(b)) {
+						work.add(newBlock);
+						inWork.add(true);
+					} else if (inside.cardinality() <= outside.cardinality()) {
+						work.add(b);
+						inWork.set(b, true);
+						inWork.add(false);
+					} else {
+						work.add(newBlock);
+						inWork.add(true);
+					}
+				}
+			}
+		}
+
+		return block;
+	}
+
+	/**
+	 * Emits the transition table of a minimized DFA.
+	 * <p>
+	 * The states of the DFA are numbered in breadth-first order from the start
+	 * state, followed by a final state for each token type and the NOT_ACCEPTED
+	 * state.
+	 *
+	 * @param moves         the moves of each DFA state
+	 * @param types         the token type of each DFA state
+	 * @param block         the block of each state, including the dead state
+	 * @param symbolClasses the symbol class of each input symbol
+	 * @return the transition table
+	 */
+	private static TransitionTable emit(List<int[]> moves, List<TokenType> types, int[] block,
+			int[] symbolClasses) {
+		int dead = moves.size();
+		int deadBlock = block[dead];
+
+		// Pick a representative state of each block, in breadth-first order
+		int[] number = new int[dead + 1];
+		Arrays.fill(number, NONE);
+		List<Integer> representatives = new ArrayList<Integer>();
+		Deque<Integer> pending = new ArrayDeque<Integer>();
+		pending.add(0);
+		number[block[0]] = 0;
+		representatives.add(0);
+		while (!pending.isEmpty()) {
+			int s = pending.poll();
+			for (int target : moves.get(s)) {
+				if (target != NONE && block[target] != deadBlock && number[block[target]] == NONE) {
+					number[block[target]] = representatives.size();
+					representatives.add(target);
+					pending.add(target);
+				}
+			}
+		}
+
+		// Final states, one per token type, and the NOT_ACCEPTED state
+		int stateCount = representatives.size();
+		Map<TokenType, Integer> finalStates = new LinkedHashMap<TokenType, Integer>();
+		for (int r : representatives) {
+			TokenType type = types.get(r);
+			if (type != null && !finalStates.containsKey(type)) {
+				finalStates.put(type, stateCount + finalStates.size());
+			}
+		}
+		int notAccepted = stateCount + finalStates.size();
+		int totalCount = notAccepted + 1;
+
+		int[][] columns = new int[TransitionTable.SYMBOL_COUNT][totalCount];
+		TokenType[] tokenTypes = new TokenType[totalCount];
+		for (int n = 0; n < stateCount; n++) {
+			int r = representatives.get(n);
+			TokenType type = types.get(r);
+			int exit = (type == null) ? notAccepted : finalStates.get(type);
+
+			for (int symbol = 0; symbol < TransitionTable.SYMBOL_COUNT; symbol++) {
+				int target = moves.get(r)[symbolClasses[symbol]];
+				columns[symbol][n] = (target == NONE || block[target] == deadBlock) ? exit : number[block[target]];
+			}
+			tokenTypes[n] = TokenType.NOT_YET_A_TOKEN;
+		}
+		for (Map.Entry<TokenType, Integer> entry : finalStates.entrySet()) {
+			for (int symbol = 0; symbol < TransitionTable.SYMBOL_COUNT; symbol++) {
+				columns[symbol][entry.getValue()] = notAccepted;
+			}
+			tokenTypes[entry.getValue()] = entry.getKey();
+		}
+		for (int symbol = 0; symbol < TransitionTable.SYMBOL_COUNT; symbol++) {
+			columns[symbol][notAccepted] = notAccepted;
+		}
+		tokenTypes[notAccepted] = TokenType.NOT_ACCEPTED;
+
+		return TransitionTable.fromColumns(columns, tokenTypes, 0);
+	}
+}
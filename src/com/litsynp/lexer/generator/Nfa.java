@@ -0,0 +1,468 @@
+package com.litsynp.lexer.generator;
+
+import java.util.Arrays;
+
+import com.litsynp.lexer.state.TransitionTable;
+
+/**
+ * Nondeterministic finite automata (NFA) built from regular expressions by
+ * Thompson's construction.
+ * <p>
+ * A state either moves on a set of input symbols to a single target state, or
+ * has up to two epsilon moves. Input symbols are those of
+ * {@link TransitionTable}: the ASCII characters, and the non-ASCII letters,
+ * digits and other characters.
+ */
+final class Nfa {
+
+	/**
+	 * Marks an absent target state.
+	 */
+	static final int NONE = -1;
+
+	/**
+	 * Input symbols that each state moves on, or null for epsilon states.
+	 */
+	private boolean[][] sets = new boolean[64][];
+
+	/**
+	 * Target state of the move on the input symbols of each state.
+	 */
+	private int[] targets = new int[64];
+
+	/**
+	 * First and second epsilon move of each state.
+	 */
+	private int[] epsilons1 = new int[64], epsilons2 = new int[64];
+
+	/**
+	 * Index of the rule that each state accepts, or NONE.
+	 */
+	private int[] accepts = new int[64];
+
+	/**
+	 * Number of states.
+	 */
+	private int count = 0;
+
+	/**
+	 * The start state, which has an epsilon move to the start of every rule.
+	 */
+	private final int start = addState();
+
+	/**
+	 * Last start state in the chain of epsilon moves from the start state.
+	 */
+	private int lastStart = start;
+
+	/**
+	 * The regular expression being parsed.
+	 */
+	private String pattern;
+
+	/**
+	 * Position in the regular expression being parsed.
+	 */
+	private int pos;
+
+	/**
+	 * Adds a regular expression whose matches are accepted as a rule.
+	 *
+	 * @param regex the regular expression
+	 * @param rule  index of the rule
+	 * @throws IllegalArgumentException when the regular expression is malformed
+	 */
+	void addRule(String regex, int rule) {
+		pattern = regex;
+		pos = 0;
+		int[] fragment = parseAlternation();
+		if (pos < pattern.length()) {
+			throw error("Unexpected '" + pattern.charAt(pos) + "'");
+		}
+		accepts[fragment[1]] = rule;
+
+		// Chain the new rule to the start state
+		int next = addState();
+		addEpsilon(lastStart, fragment[0]);
+		addEpsilon(lastStart, next);
+		lastStart = next;
+	}
+
+	/**
+	 * Returns the start state.
+	 *
+	 * @return the start state
+	 */
+	int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	int size() {
+		return count;
+	}
+
+	/**
+	 * Partitions the input symbols into classes of symbols that no state tells
+	 * apart.
+	 *
+	 * @return the class of each input symbol, numbered from 0
+	 */
+	int[] symbolClasses() {
+		int[] classes = new int[TransitionTable.SYMBOL_COUNT];
+		int[] representatives = new int[TransitionTable.SYMBOL_COUNT];
+		int classCount = 0;
+
+		for (int symbol = 0; symbol < classes.length; symbol++) {
+			int c = 0;
+			while (c < classCount && !isSameSymbol(symbol, representatives[c])) {
+				c++;
+			}
+			if (c == classCount) {
+				representatives[classCount++] = symbol;
+			}
+			classes[symbol] = c;
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns whether every state moves the same way on two input symbols.
+	 *
+	 * @param symbol the input symbol
+	 * @param other  the other input symbol
+	 * @return boolean value of whether no state tells the symbols apart
+	 */
+	private boolean isSameSymbol(int symbol, int other) {
+		for (int state = 0; state < count; state++) {
+			if (sets[state] != null && sets[state][symbol] != sets[state][other]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the target state of a state on an input symbol.
+	 *
+	 * @param state  the state
+	 * @param symbol the input symbol
+	 * @return the target state, or NONE
+	 */
+	int move(int state, int symbol) {
+		return (sets[state] != null && sets[state][symbol]) ? targets[state] : NONE;
+	}
+
+	/**
+	 * Returns the first epsilon move of a state.
+	 *
+	 * @param state the state
+	 * @return the target state, or NONE
+	 */
+	int epsilon1(int state) {
+		return epsilons1[state];
+	}
+
+	/**
+	 * Returns the second epsilon move of a state.
+	 *
+	 * @param state the state
+	 * @return the target state, or NONE
+	 */
+	int epsilon2(int state) {
+		return epsilons2[state];
+	}
+
+	/**
+	 * Returns the rule that a state accepts.
+	 *
+	 * @param state the state
+	 * @return index of the rule, or NONE
+	 */
+	int getAccept(int state) {
+		return accepts[state];
+	}
+
+	/**
+	 * Parses an alternation of concatenations.
+	 *
+	 * @return the fragment as {start, end}
+	 */
+	private int[] parseAlternation() {
+		int[] fragment = parseConcatenation();
+		while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+			pos++;
+			int[] other = parseConcatenation();
+
+			int begin = addState();
+			int end = addState();
+			addEpsilon(begin, fragment[0]);
+			addEpsilon(begin, other[0]);
+			addEpsilon(fragment[1], end);
+			addEpsilon(other[1], end);
+			fragment = new int[] { begin, end };
+		}
+		return fragment;
+	}
+
+	/**
+	 * Parses a concatenation of repetitions, which may be empty.
+	 *
+	 * @return the fragment as {start, end}
+	 */
+	private int[] parseConcatenation() {
+		int state = addState();
+		int[] fragment = { state, state };
+		while (pos < pattern.length() && pattern.charAt(pos) != '|' && pattern.charAt(pos) != ')') {
+			int[] next = parseRepetition();
+			addEpsilon(fragment[1], next[0]);
+			fragment[1] = next[1];
+		}
+		return fragment;
+	}
+
+	/**
+	 * Parses an atom followed by any number of quantifiers.
+	 *
+	 * @return the fragment as {start, end}
+	 */
+	private int[] parseRepetition() {
+		int[] fragment = parseAtom();
+		while (pos < pattern.length()) {
+			char quantifier = pattern.charAt(pos);
+			if (quantifier != '*' && quantifier != '+' && quantifier != '?') {
+				break;
+			}
+			pos++;
+
+			int begin = addState();
+			int end = addState();
+			addEpsilon(begin, fragment[0]);
+			if (quantifier != '+') {
+				addEpsilon(begin, end); // Zero times
+			}
+			if (quantifier != '?') {
+				addEpsilon(fragment[1], fragment[0]); // Once more
+			}
+			addEpsilon(fragment[1], end);
+			fragment = new int[] { begin, end };
+		}
+		return fragment;
+	}
+
+	/**
+	 * Parses a group, a character class, an escape or a single character.
+	 *
+	 * @return the fragment as {start, end}
+	 */
+	private int[] parseAtom() {
+		char ch = pattern.charAt(pos++);
+		boolean[] set;
+		switch (ch) {
+		case '(':
+			int[] fragment = parseAlternation();
+			if (pos >= pattern.length() || pattern.charAt(pos) != ')') {
+				throw error("Missing ')'");
+			}
+			pos++;
+			return fragment;
+		case '[':
+			set = parseClass();
+			break;
+		case '\\':
+			set = parseEscape();
+			break;
+		case '*':
+		case '+':
+		case '?':
+			throw error("Nothing to repeat");
+		default:
+			set = singleton(ch);
+		}
+
+		int begin = addState();
+		int end = addState();
+		sets[begin] = set;
+		targets[begin] = end;
+		return new int[] { begin, end };
+	}
+
+	/**
+	 * Parses a character class after its '['.
+	 *
+	 * @return the input symbols of the class
+	 */
+	private boolean[] parseClass() {
+		boolean negated = pos < pattern.length() && pattern.charAt(pos) == '^';
+		if (negated) {
+			pos++;
+		}
+
+		boolean[] set = new boolean[TransitionTable.SYMBOL_COUNT];
+		boolean first = true;
+		while (true) {
+			if (pos >= pattern.length()) {
+				throw error("Missing ']'");
+			}
+			char ch = pattern.charAt(pos++);
+			if (ch == ']' && !first) {
+				break;
+			}
+			first = false;
+
+			if (ch == '\\') {
+				union(set, parseEscape());
+			} else if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+				// Range of ASCII characters
+				char last = pattern.charAt(pos + 1);
+				pos += 2;
+				if (last < ch || last >= TransitionTable.ASCII_SIZE) {
+					throw error("Invalid range " + ch + "-" + last);
+				}
+				for (char c = ch; c <= last; c++) {
+					set[c] = true;
+				}
+			} else {
+				union(set, singleton(ch));
+			}
+		}
+
+		if (negated) {
+			for (int symbol = 0; symbol < set.length; symbol++) {
+				set[symbol] = !set[symbol];
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Parses an escape after its '\'.
+	 *
+	 * @return the input symbols of the escape
+	 */
+	private boolean[] parseEscape() {
+		if (pos >= pattern.length()) {
+			throw error("Trailing '\\'");
+		}
+
+		char ch = pattern.charAt(pos++);
+		switch (ch) {
+		case 't':
+			return singleton('\t');
+		case 'n':
+			return singleton('\n');
+		case 'r':
+			return singleton('\r');
+		case 'p':
+			int close = pattern.indexOf('}', pos);
+			if (pos >= pattern.length() || pattern.charAt(pos) != '{' || close < 0) {
+				throw error("Malformed named class");
+			}
+			String name = pattern.substring(pos + 1, close);
+			pos = close + 1;
+			return namedClass(name);
+		default:
+			return singleton(ch);
+		}
+	}
+
+	/**
+	 * Returns the input symbols of a named class.
+	 *
+	 * @param name the name of the class
+	 * @return the input symbols of the class
+	 */
+	private boolean[] namedClass(String name) {
+		boolean[] set = new boolean[TransitionTable.SYMBOL_COUNT];
+		for (int symbol = 0; symbol < set.length; symbol++) {
+			char ch = TransitionTable.sampleOf(symbol);
+			if (name.equals("Letter")) {
+				set[symbol] = Character.isLetter(ch);
+			} else if (name.equals("Digit")) {
+				set[symbol] = Character.isDigit(ch);
+			} else if (name.equals("NonZeroDigit")) {
+				set[symbol] = Character.isDigit(ch) && ch != '0';
+			} else {
+				throw error("Unknown named class " + name);
+			}
+		}
+		return set;
+	}
+
+	/**
+	 * Returns the input symbols of a single ASCII character.
+	 *
+	 * @param ch the character
+	 * @return the input symbol of the character
+	 */
+	private boolean[] singleton(char ch) {
+		if (ch >= TransitionTable.ASCII_SIZE) {
+			throw error("Non-ASCII character '" + ch + "' can only be matched by a named class");
+		}
+		boolean[] set = new boolean[TransitionTable.SYMBOL_COUNT];
+		set[ch] = true;
+		return set;
+	}
+
+	/**
+	 * Adds the input symbols of a set to another set.
+	 *
+	 * @param set   the set to add to
+	 * @param other the set to add
+	 */
+	private static void union(boolean[] set, boolean[] other) {
+		for (int symbol = 0; symbol < set.length; symbol++) {
+			set[symbol] |= other[symbol];
+		}
+	}
+
+	/**
+	 * Adds a new state without moves.
+	 *
+	 * @return the new state
+	 */
+	private int addState() {
+		if (count == targets.length) {
+			sets = Arrays.copyOf(sets, count * 2);
+			targets = Arrays.copyOf(targets, count * 2);
+			epsilons1 = Arrays.copyOf(epsilons1, count * 2);
+			epsilons2 = Arrays.copyOf(epsilons2, count * 2);
+			accepts = Arrays.copyOf(accepts, count * 2);
+		}
+		targets[count] = NONE;
+		epsilons1[count] = NONE;
+		epsilons2[count] = NONE;
+		accepts[count] = NONE;
+		return count++;
+	}
+
+	/**
+	 * Adds an epsilon move.
+	 *
+	 * @param from the state to move from
+	 * @param to   the state to move to
+	 */
+	private void addEpsilon(int from, int to) {
+		if (epsilons1[from] == NONE) {
+			epsilons1[from] = to;
+		} else if (epsilons2[from] == NONE) {
+			epsilons2[from] = to;
+		} else {
+			throw new IllegalStateException("State " + from + " has more than two epsilon moves");
+		}
+	}
+
+	/**
+	 * Creates an exception for a malformed regular expression.
+	 *
+	 * @param message the description of the problem
+	 * @return the new exception
+	 */
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at " + pos + " in /" + pattern + "/");
+	}
+}
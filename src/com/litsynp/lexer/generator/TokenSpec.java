@@ -0,0 +1,162 @@
+package com.litsynp.lexer.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.litsynp.lexer.token.TokenType;
+
+/**
+ * Declarative specification of the tokens of a language, made of keyword lists
+ * and regular expressions mapped to token types.
+ * <p>
+ * When an input matches several rules, the rule added first wins, so keywords
+ * should be added before the rule of identifiers. The longest match is always
+ * taken, and a token ends at the first character that cannot continue it.
+ * <p>
+ * The regular expressions support alternation <code>|</code>, grouping
+ * <code>( )</code>, the quantifiers <code>* + ?</code>, character classes
+ * <code>[ ]</code> with ranges and negation, the escapes <code>\t \n \r</code>
+ * and the named classes <code>\p{Letter}</code>, <code>\p{Digit}</code> and
+ * <code>\p{NonZeroDigit}</code>, which follow {@link Character#isLetter(char)}
+ * and {@link Character#isDigit(char)} and so include non-ASCII characters. Any
+ * other escaped character stands for itself.
+ */
+public final class TokenSpec {
+
+	/**
+	 * A rule of the specification.
+	 */
+	public static final class Rule {
+
+		/**
+		 * Token type of the inputs that match the rule.
+		 */
+		private final TokenType tokenType;
+
+		/**
+		 * Regular expression of the rule.
+		 */
+		private final String pattern;
+
+		/**
+		 * Creates a new rule.
+		 *
+		 * @param tokenType token type of the inputs that match the rule
+		 * @param pattern   regular expression of the rule
+		 */
+		Rule(TokenType tokenType, String pattern) {
+			this.tokenType = tokenType;
+			this.pattern = pattern;
+		}
+
+		/**
+		 * Returns the token type of the rule.
+		 *
+		 * @return the token type
+		 */
+		public TokenType getTokenType() {
+			return tokenType;
+		}
+
+		/**
+		 * Returns the regular expression of the rule.
+		 *
+		 * @return the regular expression
+		 */
+		public String getPattern() {
+			return pattern;
+		}
+	}
+
+	/**
+	 * Rules of the specification, in the order of priority.
+	 */
+	private final List<Rule> rules = new ArrayList<Rule>();
+
+	/**
+	 * Returns the specification of the simplified C language.
+	 *
+	 * @return the token specification
+	 */
+	public static TokenSpec simplifiedC() {
+		return new TokenSpec()
+				// Keywords
+				.keywords(TokenType.VARIABLE_TYPE, "int", "char", "bool", "float")
+				.keywords(TokenType.STATEMENT, "if", "else", "while", "for", "return")
+				.keywords(TokenType.BOOLEAN_STRING, "true", "false")
+
+				// Identifier
+				.token(TokenType.IDENTIFIER, "[\\p{Letter}_][\\p{Letter}\\p{Digit}_]*")
+
+				// Numbers and literal string
+				.token(TokenType.SIGNED_ICONST, "0|\\p{NonZeroDigit}\\p{Digit}*")
+				.token(TokenType.FCONST,
+						"(0|\\p{NonZeroDigit}\\p{Digit}*)\\.\\p{Digit}(\\p{Digit}*\\p{NonZeroDigit})?")
+				.token(TokenType.LITERAL_STRING, "\"[\\p{Letter}\\p{Digit} \\t\\n]*\"")
+
+				// Operators
+				.token(TokenType.ARITHMETIC_OP, "[-+*/]")
+				.token(TokenType.BITWISE_OP, "<<|>>|&|\\|")
+				.token(TokenType.COMP_OP, "<|>|[<>=!]=")
+				.token(TokenType.ASSIGN_OP, "=")
+
+				// Parentheses, braces, comma and semicolon
+				.token(TokenType.LPAREN, "\\(")
+				.token(TokenType.RPAREN, "\\)")
+				.token(TokenType.LBRACE, "\\{")
+				.token(TokenType.RBRACE, "\\}")
+				.token(TokenType.COMMA, ",")
+				.token(TokenType.SEMI, ";")
+
+				// Whitespace, a character at a time
+				.token(TokenType.WHITESPACE, "[ \\t\\n]");
+	}
+
+	/**
+	 * Adds a list of keywords of a token type.
+	 *
+	 * @param tokenType the token type of the keywords
+	 * @param keywords  the keywords
+	 * @return this specification
+	 */
+	public TokenSpec keywords(TokenType tokenType, String... keywords) {
+		for (String keyword : keywords) {
+			StringBuilder pattern = new StringBuilder();
+			for (int i = 0; i < keyword.length(); i++) {
+				char ch = keyword.charAt(i);
+				if (!Character.isLetterOrDigit(ch)) {
+					pattern.append('\\');
+				}
+				pattern.append(ch);
+			}
+			token(tokenType, pattern.toString());
+		}
+		return this;
+	}
+
+	/**
+	 * Adds a regular expression of a token type.
+	 *
+	 * @param tokenType the token type of the inputs that match the regular
+	 *                  expression
+	 * @param pattern   the regular expression
+	 * @return this specification
+	 */
+	public TokenSpec token(TokenType tokenType, String pattern) {
+		if (tokenType == TokenType.NOT_YET_A_TOKEN || tokenType == TokenType.NOT_ACCEPTED) {
+			throw new IllegalArgumentException(tokenType + " cannot be the token type of a rule");
+		}
+		rules.add(new Rule(tokenType, pattern));
+		return this;
+	}
+
+	/**
+	 * Returns the rules of the specification.
+	 *
+	 * @return the rules, in the order of priority
+	 */
+	public List<Rule> getRules() {
+		return Collections.unmodifiableList(rules);
+	}
+}
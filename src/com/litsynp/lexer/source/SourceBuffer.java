@@ -0,0 +1,186 @@
+package com.litsynp.lexer.source;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of UTF-8 encoded source bytes to be lexically analyzed.
+ * <p>
+ * A source buffer is either a memory-mapped region of a file or a heap buffer
+ * filled from a stream by {@link SourceStream}. A large input is split into
+ * several source buffers, each ending on a line boundary, so that no token ever
+ * spans two buffers.
+ */
+public final class SourceBuffer {
+
+	/**
+	 * Maximum number of bytes in a single source buffer.
+	 */
+	public static final int MAX_SIZE = 1 << 30;
+
+	/**
+	 * Bytes of the source, from absolute index 0 to {@link #length}.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Number of bytes in the source buffer.
+	 */
+	private final int length;
+
+	/**
+	 * Creates a new source buffer over the remaining bytes of a byte buffer.
+	 *
+	 * @param buffer the bytes of the source
+	 */
+	private SourceBuffer(ByteBuffer buffer) {
+		this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		this.length = this.buffer.limit();
+	}
+
+	/**
+	 * Creates a source buffer over a byte array.
+	 *
+	 * @param bytes  the byte array
+	 * @param length number of bytes from the beginning of the array to use
+	 * @return the new source buffer
+	 */
+	public static SourceBuffer wrap(byte[] bytes, int length) {
+		return new SourceBuffer(ByteBuffer.wrap(bytes, 0, length));
+	}
+
+	/**
+	 * Creates a source buffer over the remaining bytes of a byte buffer.
+	 *
+	 * @param buffer the byte buffer
+	 * @return the new source buffer
+	 */
+	public static SourceBuffer wrap(ByteBuffer buffer) {
+		return new SourceBuffer(buffer);
+	}
+
+	/**
+	 * Memory-maps the next region of a file, ending it on the last line break
+	 * that fits in {@link #MAX_SIZE} bytes.
+	 *
+	 * @param channel  the file channel to map
+	 * @param position the position of the region in the file
+	 * @return the new source buffer
+	 * @throws IOException when the file cannot be mapped, or a single line does
+	 *                     not fit in {@link #MAX_SIZE} bytes
+	 */
+	public static SourceBuffer map(FileChannel channel, long position) throws IOException {
+		long remaining = channel.size() - position;
+		int size = (int) Math.min(remaining, MAX_SIZE);
+
+		ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		if (size < remaining) {
+			mapped.limit(lineBoundary(mapped, size));
+		}
+
+		return new SourceBuffer(mapped);
+	}
+
+	/**
+	 * Returns the position just after the last line break before <b>size</b>.
+	 *
+	 * @param bytes the bytes to search
+	 * @param size  the number of bytes to search
+	 * @return the position just after the last line break
+	 * @throws IOException when there is no line break in the bytes
+	 */
+	static int lineBoundary(ByteBuffer bytes, int size) throws IOException {
+		for (int i = size - 1; i >= 0; i--) {
+			if (bytes.get(i) == '\n') {
+				return i + 1;
+			}
+		}
+		for (int i = size - 2; i >= 0; i--) {
+			if (bytes.get(i) == '\r') {
+				return i + 1;
+			}
+		}
+		throw new IOException("A single line is longer than " + size + " bytes");
+	}
+
+	/**
+	 * Returns a source buffer over a range of this one.
+	 *
+	 * @param offset the offset of the range
+	 * @param length the length of the range
+	 * @return the new source buffer, sharing the bytes of this one
+	 */
+	public SourceBuffer slice(int offset, int length) {
+		ByteBuffer range = buffer.duplicate();
+		range.position(offset);
+		range.limit(offset + length);
+		return new SourceBuffer(range);
+	}
+
+	/**
+	 * Returns the position where the line after a given position begins.
+	 *
+	 * @param position the position to search from
+	 * @return the position just after the first line break at or after
+	 *         <b>position</b>, or the length of the buffer if there is none
+	 */
+	public int nextLineStart(int position) {
+		for (int i = position; i < length; i++) {
+			byte b = buffer.get(i);
+			if (b == '\n') {
+				return i + 1;
+			} else if (b == '\r' && (i + 1 == length || buffer.get(i + 1) != '\n')) {
+				return i + 1;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Returns the byte at an index.
+	 *
+	 * @param index the index of the byte
+	 * @return the byte at <b>index</b>
+	 */
+	public byte byteAt(int index) {
+		return buffer.get(index);
+	}
+
+	/**
+	 * Returns eight bytes from an index as a little-endian long, so the byte at
+	 * <b>index</b> is in the lowest bits.
+	 *
+	 * @param index the index of the first byte, at most {@link #length()} - 8
+	 * @return the eight bytes
+	 */
+	public long longAt(int index) {
+		return buffer.getLong(index);
+	}
+
+	/**
+	 * Returns the number of bytes in the source buffer.
+	 *
+	 * @return the number of bytes
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Decodes a range of the source buffer into a string.
+	 *
+	 * @param offset the offset of the first byte
+	 * @param length the number of bytes
+	 * @return the decoded string
+	 */
+	public String getString(int offset, int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(offset + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,111 @@
+package com.litsynp.lexer.source;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Sequence of source buffers of whole lines that make up an input.
+ * <p>
+ * A regular file is memory-mapped region by region, and any other input (e.g.
+ * a pipe) is read chunk by chunk through a {@link SourceStream}.
+ */
+public final class SourceInput implements Closeable {
+
+	/**
+	 * The stream to close at the end.
+	 */
+	private final InputStream in;
+
+	/**
+	 * Channel of a regular file, or null if the input is read as a stream.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Stream to read chunks from, or null if the input is memory-mapped.
+	 */
+	private final SourceStream stream;
+
+	/**
+	 * Position of the next region of a memory-mapped file.
+	 */
+	private long position = 0;
+
+	/**
+	 * Creates a new source input.
+	 *
+	 * @param in      the stream to close at the end
+	 * @param channel channel of a regular file, or null
+	 * @param stream  stream to read chunks from, or null
+	 */
+	private SourceInput(InputStream in, FileChannel channel, SourceStream stream) {
+		this.in = in;
+		this.channel = channel;
+		this.stream = stream;
+	}
+
+	/**
+	 * Opens an input file.
+	 *
+	 * @param inputFile the input file
+	 * @return the new source input
+	 * @throws IOException when the input file cannot be opened
+	 */
+	public static SourceInput open(File inputFile) throws IOException {
+		FileInputStream in = new FileInputStream(inputFile);
+		if (inputFile.isFile()) {
+			return new SourceInput(in, in.getChannel(), null);
+		}
+		return new SourceInput(in, null, new SourceStream(in));
+	}
+
+	/**
+	 * Creates a source input that reads a stream chunk by chunk.
+	 *
+	 * @param in the stream
+	 * @return the new source input
+	 */
+	public static SourceInput of(InputStream in) {
+		return new SourceInput(in, null, new SourceStream(in));
+	}
+
+	/**
+	 * Returns the next source buffer of the input.
+	 *
+	 * @return the next source buffer, or null at the end of the input
+	 * @throws IOException when the input cannot be read
+	 */
+	public SourceBuffer next() throws IOException {
+		if (channel == null) {
+			return stream.next();
+		}
+
+		if (position >= channel.size()) {
+			return null;
+		}
+		SourceBuffer source = SourceBuffer.map(channel, position);
+		position += source.length();
+		return source;
+	}
+
+	/**
+	 * Returns whether the input is memory-mapped.
+	 *
+	 * @return boolean value of whether the input is a memory-mapped file
+	 */
+	public boolean isMapped() {
+		return channel != null;
+	}
+
+	/**
+	 * Closes the input.
+	 */
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,111 @@
+package com.litsynp.lexer.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a stream that cannot be memory-mapped, such as a pipe or the standard
+ * input, into source buffers of whole lines.
+ * <p>
+ * Every source buffer gets its own large byte array, since the tokens made from
+ * it keep referring to their text in it.
+ */
+public final class SourceStream {
+
+	/**
+	 * Default size of the byte array of a chunk.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * The stream to read.
+	 */
+	private final InputStream in;
+
+	/**
+	 * Size of the byte array of a chunk.
+	 */
+	private final int bufferSize;
+
+	/**
+	 * The byte array of the current chunk.
+	 */
+	private byte[] bytes = null;
+
+	/**
+	 * Number of bytes read into the byte array.
+	 */
+	private int filled = 0;
+
+	/**
+	 * End of the last source buffer in the byte array.
+	 */
+	private int end = 0;
+
+	/**
+	 * Whether the end of the stream has been reached.
+	 */
+	private boolean isEndOfStream = false;
+
+	/**
+	 * Creates a new source stream with the default buffer size.
+	 *
+	 * @param in the stream to read
+	 */
+	public SourceStream(InputStream in) {
+		this(in, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a new source stream.
+	 *
+	 * @param in         the stream to read
+	 * @param bufferSize size of the byte array of a chunk, which bounds the
+	 *                   length of a line
+	 */
+	public SourceStream(InputStream in, int bufferSize) {
+		this.in = in;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Reads the next source buffer of whole lines.
+	 * <p>
+	 * The last source buffer may end without a line break.
+	 *
+	 * @return the next source buffer, or null at the end of the stream
+	 * @throws IOException when the stream cannot be read, or a single line does
+	 *                     not fit in the byte array of a chunk
+	 */
+	public SourceBuffer next() throws IOException {
+		if (isEndOfStream && filled == end) {
+			return null;
+		}
+
+		// Move the incomplete line of the previous chunk to the front of a new chunk
+		byte[] previous = bytes;
+		bytes = new byte[bufferSize];
+		if (previous != null) {
+			System.arraycopy(previous, end, bytes, 0, filled - end);
+		}
+		filled -= end;
+		end = 0;
+
+		while (!isEndOfStream && filled < bytes.length) {
+			int n = in.read(bytes, filled, bytes.length - filled);
+			if (n < 0) {
+				isEndOfStream = true;
+			} else {
+				filled += n;
+			}
+		}
+
+		if (filled == 0) {
+			return null;
+		}
+
+		end = isEndOfStream ? filled : SourceBuffer.lineBoundary(ByteBuffer.wrap(bytes), filled);
+		return SourceBuffer.wrap(bytes, end);
+	}
+}
@@ -5,6 +5,10 @@ import com.litsynp.lexer.token.TokenType;
 /**
  * The class that holds information of a state in the deterministic finite
  * automata (DFA).
+ * <p>
+ * The lexer runs on a table generated from
+ * {@link com.litsynp.lexer.generator.TokenSpec#simplifiedC()}, and this DFA is
+ * kept as the reference that the generated table is checked against.
  */
 public enum State {
     // Start state
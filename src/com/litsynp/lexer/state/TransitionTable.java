@@ -0,0 +1,396 @@
+package com.litsynp.lexer.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.litsynp.lexer.token.TokenType;
+
+/**
+ * Dense, table-driven form of a deterministic finite automata (DFA) of the
+ * lexer.
+ * <p>
+ * A state is an integer index into the table and every input character is first
+ * mapped to a character class, so a transition is two array loads instead of
+ * the nested <code>switch</code> in {@link State#transition(char)}. ASCII
+ * characters are classified through a 128-entry map. Any other character takes
+ * the slow path, which only needs to know whether it is a letter, a digit or
+ * neither, since that is all the DFA can tell apart outside ASCII.
+ * <p>
+ * The table built by {@link #fromStates()} is compiled from the
+ * {@link State} enum, which stays the reference implementation. The lexer
+ * itself uses a table generated from a token specification by
+ * {@link com.litsynp.lexer.generator.LexerGenerator}.
+ */
+public final class TransitionTable {
+
+	/**
+	 * Number of characters that are classified through the ASCII class map.
+	 */
+	public static final int ASCII_SIZE = 128;
+
+	/**
+	 * Input symbol that stands for every non-ASCII letter.
+	 */
+	public static final int LETTER_SYMBOL = ASCII_SIZE;
+
+	/**
+	 * Input symbol that stands for every non-ASCII digit.
+	 */
+	public static final int DIGIT_SYMBOL = ASCII_SIZE + 1;
+
+	/**
+	 * Input symbol that stands for every other non-ASCII character.
+	 */
+	public static final int OTHER_SYMBOL = ASCII_SIZE + 2;
+
+	/**
+	 * Number of input symbols the DFA can tell apart: the ASCII characters, and
+	 * the non-ASCII letters, digits and other characters.
+	 */
+	public static final int SYMBOL_COUNT = ASCII_SIZE + 3;
+
+	/**
+	 * Representative non-ASCII letter used to probe the slow path.
+	 */
+	private static final char SAMPLE_LETTER = '\u00e9';
+
+	/**
+	 * Representative non-ASCII non-zero digit used to probe the slow path.
+	 */
+	private static final char SAMPLE_DIGIT = '\u0663';
+
+	/**
+	 * Representative non-ASCII character that is neither a letter nor a digit.
+	 */
+	private static final char SAMPLE_OTHER = '\u20ac';
+
+	/**
+	 * Transition table indexed by [state][character class].
+	 */
+	private final int[][] transitions;
+
+	/**
+	 * Character class of each ASCII character.
+	 */
+	private final byte[] asciiClasses;
+
+	/**
+	 * Character classes of non-ASCII letters, digits and all other characters.
+	 */
+	private final int letterClass, digitClass, otherClass;
+
+	/**
+	 * Token type of each state, NOT_YET_A_TOKEN for non-final states.
+	 */
+	private final TokenType[] tokenTypes;
+
+	/**
+	 * Whether each state is a final state.
+	 */
+	private final boolean[] accepted;
+
+	/**
+	 * The start state.
+	 */
+	private final int startState;
+
+	/**
+	 * Creates a new transition table.
+	 *
+	 * @param transitions  transition table indexed by [state][character class]
+	 * @param asciiClasses character class of each ASCII character
+	 * @param letterClass  character class of non-ASCII letters
+	 * @param digitClass   character class of non-ASCII digits
+	 * @param otherClass   character class of any other non-ASCII character
+	 * @param tokenTypes   token type of each state
+	 * @param startState   the start state
+	 */
+	public TransitionTable(int[][] transitions, byte[] asciiClasses, int letterClass, int digitClass,
+			int otherClass, TokenType[] tokenTypes, int startState) {
+		if (asciiClasses.length != ASCII_SIZE || tokenTypes.length != transitions.length) {
+			throw new IllegalArgumentException("Malformed transition table");
+		}
+
+		this.transitions = transitions;
+		this.asciiClasses = asciiClasses;
+		this.letterClass = letterClass;
+		this.digitClass = digitClass;
+		this.otherClass = otherClass;
+		this.tokenTypes = tokenTypes;
+		this.startState = startState;
+
+		this.accepted = new boolean[tokenTypes.length];
+		for (int i = 0; i < tokenTypes.length; i++) {
+			accepted[i] = (tokenTypes[i] != TokenType.NOT_YET_A_TOKEN);
+		}
+	}
+
+	/**
+	 * Compiles the DFA of {@link State} into a transition table.
+	 * <p>
+	 * Every state keeps its ordinal as its number. ASCII characters whose columns
+	 * are identical in every state share a character class.
+	 *
+	 * @return the transition table of the {@link State} DFA
+	 */
+	public static TransitionTable fromStates() {
+		State[] states = State.values();
+
+		// Probe the reference DFA once per input symbol
+		int[][] columns = new int[SYMBOL_COUNT][];
+		for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+			columns[symbol] = probe(states, sampleOf(symbol));
+		}
+
+		TokenType[] tokenTypes = new TokenType[states.length];
+		for (int s = 0; s < states.length; s++) {
+			tokenTypes[s] = states[s].getTokenType();
+		}
+
+		TransitionTable table = fromColumns(columns, tokenTypes, State.START.ordinal());
+
+		assert table.findMismatch() == null : "Transition table differs from the DFA at " + table.findMismatch();
+
+		return table;
+	}
+
+	/**
+	 * Builds a transition table from the column of every input symbol.
+	 * <p>
+	 * Input symbols whose columns are identical in every state share a character
+	 * class.
+	 *
+	 * @param columns    next state of every state, indexed by [input symbol][state]
+	 * @param tokenTypes token type of each state
+	 * @param startState the start state
+	 * @return the new transition table
+	 */
+	public static TransitionTable fromColumns(int[][] columns, TokenType[] tokenTypes, int startState) {
+		if (columns.length != SYMBOL_COUNT) {
+			throw new IllegalArgumentException("Malformed transition table");
+		}
+
+		// Deduplicate the columns
+		List<int[]> classes = new ArrayList<int[]>();
+		byte[] asciiClasses = new byte[ASCII_SIZE];
+		for (int ch = 0; ch < ASCII_SIZE; ch++) {
+			asciiClasses[ch] = (byte) classOf(classes, columns[ch]);
+		}
+		int letterClass = classOf(classes, columns[LETTER_SYMBOL]);
+		int digitClass = classOf(classes, columns[DIGIT_SYMBOL]);
+		int otherClass = classOf(classes, columns[OTHER_SYMBOL]);
+
+		int[][] transitions = new int[tokenTypes.length][classes.size()];
+		for (int c = 0; c < classes.size(); c++) {
+			int[] column = classes.get(c);
+			for (int s = 0; s < tokenTypes.length; s++) {
+				transitions[s][c] = column[s];
+			}
+		}
+
+		return new TransitionTable(transitions, asciiClasses, letterClass, digitClass, otherClass, tokenTypes,
+				startState);
+	}
+
+	/**
+	 * Returns a character that an input symbol stands for.
+	 *
+	 * @param symbol the input symbol
+	 * @return the character itself for ASCII, or a representative character
+	 */
+	public static char sampleOf(int symbol) {
+		switch (symbol) {
+		case LETTER_SYMBOL:
+			return SAMPLE_LETTER;
+		case DIGIT_SYMBOL:
+			return SAMPLE_DIGIT;
+		case OTHER_SYMBOL:
+			return SAMPLE_OTHER;
+		default:
+			return (char) symbol;
+		}
+	}
+
+	/**
+	 * Returns the column of the reference DFA for a single input character.
+	 *
+	 * @param states all states of the reference DFA
+	 * @param ch     the input character
+	 * @return next state ordinal of every state on <b>ch</b>
+	 */
+	private static int[] probe(State[] states, char ch) {
+		int[] column = new int[states.length];
+		for (int s = 0; s < states.length; s++) {
+			column[s] = states[s].transition(ch).ordinal();
+		}
+		return column;
+	}
+
+	/**
+	 * Returns the character class of a column, adding it as a new class if no
+	 * identical column has been seen yet.
+	 *
+	 * @param columns the distinct columns found so far
+	 * @param column  the column to classify
+	 * @return the character class of the column
+	 */
+	private static int classOf(List<int[]> columns, int[] column) {
+		for (int c = 0; c < columns.size(); c++) {
+			if (Arrays.equals(columns.get(c), column)) {
+				return c;
+			}
+		}
+		columns.add(column);
+		return columns.size() - 1;
+	}
+
+	/**
+	 * Compares the table with {@link State#transition(char)} for every state and
+	 * every character.
+	 * <p>
+	 * Only meaningful for a table built by {@link #fromStates()}.
+	 *
+	 * @return description of the first transition that differs, or null if the
+	 *         table is equivalent to the reference DFA
+	 */
+	public String findMismatch() {
+		State[] states = State.values();
+		if (states.length != transitions.length) {
+			return "state count " + transitions.length;
+		}
+
+		for (int s = 0; s < states.length; s++) {
+			for (int ch = Character.MIN_VALUE; ch <= Character.MAX_VALUE; ch++) {
+				if (next(s, (char) ch) != states[s].transition((char) ch).ordinal()) {
+					return states[s] + " on \\u" + String.format("%04x", ch);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compares the table with another table by running both from their start
+	 * states over every pair of states that can be reached together.
+	 * <p>
+	 * The tables are equivalent if they accept at the same characters with the
+	 * same token types, however their states are numbered.
+	 *
+	 * @param other the other table
+	 * @return description of the first character at which the tables differ, or
+	 *         null if the tables are equivalent
+	 */
+	public String findMismatch(TransitionTable other) {
+		int otherCount = other.getStateCount();
+		boolean[] visited = new boolean[getStateCount() * otherCount];
+		int[] queue = new int[visited.length];
+		int head = 0;
+		int tail = 0;
+
+		queue[tail++] = startState * otherCount + other.startState;
+		visited[queue[0]] = true;
+		while (head < tail) {
+			int s = queue[head] / otherCount;
+			int t = queue[head] % otherCount;
+			head++;
+
+			for (int ch = Character.MIN_VALUE; ch <= Character.MAX_VALUE; ch++) {
+				int nextS = next(s, (char) ch);
+				int nextT = other.next(t, (char) ch);
+				if (tokenTypes[nextS] != other.tokenTypes[nextT]) {
+					return "state " + s + " on \\u" + String.format("%04x", ch) + ": " + tokenTypes[nextS] + " and "
+							+ other.tokenTypes[nextT];
+				}
+
+				int pair = nextS * otherCount + nextT;
+				if (!visited[pair]) {
+					visited[pair] = true;
+					queue[tail++] = pair;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the character class of an input character.
+	 *
+	 * @param ch the input character
+	 * @return the character class of <b>ch</b>
+	 */
+	public int charClass(char ch) {
+		if (ch < ASCII_SIZE) {
+			return asciiClasses[ch];
+		}
+
+		// Slow path for non-ASCII characters
+		if (Character.isLetter(ch)) {
+			return letterClass;
+		} else if (Character.isDigit(ch)) {
+			return digitClass;
+		} else {
+			return otherClass;
+		}
+	}
+
+	/**
+	 * Transitions a state with input to a new state.
+	 *
+	 * @param state the current state
+	 * @param input the input character
+	 * @return the next state after the transition with input
+	 */
+	public int next(int state, char input) {
+		return transitions[state][charClass(input)];
+	}
+
+	/**
+	 * Returns whether a state is a final state.
+	 *
+	 * @param state the state
+	 * @return boolean value of whether the state is a final state
+	 */
+	public boolean isAccepted(int state) {
+		return accepted[state];
+	}
+
+	/**
+	 * Returns the token type of a state.
+	 *
+	 * @param state the state
+	 * @return token type of the state
+	 */
+	public TokenType getTokenType(int state) {
+		return tokenTypes[state];
+	}
+
+	/**
+	 * Returns the start state.
+	 *
+	 * @return the start state
+	 */
+	public int getStartState() {
+		return startState;
+	}
+
+	/**
+	 * Returns the number of states in the table.
+	 *
+	 * @return the number of states
+	 */
+	public int getStateCount() {
+		return transitions.length;
+	}
+
+	/**
+	 * Returns the number of character classes in the table.
+	 *
+	 * @return the number of character classes
+	 */
+	public int getCharClassCount() {
+		return transitions.length == 0 ? 0 : transitions[0].length;
+	}
+}
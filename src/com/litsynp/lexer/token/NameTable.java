@@ -0,0 +1,255 @@
+package com.litsynp.lexer.token;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.litsynp.lexer.source.SourceBuffer;
+
+/**
+ * Interning table of the distinct names (identifiers and literal strings) of a
+ * symbol table.
+ * <p>
+ * Every distinct name gets a dense integer symbol id, starting from 0, in the
+ * order it is first seen, so names can be compared by id instead of by string.
+ * Names are hashed straight from the source buffer and looked up by open
+ * addressing with linear probing; the bytes of a name are copied into the table
+ * only the first time it is seen.
+ */
+public final class NameTable {
+
+	/**
+	 * Symbol id of a token that has no name.
+	 */
+	public static final int NO_SYMBOL = -1;
+
+	/**
+	 * Hash slots, holding the id of a name plus one, or zero if empty.
+	 */
+	private int[] slots = new int[64];
+
+	/**
+	 * Hash of each name, indexed by id.
+	 */
+	private int[] hashes = new int[32];
+
+	/**
+	 * Offset of each name in the byte pool, indexed by id.
+	 */
+	private int[] offsets = new int[32];
+
+	/**
+	 * Length of each name in bytes, indexed by id.
+	 */
+	private int[] lengths = new int[32];
+
+	/**
+	 * Bytes of all names, one after another.
+	 */
+	private byte[] pool = new byte[512];
+
+	/**
+	 * Number of bytes used in the byte pool.
+	 */
+	private int poolSize = 0;
+
+	/**
+	 * Strings of the names that have been asked for, indexed by id.
+	 */
+	private String[] strings = new String[32];
+
+	/**
+	 * Number of distinct names.
+	 */
+	private int count = 0;
+
+	/**
+	 * Returns the id of a name given as a span of a source buffer, adding it if it
+	 * has not been seen yet.
+	 *
+	 * @param source source buffer that holds the name
+	 * @param offset offset of the name in the source buffer
+	 * @param length length of the name in bytes
+	 * @return the id of the name
+	 */
+	public int intern(SourceBuffer source, int offset, int length) {
+		int hash = hash(source, offset, length);
+		int mask = slots.length - 1;
+
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			int id = slots[slot] - 1;
+			if (id < 0) {
+				id = add(source, offset, length, hash);
+				slots[slot] = id + 1;
+				if (count * 2 > slots.length) {
+					rehash();
+				}
+				return id;
+			}
+			if (hashes[id] == hash && equals(id, source, offset, length)) {
+				return id;
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of a name, adding it if it has not been seen yet.
+	 *
+	 * @param name the name
+	 * @return the id of the name
+	 */
+	public int intern(String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		return intern(SourceBuffer.wrap(bytes, bytes.length), 0, bytes.length);
+	}
+
+	/**
+	 * Interns all names of another name table.
+	 *
+	 * @param other the other name table
+	 * @return the id in this table of each name of the other table, indexed by
+	 *         its id in the other table
+	 */
+	public int[] internAll(NameTable other) {
+		SourceBuffer otherPool = SourceBuffer.wrap(other.pool, other.poolSize);
+		int[] ids = new int[other.count];
+		for (int id = 0; id < other.count; id++) {
+			ids[id] = intern(otherPool, other.offsets[id], other.lengths[id]);
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the number of distinct names.
+	 *
+	 * @return the number of distinct names
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns a name by its id.
+	 *
+	 * @param id the id of the name
+	 * @return the name
+	 */
+	public String getName(int id) {
+		if (strings[id] == null) {
+			strings[id] = new String(pool, offsets[id], lengths[id], StandardCharsets.UTF_8);
+		}
+		return strings[id];
+	}
+
+	/**
+	 * Returns the length of a name in bytes.
+	 *
+	 * @param id the id of the name
+	 * @return the length of the name in bytes
+	 */
+	int getLength(int id) {
+		return lengths[id];
+	}
+
+	/**
+	 * Writes the bytes of all names, in the order of their ids.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException when the stream cannot be written
+	 */
+	void writeNames(OutputStream out) throws IOException {
+		out.write(pool, 0, poolSize);
+	}
+
+	/**
+	 * Copies a new name into the table.
+	 *
+	 * @param source source buffer that holds the name
+	 * @param offset offset of the name in the source buffer
+	 * @param length length of the name in bytes
+	 * @param hash   hash of the name
+	 * @return the id of the new name
+	 */
+	private int add(SourceBuffer source, int offset, int length, int hash) {
+		if (count == hashes.length) {
+			hashes = Arrays.copyOf(hashes, count * 2);
+			offsets = Arrays.copyOf(offsets, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+			strings = Arrays.copyOf(strings, count * 2);
+		}
+		if (poolSize + length > pool.length) {
+			pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+		}
+
+		for (int i = 0; i < length; i++) {
+			pool[poolSize + i] = source.byteAt(offset + i);
+		}
+
+		hashes[count] = hash;
+		offsets[count] = poolSize;
+		lengths[count] = length;
+		poolSize += length;
+		return count++;
+	}
+
+	/**
+	 * Doubles the number of hash slots and reinserts all names.
+	 */
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+
+		for (int id = 0; id < count; id++) {
+			int slot = hashes[id] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+		}
+	}
+
+	/**
+	 * Returns whether a name in the table equals a span of a source buffer.
+	 *
+	 * @param id     the id of the name in the table
+	 * @param source source buffer that holds the other name
+	 * @param offset offset of the other name in the source buffer
+	 * @param length length of the other name in bytes
+	 * @return boolean value of whether the names are equal
+	 */
+	private boolean equals(int id, SourceBuffer source, int offset, int length) {
+		if (lengths[id] != length) {
+			return false;
+		}
+
+		int start = offsets[id];
+		for (int i = 0; i < length; i++) {
+			if (pool[start + i] != source.byteAt(offset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hashes a span of a source buffer with FNV-1a, followed by a final mix so
+	 * that the low bits used for the slot are well distributed.
+	 *
+	 * @param source source buffer that holds the name
+	 * @param offset offset of the name in the source buffer
+	 * @param length length of the name in bytes
+	 * @return the hash of the name
+	 */
+	private static int hash(SourceBuffer source, int offset, int length) {
+		int hash = 0x811C9DC5;
+		for (int i = 0; i < length; i++) {
+			hash = (hash ^ source.byteAt(offset + i)) * 0x01000193;
+		}
+
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+}
@@ -1,21 +1,27 @@
 package com.litsynp.lexer.token;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
+import com.litsynp.lexer.source.SourceBuffer;
+
 /**
  * Class to hold information about accumulated tokens
+ * <p>
+ * Identifiers and literal strings are interned, so each distinct name is kept
+ * once and tokens of the same name share its symbol id.
  */
 public class SymbolTable {
 	/**
-	 * list of tokens in the symbol table
+	 * stream of tokens in the symbol table
 	 */
-	private ArrayList<Token> tokens;
+	private TokenStream tokens;
 
 	/**
 	 * Creates a new symbol table.
 	 */
 	public SymbolTable() {
-		tokens = new ArrayList<Token>();
+		tokens = new TokenStream();
 	}
 
 	/**
@@ -25,96 +31,160 @@ public class SymbolTable {
 	 * @throws NullTokenException when being attempted to put a not accepted token
 	 */
 	public void put(Token token) throws NullTokenException {
+		if (token.getSource() != null) {
+			put(token.getName(), token.getSource(), token.getOffset(), token.getLength(), token.getLineNo());
+		} else {
+			// The token has no span, so keep its value in a source buffer of its own
+			byte[] bytes = token.getValue().getBytes(StandardCharsets.UTF_8);
+			put(token.getName(), SourceBuffer.wrap(bytes, bytes.length), 0, bytes.length, token.getLineNo());
+		}
+	}
+
+	/**
+	 * Puts a new token, given as a span of a source buffer, into the symbol table.
+	 *
+	 * @param name   the token type
+	 * @param source source buffer that holds the text of the token
+	 * @param offset offset of the text in the source buffer
+	 * @param length length of the text in bytes
+	 * @param lineNo line number of the token
+	 * @throws NullTokenException when being attempted to put a not accepted token
+	 */
+	public void put(TokenType name, SourceBuffer source, int offset, int length, int lineNo)
+			throws NullTokenException {
 
 		// If the token is a whitespace, skip
-		if (token.getName() == TokenType.WHITESPACE) {
+		if (name == TokenType.WHITESPACE) {
 			return;
 		}
 
 		// If the token is not accepted, print error
-		if (token.getName() == null || (token.getName() == TokenType.NOT_ACCEPTED)) {
+		if (name == null || (name == TokenType.NOT_ACCEPTED)) {
 			throw new NullTokenException(
-					"{KEY=" + token.getName() + ":VALUE=" + token.getValue() + "} is not accepted");
+					"{KEY=" + name + ":VALUE=" + source.getString(offset, length) + "} is not accepted");
 		}
 
 		// If the type is yet to be defined, but attempted to be put in the table, print
 		// error
-		else if (token.getName() == TokenType.NOT_YET_A_TOKEN) {
-			throw new NullTokenException("{KEY=" + token.getName() + ":VALUE=" + token.getValue()
+		else if (name == TokenType.NOT_YET_A_TOKEN) {
+			throw new NullTokenException("{KEY=" + name + ":VALUE=" + source.getString(offset, length)
 					+ "} is not yet a token and hence not accepted");
 		}
 
 		// If not, put the token in the symbol table
 		else {
-			boolean isThereNumberOrIDPrecedingPreviousMinusSymbolOnTheSameLine = ((tokens.size() >= 2)
-					&& (this.get(tokens.size() - 2).getLineNo() == token.getLineNo())
-					&& (this.get(tokens.size() - 2).isNumberOrID() == true));
+			int size = tokens.size();
+
+			boolean isThereNumberOrIDPrecedingPreviousMinusSymbolOnTheSameLine = ((size >= 2)
+					&& (tokens.getLineNo(size - 2) == lineNo) && (tokens.isNumberOrID(size - 2) == true));
 
-			boolean isMinusSymbolJustBeforeOnTheSameLine = (tokens.size() >= 1)
-					&& (this.get(tokens.size() - 1).getLineNo() == token.getLineNo())
-					&& this.get(tokens.size() - 1).isMinusSymbol();
+			boolean isMinusSymbolJustBeforeOnTheSameLine = (size >= 1) && (tokens.getLineNo(size - 1) == lineNo)
+					&& tokens.isMinusSymbol(size - 1);
 
-			boolean isTheCurrentTokenNonZeroNumber = (token.getName() == TokenType.FCONST
-					|| token.getName() == TokenType.SIGNED_ICONST) && (token.getValue().equals("0") == false);
+			boolean isTheCurrentTokenNonZeroNumber = (name == TokenType.FCONST || name == TokenType.SIGNED_ICONST)
+					&& ((length == 1 && source.byteAt(offset) == '0') == false);
 
 			if (isThereNumberOrIDPrecedingPreviousMinusSymbolOnTheSameLine == false
 					&& isMinusSymbolJustBeforeOnTheSameLine == true && isTheCurrentTokenNonZeroNumber == true) {
 				// If found a minus symbol preceding the current number token on the same line,
 				// and the token preceding it is not a number or ID and is not on the same line,
 				// change the previous token instead
-				this.get(tokens.size() - 1).setName(token.getName());
-				this.get(tokens.size() - 1).setValue(this.get(tokens.size() - 1).getValue() + token.getValue());
+				tokens.negateLast(name, source, offset, length);
+			} else if (name == TokenType.IDENTIFIER || name == TokenType.LITERAL_STRING) {
+				tokens.add(name, source, offset, length, lineNo, tokens.getNames().intern(source, offset, length));
 			} else {
-				addToken(token);
+				tokens.add(name, source, offset, length, lineNo);
 			}
 			return;
 		}
 	}
 
 	/**
-	 * Adds a new token to the tokens array without considering any conditions.
-	 * 
-	 * @param token the new token to be added to the tokens array
+	 * Puts all tokens of another symbol table, which holds the lines that follow
+	 * the lines of this table, into the symbol table.
+	 * <p>
+	 * The minus-merging rule of {@link #put(Token)} only looks back at tokens on
+	 * the same line, so it never applies across the two tables.
+	 *
+	 * @param other    the other symbol table
+	 * @param lineBase number to add to the line numbers of the other table
+	 */
+	public void putAll(SymbolTable other, int lineBase) {
+		tokens.append(other.tokens, lineBase);
+	}
+
+	/**
+	 * Removes all tokens from the symbol table, but keeps the symbol ids of the
+	 * names seen so far.
 	 */
-	private void addToken(Token token) {
-		tokens.add(token);
+	public void clear() {
+		tokens.clear();
 	}
 
 	/**
 	 * Removes the last token from the symbol table and returns the removed token.
-	 * 
+	 *
 	 * @return the last token that is removed by the method
 	 */
 	public Token pop() {
-		int size = tokens.size();
-
-		Token delToken = tokens.get(size - 1);
-		TokenType delTokenName = delToken.getName();
-		String delTokenValue = delToken.getValue();
-		int delTokenLineNo = delToken.getLineNo();
+		Token delToken = tokens.getToken(tokens.size() - 1);
 
-		tokens.remove(size - 1);
-		return new Token(delTokenName, delTokenValue, delTokenLineNo); // return a clone of the deleted token
+		tokens.removeLast();
+		return delToken;
 	}
 
 	/**
 	 * Gets index'th token in the symbol table.
-	 * 
+	 * <p>
+	 * The token is a new object, and changing it does not change the table.
+	 *
 	 * @param index the index of the token in the symbol table
 	 * @return the index'th token in the symbol table
 	 */
 	public Token get(int index) {
-		return tokens.get(index);
+		if (index < 0 || index >= tokens.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + tokens.size());
+		}
+		return tokens.getToken(index);
 	}
 
 	/**
-	 * Gets a reference of the last token in the symbol table
-	 * 
-	 * @return a reference of the last token in the symbol table
+	 * Gets the last token in the symbol table
+	 * <p>
+	 * The token is a new object, and changing it does not change the table.
+	 *
+	 * @return the last token in the symbol table
 	 */
 	public Token getLast() {
-		int size = tokens.size();
-		return tokens.get(size - 1);
+		return get(tokens.size() - 1);
+	}
+
+	/**
+	 * Returns the number of tokens in the symbol table.
+	 *
+	 * @return the number of tokens in the symbol table
+	 */
+	public int size() {
+		return tokens.size();
+	}
+
+	/**
+	 * Returns the name of a symbol id.
+	 *
+	 * @param symbolId the symbol id of an identifier or literal string
+	 * @return the name of the symbol id
+	 */
+	public String getSymbolName(int symbolId) {
+		return tokens.getNames().getName(symbolId);
+	}
+
+	/**
+	 * Returns the number of distinct names in the symbol table.
+	 *
+	 * @return the number of distinct identifiers and literal strings
+	 */
+	public int getSymbolCount() {
+		return tokens.getNames().size();
 	}
 
 	/**
@@ -126,20 +196,33 @@ public class SymbolTable {
 		System.out.println(String.format("| %-28s | %-28s |", "Token Name", "Token Value"));
 
 		for (int i = 0; i < tokens.size(); i++) {
-			Token token = tokens.get(i); // Print i'th token in the symbol table
+			// Print i'th token in the symbol table
 			System.out.println("+------------------------------+------------------------------+");
-			System.out.println(String.format("| %-28s | %-28s |", token.getName(), token.getValue()));
+			System.out.println(String.format("| %-28s | %-28s |", tokens.getType(i), tokens.getValue(i)));
 		}
 
 		System.out.println("+------------------------------+------------------------------+");
 	}
 
+	/***
+	 * Returns the stream of all tokens in the symbol table
+	 *
+	 * @return the stream of all tokens in the symbol table
+	 */
+	public TokenStream getTokenStream() {
+		return this.tokens;
+	}
+
 	/***
 	 * Returns a list of all tokens in the symbol table
-	 * 
-	 * @return a list of all tokens in the symbol table
+	 *
+	 * @return a new list of all tokens in the symbol table
 	 */
 	public ArrayList<Token> getTokens() {
-		return this.tokens;
+		ArrayList<Token> list = new ArrayList<Token>(tokens.size());
+		for (int i = 0; i < tokens.size(); i++) {
+			list.add(tokens.getToken(i));
+		}
+		return list;
 	}
 }
@@ -1,11 +1,18 @@
 package com.litsynp.lexer.token;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
+import com.litsynp.lexer.source.SourceBuffer;
+
 /**
  * Class to contain information about a single token, to be put in a symbol
  * table instance.
  * <p>
+ * A token made by the lexer only records the span of its text in the source
+ * buffer, and its value is created the first time it is asked for.
+ * <p>
  * Reference {@link com.litsynp.lexer.token.SymbolTable} for symbol table class.
  */
 public class Token implements Serializable {
@@ -20,10 +27,30 @@ public class Token implements Serializable {
     private TokenType name;
 
     /**
-     * value of the token
+     * value of the token, or null if it has not been created from the span yet
      */
     private String value;
-    
+
+    /**
+     * symbol id of the name of an identifier or literal string, or NO_SYMBOL
+     */
+    private int symbolId = NameTable.NO_SYMBOL;
+
+    /**
+     * source buffer that holds the text of the token
+     */
+    private transient SourceBuffer source;
+
+    /**
+     * offset of the text of the token in the source buffer
+     */
+    private int offset;
+
+    /**
+     * length of the text of the token in bytes
+     */
+    private int length;
+
     /**
      * line number of the token
      */
@@ -40,6 +67,25 @@ public class Token implements Serializable {
     public Token(TokenType name, String value, int lineNo) {
         this.name = name;
         this.value = value;
+        this.length = value.length();
+        this.lineNo = lineNo;
+    }
+
+    /**
+     * Creates a new token whose text is a span of a source buffer
+     * 
+     * @param name   name for the new token, or token type, defined in
+     *               {@link com.litsynp.lexer.token.TokenType}.
+     * @param source source buffer that holds the text of the new token
+     * @param offset offset of the text in the source buffer
+     * @param length length of the text in bytes
+     * @param lineNo line number of the new token
+     */
+    public Token(TokenType name, SourceBuffer source, int offset, int length, int lineNo) {
+        this.name = name;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
         this.lineNo = lineNo;
     }
 
@@ -67,6 +113,9 @@ public class Token implements Serializable {
      * @return value of the token in string
      */
     public String getValue() {
+        if (value == null) {
+            value = source.getString(offset, length);
+        }
         return value;
     }
 
@@ -77,6 +126,73 @@ public class Token implements Serializable {
      */
     public void setValue(String value) {
         this.value = value;
+        this.source = null;
+        this.symbolId = NameTable.NO_SYMBOL;
+        this.length = value.length();
+    }
+
+    /**
+     * Returns a character of the text of the token without creating its value.
+     * <p>
+     * Only meaningful for ASCII text, such as keywords and operators.
+     * 
+     * @param index the index of the character
+     * @return the character at <b>index</b>
+     */
+    public char charAt(int index) {
+        if (value != null) {
+            return value.charAt(index);
+        }
+        return (char) (source.byteAt(offset + index) & 0xFF);
+    }
+
+    /**
+     * Returns the symbol id of the name of the token.
+     * <p>
+     * Identifiers and literal strings of a symbol table have the same id exactly
+     * when they have the same name.
+     * 
+     * @return symbol id of the token, or NO_SYMBOL if the token has no name
+     */
+    public int getSymbolId() {
+        return symbolId;
+    }
+
+    /**
+     * Sets the symbol id of the name of the token.
+     * 
+     * @param symbolId new symbol id for the token
+     */
+    void setSymbolId(int symbolId) {
+        this.symbolId = symbolId;
+    }
+
+    /**
+     * Returns the source buffer that holds the text of the token.
+     * 
+     * @return the source buffer, or null if the token has no span or its value
+     *         has been set explicitly
+     */
+    SourceBuffer getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the offset of the text of the token in its source buffer.
+     * 
+     * @return offset of the text of the token
+     */
+    int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the length of the text of the token.
+     * 
+     * @return length of the text of the token
+     */
+    public int getLength() {
+        return length;
     }
 
     /**
@@ -98,7 +214,7 @@ public class Token implements Serializable {
      */
     public boolean isNegativeNumber() {
         if ((this.getName() == TokenType.SIGNED_ICONST || this.getName() == TokenType.FCONST)
-                && (this.getValue().charAt(0) == '-')) {
+                && (this.charAt(0) == '-')) {
             return true;
         }
 
@@ -125,10 +241,22 @@ public class Token implements Serializable {
      * @return boolean value of whether the token is a minus symbol
      */
     public boolean isMinusSymbol() {
-        if ((this.getName() == TokenType.ARITHMETIC_OP) && (this.getValue().equals("-"))) {
+        if ((this.getName() == TokenType.ARITHMETIC_OP) && (this.charAt(0) == '-')) {
             return true;
         }
 
         return false;
     }
+
+    /**
+     * Creates the value of the token before it is serialized, since the source
+     * buffer is not serialized.
+     * 
+     * @param out the stream to write the token to
+     * @throws IOException when the token cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getValue();
+        out.defaultWriteObject();
+    }
 }
@@ -0,0 +1,116 @@
+package com.litsynp.lexer.token;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary token file (.tok) that passes the tokens of the lexical
+ * analyzer to the syntax analyzer.
+ * <p>
+ * All fixed-size integers are big-endian. The file consists of:
+ * <ul>
+ * <li>a header of {@link #HEADER_SIZE} bytes: magic, version, flags, token
+ * count, name count, string count, the sizes of the three sections below, and
+ * a CRC32 checksum of all bytes after the header</li>
+ * <li>the string table: the length of each distinct token text as a varint,
+ * followed by the UTF-8 bytes of all texts one after another. The first
+ * <i>name count</i> strings are the names of the identifiers and literal
+ * strings, in the order of their symbol ids</li>
+ * <li>the tokens: for each token, its type ordinal, the difference of its line
+ * number from that of the previous token (zigzag encoded) and the id of its
+ * text in the string table, each as a varint</li>
+ * <li>the optional index: for every {@link #INDEX_INTERVAL} tokens, the offset
+ * of the token in the token section and the line number of the token before
+ * it, as two integers, so decoding can start in the middle of the file</li>
+ * </ul>
+ */
+public final class TokenFile {
+
+	/**
+	 * Magic number at the beginning of a token file ("TOKF").
+	 */
+	public static final int MAGIC = 0x544F4B46;
+
+	/**
+	 * Version of the format written by this class.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Flag of a file that has an index section.
+	 */
+	public static final int FLAG_INDEX = 0x1;
+
+	/**
+	 * Number of bytes in the header.
+	 */
+	public static final int HEADER_SIZE = 36;
+
+	/**
+	 * Number of tokens between two entries of the index.
+	 */
+	public static final int INDEX_INTERVAL = 4096;
+
+	/**
+	 * Number of bytes of an entry of the index.
+	 */
+	public static final int INDEX_ENTRY_SIZE = 8;
+
+	private TokenFile() {
+	}
+
+	/**
+	 * Writes an unsigned varint, seven bits per byte with the lowest bits first.
+	 *
+	 * @param out   the stream to write to
+	 * @param value the value, treated as unsigned
+	 */
+	public static void writeVarint(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 *
+	 * @param in the buffer to read from, at the position of the varint
+	 * @return the value
+	 * @throws IOException when the varint is longer than five bytes
+	 */
+	public static int readVarint(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint in token file");
+	}
+
+	/**
+	 * Maps a signed value to an unsigned one, so small negative values are
+	 * encoded in few bytes.
+	 *
+	 * @param value the signed value
+	 * @return the zigzag encoded value
+	 */
+	public static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * Maps a zigzag encoded value back to the signed one.
+	 *
+	 * @param value the zigzag encoded value
+	 * @return the signed value
+	 */
+	public static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,123 @@
+package com.litsynp.lexer.token;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Writer of the binary token file described in {@link TokenFile}.
+ */
+public final class TokenFileWriter {
+
+	private TokenFileWriter() {
+	}
+
+	/**
+	 * Writes a token stream as a token file.
+	 *
+	 * @param file      the output file
+	 * @param tokens    the token stream
+	 * @param withIndex whether to write the index section
+	 * @throws IOException when the output file cannot be written
+	 */
+	public static void write(File file, TokenStream tokens, boolean withIndex) throws IOException {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			write(out, tokens, withIndex);
+		} finally {
+			// Close the output file
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes a token stream in the format of a token file to a stream, such as
+	 * the response of a compile server. The stream is not closed.
+	 *
+	 * @param out       the stream to write to
+	 * @param tokens    the token stream
+	 * @param withIndex whether to write the index section
+	 * @throws IOException when the stream cannot be written
+	 */
+	public static void write(OutputStream out, TokenStream tokens, boolean withIndex) throws IOException {
+		// The names come first, so their string ids are their symbol ids
+		NameTable strings = new NameTable();
+		strings.internAll(tokens.getNames());
+		int nameCount = strings.size();
+
+		ByteArrayOutputStream tokenSection = new ByteArrayOutputStream(tokens.size() * 3);
+		ByteArrayOutputStream indexSection = new ByteArrayOutputStream();
+		int lineNo = 0;
+		if (withIndex && tokens.size() == 0) {
+			// The entry of token 0, which the loop writes for any other file
+			writeInt(indexSection, 0);
+			writeInt(indexSection, 0);
+		}
+		for (int i = 0; i < tokens.size(); i++) {
+			if (withIndex && i % TokenFile.INDEX_INTERVAL == 0) {
+				writeInt(indexSection, tokenSection.size());
+				writeInt(indexSection, lineNo);
+			}
+
+			int stringId;
+			if (tokens.getSymbolId(i) != NameTable.NO_SYMBOL) {
+				stringId = tokens.getSymbolId(i);
+			} else if (tokens.isNegative(i)) {
+				stringId = strings.intern(tokens.getValue(i));
+			} else {
+				stringId = strings.intern(tokens.getSource(i), tokens.getOffset(i), tokens.getLength(i));
+			}
+
+			TokenFile.writeVarint(tokenSection, tokens.getType(i).ordinal());
+			TokenFile.writeVarint(tokenSection, TokenFile.zigzag(tokens.getLineNo(i) - lineNo));
+			TokenFile.writeVarint(tokenSection, stringId);
+			lineNo = tokens.getLineNo(i);
+		}
+
+		ByteArrayOutputStream stringSection = new ByteArrayOutputStream();
+		for (int id = 0; id < strings.size(); id++) {
+			TokenFile.writeVarint(stringSection, strings.getLength(id));
+		}
+		strings.writeNames(stringSection);
+
+		byte[][] sections = { stringSection.toByteArray(), tokenSection.toByteArray(), indexSection.toByteArray() };
+		CRC32 crc = new CRC32();
+		for (byte[] section : sections) {
+			crc.update(section);
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(TokenFile.HEADER_SIZE);
+		header.putInt(TokenFile.MAGIC);
+		header.putShort((short) TokenFile.VERSION);
+		header.putShort((short) (withIndex ? TokenFile.FLAG_INDEX : 0));
+		header.putInt(tokens.size());
+		header.putInt(nameCount);
+		header.putInt(strings.size());
+		for (byte[] section : sections) {
+			header.putInt(section.length);
+		}
+		header.putInt((int) crc.getValue());
+
+		out.write(header.array());
+		for (byte[] section : sections) {
+			out.write(section);
+		}
+	}
+
+	/**
+	 * Writes a big-endian integer.
+	 *
+	 * @param out   the stream to write to
+	 * @param value the value
+	 */
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+}
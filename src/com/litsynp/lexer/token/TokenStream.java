@@ -0,0 +1,563 @@
+package com.litsynp.lexer.token;
+
+import java.util.Arrays;
+
+import com.litsynp.lexer.source.SourceBuffer;
+
+/**
+ * Growable list of tokens stored as parallel primitive arrays.
+ * <p>
+ * A token takes one byte for its type and three integers for the offset and
+ * the length of its text in the source buffer and its line number, instead of
+ * a separate {@link com.litsynp.lexer.token.Token} object with its own string.
+ * Tokens of the same source buffer are stored contiguously, so the source
+ * buffer of each token is found through a short list of buffers and the index
+ * of the first token of each.
+ * <p>
+ * Identifiers and literal strings also carry the symbol id of their name in the
+ * {@link com.litsynp.lexer.token.NameTable} of the stream.
+ */
+public final class TokenStream {
+
+	/**
+	 * Flag in the type byte of a number that has absorbed a preceding minus
+	 * symbol, whose value is "-" followed by the text of its span.
+	 */
+	private static final int NEGATIVE = 0x40;
+
+	/**
+	 * Mask of the token type ordinal in the type byte.
+	 */
+	private static final int TYPE_MASK = 0x3F;
+
+	/**
+	 * All token types, indexed by ordinal.
+	 */
+	private static final TokenType[] TYPES = TokenType.values();
+
+	/**
+	 * Token type ordinal of each token, together with the NEGATIVE flag.
+	 */
+	private byte[] types;
+
+	/**
+	 * Offset of the text of each token in its source buffer.
+	 */
+	private int[] offsets;
+
+	/**
+	 * Length of the text of each token in bytes.
+	 */
+	private int[] lengths;
+
+	/**
+	 * Line number of each token.
+	 */
+	private int[] lines;
+
+	/**
+	 * Symbol id of each token, or NO_SYMBOL if it has no name.
+	 */
+	private int[] symbolIds;
+
+	/**
+	 * Number of tokens in the stream.
+	 */
+	private int size = 0;
+
+	/**
+	 * Names of the identifiers and literal strings in the stream.
+	 */
+	private final NameTable names;
+
+	/**
+	 * Source buffers of the tokens, in order.
+	 */
+	private SourceBuffer[] sources = new SourceBuffer[4];
+
+	/**
+	 * Index of the first token of each source buffer.
+	 */
+	private int[] sourceStarts = new int[4];
+
+	/**
+	 * Number of source buffers.
+	 */
+	private int sourceCount = 0;
+
+	/**
+	 * Creates a new token stream.
+	 */
+	public TokenStream() {
+		this(1024);
+	}
+
+	/**
+	 * Creates a new token stream with an initial capacity.
+	 *
+	 * @param capacity number of tokens the stream can hold before it grows
+	 */
+	public TokenStream(int capacity) {
+		this(capacity, new NameTable());
+	}
+
+	/**
+	 * Creates a new token stream with an initial capacity, whose identifiers and
+	 * literal strings use the symbol ids of an existing name table.
+	 *
+	 * @param capacity number of tokens the stream can hold before it grows
+	 * @param names    the name table of the stream
+	 */
+	public TokenStream(int capacity, NameTable names) {
+		this.names = names;
+		capacity = Math.max(capacity, 16);
+		types = new byte[capacity];
+		offsets = new int[capacity];
+		lengths = new int[capacity];
+		lines = new int[capacity];
+		symbolIds = new int[capacity];
+	}
+
+	/**
+	 * Adds a token at the end of the stream.
+	 *
+	 * @param type   the token type
+	 * @param source source buffer that holds the text of the token
+	 * @param offset offset of the text in the source buffer
+	 * @param length length of the text in bytes
+	 * @param lineNo line number of the token
+	 */
+	public void add(TokenType type, SourceBuffer source, int offset, int length, int lineNo) {
+		add(type.ordinal(), source, offset, length, lineNo, NameTable.NO_SYMBOL);
+	}
+
+	/**
+	 * Adds a named token at the end of the stream.
+	 *
+	 * @param type     the token type
+	 * @param source   source buffer that holds the text of the token
+	 * @param offset   offset of the text in the source buffer
+	 * @param length   length of the text in bytes
+	 * @param lineNo   line number of the token
+	 * @param symbolId symbol id of the name of the token in {@link #getNames()}
+	 */
+	public void add(TokenType type, SourceBuffer source, int offset, int length, int lineNo, int symbolId) {
+		add(type.ordinal(), source, offset, length, lineNo, symbolId);
+	}
+
+	/**
+	 * Adds a token at the end of the stream with a raw type byte.
+	 *
+	 * @param type   the token type ordinal, together with the NEGATIVE flag
+	 * @param source source buffer that holds the text of the token
+	 * @param offset offset of the text in the source buffer
+	 * @param length length of the text in bytes
+	 * @param lineNo line number of the token
+	 * @param symbolId symbol id of the name of the token
+	 */
+	private void add(int type, SourceBuffer source, int offset, int length, int lineNo, int symbolId) {
+		if (size == types.length) {
+			int capacity = size + (size >> 1);
+			types = Arrays.copyOf(types, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+			symbolIds = Arrays.copyOf(symbolIds, capacity);
+		}
+
+		if (sourceCount == 0 || sources[sourceCount - 1] != source) {
+			if (sourceCount == sources.length) {
+				sources = Arrays.copyOf(sources, sourceCount * 2);
+				sourceStarts = Arrays.copyOf(sourceStarts, sourceCount * 2);
+			}
+			sources[sourceCount] = source;
+			sourceStarts[sourceCount] = size;
+			sourceCount++;
+		}
+
+		types[size] = (byte) type;
+		offsets[size] = offset;
+		lengths[size] = length;
+		lines[size] = lineNo;
+		symbolIds[size] = symbolId;
+		size++;
+	}
+
+	/**
+	 * Adds a token of another stream that shares the names of this stream at the
+	 * end of this stream.
+	 *
+	 * @param other the other stream, whose symbol ids are those of this stream
+	 * @param index the index of the token in the other stream
+	 */
+	public void add(TokenStream other, int index) {
+		add(other.types[index], other.getSource(index), other.offsets[index], other.lengths[index], other.lines[index],
+				other.symbolIds[index]);
+	}
+
+	/**
+	 * Adds a token of another stream, whose names may be used by another thread,
+	 * at the end of this stream. The name of an identifier or a literal string is
+	 * interned from its text into the names of this stream, and the names of the
+	 * other stream are never read.
+	 *
+	 * @param other the other stream
+	 * @param index the index of the token in the other stream
+	 */
+	public void addRenamed(TokenStream other, int index) {
+		SourceBuffer source = other.getSource(index);
+		int type = other.types[index];
+		int symbolId = NameTable.NO_SYMBOL;
+		if (other.symbolIds[index] != NameTable.NO_SYMBOL) {
+			symbolId = names.intern(source, other.offsets[index], other.lengths[index]);
+		}
+		add(type, source, other.offsets[index], other.lengths[index], other.lines[index], symbolId);
+	}
+
+	/**
+	 * Adds all tokens of another stream at the end of this stream.
+	 * <p>
+	 * The names of the other stream are interned into this stream, and the
+	 * symbol ids of its tokens are translated accordingly.
+	 *
+	 * @param other    the other stream
+	 * @param lineBase number to add to the line numbers of the other stream
+	 */
+	public void append(TokenStream other, int lineBase) {
+		int base = size;
+		int total = size + other.size;
+		if (total > types.length) {
+			int capacity = Math.max(total, size + (size >> 1));
+			types = Arrays.copyOf(types, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+			symbolIds = Arrays.copyOf(symbolIds, capacity);
+		}
+
+		System.arraycopy(other.types, 0, types, base, other.size);
+		System.arraycopy(other.offsets, 0, offsets, base, other.size);
+		System.arraycopy(other.lengths, 0, lengths, base, other.size);
+
+		int[] ids = names.internAll(other.names);
+		for (int i = 0; i < other.size; i++) {
+			lines[base + i] = other.lines[i] + lineBase;
+			int symbolId = other.symbolIds[i];
+			symbolIds[base + i] = (symbolId == NameTable.NO_SYMBOL) ? symbolId : ids[symbolId];
+		}
+
+		for (int s = 0; s < other.sourceCount; s++) {
+			if (sourceCount == sources.length) {
+				sources = Arrays.copyOf(sources, sourceCount * 2);
+				sourceStarts = Arrays.copyOf(sourceStarts, sourceCount * 2);
+			}
+			sources[sourceCount] = other.sources[s];
+			sourceStarts[sourceCount] = base + other.sourceStarts[s];
+			sourceCount++;
+		}
+
+		size = total;
+	}
+
+	/**
+	 * Removes all tokens of the stream, but keeps its names, so symbol ids stay
+	 * the same for the tokens added later.
+	 */
+	public void clear() {
+		size = 0;
+		Arrays.fill(sources, 0, sourceCount, null);
+		sourceCount = 0;
+	}
+
+	/**
+	 * Removes the last token of the stream.
+	 */
+	public void removeLast() {
+		size--;
+		if (sourceStarts[sourceCount - 1] == size) {
+			sources[--sourceCount] = null;
+		}
+	}
+
+	/**
+	 * Replaces the last token of the stream, which must be a minus symbol, with
+	 * a negative number.
+	 *
+	 * @param type   the token type of the number
+	 * @param source source buffer that holds the text of the number
+	 * @param offset offset of the text of the number in the source buffer
+	 * @param length length of the text of the number in bytes
+	 */
+	public void negateLast(TokenType type, SourceBuffer source, int offset, int length) {
+		int lineNo = lines[size - 1];
+		removeLast();
+		add(type.ordinal() | NEGATIVE, source, offset, length, lineNo, NameTable.NO_SYMBOL);
+	}
+
+	/**
+	 * Returns the number of tokens in the stream.
+	 *
+	 * @return the number of tokens
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the token type of a token.
+	 *
+	 * @param index the index of the token
+	 * @return the token type
+	 */
+	public TokenType getType(int index) {
+		return TYPES[types[index] & TYPE_MASK];
+	}
+
+	/**
+	 * Returns the line number of a token.
+	 *
+	 * @param index the index of the token
+	 * @return the line number
+	 */
+	public int getLineNo(int index) {
+		return lines[index];
+	}
+
+	/**
+	 * Returns the symbol id of the name of a token.
+	 *
+	 * @param index the index of the token
+	 * @return the symbol id, or NO_SYMBOL if the token has no name
+	 */
+	public int getSymbolId(int index) {
+		return symbolIds[index];
+	}
+
+	/**
+	 * Returns the names of the identifiers and literal strings in the stream.
+	 *
+	 * @return the name table of the stream
+	 */
+	public NameTable getNames() {
+		return names;
+	}
+
+	/**
+	 * Returns the offset of the text of a token in its source buffer.
+	 *
+	 * @param index the index of the token
+	 * @return the offset of the text
+	 */
+	public int getOffset(int index) {
+		return offsets[index];
+	}
+
+	/**
+	 * Returns the length of the value of a token.
+	 *
+	 * @param index the index of the token
+	 * @return the length of the value, including the minus of a negative number
+	 */
+	public int getLength(int index) {
+		return isNegative(index) ? lengths[index] + 1 : lengths[index];
+	}
+
+	/**
+	 * Returns whether a token is a number that has absorbed a preceding minus
+	 * symbol.
+	 *
+	 * @param index the index of the token
+	 * @return boolean value of whether the token is a merged negative number
+	 */
+	public boolean isNegative(int index) {
+		return (types[index] & NEGATIVE) != 0;
+	}
+
+	/**
+	 * Returns the source buffer that holds the text of a token.
+	 *
+	 * @param index the index of the token
+	 * @return the source buffer
+	 */
+	public SourceBuffer getSource(int index) {
+		int low = 0;
+		int high = sourceCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (sourceStarts[mid] <= index) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return sources[low];
+	}
+
+	/**
+	 * Returns a character of the value of a token without creating the value.
+	 * <p>
+	 * Only meaningful for ASCII text, such as keywords and operators.
+	 *
+	 * @param index the index of the token
+	 * @param pos   the index of the character in the value
+	 * @return the character
+	 */
+	public char charAt(int index, int pos) {
+		if (isNegative(index)) {
+			if (pos == 0) {
+				return '-';
+			}
+			pos--;
+		}
+		return (char) (getSource(index).byteAt(offsets[index] + pos) & 0xFF);
+	}
+
+	/**
+	 * Creates the value of a token.
+	 *
+	 * @param index the index of the token
+	 * @return the value of the token
+	 */
+	public String getValue(int index) {
+		if (symbolIds[index] != NameTable.NO_SYMBOL) {
+			return names.getName(symbolIds[index]);
+		}
+
+		String text = getSource(index).getString(offsets[index], lengths[index]);
+		return isNegative(index) ? "-" + text : text;
+	}
+
+	/**
+	 * Creates a token object for a token of the stream.
+	 *
+	 * @param index the index of the token
+	 * @return a new token with the same type, value and line number
+	 */
+	public Token getToken(int index) {
+		if (isNegative(index)) {
+			return new Token(getType(index), getValue(index), lines[index]);
+		}
+		Token token = new Token(getType(index), getSource(index), offsets[index], lengths[index], lines[index]);
+		token.setSymbolId(symbolIds[index]);
+		return token;
+	}
+
+	/**
+	 * Returns whether a token is a number or identifier.
+	 *
+	 * @param index the index of the token
+	 * @return boolean value of whether the token is a number or identifier
+	 * @see Token#isNumberOrID()
+	 */
+	public boolean isNumberOrID(int index) {
+		TokenType type = getType(index);
+		return (type == TokenType.SIGNED_ICONST || type == TokenType.FCONST || type == TokenType.IDENTIFIER);
+	}
+
+	/**
+	 * Returns whether a token is a minus (-) symbol.
+	 *
+	 * @param index the index of the token
+	 * @return boolean value of whether the token is a minus symbol
+	 * @see Token#isMinusSymbol()
+	 */
+	public boolean isMinusSymbol(int index) {
+		return getType(index) == TokenType.ARITHMETIC_OP && charAt(index, 0) == '-';
+	}
+
+	/**
+	 * Creates a new cursor positioned before the first token.
+	 *
+	 * @return the new cursor
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Cursor that walks the tokens of the stream in order.
+	 */
+	public final class Cursor {
+
+		/**
+		 * Index of the current token.
+		 */
+		private int index = -1;
+
+		/**
+		 * Returns whether there is a token after the current one.
+		 *
+		 * @return boolean value of whether there is a next token
+		 */
+		public boolean hasNext() {
+			return index + 1 < size;
+		}
+
+		/**
+		 * Moves to the next token.
+		 *
+		 * @return boolean value of whether the cursor is on a token
+		 */
+		public boolean next() {
+			if (index < size) {
+				index++;
+			}
+			return index < size;
+		}
+
+		/**
+		 * Returns the index of the current token.
+		 *
+		 * @return the index of the current token
+		 */
+		public int index() {
+			return index;
+		}
+
+		/**
+		 * Returns the token type of the current token.
+		 *
+		 * @return the token type
+		 */
+		public TokenType getType() {
+			return TokenStream.this.getType(index);
+		}
+
+		/**
+		 * Returns the line number of the current token.
+		 *
+		 * @return the line number
+		 */
+		public int getLineNo() {
+			return TokenStream.this.getLineNo(index);
+		}
+
+		/**
+		 * Returns the symbol id of the name of the current token.
+		 *
+		 * @return the symbol id, or NO_SYMBOL if the token has no name
+		 */
+		public int getSymbolId() {
+			return TokenStream.this.getSymbolId(index);
+		}
+
+		/**
+		 * Returns a character of the value of the current token.
+		 *
+		 * @param pos the index of the character in the value
+		 * @return the character
+		 */
+		public char charAt(int pos) {
+			return TokenStream.this.charAt(index, pos);
+		}
+
+		/**
+		 * Creates the value of the current token.
+		 *
+		 * @return the value of the current token
+		 */
+		public String getValue() {
+			return TokenStream.this.getValue(index);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.litsynp.parser;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Syntax error found by the syntax analyzer, with the state of the parser and
+ * the terminals that it expected instead of the one it found.
+ */
+public final class Diagnostic {
+
+	/***
+	 * Line number of the unexpected token, from 1.
+	 */
+	private final int lineNo;
+
+	/***
+	 * Index of the unexpected token in the input, which is the number of tokens
+	 * at the end of the input for an unexpected eof ($).
+	 */
+	private final int tokenIndex;
+
+	/***
+	 * State at the stack top when the error was found.
+	 */
+	private final int state;
+
+	/***
+	 * The unexpected terminal, or null for a token that has no terminal, such as
+	 * a bitwise operator.
+	 */
+	private final Symbol found;
+
+	/***
+	 * Value of the unexpected token, or null for eof ($).
+	 */
+	private final String text;
+
+	/***
+	 * Terminals that have an action at the state.
+	 */
+	private final Set<Symbol> expected;
+
+	/***
+	 * Creates a diagnostic.
+	 *
+	 * @param lineNo     the line number of the unexpected token, from 1
+	 * @param tokenIndex the index of the unexpected token
+	 * @param state      the state at the stack top
+	 * @param found      the unexpected terminal, or null for a token that has no
+	 *                   terminal
+	 * @param text       the value of the unexpected token, or null for eof ($)
+	 * @param expected   the terminals that have an action at the state
+	 */
+	public Diagnostic(int lineNo, int tokenIndex, int state, Symbol found, String text, Set<Symbol> expected) {
+		this.lineNo = lineNo;
+		this.tokenIndex = tokenIndex;
+		this.state = state;
+		this.found = found;
+		this.text = text;
+		this.expected = Collections.unmodifiableSet(expected);
+	}
+
+	/***
+	 * Returns the line number of the unexpected token.
+	 *
+	 * @return the line number, from 1
+	 */
+	public int getLineNo() {
+		return lineNo;
+	}
+
+	/***
+	 * Returns the index of the unexpected token in the input.
+	 *
+	 * @return the token index
+	 */
+	public int getTokenIndex() {
+		return tokenIndex;
+	}
+
+	/***
+	 * Returns the state at the stack top when the error was found.
+	 *
+	 * @return the state number
+	 */
+	public int getState() {
+		return state;
+	}
+
+	/***
+	 * Returns the unexpected terminal.
+	 *
+	 * @return the terminal symbol, or null for a token that has no terminal
+	 */
+	public Symbol getFound() {
+		return found;
+	}
+
+	/***
+	 * Returns the value of the unexpected token.
+	 *
+	 * @return the value, or null for eof ($)
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/***
+	 * Returns the terminals that the parser expected instead.
+	 *
+	 * @return the unmodifiable set of terminals
+	 */
+	public Set<Symbol> getExpected() {
+		return expected;
+	}
+
+	/***
+	 * Returns string value of the diagnostic, in the form of
+	 * <code>Syntax error in line 3 at 'Q41', 'semi' ";": expected 'id', 'num'</code>.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder svalue = new StringBuilder("Syntax error in line ").append(lineNo).append(" at 'Q").append(state)
+				.append("', ").append(found == null ? "no terminal" : "'" + found + "'");
+		if (text != null) {
+			svalue.append(" \"").append(text).append('"');
+		}
+
+		svalue.append(": expected ");
+		String separator = "";
+		for (Symbol terminal : expected) {
+			svalue.append(separator).append('\'').append(terminal).append('\'');
+			separator = ", ";
+		}
+		return svalue.toString();
+	}
+}
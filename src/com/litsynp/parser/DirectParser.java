@@ -0,0 +1,1388 @@
+package com.litsynp.parser;
+
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.ast.AstArena;
+import com.litsynp.parser.ast.AstBuilder;
+import com.litsynp.parser.symbol.Symbol;
+import com.litsynp.parser.symbol.TokenMapper;
+
+/***
+ * Direct-coded SLR parser of the syntax analyzer, which takes the actions of
+ * each state by a switch instead of looking them up in the parsing table.
+ * <p>
+ * GENERATED by {@link com.litsynp.parser.generator.DirectCodeGenerator} from
+ * the parsing table. Do not edit this file, but run the generator again after
+ * changing the rules.
+ */
+final class DirectParser {
+
+	/***
+	 * Fingerprint of the parsing table that the parser has been generated from.
+	 */
+	static final int TABLE_FINGERPRINT = -1236337376;
+
+	/***
+	 * All symbols, indexed by ordinal.
+	 */
+	private static final Symbol[] SYMBOLS = Symbol.values();
+
+	private DirectParser() {
+	}
+
+	/***
+	 * Parses a range of tokens, and builds the syntax tree of the range.
+	 * 
+	 * @param tokens  the tokens of the input
+	 * @param from    the position of the first token to parse
+	 * @param to      the position right after the last token to parse
+	 * @param stack   the empty parse stack
+	 * @param builder the builder of the syntax tree
+	 * @return the node of the dummy start symbol, or NONE if the tokens are not
+	 *         accepted
+	 */
+	static int parse(TokenStream tokens, int from, int to, ParseStack stack, AstBuilder builder) {
+		int position = from;
+		int terminal = terminalAt(tokens, position, to);
+		int state = 0;
+		stack.push(state, AstArena.NONE);
+
+		while (true) {
+			switch (state) {
+			case 0:
+				switch (terminal) {
+				case 0: // vtype
+					state = 1;
+					break;
+				default:
+					state = reduce4(stack, builder);
+					continue;
+				}
+				break;
+			case 1:
+				switch (terminal) {
+				case 4: // id
+					state = 5;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 2:
+				switch (terminal) {
+				case 20: // $
+					return builder.reduce(1, 1, stack);
+				default:
+					return AstArena.NONE;
+				}
+			case 3:
+				switch (terminal) {
+				case 0: // vtype
+					state = 1;
+					break;
+				default:
+					state = reduce4(stack, builder);
+					continue;
+				}
+				break;
+			case 4:
+				switch (terminal) {
+				case 0: // vtype
+					state = 1;
+					break;
+				default:
+					state = reduce4(stack, builder);
+					continue;
+				}
+				break;
+			case 5:
+				switch (terminal) {
+				case 12: // assign
+					state = 9;
+					break;
+				case 14: // semi
+					state = 10;
+					break;
+				case 16: // lparen
+					state = 11;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 6:
+				switch (terminal) {
+				case 14: // semi
+					state = 12;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 7:
+				state = reduce2(stack, builder);
+				continue;
+			case 8:
+				state = reduce3(stack, builder);
+				continue;
+			case 9:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 3: // literal
+					state = 15;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 10:
+				state = reduce5(stack, builder);
+				continue;
+			case 11:
+				switch (terminal) {
+				case 0: // vtype
+					state = 22;
+					break;
+				default:
+					state = reduce10(stack, builder);
+					continue;
+				}
+				break;
+			case 12:
+				state = reduce6(stack, builder);
+				continue;
+			case 13:
+				state = reduce30(stack, builder);
+				continue;
+			case 14:
+				state = reduce31(stack, builder);
+				continue;
+			case 15:
+				state = reduce23(stack, builder);
+				continue;
+			case 16:
+				state = reduce29(stack, builder);
+				continue;
+			case 17:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 18:
+				state = reduce7(stack, builder);
+				continue;
+			case 19:
+				state = reduce22(stack, builder);
+				continue;
+			case 20:
+				switch (terminal) {
+				case 10: // addsub
+					state = 25;
+					break;
+				default:
+					state = reduce25(stack, builder);
+					continue;
+				}
+				break;
+			case 21:
+				switch (terminal) {
+				case 11: // multdiv
+					state = 26;
+					break;
+				default:
+					state = reduce27(stack, builder);
+					continue;
+				}
+				break;
+			case 22:
+				switch (terminal) {
+				case 4: // id
+					state = 27;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 23:
+				switch (terminal) {
+				case 17: // rparen
+					state = 28;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 24:
+				switch (terminal) {
+				case 17: // rparen
+					state = 29;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 25:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 26:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 27:
+				switch (terminal) {
+				case 15: // comma
+					state = 32;
+					break;
+				default:
+					state = reduce12(stack, builder);
+					continue;
+				}
+				break;
+			case 28:
+				switch (terminal) {
+				case 18: // lbrace
+					state = 34;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 29:
+				state = reduce28(stack, builder);
+				continue;
+			case 30:
+				state = reduce24(stack, builder);
+				continue;
+			case 31:
+				state = reduce26(stack, builder);
+				continue;
+			case 32:
+				switch (terminal) {
+				case 0: // vtype
+					state = 35;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 33:
+				state = reduce9(stack, builder);
+				continue;
+			case 34:
+				switch (terminal) {
+				case 0: // vtype
+					state = 36;
+					break;
+				case 4: // id
+					state = 37;
+					break;
+				case 5: // if
+					state = 38;
+					break;
+				case 7: // while
+					state = 39;
+					break;
+				case 8: // for
+					state = 40;
+					break;
+				default:
+					state = reduce14(stack, builder);
+					continue;
+				}
+				break;
+			case 35:
+				switch (terminal) {
+				case 4: // id
+					state = 45;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 36:
+				switch (terminal) {
+				case 4: // id
+					state = 46;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 37:
+				switch (terminal) {
+				case 12: // assign
+					state = 9;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 38:
+				switch (terminal) {
+				case 16: // lparen
+					state = 47;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 39:
+				switch (terminal) {
+				case 16: // lparen
+					state = 48;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 40:
+				switch (terminal) {
+				case 16: // lparen
+					state = 49;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 41:
+				state = reduce15(stack, builder);
+				continue;
+			case 42:
+				switch (terminal) {
+				case 9: // return
+					state = 50;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 43:
+				switch (terminal) {
+				case 0: // vtype
+					state = 36;
+					break;
+				case 4: // id
+					state = 37;
+					break;
+				case 5: // if
+					state = 38;
+					break;
+				case 7: // while
+					state = 39;
+					break;
+				case 8: // for
+					state = 40;
+					break;
+				default:
+					state = reduce14(stack, builder);
+					continue;
+				}
+				break;
+			case 44:
+				switch (terminal) {
+				case 14: // semi
+					state = 53;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 45:
+				switch (terminal) {
+				case 15: // comma
+					state = 32;
+					break;
+				default:
+					state = reduce12(stack, builder);
+					continue;
+				}
+				break;
+			case 46:
+				switch (terminal) {
+				case 12: // assign
+					state = 9;
+					break;
+				case 14: // semi
+					state = 10;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 47:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 48:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 49:
+				switch (terminal) {
+				case 4: // id
+					state = 37;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 50:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 51:
+				switch (terminal) {
+				case 19: // rbrace
+					state = 60;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 52:
+				state = reduce13(stack, builder);
+				continue;
+			case 53:
+				state = reduce16(stack, builder);
+				continue;
+			case 54:
+				state = reduce11(stack, builder);
+				continue;
+			case 55:
+				switch (terminal) {
+				case 13: // comp
+					state = 61;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 56:
+				switch (terminal) {
+				case 17: // rparen
+					state = 62;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 57:
+				switch (terminal) {
+				case 17: // rparen
+					state = 63;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 58:
+				switch (terminal) {
+				case 14: // semi
+					state = 64;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 59:
+				switch (terminal) {
+				case 14: // semi
+					state = 65;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 60:
+				state = reduce8(stack, builder);
+				continue;
+			case 61:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 62:
+				switch (terminal) {
+				case 18: // lbrace
+					state = 67;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 63:
+				switch (terminal) {
+				case 18: // lbrace
+					state = 68;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 64:
+				switch (terminal) {
+				case 1: // num
+					state = 13;
+					break;
+				case 2: // float
+					state = 14;
+					break;
+				case 4: // id
+					state = 16;
+					break;
+				case 16: // lparen
+					state = 17;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 65:
+				state = reduce33(stack, builder);
+				continue;
+			case 66:
+				state = reduce32(stack, builder);
+				continue;
+			case 67:
+				switch (terminal) {
+				case 0: // vtype
+					state = 36;
+					break;
+				case 4: // id
+					state = 37;
+					break;
+				case 5: // if
+					state = 38;
+					break;
+				case 7: // while
+					state = 39;
+					break;
+				case 8: // for
+					state = 40;
+					break;
+				default:
+					state = reduce14(stack, builder);
+					continue;
+				}
+				break;
+			case 68:
+				switch (terminal) {
+				case 0: // vtype
+					state = 36;
+					break;
+				case 4: // id
+					state = 37;
+					break;
+				case 5: // if
+					state = 38;
+					break;
+				case 7: // while
+					state = 39;
+					break;
+				case 8: // for
+					state = 40;
+					break;
+				default:
+					state = reduce14(stack, builder);
+					continue;
+				}
+				break;
+			case 69:
+				switch (terminal) {
+				case 14: // semi
+					state = 72;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 70:
+				switch (terminal) {
+				case 19: // rbrace
+					state = 73;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 71:
+				switch (terminal) {
+				case 19: // rbrace
+					state = 74;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 72:
+				switch (terminal) {
+				case 4: // id
+					state = 37;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 73:
+				switch (terminal) {
+				case 6: // else
+					state = 76;
+					break;
+				default:
+					state = reduce21(stack, builder);
+					continue;
+				}
+				break;
+			case 74:
+				state = reduce18(stack, builder);
+				continue;
+			case 75:
+				switch (terminal) {
+				case 17: // rparen
+					state = 78;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 76:
+				switch (terminal) {
+				case 18: // lbrace
+					state = 79;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 77:
+				state = reduce17(stack, builder);
+				continue;
+			case 78:
+				switch (terminal) {
+				case 18: // lbrace
+					state = 80;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 79:
+				switch (terminal) {
+				case 0: // vtype
+					state = 36;
+					break;
+				case 4: // id
+					state = 37;
+					break;
+				case 5: // if
+					state = 38;
+					break;
+				case 7: // while
+					state = 39;
+					break;
+				case 8: // for
+					state = 40;
+					break;
+				default:
+					state = reduce14(stack, builder);
+					continue;
+				}
+				break;
+			case 80:
+				switch (terminal) {
+				case 0: // vtype
+					state = 36;
+					break;
+				case 4: // id
+					state = 37;
+					break;
+				case 5: // if
+					state = 38;
+					break;
+				case 7: // while
+					state = 39;
+					break;
+				case 8: // for
+					state = 40;
+					break;
+				default:
+					state = reduce14(stack, builder);
+					continue;
+				}
+				break;
+			case 81:
+				switch (terminal) {
+				case 19: // rbrace
+					state = 83;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 82:
+				switch (terminal) {
+				case 19: // rbrace
+					state = 84;
+					break;
+				default:
+					return AstArena.NONE;
+				}
+				break;
+			case 83:
+				state = reduce20(stack, builder);
+				continue;
+			case 84:
+				state = reduce19(stack, builder);
+				continue;
+			default:
+				return AstArena.NONE;
+			}
+
+			// Shift the terminal and go to the state
+			stack.push(state, builder.shift(SYMBOLS[terminal], position));
+			terminal = terminalAt(tokens, ++position, to);
+		}
+	}
+
+	/***
+	 * Reduces by rule2: CODE -> VDECL CODE.
+	 */
+	private static int reduce2(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(2, 2, stack);
+		stack.popN(2);
+		int state = goToCODE(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule3: CODE -> FDECL CODE.
+	 */
+	private static int reduce3(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(3, 2, stack);
+		stack.popN(2);
+		int state = goToCODE(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule4: CODE -> \u03f5.
+	 */
+	private static int reduce4(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(4, 0, stack);
+		int state = goToCODE(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule5: VDECL -> vtype id semi.
+	 */
+	private static int reduce5(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(5, 3, stack);
+		stack.popN(3);
+		int state = goToVDECL(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule6: VDECL -> vtype ASSIGN semi.
+	 */
+	private static int reduce6(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(6, 3, stack);
+		stack.popN(3);
+		int state = goToVDECL(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule7: ASSIGN -> id assign RHS.
+	 */
+	private static int reduce7(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(7, 3, stack);
+		stack.popN(3);
+		int state = goToASSIGN(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule8: FDECL -> vtype id lparen ARG rparen lbrace BLOCK RETURN rbrace.
+	 */
+	private static int reduce8(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(8, 9, stack);
+		stack.popN(9);
+		int state = goToFDECL(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule9: ARG -> vtype id MOREARGS.
+	 */
+	private static int reduce9(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(9, 3, stack);
+		stack.popN(3);
+		int state = goToARG(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule10: ARG -> \u03f5.
+	 */
+	private static int reduce10(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(10, 0, stack);
+		int state = goToARG(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule11: MOREARGS -> comma vtype id MOREARGS.
+	 */
+	private static int reduce11(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(11, 4, stack);
+		stack.popN(4);
+		int state = goToMOREARGS(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule12: MOREARGS -> \u03f5.
+	 */
+	private static int reduce12(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(12, 0, stack);
+		int state = goToMOREARGS(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule13: BLOCK -> STMT BLOCK.
+	 */
+	private static int reduce13(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(13, 2, stack);
+		stack.popN(2);
+		int state = goToBLOCK(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule14: BLOCK -> \u03f5.
+	 */
+	private static int reduce14(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(14, 0, stack);
+		int state = goToBLOCK(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule15: STMT -> VDECL.
+	 */
+	private static int reduce15(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(15, 1, stack);
+		stack.popN(1);
+		int state = goToSTMT(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule16: STMT -> ASSIGN semi.
+	 */
+	private static int reduce16(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(16, 2, stack);
+		stack.popN(2);
+		int state = goToSTMT(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule17: STMT -> if lparen COND rparen lbrace BLOCK rbrace ELSE.
+	 */
+	private static int reduce17(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(17, 8, stack);
+		stack.popN(8);
+		int state = goToSTMT(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule18: STMT -> while lparen COND rparen lbrace BLOCK rbrace.
+	 */
+	private static int reduce18(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(18, 7, stack);
+		stack.popN(7);
+		int state = goToSTMT(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule19: STMT -> for lparen ASSIGN semi COND semi ASSIGN rparen lbrace BLOCK rbrace.
+	 */
+	private static int reduce19(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(19, 11, stack);
+		stack.popN(11);
+		int state = goToSTMT(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule20: ELSE -> else lbrace BLOCK rbrace.
+	 */
+	private static int reduce20(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(20, 4, stack);
+		stack.popN(4);
+		int state = goToELSE(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule21: ELSE -> \u03f5.
+	 */
+	private static int reduce21(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(21, 0, stack);
+		int state = goToELSE(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule22: RHS -> EXPR.
+	 */
+	private static int reduce22(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(22, 1, stack);
+		stack.popN(1);
+		int state = goToRHS(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule23: RHS -> literal.
+	 */
+	private static int reduce23(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(23, 1, stack);
+		stack.popN(1);
+		int state = goToRHS(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule24: EXPR -> TERM addsub EXPR.
+	 */
+	private static int reduce24(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(24, 3, stack);
+		stack.popN(3);
+		int state = goToEXPR(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule25: EXPR -> TERM.
+	 */
+	private static int reduce25(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(25, 1, stack);
+		stack.popN(1);
+		int state = goToEXPR(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule26: TERM -> FACTOR multdiv TERM.
+	 */
+	private static int reduce26(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(26, 3, stack);
+		stack.popN(3);
+		int state = goToTERM(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule27: TERM -> FACTOR.
+	 */
+	private static int reduce27(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(27, 1, stack);
+		stack.popN(1);
+		int state = goToTERM(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule28: FACTOR -> lparen EXPR rparen.
+	 */
+	private static int reduce28(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(28, 3, stack);
+		stack.popN(3);
+		int state = goToFACTOR(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule29: FACTOR -> id.
+	 */
+	private static int reduce29(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(29, 1, stack);
+		stack.popN(1);
+		int state = goToFACTOR(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule30: FACTOR -> num.
+	 */
+	private static int reduce30(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(30, 1, stack);
+		stack.popN(1);
+		int state = goToFACTOR(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule31: FACTOR -> float.
+	 */
+	private static int reduce31(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(31, 1, stack);
+		stack.popN(1);
+		int state = goToFACTOR(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule32: COND -> FACTOR comp FACTOR.
+	 */
+	private static int reduce32(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(32, 3, stack);
+		stack.popN(3);
+		int state = goToCOND(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Reduces by rule33: RETURN -> return FACTOR semi.
+	 */
+	private static int reduce33(ParseStack stack, AstBuilder builder) {
+		int node = builder.reduce(33, 3, stack);
+		stack.popN(3);
+		int state = goToRETURN(stack.peekState());
+		stack.push(state, node);
+		return state;
+	}
+
+	/***
+	 * Returns the state to go to on CODE.
+	 */
+	private static int goToCODE(int state) {
+		switch (state) {
+		case 3:
+			return 7;
+		case 4:
+			return 8;
+		default:
+			return 2;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on VDECL.
+	 */
+	private static int goToVDECL(int state) {
+		switch (state) {
+		case 0:
+		case 3:
+		case 4:
+			return 3;
+		default:
+			return 41;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on FDECL.
+	 */
+	private static int goToFDECL(int state) {
+		return 4;
+	}
+
+	/***
+	 * Returns the state to go to on ARG.
+	 */
+	private static int goToARG(int state) {
+		return 23;
+	}
+
+	/***
+	 * Returns the state to go to on MOREARGS.
+	 */
+	private static int goToMOREARGS(int state) {
+		switch (state) {
+		case 45:
+			return 54;
+		default:
+			return 33;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on BLOCK.
+	 */
+	private static int goToBLOCK(int state) {
+		switch (state) {
+		case 43:
+			return 52;
+		case 67:
+			return 70;
+		case 68:
+			return 71;
+		case 79:
+			return 81;
+		case 80:
+			return 82;
+		default:
+			return 42;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on STMT.
+	 */
+	private static int goToSTMT(int state) {
+		return 43;
+	}
+
+	/***
+	 * Returns the state to go to on ELSE.
+	 */
+	private static int goToELSE(int state) {
+		return 77;
+	}
+
+	/***
+	 * Returns the state to go to on ASSIGN.
+	 */
+	private static int goToASSIGN(int state) {
+		switch (state) {
+		case 1:
+		case 36:
+			return 6;
+		case 49:
+			return 58;
+		case 72:
+			return 75;
+		default:
+			return 44;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on RHS.
+	 */
+	private static int goToRHS(int state) {
+		return 18;
+	}
+
+	/***
+	 * Returns the state to go to on EXPR.
+	 */
+	private static int goToEXPR(int state) {
+		switch (state) {
+		case 17:
+			return 24;
+		case 25:
+			return 30;
+		default:
+			return 19;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on TERM.
+	 */
+	private static int goToTERM(int state) {
+		switch (state) {
+		case 26:
+			return 31;
+		default:
+			return 20;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on FACTOR.
+	 */
+	private static int goToFACTOR(int state) {
+		switch (state) {
+		case 47:
+		case 48:
+		case 64:
+			return 55;
+		case 50:
+			return 59;
+		case 61:
+			return 66;
+		default:
+			return 21;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on COND.
+	 */
+	private static int goToCOND(int state) {
+		switch (state) {
+		case 48:
+			return 57;
+		case 64:
+			return 69;
+		default:
+			return 56;
+		}
+	}
+
+	/***
+	 * Returns the state to go to on RETURN.
+	 */
+	private static int goToRETURN(int state) {
+		return 51;
+	}
+
+	/***
+	 * Returns the terminal ordinal of a token, or of eof ($) after the range.
+	 */
+	private static int terminalAt(TokenStream tokens, int position, int to) {
+		if (position == to) {
+			return 20;
+		}
+		Symbol symbol = TokenMapper.convertToken(tokens, position);
+		return (symbol == null) ? -1 : symbol.ordinal();
+	}
+}
@@ -0,0 +1,65 @@
+package com.litsynp.parser;
+
+import java.io.IOException;
+
+import com.litsynp.lexer.Lexer;
+import com.litsynp.lexer.token.NameTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.symbol.Symbol;
+import com.litsynp.parser.symbol.TokenMapper;
+
+/***
+ * Token source that pulls the tokens from a lexer on the thread of the parser.
+ */
+class LexerTokenSource implements TokenSource {
+
+	/***
+	 * The lexer to pull the tokens from.
+	 */
+	private final Lexer lexer;
+
+	/***
+	 * Creates a new token source.
+	 * 
+	 * @param lexer the lexer to pull the tokens from
+	 */
+	LexerTokenSource(Lexer lexer) {
+		this.lexer = lexer;
+	}
+
+	/***
+	 * Pulls the next token from the lexer, and maps it into a terminal symbol.
+	 */
+	@Override
+	public Symbol nextToken(TokenStream tokens) throws IOException, NullTokenException {
+		if (!lexer.nextToken(tokens)) {
+			return Symbol.TERM_EOF;
+		}
+		return TokenMapper.convertToken(tokens, tokens.size() - 1);
+	}
+
+	/***
+	 * Returns the names of the lexer.
+	 */
+	@Override
+	public NameTable getNames() {
+		return lexer.getNames();
+	}
+
+	/***
+	 * Returns the number of lines scanned so far by the lexer.
+	 */
+	@Override
+	public int getLineCount() {
+		return lexer.getLineCount();
+	}
+
+	/***
+	 * Returns the position of the character being scanned by the lexer.
+	 */
+	@Override
+	public int getCharCount() {
+		return lexer.getCharCount();
+	}
+}
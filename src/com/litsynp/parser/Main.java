@@ -1,6 +1,14 @@
 package com.litsynp.parser;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.litsynp.lexer.Lexer;
+import com.litsynp.lexer.LexicalAnalyzer;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.parser.trace.ParseTracer;
+import com.litsynp.parser.trace.TraceLevel;
 
 /**
  * Main class of the compiler program.
@@ -10,24 +18,93 @@ public class Main {
 	/**
 	 * Main method of the compiler program.
 	 * 
-	 * @param args args[1] contains the input file path (default: "files/a.ser")
+	 * @param args the input file path (default: "files/a.tok"), optionally
+	 *             preceded by "--trace=off|summary|actions|full" (default:
+	 *             "full") and "--parallel" to lex and parse the file in parallel
+	 *             on all cores. A source file that does not end with ".tok" is
+	 *             lexically analyzed while being parsed.
 	 */
 	public static void main(String[] args) {
 
 		// Input file name
 		String fileName = null;
+		int argIndex = 0;
+
+		// Read options for the trace level and the parallel mode
+		TraceLevel traceLevel = TraceLevel.FULL;
+		boolean parallel = false;
+		for (; argIndex < args.length && args[argIndex].startsWith("--"); argIndex++) {
+			if (args[argIndex].equals("--parallel")) {
+				parallel = true;
+			} else if (args[argIndex].startsWith("--trace=")) {
+				try {
+					traceLevel = TraceLevel.fromName(args[argIndex].substring("--trace=".length()));
+				} catch (IllegalArgumentException e) {
+					System.out.println(e.getMessage());
+					return;
+				}
+			} else {
+				System.out.println("Unknown option \"" + args[argIndex] + "\"");
+				return;
+			}
+		}
+		ParseTracer tracer = new ParseTracer(traceLevel);
 
 		// Read argument for input file name
-		if (args.length > 0) {
-			fileName = args[0];
+		if (argIndex < args.length) {
+			fileName = args[argIndex];
 		} else {
 			// Default input file name
-			fileName = "files" + File.separator + "a.ser";
+			fileName = "files" + File.separator + "a.tok";
+		}
+
+		// Syntactically analyze the token list
+		if (fileName.endsWith(".tok")) {
+			try {
+				System.out.println("Syntax analyzer has been set on input file \"" + new File(fileName).getName() + "\".");
+				SyntaxAnalyzer parser = new SyntaxAnalyzer(new File(fileName));
+				parser.setTracer(tracer);
+				boolean isAccepted = parallel ? parser.parse(ForkJoinPool.commonPool()) : parser.parse();
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+			return;
+		}
+
+		// Syntactically analyze the source file after lexically analyzing all of it
+		if (parallel) {
+			try {
+				SyntaxAnalyzer parser = new SyntaxAnalyzer(LexicalAnalyzer.tokenize(new File(fileName), true));
+				parser.setTracer(tracer);
+				boolean isAccepted = parser.parse(ForkJoinPool.commonPool());
+			} catch (IOException e) {
+				System.out.println(e);
+			} catch (NullTokenException e) {
+				System.out.println(e);
+			}
+			return;
 		}
 
-		// Syntactically analyze the input file
-		SyntaxAnalyzer parser = new SyntaxAnalyzer(new File(fileName));
-		boolean isAccepted = parser.parse();
+		// Syntactically analyze the source file, pulling tokens from the lexer
+		Lexer lexer = null;
+		try {
+			lexer = new Lexer(new File(fileName));
+			SyntaxAnalyzer parser = new SyntaxAnalyzer(lexer);
+			parser.setTracer(tracer);
+			boolean isAccepted = parser.parse();
+		} catch (IOException e) {
+			System.out.println(e);
+		} finally {
+			// Close the lexer
+			try {
+				if (lexer != null) {
+					lexer.close();
+				}
+			} catch (IOException e) {
+				System.out.println(e);
+			}
+		}
 	}
 
 }
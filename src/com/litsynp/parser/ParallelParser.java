@@ -0,0 +1,174 @@
+package com.litsynp.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.lexer.token.TokenType;
+import com.litsynp.parser.ast.Ast;
+import com.litsynp.parser.trace.ParseTracer;
+
+/***
+ * Parser that splits the tokens of an input into slices of whole top-level
+ * declarations and syntactically analyzes the slices in parallel.
+ * <p>
+ * Every top-level declaration is parsed from the same states, whatever comes
+ * before it, and a run of declarations is a CODE of its own. So each slice is
+ * parsed on its own on a {@link ForkJoinPool}, against the parsing table that
+ * all syntax analyzers share, and the input is accepted if all of the slices
+ * are. The syntax trees of the slices are then joined in order.
+ * <p>
+ * The declarations are found by a pre-pass over the token types alone: a
+ * top-level declaration ends at a semi (;) or at the rbrace (}) that closes
+ * its body, outside of any braces.
+ */
+class ParallelParser {
+
+	/***
+	 * Smallest number of tokens in a slice.
+	 */
+	static final int MIN_SLICE_SIZE = 1 << 14;
+
+	/***
+	 * Number of slices per thread of the pool, so that the threads that finish
+	 * first take over slices of the others.
+	 */
+	private static final int SLICES_PER_THREAD = 4;
+
+	/***
+	 * Pool to parse the slices on.
+	 */
+	private final ForkJoinPool pool;
+
+	/***
+	 * Creates a new parallel parser.
+	 *
+	 * @param pool pool to parse the slices on
+	 */
+	ParallelParser(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/***
+	 * Parses tokens slice by slice in parallel.
+	 *
+	 * @param tokens the tokens of the input
+	 * @return the syntax tree of the input, or null if a slice has not been
+	 *         accepted
+	 */
+	Ast parse(TokenStream tokens) {
+		int sliceSize = Math.max(MIN_SLICE_SIZE, tokens.size() / (pool.getParallelism() * SLICES_PER_THREAD));
+		int[] bounds = findSlices(tokens, sliceSize);
+
+		List<ForkJoinTask<Ast>> tasks = new ArrayList<ForkJoinTask<Ast>>();
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			tasks.add(pool.submit(new SliceTask(tokens, bounds[i], bounds[i + 1])));
+		}
+
+		// Collect the results in order
+		List<Ast> parts = new ArrayList<Ast>();
+		for (int i = 0; i < tasks.size(); i++) {
+			Ast part = tasks.get(i).join();
+			if (part == null) {
+				for (int j = i + 1; j < tasks.size(); j++) {
+					tasks.get(j).cancel(false);
+				}
+				return null;
+			}
+			parts.add(part);
+		}
+		return Ast.join(tokens, parts, pool);
+	}
+
+	/***
+	 * Splits tokens into slices at the ends of top-level declarations. A slice
+	 * ends at the first declaration end after a number of tokens, or at the end
+	 * of the tokens.
+	 * <p>
+	 * An rbrace (}) without a matching lbrace ({) is taken as the end of a
+	 * declaration. Unbalanced braces leave the slices without a whole number of
+	 * declarations, which the parser of the slice rejects.
+	 *
+	 * @param tokens    the tokens of the input
+	 * @param sliceSize the smallest number of tokens in a slice but the last
+	 * @return the position of the first token of each slice, followed by the
+	 *         number of tokens
+	 */
+	static int[] findSlices(TokenStream tokens, int sliceSize) {
+		int size = tokens.size();
+		int[] bounds = new int[size / sliceSize + 2];
+		int count = 1;
+
+		int depth = 0;
+		int next = sliceSize;
+		for (int i = 0; i < size; i++) {
+			TokenType type = tokens.getType(i);
+			if (type == TokenType.LBRACE) {
+				depth++;
+			} else if (type == TokenType.RBRACE) {
+				depth = Math.max(depth - 1, 0);
+			} else if (type != TokenType.SEMI || depth > 0) {
+				continue;
+			}
+
+			if (depth == 0 && i + 1 >= next && i + 1 < size) {
+				bounds[count++] = i + 1;
+				next = i + 1 + sliceSize;
+			}
+		}
+
+		bounds[count++] = size;
+		int[] result = new int[count];
+		System.arraycopy(bounds, 0, result, 0, count);
+		return result;
+	}
+
+	/***
+	 * Task that parses a single slice.
+	 */
+	private static class SliceTask implements Callable<Ast> {
+
+		/***
+		 * Tokens of the input.
+		 */
+		private final TokenStream tokens;
+
+		/***
+		 * Position of the first token of the slice.
+		 */
+		private final int from;
+
+		/***
+		 * Position right after the last token of the slice.
+		 */
+		private final int to;
+
+		/***
+		 * Creates a new task.
+		 *
+		 * @param tokens tokens of the input
+		 * @param from   position of the first token of the slice
+		 * @param to     position right after the last token of the slice
+		 */
+		SliceTask(TokenStream tokens, int from, int to) {
+			this.tokens = tokens;
+			this.from = from;
+			this.to = to;
+		}
+
+		/***
+		 * Parses the slice.
+		 *
+		 * @return the syntax tree of the slice, or null if it has not been accepted
+		 */
+		@Override
+		public Ast call() {
+			SyntaxAnalyzer parser = new SyntaxAnalyzer(tokens, from, to);
+			parser.setTracer(ParseTracer.quiet());
+			return parser.parse() ? parser.getAst() : null;
+		}
+	}
+}
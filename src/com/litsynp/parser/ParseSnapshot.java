@@ -0,0 +1,77 @@
+package com.litsynp.parser;
+
+/***
+ * Snapshot of the parse stack right after a top-level declaration, which is a
+ * VDECL or an FDECL reduced at a state that goes to CODE.
+ * <p>
+ * At such a boundary the stack only holds the states of the declarations
+ * before it, and every state at the top of such a stack shifts the first token
+ * of a declaration to the same state. So the declarations after a boundary
+ * are parsed the same way as at the beginning of the input, whatever comes
+ * before it.
+ */
+public final class ParseSnapshot {
+
+	/***
+	 * Position of the first token after the declaration.
+	 */
+	private final int inputPosition;
+
+	/***
+	 * State at the stack top.
+	 */
+	private final int state;
+
+	/***
+	 * Number of states on the stack.
+	 */
+	private final int depth;
+
+	/***
+	 * Creates a snapshot.
+	 *
+	 * @param inputPosition the position of the first token after the declaration
+	 * @param state         the state at the stack top
+	 * @param depth         the number of states on the stack
+	 */
+	public ParseSnapshot(int inputPosition, int state, int depth) {
+		this.inputPosition = inputPosition;
+		this.state = state;
+		this.depth = depth;
+	}
+
+	/***
+	 * Returns the position of the first token after the declaration.
+	 *
+	 * @return the token index
+	 */
+	public int getInputPosition() {
+		return inputPosition;
+	}
+
+	/***
+	 * Returns the state at the stack top.
+	 *
+	 * @return the state number
+	 */
+	public int getState() {
+		return state;
+	}
+
+	/***
+	 * Returns the number of states on the stack.
+	 *
+	 * @return the depth of the stack
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/***
+	 * Returns string value of the snapshot.
+	 */
+	@Override
+	public String toString() {
+		return "Q" + state + " with " + depth + " states before token " + inputPosition;
+	}
+}
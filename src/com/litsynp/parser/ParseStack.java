@@ -0,0 +1,162 @@
+package com.litsynp.parser;
+
+import java.util.Arrays;
+
+/***
+ * Stack of the LR parser, holding state numbers in a growable int array and an
+ * int semantic value next to each state, such as the index of a syntax tree
+ * node.
+ * <p>
+ * Unlike {@link java.util.Stack}, the stack is not synchronized and does not
+ * box its states, and a reduction pops all the states of a rule body at once.
+ */
+public final class ParseStack {
+
+	/***
+	 * Capacity of a stack that is not given one.
+	 */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/***
+	 * State numbers, from the bottom of the stack.
+	 */
+	private int[] states;
+
+	/***
+	 * Semantic value of each state.
+	 */
+	private int[] values;
+
+	/***
+	 * Number of states on the stack.
+	 */
+	private int size = 0;
+
+	/***
+	 * Largest number of states that have been on the stack at once.
+	 */
+	private int maxDepth = 0;
+
+	/***
+	 * Creates an empty stack.
+	 */
+	public ParseStack() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/***
+	 * Creates an empty stack that holds a number of states before it grows.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	public ParseStack(int capacity) {
+		states = new int[Math.max(capacity, 1)];
+		values = new int[states.length];
+	}
+
+	/***
+	 * Pushes a state and its semantic value.
+	 *
+	 * @param state the state number
+	 * @param value the semantic value
+	 */
+	public void push(int state, int value) {
+		if (size == states.length) {
+			states = Arrays.copyOf(states, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		states[size] = state;
+		values[size] = value;
+		size++;
+
+		if (size > maxDepth) {
+			maxDepth = size;
+		}
+	}
+
+	/***
+	 * Pops a number of states at once.
+	 *
+	 * @param n the number of states to pop
+	 * @throws IllegalStateException when there are fewer than n states
+	 */
+	public void popN(int n) {
+		if (n > size) {
+			throw new IllegalStateException("Cannot pop " + n + " of " + size + " states");
+		}
+		size -= n;
+	}
+
+	/***
+	 * Returns the state at the top of the stack.
+	 *
+	 * @return the state number
+	 */
+	public int peekState() {
+		return states[size - 1];
+	}
+
+	/***
+	 * Returns the semantic value at the top of the stack.
+	 *
+	 * @return the semantic value
+	 */
+	public int peekValue() {
+		return values[size - 1];
+	}
+
+	/***
+	 * Returns the state at a position from the bottom of the stack.
+	 *
+	 * @param index the position, from 0 at the bottom
+	 * @return the state number
+	 */
+	public int stateAt(int index) {
+		return states[index];
+	}
+
+	/***
+	 * Returns the semantic value at a position from the bottom of the stack.
+	 *
+	 * @param index the position, from 0 at the bottom
+	 * @return the semantic value
+	 */
+	public int valueAt(int index) {
+		return values[index];
+	}
+
+	/***
+	 * Returns the number of states on the stack.
+	 *
+	 * @return the number of states
+	 */
+	public int size() {
+		return size;
+	}
+
+	/***
+	 * Returns whether the stack is empty.
+	 *
+	 * @return boolean value of whether the stack is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/***
+	 * Returns the largest number of states that have been on the stack at once,
+	 * to size the stack in advance for inputs of the same shape.
+	 *
+	 * @return the maximum depth
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/***
+	 * Removes all states, keeping the capacity and the maximum depth.
+	 */
+	public void clear() {
+		popN(size);
+	}
+}
@@ -0,0 +1,122 @@
+package com.litsynp.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.litsynp.lexer.LexicalAnalyzer;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.ast.AstArena;
+import com.litsynp.parser.ast.AstBuilder;
+import com.litsynp.parser.trace.ParseTracer;
+
+/***
+ * Benchmark that compares the table-driven syntax analyzer with the
+ * direct-coded parser on the tokens of source files.
+ * <p>
+ * Both engines build the syntax tree, and the tokens are lexically analyzed
+ * before timing. The engines take turns, so that both run as often under the
+ * same state of the JIT compiler and the garbage collector, and the fastest
+ * and the median time of each engine are reported.
+ */
+public class ParserBenchmark {
+
+	/***
+	 * Main method of the benchmark.
+	 *
+	 * @param args the source files (default: "files/a.c"), optionally preceded by
+	 *             "--rounds=n" (default: 50), the number of timed rounds after as
+	 *             many rounds to warm up
+	 */
+	public static void main(String[] args) {
+		int rounds = 50;
+		int argIndex = 0;
+		if (argIndex < args.length && args[argIndex].startsWith("--rounds=")) {
+			rounds = Integer.parseInt(args[argIndex].substring("--rounds=".length()));
+			argIndex++;
+		}
+
+		String[] fileNames = (argIndex < args.length) ? Arrays.copyOfRange(args, argIndex, args.length)
+				: new String[] { "files" + File.separator + "a.c" };
+		for (String fileName : fileNames) {
+			TokenStream tokens;
+			try {
+				tokens = LexicalAnalyzer.tokenize(new File(fileName), false);
+			} catch (IOException e) {
+				System.out.println(e);
+				continue;
+			} catch (NullTokenException e) {
+				System.out.println(e);
+				continue;
+			}
+
+			// Check that both engines agree before timing them
+			boolean tableAccepts = parseWithTable(tokens);
+			boolean directAccepts = parseDirectly(tokens);
+			if (tableAccepts != directAccepts) {
+				System.out.println(fileName + ": the engines disagree on whether the input is accepted");
+				continue;
+			}
+
+			long[] tableTimes = new long[rounds];
+			long[] directTimes = new long[rounds];
+			for (int round = -rounds; round < rounds; round++) {
+				long start = System.nanoTime();
+				parseWithTable(tokens);
+				long middle = System.nanoTime();
+				parseDirectly(tokens);
+				long end = System.nanoTime();
+
+				if (round >= 0) {
+					tableTimes[round] = middle - start;
+					directTimes[round] = end - middle;
+				}
+			}
+
+			System.out.println(fileName + ": " + tokens.size() + " tokens, "
+					+ (tableAccepts ? "accepted" : "not accepted"));
+			report("table ", tableTimes, tokens.size());
+			report("direct", directTimes, tokens.size());
+		}
+	}
+
+	/***
+	 * Parses tokens with the table-driven syntax analyzer.
+	 *
+	 * @param tokens the tokens
+	 * @return boolean value of whether the tokens are accepted
+	 */
+	private static boolean parseWithTable(TokenStream tokens) {
+		SyntaxAnalyzer parser = new SyntaxAnalyzer(tokens);
+		parser.setTracer(ParseTracer.quiet());
+		parser.setDirect(false);
+		return parser.parse();
+	}
+
+	/***
+	 * Parses tokens with the direct-coded parser.
+	 *
+	 * @param tokens the tokens
+	 * @return boolean value of whether the tokens are accepted
+	 */
+	private static boolean parseDirectly(TokenStream tokens) {
+		return DirectParser.parse(tokens, 0, tokens.size(), new ParseStack(),
+				new AstBuilder(tokens.size())) != AstArena.NONE;
+	}
+
+	/***
+	 * Prints the fastest and the median time of an engine.
+	 *
+	 * @param engine     the name of the engine
+	 * @param times      the time of each round in nanoseconds
+	 * @param tokenCount the number of tokens
+	 */
+	private static void report(String engine, long[] times, int tokenCount) {
+		long[] sorted = times.clone();
+		Arrays.sort(sorted);
+		System.out.printf("  %s  fastest %8.3f ms (%6.1f ns/token), median %8.3f ms (%6.1f ns/token)%n", engine,
+				sorted[0] / 1e6, (double) sorted[0] / Math.max(tokenCount, 1), sorted[sorted.length / 2] / 1e6,
+				(double) sorted[sorted.length / 2] / Math.max(tokenCount, 1));
+	}
+}
@@ -0,0 +1,251 @@
+package com.litsynp.parser;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Dense SLR parsing table of the syntax analyzer.
+ * <p>
+ * The action table is a flat array indexed by state number and terminal
+ * ordinal, and the goto table a flat array indexed by state number and
+ * non-terminal, so a parsing step only takes a few array loads.
+ * <p>
+ * An action is encoded in a short: {@link #ERROR} for an empty entry, a
+ * positive value <code>s + 1</code> to shift and go to state s, and a negative
+ * value <code>-n</code> to reduce by rule n. Reducing by rule 1 accepts the
+ * input.
+ */
+public final class ParsingTable {
+
+	/***
+	 * Number of terminals, which come first in the symbols and end with eof ($).
+	 */
+	public static final int TERMINAL_COUNT = Symbol.TERM_EOF.ordinal() + 1;
+
+	/***
+	 * Number of non-terminals, which come right after the terminals.
+	 */
+	public static final int NONTERMINAL_COUNT = Symbol.SPLITTER.ordinal() - TERMINAL_COUNT;
+
+	/***
+	 * Action of an empty entry in the action table.
+	 */
+	public static final short ERROR = 0;
+
+	/***
+	 * Goto of an empty entry in the goto table.
+	 */
+	public static final short NO_STATE = -1;
+
+	/***
+	 * Action that accepts the input, which is reducing by rule 1.
+	 */
+	public static final short ACCEPT = -1;
+
+	/***
+	 * Number of states.
+	 */
+	private final int stateCount;
+
+	/***
+	 * Actions indexed by [state * TERMINAL_COUNT + terminal ordinal].
+	 */
+	private final short[] actions;
+
+	/***
+	 * Next states indexed by [state * NONTERMINAL_COUNT + non-terminal index].
+	 */
+	private final short[] gotos;
+
+	/***
+	 * Symbol ordinal that each state is entered on, or NO_STATE for the initial
+	 * state.
+	 */
+	private final short[] symbols;
+
+	/***
+	 * Creates a parsing table.
+	 *
+	 * @param stateCount the number of states
+	 * @param actions    the encoded actions
+	 * @param gotos      the next states
+	 * @param symbols    the symbol that each state is entered on
+	 */
+	private ParsingTable(int stateCount, short[] actions, short[] gotos, short[] symbols) {
+		this.stateCount = stateCount;
+		this.actions = actions;
+		this.gotos = gotos;
+		this.symbols = symbols;
+	}
+
+	/***
+	 * Builds a parsing table from its action and goto arrays.
+	 *
+	 * @param stateCount the number of states
+	 * @param actions    the encoded actions, indexed by [state * TERMINAL_COUNT +
+	 *                   terminal ordinal]
+	 * @param gotos      the next states or NO_STATE, indexed by [state *
+	 *                   NONTERMINAL_COUNT + non-terminal ordinal - TERMINAL_COUNT]
+	 * @param symbols    the symbol ordinal that each state is entered on, or
+	 *                   NO_STATE for the initial state
+	 * @return the new parsing table
+	 * @throws IllegalArgumentException when the arrays do not fit the number of
+	 *                                  states
+	 */
+	public static ParsingTable fromArrays(int stateCount, short[] actions, short[] gotos, short[] symbols) {
+		if (actions.length != stateCount * TERMINAL_COUNT || gotos.length != stateCount * NONTERMINAL_COUNT
+				|| symbols.length != stateCount) {
+			throw new IllegalArgumentException("The table arrays do not fit " + stateCount + " states");
+		}
+
+		return new ParsingTable(stateCount, actions.clone(), gotos.clone(), symbols.clone());
+	}
+
+	/***
+	 * Returns the number of states.
+	 *
+	 * @return the number of states
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/***
+	 * Returns the action at a state on a terminal.
+	 *
+	 * @param state    the state number
+	 * @param terminal the ordinal of the terminal
+	 * @return the encoded action
+	 */
+	public int action(int state, int terminal) {
+		return actions[state * TERMINAL_COUNT + terminal];
+	}
+
+	/***
+	 * Returns the next state at a state on a non-terminal.
+	 *
+	 * @param state       the state number
+	 * @param nonterminal the ordinal of the non-terminal
+	 * @return the next state number, or NO_STATE
+	 */
+	public int goTo(int state, int nonterminal) {
+		return gotos[state * NONTERMINAL_COUNT + nonterminal - TERMINAL_COUNT];
+	}
+
+	/***
+	 * Returns the symbol that a state is entered on, which is the symbol of the
+	 * state on the stack.
+	 *
+	 * @param state the state number
+	 * @return the symbol ordinal, or NO_STATE for the initial state
+	 */
+	public int getSymbol(int state) {
+		return symbols[state];
+	}
+
+	/***
+	 * Returns a fingerprint of the actions and gotos of the table, to tell whether
+	 * code that has been generated from a table still fits this one.
+	 *
+	 * @return the hash code of the actions and the gotos
+	 */
+	public int fingerprint() {
+		return 31 * (31 * stateCount + Arrays.hashCode(actions)) + Arrays.hashCode(gotos);
+	}
+
+	/***
+	 * Returns the terminals that have an action at a state, which are those that
+	 * the parser expects next.
+	 *
+	 * @param state the state number
+	 * @return the set of terminals
+	 */
+	public Set<Symbol> expectedTerminals(int state) {
+		Set<Symbol> expected = EnumSet.noneOf(Symbol.class);
+		for (Symbol terminal : Symbol.values()) {
+			if (terminal.isTerminal && action(state, terminal.ordinal()) != ERROR) {
+				expected.add(terminal);
+			}
+		}
+		return expected;
+	}
+
+	/***
+	 * Encodes a shift action.
+	 *
+	 * @param state the state to go to
+	 * @return the encoded action
+	 */
+	public static short shift(int state) {
+		return (short) (state + 1);
+	}
+
+	/***
+	 * Encodes a reduce action.
+	 *
+	 * @param ruleNumber the rule number to reduce by
+	 * @return the encoded action
+	 */
+	public static short reduce(int ruleNumber) {
+		return (short) -ruleNumber;
+	}
+
+	/***
+	 * Returns whether an action shifts.
+	 *
+	 * @param action the encoded action
+	 * @return boolean value of whether the action shifts
+	 */
+	public static boolean isShift(int action) {
+		return action > 0;
+	}
+
+	/***
+	 * Returns whether an action reduces.
+	 *
+	 * @param action the encoded action
+	 * @return boolean value of whether the action reduces, or accepts
+	 */
+	public static boolean isReduce(int action) {
+		return action < 0;
+	}
+
+	/***
+	 * Returns the state that a shift action goes to.
+	 *
+	 * @param action the encoded shift action
+	 * @return the state number
+	 */
+	public static int shiftState(int action) {
+		return action - 1;
+	}
+
+	/***
+	 * Returns the rule that a reduce action reduces by.
+	 *
+	 * @param action the encoded reduce action
+	 * @return the rule number
+	 */
+	public static int reduceRule(int action) {
+		return -action;
+	}
+
+	/***
+	 * Returns string value of an action, as "Sn" to shift and go to state n, "Rn"
+	 * to reduce by rule n, or an empty string for an empty entry.
+	 *
+	 * @param action the encoded action
+	 * @return string value of the action
+	 */
+	public static String describe(int action) {
+		if (isShift(action)) {
+			return "S" + shiftState(action);
+		} else if (isReduce(action)) {
+			return "R" + reduceRule(action);
+		}
+		return "";
+	}
+}
@@ -0,0 +1,151 @@
+package com.litsynp.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.litsynp.lexer.LexicalAnalyzer;
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.incremental.IncrementalParser;
+import com.litsynp.parser.trace.ParseTracer;
+
+/***
+ * Check that the syntax analyzer reports the syntax errors of malformed inputs
+ * instead of failing while it recovers from them.
+ * <p>
+ * Each input is parsed by both the table-driven parser and the direct-coded
+ * parser, and must be rejected with at least one syntax error by both. Then
+ * malformed sources are edited with the {@link IncrementalParser}, whose syntax
+ * errors must be the same as those of the edited source parsed anew.
+ */
+public class RecoveryCheck {
+
+	/***
+	 * Inputs that once made the parser fail while recovering.
+	 */
+	private static final String[] INPUTS = {
+			// A token without a terminal right after the ';' skipped to in panic mode
+			"} ; true",
+			"int f() { if ( ; ) ; & x; return 0; }",
+			"int main(( {\n\treturn 0;\ntrue}",
+			"int x = 1 << 2;",
+			"int f() { x = a | b; return 0; }" };
+
+	/***
+	 * Edits of malformed sources that once left the incremental parser with other
+	 * syntax errors than the edited source: each source, followed by the offset
+	 * and the length of the range to replace, and the text to insert.
+	 */
+	private static final Object[][] EDITS = {
+			// The token that a recovered declaration was reduced before is edited
+			{ "cchar ;\n x) int  = a - 1; ", 9, 0, "-" },
+			// The token after a declaration is no longer one that can follow it
+			{ "int a;\n x;\n", 8, 0, "-" },
+			// A section that begins with an error is edited
+			{ "int a;\nx int bb;\n", 13, 1, "" } };
+
+	/***
+	 * Main method of the check. The exit status is 0 if every input is rejected
+	 * with a syntax error and every edit leaves the syntax errors of a new parse,
+	 * and 1 otherwise.
+	 *
+	 * @param args more malformed source files to check, besides the built-in
+	 *             inputs
+	 */
+	public static void main(String[] args) {
+		int failures = 0;
+		for (int i = 0; i < INPUTS.length; i++) {
+			if (!check("input " + (i + 1), INPUTS[i].getBytes(StandardCharsets.UTF_8))) {
+				failures++;
+			}
+		}
+		for (int i = 0; i < EDITS.length; i++) {
+			if (!checkEdit("edit " + (i + 1), (String) EDITS[i][0], (Integer) EDITS[i][1], (Integer) EDITS[i][2],
+					(String) EDITS[i][3])) {
+				failures++;
+			}
+		}
+		for (String fileName : args) {
+			try {
+				if (!check(fileName, Files.readAllBytes(new File(fileName).toPath()))) {
+					failures++;
+				}
+			} catch (IOException e) {
+				System.out.println(e);
+				failures++;
+			}
+		}
+
+		int total = INPUTS.length + EDITS.length + args.length;
+		System.out.println((total - failures) + " of " + total + " input(s) and edit(s) passed");
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/***
+	 * Checks that both engines reject an input with syntax errors.
+	 *
+	 * @param name   the name of the input
+	 * @param source the bytes of the input
+	 * @return boolean value of whether the input passes the check
+	 */
+	private static boolean check(String name, byte[] source) {
+		TokenStream tokens;
+		try {
+			tokens = LexicalAnalyzer.lex(SourceBuffer.wrap(source, source.length), 0);
+		} catch (NullTokenException e) {
+			System.out.println(name + ": " + e.getMessage());
+			return false;
+		}
+
+		for (boolean isDirect : new boolean[] { false, true }) {
+			String engine = isDirect ? "direct" : "table";
+			SyntaxAnalyzer parser = new SyntaxAnalyzer(tokens);
+			parser.setTracer(ParseTracer.quiet());
+			parser.setDirect(isDirect);
+			try {
+				if (parser.parse() || parser.getDiagnostics().isEmpty()) {
+					System.out.println(name + ": accepted by the " + engine + " parser");
+					return false;
+				}
+			} catch (RuntimeException e) {
+				System.out.println(name + ": the " + engine + " parser failed with " + e);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/***
+	 * Checks that an edit with the incremental parser leaves the same syntax
+	 * errors as parsing the edited source anew.
+	 *
+	 * @param name          the name of the edit
+	 * @param source        the source before the edit
+	 * @param offset        the offset of the range to replace
+	 * @param removedLength the number of bytes to remove
+	 * @param inserted      the text to insert instead
+	 * @return boolean value of whether the edit passes the check
+	 */
+	private static boolean checkEdit(String name, String source, int offset, int removedLength, String inserted) {
+		try {
+			IncrementalParser parser = new IncrementalParser(source.getBytes(StandardCharsets.UTF_8));
+			parser.edit(offset, removedLength, inserted.getBytes(StandardCharsets.UTF_8));
+			List<Diagnostic> edited = parser.getDiagnostics();
+			List<Diagnostic> parsed = new IncrementalParser(parser.getSource()).getDiagnostics();
+			if (!edited.toString().equals(parsed.toString())) {
+				System.out.println(name + ": the incremental parser reports " + edited + " instead of " + parsed);
+				return false;
+			}
+		} catch (RuntimeException e) {
+			System.out.println(name + ": the incremental parser failed with " + e);
+			return false;
+		}
+		return true;
+	}
+}
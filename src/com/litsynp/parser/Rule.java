@@ -81,7 +81,7 @@ public enum Rule {
 	/***
 	 * Hash map to find a rule by the rule number.
 	 */
-	private static Map<Integer, Rule> map = new HashMap<Integer, Rule>();
+	private static final Map<Integer, Rule> map = new HashMap<Integer, Rule>();
 
 	static {
 		for (Rule rule : Rule.values()) {
@@ -1,870 +1,240 @@
 package com.litsynp.parser;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Stack;
-
-import com.litsynp.lexer.token.Token;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.litsynp.lexer.Lexer;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.ast.Ast;
+import com.litsynp.parser.ast.AstArena;
+import com.litsynp.parser.ast.AstBuilder;
 import com.litsynp.parser.exception.ReferenceException;
+import com.litsynp.parser.generator.ParserGenerator;
 import com.litsynp.parser.symbol.Symbol;
 import com.litsynp.parser.symbol.TokenMapper;
+import com.litsynp.parser.trace.ParseTracer;
+import com.litsynp.parser.trace.TraceLevel;
 
 public class SyntaxAnalyzer {
 
     /***
-     * The SLR parsing table of the syntax analyzer.
+     * The SLR parsing table of the syntax analyzer, generated from the production
+     * rules once and shared by all syntax analyzers.
      */
-    private HashMap<State, HashMap<Symbol, String>> parsingTable;
+    private static final ParsingTable parsingTable = ParserGenerator.generate();
 
     /***
-     * Stack that is used with the parsing table.
+     * Whether the direct-coded parser has been generated from the same parsing
+     * table, so that it accepts the same inputs.
      */
-    private Stack<State> stack;
+    private static final boolean IS_DIRECT_CURRENT = DirectParser.TABLE_FINGERPRINT == parsingTable.fingerprint();
 
     /***
-     * Input symbols that are generated as the output of the lexical analyzer.
+     * All symbols, indexed by ordinal.
      */
-    private ArrayList<Symbol> inputSymbols;
+    private static final Symbol[] SYMBOLS = Symbol.values();
 
     /***
-     * The position of the splitter '|' in the input symbols.
+     * All rules, indexed by rule number.
      */
-    private int splitterPosition = 0;
+    private static final Rule[] RULES = new Rule[Rule.values().length + 1];
 
     /***
-     * The acceptance code of the parser.
+     * Number of symbols in the body of each rule, indexed by rule number.
      */
-    private enum AcceptCode {
-        /***
-         * Means the parser accepts the input string.
-         */
-        ACCEPTED,
-        /***
-         * Means the parser does not accept the input string.
-         */
-        NOT_ACCEPTED,
-        /***
-         * Means the parser is still parsing the input string.
-         */
-        PARSING
+    private static final int[] RULE_BODY_LENGTHS = new int[RULES.length];
+
+    static {
+        for (Rule rule : Rule.values()) {
+            RULES[rule.ruleNumber] = rule;
+            RULE_BODY_LENGTHS[rule.ruleNumber] = (rule.body[0] == Symbol.EPSILON) ? 0 : rule.body.length;
+        }
     }
 
     /***
-     * Initializes the syntax analyzer by initializing the parsing table, the stack,
-     * and the input symbols, and putting a splitter at the beginning and an eof
-     * symbol at the end of the input symbol list.
-     * <p>
-     * The SLR parsing table is generated using .ser file, which is the token list
-     * that is generated from the lexical analyzer.
-     * 
-     * @param inputFile input file of the syntax analyzer that contains result
-     *                  information of the lexical analyzer
+     * Non-terminals that the parser resumes after when it recovers from an error,
+     * in the order they are tried at each state: a statement within a block, then
+     * a declaration at the top level.
      */
-    @SuppressWarnings({ "serial", "unchecked" })
-    public SyntaxAnalyzer(File inputFile) {
-        System.out.println("Syntax analyzer has been set on input file \"" + inputFile.getName() + "\".");
-
-        // Initialize the parsing table
-        parsingTable = new HashMap<State, HashMap<Symbol, String>>() {
-            {
-                put(State.Q0, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S3");
-                        put(Symbol.TERM_EOF, "R4");
-
-                        put(Symbol.NTERM_CODE, "5");
-                        put(Symbol.NTERM_VDECL, "1");
-                        put(Symbol.NTERM_FDECL, "2");
-                    }
-                });
-
-                put(State.Q1, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S3");
-                        put(Symbol.TERM_EOF, "R4");
-
-                        put(Symbol.NTERM_CODE, "4");
-                        put(Symbol.NTERM_VDECL, "1");
-                        put(Symbol.NTERM_FDECL, "2");
-                    }
-                });
-
-                put(State.Q2, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S3");
-                        put(Symbol.TERM_EOF, "R4");
-
-                        put(Symbol.NTERM_CODE, "6");
-                        put(Symbol.NTERM_VDECL, "1");
-                        put(Symbol.NTERM_FDECL, "2");
-                    }
-                });
-
-                put(State.Q3, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ID, "S7");
-
-                        put(Symbol.NTERM_ASSIGN, "8");
-                    }
-                });
-
-                put(State.Q4, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_EOF, "R2");
-                    }
-                });
-
-                put(State.Q5, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_EOF, "R1");
-                    }
-                });
-
-                put(State.Q6, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_EOF, "R3");
-                    }
-                });
-
-                put(State.Q7, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ASSIGN, "S11");
-                        put(Symbol.TERM_SEMI, "S10");
-                        put(Symbol.TERM_LPAREN, "S9");
-                    }
-                });
-
-                put(State.Q8, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "S12");
-                    }
-                });
-
-                put(State.Q9, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S15");
-                        put(Symbol.TERM_RPAREN, "R10");
-
-                        put(Symbol.NTERM_ARG, "14");
-                    }
-                });
-
-                put(State.Q10, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R5");
-                        put(Symbol.TERM_ID, "R5");
-                        put(Symbol.TERM_IF, "R5");
-                        put(Symbol.TERM_WHILE, "R5");
-                        put(Symbol.TERM_FOR, "R5");
-                        put(Symbol.TERM_RETURN, "R5");
-                        put(Symbol.TERM_RBRACE, "R5");
-                        put(Symbol.TERM_EOF, "R5");
-                    }
-                });
-
-                put(State.Q11, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_LITERAL, "S18");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_RHS, "16");
-                        put(Symbol.NTERM_EXPR, "17");
-                        put(Symbol.NTERM_TERM, "19");
-                        put(Symbol.NTERM_FACTOR, "20");
-                    }
-                });
-
-                put(State.Q12, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R6");
-                        put(Symbol.TERM_ID, "R6");
-                        put(Symbol.TERM_IF, "R6");
-                        put(Symbol.TERM_WHILE, "R6");
-                        put(Symbol.TERM_FOR, "R6");
-                        put(Symbol.TERM_RETURN, "R6");
-                        put(Symbol.TERM_RBRACE, "R6");
-                        put(Symbol.TERM_EOF, "R6");
-                    }
-                });
-
-                put(State.Q13, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ASSIGN, "S11");
-                    }
-                });
-
-                put(State.Q14, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "S25");
-                    }
-                });
-
-                put(State.Q15, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ID, "S26");
-                    }
-                });
-
-                put(State.Q16, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "R7");
-                        put(Symbol.TERM_RPAREN, "R7");
-                    }
-                });
-
-                put(State.Q17, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "R22");
-                        put(Symbol.TERM_RPAREN, "R22");
-                    }
-                });
-
-                put(State.Q18, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "R23");
-                        put(Symbol.TERM_RPAREN, "R23");
-                    }
-                });
-
-                put(State.Q19, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "S27");
-                        put(Symbol.TERM_SEMI, "R25");
-                        put(Symbol.TERM_RPAREN, "R25");
-                    }
-                });
-
-                put(State.Q20, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "R27");
-                        put(Symbol.TERM_MULTDIV, "S28");
-                        put(Symbol.TERM_SEMI, "R27");
-                        put(Symbol.TERM_RPAREN, "R27");
-                    }
-                });
-
-                put(State.Q21, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_EXPR, "29");
-                        put(Symbol.NTERM_TERM, "19");
-                        put(Symbol.NTERM_FACTOR, "20");
-                    }
-                });
-
-                put(State.Q22, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "R29");
-                        put(Symbol.TERM_MULTDIV, "R29");
-                        put(Symbol.TERM_COMP, "R29");
-                        put(Symbol.TERM_SEMI, "R29");
-                        put(Symbol.TERM_RPAREN, "R29");
-                    }
-                });
-
-                put(State.Q23, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "R30");
-                        put(Symbol.TERM_MULTDIV, "R30");
-                        put(Symbol.TERM_COMP, "R30");
-                        put(Symbol.TERM_SEMI, "R30");
-                        put(Symbol.TERM_RPAREN, "R30");
-                    }
-                });
-
-                put(State.Q24, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "R31");
-                        put(Symbol.TERM_MULTDIV, "R31");
-                        put(Symbol.TERM_COMP, "R31");
-                        put(Symbol.TERM_SEMI, "R31");
-                        put(Symbol.TERM_RPAREN, "R31");
-                    }
-                });
-
-                put(State.Q25, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LBRACE, "S30");
-                    }
-                });
-
-                put(State.Q26, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_COMMA, "S32");
-                        put(Symbol.TERM_RPAREN, "R12");
-                        put(Symbol.NTERM_MOREARGS, "31");
-                    }
-                });
-
-                put(State.Q27, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_EXPR, "33");
-                        put(Symbol.NTERM_TERM, "19");
-                        put(Symbol.NTERM_FACTOR, "20");
-                    }
-                });
-
-                put(State.Q28, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_TERM, "30");
-                        put(Symbol.NTERM_FACTOR, "20");
-                    }
-                });
-
-                put(State.Q29, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "S35");
-                    }
-                });
-
-                put(State.Q30, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S43");
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.TERM_IF, "S40");
-                        put(Symbol.TERM_WHILE, "S41");
-                        put(Symbol.TERM_FOR, "S42");
-                        put(Symbol.TERM_RETURN, "R14");
-                        put(Symbol.TERM_RBRACE, "R14");
-
-                        put(Symbol.NTERM_VDECL, "38");
-                        put(Symbol.NTERM_BLOCK, "36");
-                        put(Symbol.NTERM_STMT, "37");
-                        put(Symbol.NTERM_ASSIGN, "39");
-                    }
-                });
-
-                put(State.Q31, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "R9");
-                    }
-                });
-
-                put(State.Q32, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S44");
-                    }
-                });
-
-                put(State.Q33, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "R24");
-                        put(Symbol.TERM_RPAREN, "R24");
-                    }
-                });
-
-                put(State.Q34, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "R26");
-                        put(Symbol.TERM_SEMI, "R26");
-                        put(Symbol.TERM_RPAREN, "R26");
-                    }
-                });
-
-                put(State.Q35, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ADDSUB, "R28");
-                        put(Symbol.TERM_MULTDIV, "R28");
-                        put(Symbol.TERM_COMP, "R28");
-                        put(Symbol.TERM_SEMI, "R28");
-                        put(Symbol.TERM_RPAREN, "R28");
-                    }
-                });
-
-                put(State.Q36, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RETURN, "S46");
-                        put(Symbol.NTERM_RETURN, "45");
-                    }
-                });
-
-                put(State.Q37, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S43");
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.TERM_IF, "S40");
-                        put(Symbol.TERM_WHILE, "S41");
-                        put(Symbol.TERM_FOR, "S42");
-                        put(Symbol.TERM_RETURN, "R14");
-                        put(Symbol.TERM_RBRACE, "R14");
-
-                        put(Symbol.NTERM_VDECL, "38");
-                        put(Symbol.NTERM_BLOCK, "47");
-                        put(Symbol.NTERM_STMT, "37");
-                        put(Symbol.NTERM_ASSIGN, "39");
-                    }
-                });
-
-                put(State.Q38, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R15");
-                        put(Symbol.TERM_ID, "R15");
-                        put(Symbol.TERM_IF, "R15");
-                        put(Symbol.TERM_WHILE, "R15");
-                        put(Symbol.TERM_FOR, "R15");
-                        put(Symbol.TERM_RETURN, "R15");
-                        put(Symbol.TERM_RBRACE, "R15");
-                    }
-                });
-
-                put(State.Q39, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "S48");
-                    }
-                });
-
-                put(State.Q40, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LPAREN, "S49");
-                    }
-                });
-
-                put(State.Q41, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LPAREN, "S50");
-                    }
-                });
-
-                put(State.Q42, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LPAREN, "S51");
-                    }
-                });
-
-                put(State.Q43, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ID, "S52");
-
-                        put(Symbol.NTERM_ASSIGN, "8");
-                    }
-                });
-
-                put(State.Q44, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ID, "S53");
-                    }
-                });
-
-                put(State.Q45, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RBRACE, "S54");
-                    }
-                });
-
-                put(State.Q46, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_FACTOR, "55");
-                    }
-                });
-
-                put(State.Q47, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RETURN, "R13");
-                        put(Symbol.TERM_RBRACE, "R13");
-                    }
-                });
-
-                put(State.Q48, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R16");
-                        put(Symbol.TERM_ID, "R16");
-                        put(Symbol.TERM_IF, "R16");
-                        put(Symbol.TERM_WHILE, "R16");
-                        put(Symbol.TERM_FOR, "R16");
-                        put(Symbol.TERM_RETURN, "R16");
-                        put(Symbol.TERM_RBRACE, "R16");
-                    }
-                });
-
-                put(State.Q49, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_FACTOR, "57");
-                        put(Symbol.NTERM_COND, "56");
-                    }
-                });
-
-                put(State.Q50, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_FACTOR, "57");
-                        put(Symbol.NTERM_COND, "58");
-                    }
-                });
-
-                put(State.Q51, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.NTERM_ASSIGN, "59");
-                    }
-                });
-
-                put(State.Q52, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ASSIGN, "S11");
-                        put(Symbol.TERM_SEMI, "S10");
-                    }
-                });
-
-                put(State.Q53, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_COMMA, "S32");
-                        put(Symbol.TERM_RPAREN, "R12");
-
-                        put(Symbol.NTERM_MOREARGS, "60");
-                    }
-                });
-
-                put(State.Q54, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R8");
-                        put(Symbol.TERM_EOF, "R8");
-                    }
-                });
-
-                put(State.Q55, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "S61");
-                    }
-                });
-
-                put(State.Q56, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "S62");
-                    }
-                });
-
-                put(State.Q57, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_COMP, "S63");
-                    }
-                });
-
-                put(State.Q58, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "S64");
-                    }
-                });
+    private static final Symbol[] RECOVERY_SYMBOLS = { Symbol.NTERM_STMT, Symbol.NTERM_VDECL, Symbol.NTERM_FDECL };
 
-                put(State.Q59, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "S65");
-                    }
-                });
-
-                put(State.Q60, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "R11");
-                    }
-                });
-
-                put(State.Q61, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RBRACE, "R33");
-                    }
-                });
-
-                put(State.Q62, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LBRACE, "S66");
-                    }
-                });
-
-                put(State.Q63, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
-
-                        put(Symbol.NTERM_FACTOR, "67");
-                    }
-                });
+    /***
+     * Stack that is used with the parsing table, holding the syntax tree node of
+     * the symbol that has been shifted or reduced to as the value of each state.
+     * The symbols of the states are those left of the splitter '|'.
+     */
+    private ParseStack stack;
 
-                put(State.Q64, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LBRACE, "S68");
-                    }
-                });
+    /***
+     * Tokens that are generated as the output of the lexical analyzer. The tokens
+     * before the input position have already been shifted.
+     */
+    private TokenStream tokens;
 
-                put(State.Q65, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_NUM, "S23");
-                        put(Symbol.TERM_FLOAT, "S24");
-                        put(Symbol.TERM_ID, "S22");
-                        put(Symbol.TERM_LPAREN, "S21");
+    /***
+     * The position of the next token, right of the splitter '|'.
+     */
+    private int inputPosition = 0;
 
-                        put(Symbol.NTERM_FACTOR, "57");
-                        put(Symbol.NTERM_COND, "69");
-                    }
-                });
-
-                put(State.Q66, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S43");
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.TERM_IF, "S40");
-                        put(Symbol.TERM_WHILE, "S41");
-                        put(Symbol.TERM_FOR, "S42");
-                        put(Symbol.TERM_RETURN, "R14");
-                        put(Symbol.TERM_RBRACE, "R14");
-
-                        put(Symbol.NTERM_VDECL, "38");
-                        put(Symbol.NTERM_BLOCK, "70");
-                        put(Symbol.NTERM_STMT, "37");
-                        put(Symbol.NTERM_ASSIGN, "39");
-                    }
-                });
+    /***
+     * The position right after the last token to parse, where the eof ($) symbol
+     * is, or -1 if all tokens are parsed.
+     */
+    private int inputEnd = -1;
 
-                put(State.Q67, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "R32");
-                        put(Symbol.TERM_RPAREN, "R32");
-                    }
-                });
-
-                put(State.Q68, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S43");
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.TERM_IF, "S40");
-                        put(Symbol.TERM_WHILE, "S41");
-                        put(Symbol.TERM_FOR, "S42");
-                        put(Symbol.TERM_RETURN, "R14");
-                        put(Symbol.TERM_RBRACE, "R14");
-
-                        put(Symbol.NTERM_VDECL, "38");
-                        put(Symbol.NTERM_BLOCK, "71");
-                        put(Symbol.NTERM_STMT, "37");
-                        put(Symbol.NTERM_ASSIGN, "39");
-                    }
-                });
+    /***
+     * The symbol of the next token, or null if it has not been mapped yet.
+     */
+    private Symbol lookahead = null;
 
-                put(State.Q69, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_SEMI, "S72");
-                    }
-                });
+    /***
+     * Whether the next symbol has been inserted to recover from a syntax error,
+     * rather than read from the tokens.
+     */
+    private boolean isInserted = false;
 
-                put(State.Q70, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RBRACE, "S73");
-                    }
-                });
+    /***
+     * Builder of the syntax tree.
+     */
+    private AstBuilder astBuilder;
 
-                put(State.Q71, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RBRACE, "S74");
-                    }
-                });
+    /***
+     * The syntax tree of the input, or null if it has not been accepted.
+     */
+    private Ast ast = null;
 
-                put(State.Q72, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_ID, "S13");
+    /***
+     * The tracer that prints the progress of the parser.
+     */
+    private ParseTracer tracer = new ParseTracer(TraceLevel.OFF);
 
-                        put(Symbol.NTERM_ASSIGN, "75");
-                    }
-                });
-
-                put(State.Q73, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R21");
-                        put(Symbol.TERM_ID, "R21");
-                        put(Symbol.TERM_IF, "R21");
-                        put(Symbol.TERM_ELSE, "S77");
-                        put(Symbol.TERM_WHILE, "R21");
-                        put(Symbol.TERM_FOR, "R21");
-                        put(Symbol.TERM_RETURN, "R21");
-                        put(Symbol.TERM_RBRACE, "R21");
-
-                        put(Symbol.NTERM_ELSE, "76");
-                    }
-                });
-
-                put(State.Q74, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R18");
-                        put(Symbol.TERM_ID, "R18");
-                        put(Symbol.TERM_IF, "R18");
-                        put(Symbol.TERM_WHILE, "R18");
-                        put(Symbol.TERM_FOR, "R18");
-                        put(Symbol.TERM_RETURN, "R18");
-                        put(Symbol.TERM_RBRACE, "R18");
-                    }
-                });
+    /***
+     * The source to pull the rest of the tokens from, or null if all of them are
+     * in the tokens.
+     */
+    private TokenSource source = null;
 
-                put(State.Q75, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RPAREN, "S78");
-                    }
-                });
-
-                put(State.Q76, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R17");
-                        put(Symbol.TERM_ID, "R17");
-                        put(Symbol.TERM_IF, "R17");
-                        put(Symbol.TERM_WHILE, "R17");
-                        put(Symbol.TERM_FOR, "R17");
-                        put(Symbol.TERM_RETURN, "R17");
-                        put(Symbol.TERM_RBRACE, "R17");
-                    }
-                });
+    /***
+     * The syntax errors found so far.
+     */
+    private final List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
 
-                put(State.Q77, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LBRACE, "S79");
-                    }
-                });
+    /***
+     * The input position of the last syntax error, or -1 if there has been none.
+     */
+    private int lastErrorPosition = -1;
 
-                put(State.Q78, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_LBRACE, "S80");
-                    }
-                });
-
-                put(State.Q79, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S43");
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.TERM_IF, "S40");
-                        put(Symbol.TERM_WHILE, "S41");
-                        put(Symbol.TERM_FOR, "S42");
-                        put(Symbol.TERM_RETURN, "R14");
-                        put(Symbol.TERM_RBRACE, "R14");
-
-                        put(Symbol.NTERM_VDECL, "38");
-                        put(Symbol.NTERM_BLOCK, "81");
-                        put(Symbol.NTERM_STMT, "37");
-                        put(Symbol.NTERM_ASSIGN, "39");
-                    }
-                });
-
-                put(State.Q80, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "S43");
-                        put(Symbol.TERM_ID, "S13");
-                        put(Symbol.TERM_IF, "S40");
-                        put(Symbol.TERM_WHILE, "S41");
-                        put(Symbol.TERM_FOR, "S42");
-                        put(Symbol.TERM_RETURN, "R14");
-                        put(Symbol.TERM_RBRACE, "R14");
-
-                        put(Symbol.NTERM_VDECL, "38");
-                        put(Symbol.NTERM_BLOCK, "82");
-                        put(Symbol.NTERM_STMT, "37");
-                        put(Symbol.NTERM_ASSIGN, "39");
-                    }
-                });
+    /***
+     * The snapshots of the stack after the top-level declarations, or null if they
+     * are not recorded.
+     */
+    private List<ParseSnapshot> snapshots = null;
 
-                put(State.Q81, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RBRACE, "S83");
-                    }
-                });
+    /***
+     * Whether tokens in memory are parsed with the direct-coded parser first.
+     */
+    private boolean isDirect = IS_DIRECT_CURRENT;
 
-                put(State.Q82, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_RBRACE, "S84");
-                    }
-                });
-
-                put(State.Q83, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R20");
-                        put(Symbol.TERM_ID, "R20");
-                        put(Symbol.TERM_IF, "R20");
-                        put(Symbol.TERM_WHILE, "R20");
-                        put(Symbol.TERM_FOR, "R20");
-                        put(Symbol.TERM_RETURN, "R20");
-                        put(Symbol.TERM_RBRACE, "R20");
-                    }
-                });
-
-                put(State.Q84, new HashMap<Symbol, String>() {
-                    {
-                        put(Symbol.TERM_VTYPE, "R19");
-                        put(Symbol.TERM_ID, "R19");
-                        put(Symbol.TERM_IF, "R19");
-                        put(Symbol.TERM_WHILE, "R19");
-                        put(Symbol.TERM_FOR, "R19");
-                        put(Symbol.TERM_RETURN, "R19");
-                        put(Symbol.TERM_RBRACE, "R19");
-                    }
-                });
-            }
-        };
+    /***
+     * The acceptance code of the parser.
+     */
+    private enum AcceptCode {
+        /***
+         * Means the parser accepts the input string.
+         */
+        ACCEPTED,
+        /***
+         * Means the parser does not accept the input string.
+         */
+        NOT_ACCEPTED,
+        /***
+         * Means the parser is still parsing the input string.
+         */
+        PARSING
+    }
 
-        // Initialize the stack with the initial state q0
-        stack = new Stack<State>();
+    /***
+     * Initializes the syntax analyzer by initializing the stack.
+     */
+    private SyntaxAnalyzer() {
+        // Initialize the stack
+        stack = new ParseStack();
+    }
 
-        // Read the token list from .ser file, and store the information into tokens
-        ArrayList<Token> tokens = null;
-        ObjectInputStream in;
-        try {
-            in = new ObjectInputStream(new FileInputStream(inputFile));
-            tokens = (ArrayList<Token>) in.readObject();
+    /***
+     * Initializes the syntax analyzer on the tokens of a .tok file, which is the
+     * token list that is generated from the lexical analyzer. An eof symbol
+     * follows the last token.
+     * 
+     * @param inputFile input file of the syntax analyzer that contains result
+     *                  information of the lexical analyzer
+     * @throws IOException when the .tok file cannot be read
+     */
+    public SyntaxAnalyzer(File inputFile) throws IOException {
+        this();
 
-            in.close();
+        // Read the token list from .tok file
+        tokens = new TokenFileReader(inputFile).read();
+        astBuilder = new AstBuilder(tokens.size());
+    }
 
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            System.exit(1);
-        } catch (IOException e) {
-            e.printStackTrace();
-            System.exit(1);
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-            System.exit(1);
-        }
+    /***
+     * Initializes the syntax analyzer on a lexer, from which the tokens are pulled
+     * one at a time while parsing, as the parser needs them.
+     * 
+     * @param lexer the lexer that generates the tokens of the input
+     */
+    public SyntaxAnalyzer(Lexer lexer) {
+        this(new LexerTokenSource(lexer));
+    }
 
-        // Input symbols that are generated as the output of the lexical analyzer
-        inputSymbols = new ArrayList<Symbol>();
+    /***
+     * Initializes the syntax analyzer on a token source, from which the tokens
+     * are pulled one at a time while parsing, as the parser needs them.
+     * 
+     * @param source the source that hands out the tokens of the input
+     */
+    public SyntaxAnalyzer(TokenSource source) {
+        this();
+        this.source = source;
+        this.tokens = new TokenStream(1024, source.getNames());
+        this.astBuilder = new AstBuilder(1024);
+    }
 
-        // Put splitter at the beginning of the input
-        inputSymbols.add(Symbol.SPLITTER);
+    /***
+     * Initializes the syntax analyzer on tokens that are already in memory. An eof
+     * symbol follows the last token.
+     * 
+     * @param tokens the tokens of the input
+     */
+    public SyntaxAnalyzer(TokenStream tokens) {
+        this();
+        this.tokens = tokens;
+        this.astBuilder = new AstBuilder(tokens.size());
+    }
 
-        // Convert the tokens of the lexer to the symbols of the parser
-        for (int i = 0; i < tokens.size(); i++) {
-            inputSymbols.add(TokenMapper.convertToken(tokens.get(i)));
-        }
-        inputSymbols.add(Symbol.TERM_EOF); // Put eof ($) symbol at the end
+    /***
+     * Initializes the syntax analyzer on a range of tokens that are already in
+     * memory, such as some top-level declarations of a larger input. An eof
+     * symbol follows the last token of the range, and the positions and line
+     * numbers are those of the whole tokens.
+     * 
+     * @param tokens the tokens of the input
+     * @param from   the position of the first token to parse
+     * @param to     the position right after the last token to parse
+     */
+    SyntaxAnalyzer(TokenStream tokens, int from, int to) {
+        this();
+        this.tokens = tokens;
+        this.inputPosition = from;
+        this.inputEnd = to;
+        this.astBuilder = new AstBuilder(to - from);
     }
 
     /***
@@ -874,133 +244,445 @@ public class SyntaxAnalyzer {
      * @return boolean value of whether the string can be accepted by the parser
      */
     public boolean parse() {
-        System.out.println("Starting parsing...");
+        // Nothing is traced for an accepted input at this level
+        if (isDirect && source == null && snapshots == null && !tracer.isEnabled(TraceLevel.SUMMARY)) {
+            int root = DirectParser.parse(tokens, inputPosition, getInputEnd(), stack, astBuilder);
+            if (root != AstArena.NONE) {
+                ast = astBuilder.build(tokens, root);
+                return true;
+            }
+
+            // Parse again with the table to report the syntax errors
+            stack.clear();
+        }
+
+        tracer.println(TraceLevel.SUMMARY, "Starting parsing...");
 
         // Start parsing
-        stack.push(State.Q0);
+        stack.push(0, AstArena.NONE); // Initial state q0
 
-        AcceptCode acode;
+        AcceptCode acode = AcceptCode.PARSING;
         try {
             // Get the accept code to determine whether to continue parsing or not
-            acode = doAction();
-
-            System.out.println("Input Symbols: " + inputSymbolsToString());
             while (acode == AcceptCode.PARSING) {
                 acode = doAction();
-                System.out.println("Input Symbols: " + inputSymbolsToString());
+                if (tracer.isEnabled(TraceLevel.FULL)) {
+                    tracer.println(TraceLevel.FULL, "Input Symbols: " + inputSymbolsToString());
+                }
             }
 
-            if (acode == AcceptCode.ACCEPTED) {
+            tracer.println(TraceLevel.SUMMARY, "Took " + tracer.getActionCount()
+                    + " actions, with a maximum stack depth of " + getMaxStackDepth() + ".");
+            if (acode == AcceptCode.ACCEPTED && diagnostics.isEmpty()) {
                 // The input string is accepted
-                System.out.println("The input string is ACCEPTED by the parser.");
+                tracer.println(TraceLevel.SUMMARY, "The input string is ACCEPTED by the parser.");
 
                 return true;
             } else {
-                // Report error
-                System.out.println("The input string has NOT been accepted by the parser, at stack top \'"
-                        + getCurrentState() + "\' and next symbol \'" + getNextSymbol() + "\'.");
+                // Each error has been reported as it was found
+                tracer.println("The input string has NOT been accepted by the parser, with " + diagnostics.size()
+                        + (diagnostics.size() == 1 ? " syntax error." : " syntax errors."));
 
                 return false;
             }
         } catch (ReferenceException e) {
-            e.printStackTrace();
+            tracer.println(e.toString());
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            tracer.println(e.toString());
+        } catch (IOException e) {
+            tracer.println(e.toString());
+        } catch (NullTokenException e) {
+            tracer.println(e + " at character " + source.getCharCount() + " in line " + (source.getLineCount() + 1));
+        } finally {
+            tracer.flush();
         }
 
         return false;
     }
 
+    /***
+     * Syntactically analyzes the tokens, parsing the top-level declarations in
+     * parallel on a pool.
+     * <p>
+     * The parallel parser finds no more than whether the input is accepted, so
+     * the tokens are parsed again one by one to report the syntax errors of a
+     * rejected input, the same way as {@link #parse()}. They are also parsed one
+     * by one when the tokens are pulled from a lexer, or when every action is
+     * traced.
+     * 
+     * @param pool the pool to parse the declarations on
+     * @return boolean value of whether the string can be accepted by the parser
+     */
+    public boolean parse(ForkJoinPool pool) {
+        if (source != null || inputEnd != -1 || tracer.isEnabled(TraceLevel.ACTIONS)) {
+            return parse();
+        }
+
+        tracer.println(TraceLevel.SUMMARY, "Starting parallel parsing...");
+        Ast joined = new ParallelParser(pool).parse(tokens);
+        if (joined == null) {
+            tracer.println(TraceLevel.SUMMARY, "Parsing again to report the syntax errors...");
+            return parse();
+        }
+
+        ast = joined;
+        tracer.println(TraceLevel.SUMMARY, "The input string is ACCEPTED by the parser.");
+        tracer.flush();
+        return true;
+    }
+
+    /***
+     * Returns the syntax tree of the input, which is built while parsing.
+     * 
+     * @return the syntax tree, or null if the input has not been accepted
+     */
+    public Ast getAst() {
+        return ast;
+    }
+
+    /***
+     * Returns the syntax errors found while parsing. The parser recovers from each
+     * error, so all of them are found in one run.
+     * 
+     * @return the unmodifiable list of syntax errors, in the order of the input
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    /***
+     * Records a snapshot of the stack after each top-level declaration while
+     * parsing, to find where the input can be split and parsed again in parts.
+     */
+    public void recordSnapshots() {
+        snapshots = new ArrayList<ParseSnapshot>();
+    }
+
+    /***
+     * Returns the snapshots of the stack after the top-level declarations.
+     * 
+     * @return the unmodifiable list of snapshots, in the order of the input, or an
+     *         empty list if they have not been recorded
+     */
+    public List<ParseSnapshot> getSnapshots() {
+        if (snapshots == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    /***
+     * Sets whether tokens in memory are parsed with the direct-coded parser first,
+     * which is faster than looking up the actions in the parsing table. It is
+     * only used while nothing but the syntax errors is traced, and is never used
+     * if it has not been generated from the current parsing table. A rejected
+     * input is parsed again with the table to report its errors.
+     * 
+     * @param isDirect whether to use the direct-coded parser
+     */
+    public void setDirect(boolean isDirect) {
+        this.isDirect = isDirect && IS_DIRECT_CURRENT;
+    }
+
+    /***
+     * Sets the tracer that prints the progress of the parser. By default, nothing
+     * is printed but the reason of a rejection.
+     * 
+     * @param tracer the tracer
+     */
+    public void setTracer(ParseTracer tracer) {
+        this.tracer = tracer;
+    }
+
     /***
      * Does parsing accordingly to the SLR parsing table.
      * 
      * @return boolean value of whether the table entry is null
      * @throws ReferenceException when the entry in the parsing table is invalidly
      *                            referenced
+     * @throws IOException        when the input of the lexer cannot be read
+     * @throws NullTokenException when the input of the lexer does not belong to any
+     *                            token type
      */
-    private AcceptCode doAction() throws ReferenceException, NumberFormatException {
+    private AcceptCode doAction()
+            throws ReferenceException, NumberFormatException, IOException, NullTokenException {
         // Table entry with [State][Symbol]
+        // A token without a terminal has no action
         Symbol nextSymbol = getNextSymbol();
-        String tableEntry = parsingTable.get(getCurrentState()).get(nextSymbol);
+        int action = (nextSymbol == null) ? ParsingTable.ERROR
+                : parsingTable.action(getCurrentState(), nextSymbol.ordinal());
 
-        if (tableEntry == null) {
+        if (action == ParsingTable.ERROR) {
             // There is no entry with the given state and symbol in the SLR parsing table
-            System.out.println(
-                    "> [No table entry in SLR parsing table at '" + getCurrentState() + "', '" + nextSymbol + "']");
-            return AcceptCode.NOT_ACCEPTED;
-        } else if (tableEntry.charAt(0) == 'R') {
-            // Reduce by rule n in "Rn"
+            tracer.println(TraceLevel.ACTIONS,
+                    "> [No table entry in SLR parsing table at 'Q" + getCurrentState() + "', '" + nextSymbol + "']");
+            return recover() ? AcceptCode.PARSING : AcceptCode.NOT_ACCEPTED;
+        } else if (ParsingTable.isReduce(action)) {
+            // Reduce by rule n
             // 1. Pop |body| from the stack (possibly except epsilon)
-            int ruleNumber = Integer.parseInt(tableEntry.substring(1));
-            Rule rule = Rule.valueOf(ruleNumber);
-            int ruleBodyLength;
-
-            System.out.println("> [Reducing using " + rule + "]");
+            int ruleNumber = ParsingTable.reduceRule(action);
+            Rule rule = RULES[ruleNumber];
+            int ruleBodyLength = RULE_BODY_LENGTHS[ruleNumber];
 
-            if (rule.body[0] == Symbol.EPSILON) {
-                ruleBodyLength = 0;
-            } else {
-                ruleBodyLength = rule.body.length;
-            }
+            tracer.reduce(getCurrentState(), nextSymbol, rule);
 
-            for (int i = 0; i < ruleBodyLength; i++) {
-                inputSymbols.remove(splitterPosition - 1);
-                splitterPosition--;
+            int node = astBuilder.reduce(ruleNumber, ruleBodyLength, stack);
+            stack.popN(ruleBodyLength);
 
-                stack.pop();
-            }
-            inputSymbols.add(splitterPosition, rule.head);
-            splitterPosition++;
-
-            if (rule == Rule.rule1) {
+            if (action == ParsingTable.ACCEPT) {
                 // If the input string is finally reduced to S', it is accepted
+                // There is no state after S', since nothing is parsed after it
+                // The tree of an input with syntax errors has holes, so it is not kept
+                stack.push(ParsingTable.NO_STATE, node);
+                if (diagnostics.isEmpty()) {
+                    ast = astBuilder.build(tokens, node);
+                }
                 return AcceptCode.ACCEPTED;
             }
 
             // 2. GOTO(current stack top state, rule n head)
             // Table entry at [State][Non-terminal], which is the next state
-            String nextTableEntry = parsingTable.get(getCurrentState()).get(rule.head);
-            if (nextTableEntry == null) {
-                // Error in the table - throws NumberFormatException
+            int gotoResult = parsingTable.goTo(getCurrentState(), rule.head.ordinal());
+            if (gotoResult == ParsingTable.NO_STATE) {
+                // Error in the table
                 return AcceptCode.NOT_ACCEPTED;
             }
-            
-            int gotoResult = Integer.parseInt(nextTableEntry);
-            State nextState = State.valueOf(gotoResult);
-            stack.push(nextState);
-
-        } else if (tableEntry.charAt(0) == 'S') {
-            // Push next state and move the splitter
-            Symbol nextTerminal = nextSymbol;
-            State nextState = State
-                    .valueOf(Integer.parseInt(parsingTable.get(getCurrentState()).get(nextTerminal).substring(1)));
-            System.out.println("> [Shifting and going to state " + nextState + "]");
-            stack.push(nextState);
-            shift();
+
+            stack.push(gotoResult, node);
+            if (snapshots != null) {
+                recordSnapshot(rule.head);
+            }
+
+        } else if (ParsingTable.isShift(action)) {
+            // Push next state and move the next symbol over the splitter
+            int nextState = ParsingTable.shiftState(action);
+            tracer.shift(getCurrentState(), nextSymbol, nextState);
+            if (isInserted) {
+                // An inserted symbol has no token
+                stack.push(nextState, AstArena.NONE);
+                isInserted = false;
+                lookahead = null;
+            } else {
+                stack.push(nextState, astBuilder.shift(nextSymbol, inputPosition));
+                skipSymbol();
+            }
 
         } else {
             throw new ReferenceException(
-                    "ReferenceException at table [State:" + getCurrentState() + "][Symbol:" + getNextSymbol() + "]");
+                    "ReferenceException at table [State:Q" + getCurrentState() + "][Symbol:" + getNextSymbol() + "]");
         }
 
         return AcceptCode.PARSING;
     }
 
     /***
-     * Shifts the splitter to the right in the input symbols.
+     * Reports the syntax error at the next symbol and recovers from it, so that
+     * parsing can go on to find the errors after it.
+     * <p>
+     * First, a single missing terminal is inserted before the next symbol, if
+     * there is one that lets the parser shift the next symbol after it, such as a
+     * semi (;) at the end of a statement or an id where an operand is missing.
+     * <p>
+     * Otherwise the parser recovers in panic mode. The tokens up to a
+     * synchronizing terminal are skipped: up to and including the next semi (;),
+     * which ends statements and variable declarations, or up to the next vtype,
+     * which begins a declaration, or rbrace (}) or eof ($), which end blocks.
+     * Then the stack is popped down to a state that can go to a statement or a
+     * declaration, after which the parser can act on the next symbol, and the
+     * parser goes on as if it had parsed one there. If there is no such state, the
+     * next symbol is skipped too and the search starts over.
+     * <p>
+     * An error right at the position where the parser recovered from the last one
+     * is a consequence of that recovery, so it is not reported again, and the
+     * symbol there is skipped so that the parser always makes progress.
+     * 
+     * @return boolean value of whether the parser has recovered, or false if it has
+     *         reached the eof ($) symbol without recovering
+     * @throws IOException        when the input of the lexer cannot be read
+     * @throws NullTokenException when the input of the lexer does not belong to any
+     *                            token type
      */
-    private void shift() {
-        Collections.swap(inputSymbols, splitterPosition, splitterPosition + 1);
-        splitterPosition += 1;
+    private boolean recover() throws IOException, NullTokenException {
+        Symbol nextSymbol = getNextSymbol();
+        if (inputPosition != lastErrorPosition) {
+            if (diagnostics.isEmpty()) {
+                // Show the actions that led to the first error
+                tracer.dumpContext();
+            }
+
+            Diagnostic diagnostic = createDiagnostic(nextSymbol);
+            diagnostics.add(diagnostic);
+            tracer.println(diagnostic.toString());
+            lastErrorPosition = inputPosition;
+
+            // Phrase-level recovery
+            for (Symbol missing : diagnostic.getExpected()) {
+                if (nextSymbol != null && missing != Symbol.TERM_EOF && canShiftAfter(missing, nextSymbol)) {
+                    tracer.println(TraceLevel.ACTIONS, "> [Recovering by inserting '" + missing + "']");
+                    lookahead = missing;
+                    isInserted = true;
+                    return true;
+                }
+            }
+        } else if (nextSymbol != Symbol.TERM_EOF) {
+            skipSymbol();
+        }
+
+        // Panic-mode recovery
+        int skipped = 0;
+        while (true) {
+            // Skip to a synchronizing terminal
+            nextSymbol = getNextSymbol();
+            while (nextSymbol != Symbol.TERM_SEMI && nextSymbol != Symbol.TERM_VTYPE
+                    && nextSymbol != Symbol.TERM_RBRACE && nextSymbol != Symbol.TERM_EOF) {
+                skipSymbol();
+                skipped++;
+                nextSymbol = getNextSymbol();
+            }
+            if (nextSymbol == Symbol.TERM_SEMI) {
+                skipSymbol();
+                skipped++;
+                nextSymbol = getNextSymbol();
+            }
+
+            // Find the state closest to the stack top to resume at, unless the
+            // symbol after ';' has no terminal and has to be skipped as well
+            for (int depth = stack.size() - 1; nextSymbol != null && depth >= 0; depth--) {
+                int state = stack.stateAt(depth);
+                for (Symbol symbol : RECOVERY_SYMBOLS) {
+                    int nextState = parsingTable.goTo(state, symbol.ordinal());
+                    if (nextState != ParsingTable.NO_STATE
+                            && parsingTable.action(nextState, nextSymbol.ordinal()) != ParsingTable.ERROR) {
+                        tracer.println(TraceLevel.ACTIONS, "> [Recovering by skipping " + skipped
+                                + " symbols and going to state Q" + nextState + " on '" + symbol + "']");
+
+                        stack.popN(stack.size() - 1 - depth);
+                        stack.push(nextState, AstArena.NONE);
+                        lastErrorPosition = inputPosition;
+                        return true;
+                    }
+                }
+            }
+
+            if (nextSymbol == Symbol.TERM_EOF) {
+                return false;
+            }
+            skipSymbol();
+            skipped++;
+        }
+    }
+
+    /***
+     * Returns whether the parser would shift the next symbol if a missing terminal
+     * was inserted before it, by running the actions without changing the stack.
+     * The states pushed by the actions are kept apart, above the states of the
+     * stack that have not been popped.
+     * 
+     * @param missing    the terminal to insert
+     * @param nextSymbol the next symbol
+     * @return boolean value of whether the next symbol would be shifted, or the
+     *         input accepted
+     */
+    private boolean canShiftAfter(Symbol missing, Symbol nextSymbol) {
+        int base = stack.size();
+        int[] pushed = new int[8];
+        int size = 0;
+
+        for (Symbol symbol : new Symbol[] { missing, nextSymbol }) {
+            while (true) {
+                int top = (size > 0) ? pushed[size - 1] : stack.stateAt(base - 1);
+                int action = parsingTable.action(top, symbol.ordinal());
+                if (action == ParsingTable.ERROR) {
+                    return false;
+                } else if (action == ParsingTable.ACCEPT) {
+                    return true;
+                }
+
+                int nextState;
+                if (ParsingTable.isShift(action)) {
+                    nextState = ParsingTable.shiftState(action);
+                } else {
+                    int ruleNumber = ParsingTable.reduceRule(action);
+                    int popped = Math.min(RULE_BODY_LENGTHS[ruleNumber], size);
+                    size -= popped;
+                    base -= RULE_BODY_LENGTHS[ruleNumber] - popped;
+
+                    top = (size > 0) ? pushed[size - 1] : stack.stateAt(base - 1);
+                    nextState = parsingTable.goTo(top, RULES[ruleNumber].head.ordinal());
+                }
+
+                if (size == pushed.length) {
+                    pushed = Arrays.copyOf(pushed, size * 2);
+                }
+                pushed[size++] = nextState;
+                if (ParsingTable.isShift(action)) {
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /***
+     * Records a snapshot of the stack if a declaration has just been reduced at the
+     * top level, where the state below it goes to CODE.
+     * <p>
+     * No snapshot is recorded right where the parser has recovered from an error,
+     * since the declaration may only have been completed by the recovery.
+     * 
+     * @param head the head of the rule that has just been reduced by
+     */
+    private void recordSnapshot(Symbol head) {
+        if (inputPosition == lastErrorPosition) {
+            return;
+        }
+
+        int below = stack.stateAt(stack.size() - 2);
+        if ((head == Symbol.NTERM_VDECL || head == Symbol.NTERM_FDECL)
+                && parsingTable.goTo(below, Symbol.NTERM_CODE.ordinal()) != ParsingTable.NO_STATE) {
+            snapshots.add(new ParseSnapshot(inputPosition, getCurrentState(), stack.size()));
+        }
+    }
+
+    /***
+     * Creates the diagnostic of a syntax error at the next symbol.
+     * 
+     * @param nextSymbol the next symbol, which has no action at the current state
+     * @return the diagnostic
+     */
+    private Diagnostic createDiagnostic(Symbol nextSymbol) {
+        int state = getCurrentState();
+        String text = null;
+        int lineNo = 0;
+        int end = getInputEnd();
+        if (inputPosition < end) {
+            text = tokens.getValue(inputPosition);
+            lineNo = tokens.getLineNo(inputPosition);
+        } else if (end > 0) {
+            // An unexpected eof ($) is on the line of the last token
+            lineNo = tokens.getLineNo(end - 1);
+        }
+
+        return new Diagnostic(lineNo + 1, inputPosition, state, nextSymbol, text,
+                parsingTable.expectedTerminals(state));
     }
 
     /***
-     * Returns the leftmost terminal position of the RHS of the input symbols.
+     * Moves past the next token.
+     */
+    private void skipSymbol() {
+        inputPosition++;
+        lookahead = null;
+    }
+
+    /***
+     * Returns the largest number of states that have been on the stack at once
+     * while parsing, which grows with the nesting of blocks in the input.
      * 
-     * @return the leftmost terminal position of the RHS of the input symbols
+     * @return the maximum depth of the stack
      */
-    private int getLeftmostTerminalPositionOfRhs() {
-        return splitterPosition + 1;
+    public int getMaxStackDepth() {
+        return stack.getMaxDepth();
     }
 
     /***
@@ -1008,17 +690,49 @@ public class SyntaxAnalyzer {
      * 
      * @return the current state of the parser, which is the stack top
      */
-    private State getCurrentState() {
-        return stack.peek();
+    private int getCurrentState() {
+        return stack.peekState();
     }
 
     /***
      * Returns the next symbol after the splitter, which is a terminal.
      * 
-     * @return the next terminal symbol after the splitter in the input list
+     * @return the next terminal symbol after the splitter in the input list, or
+     *         null if the next token has no terminal
+     * @throws IOException        when the input of the lexer cannot be read
+     * @throws NullTokenException when the input of the lexer does not belong to any
+     *                            token type
+     */
+    private Symbol getNextSymbol() throws IOException, NullTokenException {
+        if (lookahead != null) {
+            return lookahead;
+        }
+
+        // Pull the next token from the source if it has not been read yet
+        if (source != null && inputPosition == tokens.size()) {
+            lookahead = source.nextToken(tokens);
+            if (lookahead == Symbol.TERM_EOF) {
+                source = null;
+            }
+            return lookahead;
+        }
+
+        if (inputPosition < tokens.size() && inputPosition != inputEnd) {
+            lookahead = TokenMapper.convertToken(tokens, inputPosition);
+        } else {
+            lookahead = Symbol.TERM_EOF; // Put eof ($) symbol at the end
+        }
+        return lookahead;
+    }
+
+    /***
+     * Returns the position right after the last token to parse.
+     * 
+     * @return the position of the eof ($) symbol, or the number of tokens read so
+     *         far from a lexer
      */
-    private Symbol getNextSymbol() {
-        return inputSymbols.get(getLeftmostTerminalPositionOfRhs());
+    private int getInputEnd() {
+        return (inputEnd == -1) ? tokens.size() : inputEnd;
     }
 
     /***
@@ -1027,12 +741,22 @@ public class SyntaxAnalyzer {
      * @return string value of the input symbols
      */
     private String inputSymbolsToString() {
-        String svalue = "";
+        StringBuilder svalue = new StringBuilder();
 
-        for (int i = 0; i < inputSymbols.size(); i++) {
-            svalue += inputSymbols.get(i) + " ";
+        // The symbol of each state is the one it is entered on
+        for (int i = 1; i < stack.size(); i++) {
+            int state = stack.stateAt(i);
+            Symbol symbol = (state == ParsingTable.NO_STATE) ? RULES[1].head : SYMBOLS[parsingTable.getSymbol(state)];
+            svalue.append(symbol).append(' ');
+        }
+        svalue.append(Symbol.SPLITTER).append(' ');
+        for (int i = inputPosition; i < getInputEnd(); i++) {
+            svalue.append(TokenMapper.convertToken(tokens, i)).append(' ');
+        }
+        if (source == null) {
+            svalue.append(Symbol.TERM_EOF).append(' ');
         }
 
-        return svalue;
+        return svalue.toString();
     }
 }
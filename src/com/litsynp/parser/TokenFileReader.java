@@ -0,0 +1,240 @@
+package com.litsynp.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.token.NameTable;
+import com.litsynp.lexer.token.TokenFile;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.lexer.token.TokenType;
+
+/**
+ * Reader of the binary token file described in {@link TokenFile}.
+ * <p>
+ * The file is memory-mapped, and the string table is used as the source buffer
+ * of the tokens read from it, so the text of a token is never copied.
+ */
+public final class TokenFileReader {
+
+	/**
+	 * All token types, indexed by ordinal.
+	 */
+	private static final TokenType[] TYPES = TokenType.values();
+
+	/**
+	 * The bytes of the texts in the string table.
+	 */
+	private final SourceBuffer strings;
+
+	/**
+	 * Offset of each text in the string table, indexed by string id.
+	 */
+	private final int[] stringOffsets;
+
+	/**
+	 * Length of each text in bytes, indexed by string id.
+	 */
+	private final int[] stringLengths;
+
+	/**
+	 * Number of names at the beginning of the string table.
+	 */
+	private final int nameCount;
+
+	/**
+	 * The token section.
+	 */
+	private final ByteBuffer tokenSection;
+
+	/**
+	 * The index section, or null if the file has no index.
+	 */
+	private final ByteBuffer indexSection;
+
+	/**
+	 * Number of tokens in the file.
+	 */
+	private final int tokenCount;
+
+	/**
+	 * Opens a token file, and checks its header and checksum.
+	 *
+	 * @param inputFile the token file
+	 * @throws IOException when the file cannot be read or is not a valid token
+	 *                     file
+	 */
+	public TokenFileReader(File inputFile) throws IOException {
+		this(map(inputFile), inputFile.getName());
+	}
+
+	/**
+	 * Opens a token file in memory, such as one stored in a cache entry, and
+	 * checks its header and checksum. The texts of the tokens read from it refer
+	 * to the buffer, which must not change afterwards.
+	 *
+	 * @param file the bytes of the token file, from its position to its limit
+	 * @param name the name of the token file, to report errors with
+	 * @throws IOException when the bytes are not a valid token file
+	 */
+	public TokenFileReader(ByteBuffer file, String name) throws IOException {
+		file = file.slice();
+		if (file.remaining() < TokenFile.HEADER_SIZE || file.getInt() != TokenFile.MAGIC) {
+			throw new IOException("\"" + name + "\" is not a token file");
+		}
+		int version = file.getShort();
+		if (version != TokenFile.VERSION) {
+			throw new IOException("Unsupported token file version " + version + " of \"" + name + "\"");
+		}
+		int flags = file.getShort();
+		tokenCount = file.getInt();
+		nameCount = file.getInt();
+		int stringCount = file.getInt();
+		int stringSize = file.getInt();
+		int tokenSize = file.getInt();
+		int indexSize = file.getInt();
+		int checksum = file.getInt();
+
+		if ((long) TokenFile.HEADER_SIZE + stringSize + tokenSize + indexSize != file.limit()) {
+			throw new IOException("Token file \"" + name + "\" is truncated");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(file.duplicate());
+		if ((int) crc.getValue() != checksum) {
+			throw new IOException("Checksum mismatch in token file \"" + name + "\"");
+		}
+
+		// Find the offset of each text from the lengths at the beginning of the table
+		ByteBuffer stringSection = section(file, TokenFile.HEADER_SIZE, stringSize);
+		stringOffsets = new int[stringCount];
+		stringLengths = new int[stringCount];
+		for (int id = 0; id < stringCount; id++) {
+			stringLengths[id] = TokenFile.readVarint(stringSection);
+		}
+		int offset = 0;
+		for (int id = 0; id < stringCount; id++) {
+			stringOffsets[id] = offset;
+			offset += stringLengths[id];
+		}
+		strings = SourceBuffer.wrap(stringSection); // The texts right after the lengths
+
+		tokenSection = section(file, TokenFile.HEADER_SIZE + stringSize, tokenSize);
+		indexSection = ((flags & TokenFile.FLAG_INDEX) != 0)
+				? section(file, TokenFile.HEADER_SIZE + stringSize + tokenSize, indexSize)
+				: null;
+	}
+
+	/**
+	 * Returns the number of tokens in the file.
+	 *
+	 * @return the number of tokens
+	 */
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	/**
+	 * Reads all tokens of the file.
+	 *
+	 * @return a new token stream of the tokens
+	 * @throws IOException when the token section is malformed
+	 */
+	public TokenStream read() throws IOException {
+		return read(0, tokenCount);
+	}
+
+	/**
+	 * Reads a range of the tokens of the file, starting from the closest entry of
+	 * the index before it, if the file has an index.
+	 *
+	 * @param from  the index of the first token to read
+	 * @param count the number of tokens to read
+	 * @return a new token stream of the tokens
+	 * @throws IOException when the token section is malformed
+	 */
+	public TokenStream read(int from, int count) throws IOException {
+		if (from < 0 || count < 0 || from + count > tokenCount) {
+			throw new IndexOutOfBoundsException("Range: " + from + "+" + count + ", Size: " + tokenCount);
+		}
+
+		// Intern the names first, so the symbol ids are the string ids
+		NameTable names = new NameTable();
+		for (int id = 0; id < nameCount; id++) {
+			names.intern(strings, stringOffsets[id], stringLengths[id]);
+		}
+		TokenStream tokens = new TokenStream(count, names);
+
+		ByteBuffer in = tokenSection.duplicate();
+		int lineNo = 0;
+		int index = 0;
+		int entry = from / TokenFile.INDEX_INTERVAL;
+		if (indexSection != null && (entry + 1) * TokenFile.INDEX_ENTRY_SIZE <= indexSection.limit()) {
+			// Otherwise decode from the first token, such as in an empty file without
+			// index entries
+			int offset = indexSection.getInt(entry * TokenFile.INDEX_ENTRY_SIZE);
+			if (offset < 0 || offset > in.limit()) {
+				throw new IOException("Malformed index entry " + entry + " in token file");
+			}
+			in.position(offset);
+			lineNo = indexSection.getInt(entry * TokenFile.INDEX_ENTRY_SIZE + 4);
+			index = entry * TokenFile.INDEX_INTERVAL;
+		}
+
+		for (; index < from + count; index++) {
+			int type = TokenFile.readVarint(in);
+			lineNo += TokenFile.unzigzag(TokenFile.readVarint(in));
+			int stringId = TokenFile.readVarint(in);
+			if (index < from) {
+				continue;
+			}
+
+			if (type >= TYPES.length || stringId >= stringOffsets.length) {
+				throw new IOException("Malformed token " + index + " in token file");
+			}
+			boolean isNamed = TYPES[type] == TokenType.IDENTIFIER || TYPES[type] == TokenType.LITERAL_STRING;
+			tokens.add(TYPES[type], strings, stringOffsets[stringId], stringLengths[stringId], lineNo,
+					isNamed ? stringId : NameTable.NO_SYMBOL);
+		}
+		return tokens;
+	}
+
+	/**
+	 * Memory-maps a token file.
+	 *
+	 * @param inputFile the token file
+	 * @return the bytes of the file
+	 * @throws IOException when the file cannot be read
+	 */
+	private static ByteBuffer map(File inputFile) throws IOException {
+		FileInputStream in = new FileInputStream(inputFile);
+		try {
+			FileChannel channel = in.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Token file \"" + inputFile.getName() + "\" is too large");
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			// Close the input file, the mapping stays valid
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns a section of the file.
+	 *
+	 * @param file   the bytes of the file
+	 * @param offset the offset of the section
+	 * @param size   the size of the section
+	 * @return a new buffer over the section
+	 */
+	private static ByteBuffer section(ByteBuffer file, int offset, int size) {
+		ByteBuffer section = file.duplicate();
+		section.position(offset);
+		section.limit(offset + size);
+		return section.slice();
+	}
+}
@@ -0,0 +1,49 @@
+package com.litsynp.parser;
+
+import java.io.IOException;
+
+import com.litsynp.lexer.token.NameTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Source that hands the tokens of an input to the syntax analyzer one at a
+ * time, as the parser needs them, such as a lexer that is still reading the
+ * input.
+ */
+public interface TokenSource {
+
+	/***
+	 * Adds the next token at the end of a token stream.
+	 * 
+	 * @param tokens the token stream of the parser, whose names are those of
+	 *               {@link #getNames()}
+	 * @return the terminal symbol of the token, null if the token has none, or
+	 *         the eof ($) symbol at the end of the input, when no token is added
+	 * @throws IOException        when the input cannot be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	Symbol nextToken(TokenStream tokens) throws IOException, NullTokenException;
+
+	/***
+	 * Returns the names that the symbol ids of the tokens refer to.
+	 * 
+	 * @return the name table
+	 */
+	NameTable getNames();
+
+	/***
+	 * Returns the number of lines scanned so far.
+	 * 
+	 * @return the number of lines
+	 */
+	int getLineCount();
+
+	/***
+	 * Returns the position of the character being scanned in the current line.
+	 * 
+	 * @return the position of the current character
+	 */
+	int getCharCount();
+}
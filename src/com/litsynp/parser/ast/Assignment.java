@@ -0,0 +1,35 @@
+package com.litsynp.parser.ast;
+
+/***
+ * View of an assignment of an expression to a variable, of kind ASSIGN.
+ */
+public final class Assignment extends AstNode {
+
+	/***
+	 * Creates a view of an assignment.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index
+	 */
+	Assignment(Ast ast, int node) {
+		super(ast, node);
+	}
+
+	/***
+	 * Returns the name of the assigned variable.
+	 * 
+	 * @return the name of the variable
+	 */
+	public String getName() {
+		return getChildText(0);
+	}
+
+	/***
+	 * Returns the assigned value.
+	 * 
+	 * @return the expression of the value
+	 */
+	public Expression getValue() {
+		return Expression.of(ast, getChild(1).getIndex());
+	}
+}
@@ -0,0 +1,311 @@
+package com.litsynp.parser.ast;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.litsynp.lexer.token.TokenStream;
+
+/***
+ * Syntax tree of an accepted input, made of the nodes in an arena and the
+ * tokens they refer to.
+ * <p>
+ * The nodes are read through views such as {@link AstNode} and
+ * {@link FunctionDeclaration}, which are created on demand and hold nothing
+ * but the tree and a node index.
+ */
+public final class Ast {
+
+	/***
+	 * The arena of the nodes.
+	 */
+	private final AstArena arena;
+
+	/***
+	 * The tokens of the input.
+	 */
+	private final TokenStream tokens;
+
+	/***
+	 * The root node, of kind CODE.
+	 */
+	private final int root;
+
+	/***
+	 * The line number that the line numbers of the tokens count from.
+	 */
+	private final int lineBase;
+
+	/***
+	 * Creates a syntax tree.
+	 * 
+	 * @param arena  the arena of the nodes
+	 * @param tokens the tokens of the input
+	 * @param root   the root node
+	 */
+	Ast(AstArena arena, TokenStream tokens, int root) {
+		this(arena, tokens, root, 0);
+	}
+
+	/***
+	 * Creates a syntax tree whose tokens are a part of a larger input.
+	 * 
+	 * @param arena    the arena of the nodes
+	 * @param tokens   the tokens of the input
+	 * @param root     the root node
+	 * @param lineBase the line number that the line numbers of the tokens count
+	 *                 from
+	 */
+	private Ast(AstArena arena, TokenStream tokens, int root, int lineBase) {
+		this.arena = arena;
+		this.tokens = tokens;
+		this.root = root;
+		this.lineBase = lineBase;
+	}
+
+	/***
+	 * Joins the syntax trees of consecutive parts of an input, each made of whole
+	 * top-level declarations, into the syntax tree of the whole input. The nodes
+	 * of the parts are copied into a new arena on a pool, each part at once.
+	 * 
+	 * @param tokens the tokens of the whole input, which the token indices of all
+	 *               parts refer to
+	 * @param parts  the syntax trees of the parts, in order
+	 * @param pool   the pool to copy the nodes on
+	 * @return the syntax tree whose root has the top-level declarations of all
+	 *         parts as children
+	 */
+	public static Ast join(TokenStream tokens, List<Ast> parts, ForkJoinPool pool) {
+		int capacity = 1;
+		for (Ast part : parts) {
+			capacity += part.arena.size();
+		}
+
+		AstArena arena = new AstArena(capacity);
+		int root = arena.addNode(NodeKind.CODE);
+		int[] bases = new int[parts.size()];
+		List<ForkJoinTask<?>> copies = new ArrayList<ForkJoinTask<?>>();
+		for (int i = 0; i < parts.size(); i++) {
+			bases[i] = arena.reserve(parts.get(i).arena.size());
+			copies.add(pool.submit(new CopyTask(arena, parts.get(i).arena, bases[i])));
+		}
+		for (ForkJoinTask<?> copy : copies) {
+			copy.join();
+		}
+
+		// Link the declarations from the last one, across the parts
+		int[] declarations = new int[16];
+		for (int i = parts.size() - 1; i >= 0; i--) {
+			int partRoot = bases[i] + parts.get(i).root;
+			int count = 0;
+			for (int child = arena.getFirstChild(partRoot); child != AstArena.NONE; child = arena
+					.getNextSibling(child)) {
+				if (count == declarations.length) {
+					declarations = Arrays.copyOf(declarations, count * 2);
+				}
+				declarations[count++] = child;
+			}
+			while (count > 0) {
+				arena.prependChild(root, declarations[--count]);
+			}
+		}
+		return new Ast(arena, tokens, root);
+	}
+
+	/***
+	 * Reads a syntax tree written by {@link #write(DataOutput)}, such as from a
+	 * cache entry.
+	 * 
+	 * @param in     the buffer to read from, at the position of the tree
+	 * @param tokens the tokens of the input, which were written along with it
+	 * @return the syntax tree
+	 * @throws IOException when the tree is malformed
+	 */
+	public static Ast read(ByteBuffer in, TokenStream tokens) throws IOException {
+		int root;
+		try {
+			root = in.getInt();
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated syntax tree");
+		}
+		AstArena arena = AstArena.read(in, tokens.size());
+		if (root < 0 || root >= arena.size() || arena.getKind(root) != NodeKind.CODE) {
+			throw new IOException("Malformed root " + root + " of syntax tree");
+		}
+		return new Ast(arena, tokens, root);
+	}
+
+	/***
+	 * Writes the root and the nodes of the syntax tree, without the tokens, which
+	 * are to be written on their own.
+	 * 
+	 * @param out the output to write to
+	 * @throws IOException when the output cannot be written
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(root);
+		arena.write(out);
+	}
+
+	/***
+	 * Returns the arena of the nodes.
+	 * 
+	 * @return the arena
+	 */
+	public AstArena getArena() {
+		return arena;
+	}
+
+	/***
+	 * Returns the tokens of the input.
+	 * 
+	 * @return the token stream
+	 */
+	public TokenStream getTokens() {
+		return tokens;
+	}
+
+	/***
+	 * Returns the line number that the line numbers of the tokens count from,
+	 * which {@link AstNode#getLineNo()} adds to them.
+	 * 
+	 * @return the line number, from 0
+	 */
+	public int getLineBase() {
+		return lineBase;
+	}
+
+	/***
+	 * Returns the same syntax tree, with the line numbers of its nodes counting
+	 * from another line, such as for the tokens of a part of a source that have
+	 * been lexed on their own. The nodes and the tokens are shared.
+	 * 
+	 * @param lineBase the line number that the line numbers of the tokens count
+	 *                 from
+	 * @return the syntax tree
+	 */
+	public Ast withLineBase(int lineBase) {
+		return (lineBase == this.lineBase) ? this : new Ast(arena, tokens, root, lineBase);
+	}
+
+	/***
+	 * Returns the root node, whose children are the top-level declarations.
+	 * 
+	 * @return the root node
+	 */
+	public AstNode getRoot() {
+		return new AstNode(this, root);
+	}
+
+	/***
+	 * Returns a view of a node.
+	 * 
+	 * @param node the node index
+	 * @return the view of the node, or null for NONE
+	 */
+	public AstNode node(int node) {
+		return (node == AstArena.NONE) ? null : new AstNode(this, node);
+	}
+
+	/***
+	 * Returns the top-level declarations, as function or variable declarations.
+	 * 
+	 * @return the declarations, in order
+	 */
+	public List<AstNode> getDeclarations() {
+		List<AstNode> declarations = new ArrayList<AstNode>();
+		for (int child = arena.getFirstChild(root); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+			declarations.add(declaration(child));
+		}
+		return declarations;
+	}
+
+	/***
+	 * Returns a view of a top-level declaration.
+	 * 
+	 * @param node the node index of the declaration
+	 * @return the function or variable declaration
+	 */
+	public AstNode declaration(int node) {
+		return (arena.getKind(node) == NodeKind.FDECL) ? new FunctionDeclaration(this, node)
+				: new VariableDeclaration(this, node);
+	}
+
+	/***
+	 * Returns the top-level function declarations.
+	 * 
+	 * @return the function declarations, in order
+	 */
+	public List<FunctionDeclaration> getFunctions() {
+		List<FunctionDeclaration> functions = new ArrayList<FunctionDeclaration>();
+		for (int child = arena.getFirstChild(root); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+			if (arena.getKind(child) == NodeKind.FDECL) {
+				functions.add(new FunctionDeclaration(this, child));
+			}
+		}
+		return functions;
+	}
+
+	/***
+	 * Returns the top-level variable declarations.
+	 * 
+	 * @return the variable declarations, in order
+	 */
+	public List<VariableDeclaration> getVariables() {
+		List<VariableDeclaration> variables = new ArrayList<VariableDeclaration>();
+		for (int child = arena.getFirstChild(root); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+			if (arena.getKind(child) == NodeKind.VDECL) {
+				variables.add(new VariableDeclaration(this, child));
+			}
+		}
+		return variables;
+	}
+
+	/***
+	 * Task that copies the nodes of a part into the arena of the joined tree.
+	 */
+	private static class CopyTask implements Runnable {
+
+		/***
+		 * The arena of the joined tree.
+		 */
+		private final AstArena arena;
+
+		/***
+		 * The arena of the part.
+		 */
+		private final AstArena part;
+
+		/***
+		 * The first node reserved for the part.
+		 */
+		private final int base;
+
+		/***
+		 * Creates a new task.
+		 * 
+		 * @param arena the arena of the joined tree
+		 * @param part  the arena of the part
+		 * @param base  the first node reserved for the part
+		 */
+		CopyTask(AstArena arena, AstArena part, int base) {
+			this.arena = arena;
+			this.part = part;
+			this.base = base;
+		}
+
+		/***
+		 * Copies the nodes.
+		 */
+		@Override
+		public void run() {
+			arena.copy(part, base);
+		}
+	}
+}
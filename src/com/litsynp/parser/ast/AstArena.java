@@ -0,0 +1,296 @@
+package com.litsynp.parser.ast;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/***
+ * Arena that stores the nodes of a syntax tree in parallel int arrays instead
+ * of one object per node.
+ * <p>
+ * A node is an index into the arrays. Each node has a kind, a first child and
+ * a next sibling, so the children of a node form a linked list, and a token
+ * index: the index of the token of a token node, or of the first token of the
+ * other nodes.
+ */
+public final class AstArena {
+
+	/***
+	 * Marks an absent node or token.
+	 */
+	public static final int NONE = -1;
+
+	/***
+	 * All node kinds, indexed by ordinal.
+	 */
+	private static final NodeKind[] KINDS = NodeKind.values();
+
+	/***
+	 * Kind ordinal of each node.
+	 */
+	private byte[] kinds;
+
+	/***
+	 * First child of each node, or NONE.
+	 */
+	private int[] firstChildren;
+
+	/***
+	 * Next sibling of each node, or NONE.
+	 */
+	private int[] nextSiblings;
+
+	/***
+	 * Token index of each node, or NONE for a node without tokens.
+	 */
+	private int[] tokenIndices;
+
+	/***
+	 * Number of nodes.
+	 */
+	private int size = 0;
+
+	/***
+	 * Creates an empty arena.
+	 */
+	public AstArena() {
+		this(1024);
+	}
+
+	/***
+	 * Creates an empty arena that holds a number of nodes before it grows.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	public AstArena(int capacity) {
+		capacity = Math.max(capacity, 16);
+		kinds = new byte[capacity];
+		firstChildren = new int[capacity];
+		nextSiblings = new int[capacity];
+		tokenIndices = new int[capacity];
+	}
+
+	/***
+	 * Adds a token node.
+	 *
+	 * @param tokenIndex the index of the token
+	 * @return the new node
+	 */
+	public int addToken(int tokenIndex) {
+		return add(NodeKind.TOKEN, tokenIndex);
+	}
+
+	/***
+	 * Adds a node without children.
+	 *
+	 * @param kind the kind of the node
+	 * @return the new node
+	 */
+	public int addNode(NodeKind kind) {
+		return add(kind, NONE);
+	}
+
+	/***
+	 * Adds a child in front of the children of a node. The token index of the
+	 * node becomes that of the child, unless the child has no tokens.
+	 *
+	 * @param node  the node
+	 * @param child the new first child, which has no next sibling yet
+	 */
+	public void prependChild(int node, int child) {
+		nextSiblings[child] = firstChildren[node];
+		firstChildren[node] = child;
+		if (tokenIndices[child] != NONE) {
+			tokenIndices[node] = tokenIndices[child];
+		}
+	}
+
+	/***
+	 * Reserves a number of nodes after the nodes of the arena, to copy the nodes
+	 * of another arena to.
+	 *
+	 * @param count the number of nodes
+	 * @return the first reserved node
+	 */
+	public int reserve(int count) {
+		int base = size;
+		int capacity = size + count;
+		if (capacity > kinds.length) {
+			kinds = Arrays.copyOf(kinds, capacity);
+			firstChildren = Arrays.copyOf(firstChildren, capacity);
+			nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+			tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+		}
+		size = capacity;
+		return base;
+	}
+
+	/***
+	 * Copies all nodes of another arena to reserved nodes. The links between the
+	 * copies are moved along with them, and the token indices are kept.
+	 * <p>
+	 * The arena does not grow, so different threads can copy to different
+	 * reserved nodes at once.
+	 *
+	 * @param other the arena to copy the nodes of
+	 * @param base  the first reserved node, which the first node of the other
+	 *              arena becomes, to add to each of its nodes to find its copy
+	 */
+	public void copy(AstArena other, int base) {
+		System.arraycopy(other.kinds, 0, kinds, base, other.size);
+		System.arraycopy(other.tokenIndices, 0, tokenIndices, base, other.size);
+		for (int i = 0; i < other.size; i++) {
+			int child = other.firstChildren[i];
+			int sibling = other.nextSiblings[i];
+			firstChildren[base + i] = (child == NONE) ? NONE : base + child;
+			nextSiblings[base + i] = (sibling == NONE) ? NONE : base + sibling;
+		}
+	}
+
+	/***
+	 * Changes the kind of a node.
+	 *
+	 * @param node the node
+	 * @param kind the new kind
+	 */
+	public void setKind(int node, NodeKind kind) {
+		kinds[node] = (byte) kind.ordinal();
+	}
+
+	/***
+	 * Returns the kind of a node.
+	 *
+	 * @param node the node
+	 * @return the kind
+	 */
+	public NodeKind getKind(int node) {
+		return KINDS[kinds[node]];
+	}
+
+	/***
+	 * Returns the first child of a node.
+	 *
+	 * @param node the node
+	 * @return the first child, or NONE
+	 */
+	public int getFirstChild(int node) {
+		return firstChildren[node];
+	}
+
+	/***
+	 * Returns the next sibling of a node.
+	 *
+	 * @param node the node
+	 * @return the next sibling, or NONE
+	 */
+	public int getNextSibling(int node) {
+		return nextSiblings[node];
+	}
+
+	/***
+	 * Returns the token index of a node.
+	 *
+	 * @param node the node
+	 * @return the index of the token of a token node, or of the first token of
+	 *         other nodes, or NONE
+	 */
+	public int getTokenIndex(int node) {
+		return tokenIndices[node];
+	}
+
+	/***
+	 * Returns the number of nodes.
+	 *
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/***
+	 * Writes the nodes, as the size followed by the kind, first child, next
+	 * sibling and token index of each node.
+	 *
+	 * @param out the output to write to
+	 * @throws IOException when the output cannot be written
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeInt(size);
+		out.write(kinds, 0, size);
+		for (int i = 0; i < size; i++) {
+			out.writeInt(firstChildren[i]);
+			out.writeInt(nextSiblings[i]);
+			out.writeInt(tokenIndices[i]);
+		}
+	}
+
+	/***
+	 * Reads nodes written by {@link #write(DataOutput)}, and checks that they
+	 * only refer to nodes and tokens that exist.
+	 *
+	 * @param in         the buffer to read from, at the position of the nodes
+	 * @param tokenCount the number of tokens of the input
+	 * @return a new arena of the nodes
+	 * @throws IOException when the nodes are malformed
+	 */
+	static AstArena read(ByteBuffer in, int tokenCount) throws IOException {
+		try {
+			int size = in.getInt();
+			if (size < 0 || size > in.remaining()) {
+				throw new IOException("Malformed syntax tree of " + size + " nodes");
+			}
+
+			AstArena arena = new AstArena(size);
+			in.get(arena.kinds, 0, size);
+			for (int i = 0; i < size; i++) {
+				arena.firstChildren[i] = in.getInt();
+				arena.nextSiblings[i] = in.getInt();
+				arena.tokenIndices[i] = in.getInt();
+				if (arena.kinds[i] < 0 || arena.kinds[i] >= KINDS.length || !isNode(arena.firstChildren[i], size)
+						|| !isNode(arena.nextSiblings[i], size) || !isNode(arena.tokenIndices[i], tokenCount)) {
+					throw new IOException("Malformed node " + i + " of syntax tree");
+				}
+			}
+			arena.size = size;
+			return arena;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated syntax tree");
+		}
+	}
+
+	/***
+	 * Checks that an index is NONE or less than a count.
+	 *
+	 * @param index the index
+	 * @param count the count
+	 * @return boolean value of whether the index is valid
+	 */
+	private static boolean isNode(int index, int count) {
+		return index >= NONE && index < count;
+	}
+
+	/***
+	 * Adds a node.
+	 *
+	 * @param kind       the kind of the node
+	 * @param tokenIndex the token index of the node
+	 * @return the new node
+	 */
+	private int add(NodeKind kind, int tokenIndex) {
+		if (size == kinds.length) {
+			int capacity = size + (size >> 1);
+			kinds = Arrays.copyOf(kinds, capacity);
+			firstChildren = Arrays.copyOf(firstChildren, capacity);
+			nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+			tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+		}
+
+		kinds[size] = (byte) kind.ordinal();
+		firstChildren[size] = NONE;
+		nextSiblings[size] = NONE;
+		tokenIndices[size] = tokenIndex;
+		return size++;
+	}
+}
@@ -0,0 +1,125 @@
+package com.litsynp.parser.ast;
+
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.ParseStack;
+import com.litsynp.parser.Rule;
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Builds a syntax tree in an arena from the shifts and reductions of the parser.
+ * The semantic value of each state on the parse stack is the node of its
+ * symbol.
+ * <p>
+ * Punctuation tokens and the assignment operator tell nothing that the shape
+ * of the tree does not, so they get no nodes. The lists of the grammar, which
+ * are right-recursive, are flattened: the node of a rule that ends with CODE,
+ * BLOCK or MOREARGS takes the children of that last node instead of the node
+ * itself.
+ */
+public final class AstBuilder {
+
+	/***
+	 * All rules, indexed by rule number.
+	 */
+	private static final Rule[] RULES = new Rule[Rule.values().length + 1];
+
+	/***
+	 * Whether the node of each rule is flattened with its last child, indexed by
+	 * rule number.
+	 */
+	private static final boolean[] FLATTENS = new boolean[RULES.length];
+
+	/***
+	 * Whether each terminal gets a token node, indexed by ordinal.
+	 */
+	private static final boolean[] KEEPS = new boolean[Symbol.values().length];
+
+	static {
+		for (Rule rule : Rule.values()) {
+			RULES[rule.ruleNumber] = rule;
+			Symbol last = rule.body[rule.body.length - 1];
+			FLATTENS[rule.ruleNumber] = last == Symbol.NTERM_CODE || last == Symbol.NTERM_BLOCK
+					|| last == Symbol.NTERM_MOREARGS;
+		}
+
+		for (Symbol symbol : Symbol.values()) {
+			KEEPS[symbol.ordinal()] = symbol.isTerminal;
+		}
+		for (Symbol punctuation : new Symbol[] { Symbol.TERM_SEMI, Symbol.TERM_COMMA, Symbol.TERM_LPAREN,
+				Symbol.TERM_RPAREN, Symbol.TERM_LBRACE, Symbol.TERM_RBRACE, Symbol.TERM_ASSIGN, Symbol.TERM_EOF }) {
+			KEEPS[punctuation.ordinal()] = false;
+		}
+	}
+
+	/***
+	 * The arena of the tree.
+	 */
+	private final AstArena arena;
+
+	/***
+	 * Creates a builder with an arena sized for a number of tokens.
+	 *
+	 * @param tokenCount the expected number of tokens
+	 */
+	public AstBuilder(int tokenCount) {
+		// There are about two nodes per token
+		arena = new AstArena(tokenCount * 2);
+	}
+
+	/***
+	 * Returns the node of a shifted token.
+	 *
+	 * @param terminal   the terminal symbol of the token
+	 * @param tokenIndex the index of the token
+	 * @return the new token node, or NONE if the token gets no node
+	 */
+	public int shift(Symbol terminal, int tokenIndex) {
+		return KEEPS[terminal.ordinal()] ? arena.addToken(tokenIndex) : AstArena.NONE;
+	}
+
+	/***
+	 * Returns the node of a reduction, whose children are the nodes at the top of
+	 * the parse stack. The stack is not popped.
+	 *
+	 * @param ruleNumber the number of the rule to reduce by
+	 * @param bodyLength the number of states of the rule body on the stack
+	 * @param stack      the parse stack
+	 * @return the node of the head of the rule
+	 */
+	public int reduce(int ruleNumber, int bodyLength, ParseStack stack) {
+		NodeKind kind = NodeKind.of(RULES[ruleNumber].head);
+		int top = stack.size() - 1;
+		if (kind == null) {
+			// The dummy start symbol has the node of its only child
+			return stack.valueAt(top);
+		}
+
+		int node;
+		if (FLATTENS[ruleNumber]) {
+			node = stack.valueAt(top--);
+			arena.setKind(node, kind);
+		} else {
+			node = arena.addNode(kind);
+		}
+
+		// Link the children from the last one
+		for (int i = top; i > stack.size() - 1 - bodyLength; i--) {
+			int child = stack.valueAt(i);
+			if (child != AstArena.NONE) {
+				arena.prependChild(node, child);
+			}
+		}
+		return node;
+	}
+
+	/***
+	 * Returns the syntax tree of an accepted input.
+	 *
+	 * @param tokens the tokens of the input
+	 * @param root   the node of the dummy start symbol
+	 * @return the syntax tree
+	 */
+	public Ast build(TokenStream tokens, int root) {
+		return new Ast(arena, tokens, root);
+	}
+}
@@ -0,0 +1,176 @@
+package com.litsynp.parser.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.litsynp.parser.symbol.Symbol;
+import com.litsynp.parser.symbol.TokenMapper;
+
+/***
+ * View of a node of a syntax tree.
+ */
+public class AstNode {
+
+	/***
+	 * The syntax tree of the node.
+	 */
+	protected final Ast ast;
+
+	/***
+	 * Index of the node in the arena.
+	 */
+	protected final int node;
+
+	/***
+	 * Creates a view of a node.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index
+	 */
+	AstNode(Ast ast, int node) {
+		this.ast = ast;
+		this.node = node;
+	}
+
+	/***
+	 * Returns the syntax tree of the node.
+	 * 
+	 * @return the syntax tree
+	 */
+	public Ast getAst() {
+		return ast;
+	}
+
+	/***
+	 * Returns the index of the node in the arena.
+	 * 
+	 * @return the node index
+	 */
+	public int getIndex() {
+		return node;
+	}
+
+	/***
+	 * Returns the kind of the node.
+	 * 
+	 * @return the node kind
+	 */
+	public NodeKind getKind() {
+		return ast.getArena().getKind(node);
+	}
+
+	/***
+	 * Returns whether the node is a token.
+	 * 
+	 * @return boolean value of whether the node is a token
+	 */
+	public boolean isToken() {
+		return getKind() == NodeKind.TOKEN;
+	}
+
+	/***
+	 * Returns the terminal symbol of a token node.
+	 * 
+	 * @return the terminal symbol, or null if the node is not a token
+	 */
+	public Symbol getTerminal() {
+		return isToken() ? TokenMapper.convertToken(ast.getTokens(), getTokenIndex()) : null;
+	}
+
+	/***
+	 * Returns the text of a token node.
+	 * 
+	 * @return the value of the token, or null if the node is not a token
+	 */
+	public String getText() {
+		return isToken() ? ast.getTokens().getValue(getTokenIndex()) : null;
+	}
+
+	/***
+	 * Returns the index of the token of a token node, or of the first token of
+	 * other nodes.
+	 * 
+	 * @return the token index, or NONE if the node has no tokens
+	 */
+	public int getTokenIndex() {
+		return ast.getArena().getTokenIndex(node);
+	}
+
+	/***
+	 * Returns the line number of the first token of the node, counting from the
+	 * line base of the syntax tree.
+	 * 
+	 * @return the line number, or -1 if the node has no tokens
+	 */
+	public int getLineNo() {
+		int tokenIndex = getTokenIndex();
+		return (tokenIndex == AstArena.NONE) ? -1 : ast.getLineBase() + ast.getTokens().getLineNo(tokenIndex);
+	}
+
+	/***
+	 * Returns the first child of the node.
+	 * 
+	 * @return the first child, or null
+	 */
+	public AstNode getFirstChild() {
+		return ast.node(ast.getArena().getFirstChild(node));
+	}
+
+	/***
+	 * Returns the next sibling of the node.
+	 * 
+	 * @return the next sibling, or null
+	 */
+	public AstNode getNextSibling() {
+		return ast.node(ast.getArena().getNextSibling(node));
+	}
+
+	/***
+	 * Returns a child of the node.
+	 * 
+	 * @param n the position of the child, from 0
+	 * @return the child, or null if there are not so many children
+	 */
+	public AstNode getChild(int n) {
+		AstArena arena = ast.getArena();
+		int child = arena.getFirstChild(node);
+		for (int i = 0; i < n && child != AstArena.NONE; i++) {
+			child = arena.getNextSibling(child);
+		}
+		return ast.node(child);
+	}
+
+	/***
+	 * Returns the children of the node.
+	 * 
+	 * @return the children, in order
+	 */
+	public List<AstNode> getChildren() {
+		List<AstNode> children = new ArrayList<AstNode>();
+		AstArena arena = ast.getArena();
+		for (int child = arena.getFirstChild(node); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+			children.add(new AstNode(ast, child));
+		}
+		return children;
+	}
+
+	/***
+	 * Returns the text of a token child.
+	 * 
+	 * @param n the position of the child, from 0
+	 * @return the text of the child, or null if it is missing or not a token
+	 */
+	protected String getChildText(int n) {
+		AstNode child = getChild(n);
+		return (child == null) ? null : child.getText();
+	}
+
+	/***
+	 * Returns string value of the node, which is the text of a token or the kind
+	 * of another node.
+	 */
+	@Override
+	public String toString() {
+		return isToken() ? getText() : getKind().toString();
+	}
+}
@@ -0,0 +1,88 @@
+package com.litsynp.parser.ast;
+
+/***
+ * View of an expression: a token such as an identifier, a number or a literal
+ * string, or a binary operation.
+ * <p>
+ * The chains of single-child nodes that the grammar puts between an expression
+ * and its operands, such as RHS, EXPR, TERM and FACTOR, are skipped.
+ */
+public final class Expression extends AstNode {
+
+	/***
+	 * Creates a view of an expression.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index, without single-child chains
+	 */
+	private Expression(Ast ast, int node) {
+		super(ast, node);
+	}
+
+	/***
+	 * Creates a view of the expression of a node, skipping the chain of
+	 * single-child nodes from it.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index
+	 * @return the expression, or null for NONE
+	 */
+	static Expression of(Ast ast, int node) {
+		if (node == AstArena.NONE) {
+			return null;
+		}
+
+		AstArena arena = ast.getArena();
+		while (arena.getKind(node) != NodeKind.TOKEN && arena.getFirstChild(node) != AstArena.NONE
+				&& arena.getNextSibling(arena.getFirstChild(node)) == AstArena.NONE) {
+			node = arena.getFirstChild(node);
+		}
+		return new Expression(ast, node);
+	}
+
+	/***
+	 * Returns whether the expression is a binary operation.
+	 * 
+	 * @return boolean value of whether the expression has an operator
+	 */
+	public boolean isBinary() {
+		return !isToken();
+	}
+
+	/***
+	 * Returns the operator of a binary operation.
+	 * 
+	 * @return the text of the operator, or null if the expression is a token
+	 */
+	public String getOperator() {
+		return isBinary() ? getChildText(1) : null;
+	}
+
+	/***
+	 * Returns the left operand of a binary operation.
+	 * 
+	 * @return the left operand, or null if the expression is a token
+	 */
+	public Expression getLeft() {
+		return isBinary() ? of(ast, ast.getArena().getFirstChild(node)) : null;
+	}
+
+	/***
+	 * Returns the right operand of a binary operation.
+	 * 
+	 * @return the right operand, or null if the expression is a token
+	 */
+	public Expression getRight() {
+		AstNode right = isBinary() ? getChild(2) : null;
+		return (right == null) ? null : of(ast, right.getIndex());
+	}
+
+	/***
+	 * Returns string value of the expression, with every binary operation in
+	 * parentheses.
+	 */
+	@Override
+	public String toString() {
+		return isBinary() ? "(" + getLeft() + " " + getOperator() + " " + getRight() + ")" : getText();
+	}
+}
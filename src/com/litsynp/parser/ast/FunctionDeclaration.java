@@ -0,0 +1,91 @@
+package com.litsynp.parser.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * View of a function declaration, of kind FDECL.
+ */
+public final class FunctionDeclaration extends AstNode {
+
+	/***
+	 * Creates a view of a function declaration.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index
+	 */
+	FunctionDeclaration(Ast ast, int node) {
+		super(ast, node);
+	}
+
+	/***
+	 * Returns the return type of the function.
+	 * 
+	 * @return the return type, such as "int"
+	 */
+	public String getReturnType() {
+		return getChildText(0);
+	}
+
+	/***
+	 * Returns the name of the function.
+	 * 
+	 * @return the name of the function
+	 */
+	public String getName() {
+		return getChildText(1);
+	}
+
+	/***
+	 * Returns the types of the parameters.
+	 * 
+	 * @return the types of the parameters, in order
+	 */
+	public List<String> getParameterTypes() {
+		return getParameterTexts(0);
+	}
+
+	/***
+	 * Returns the names of the parameters.
+	 * 
+	 * @return the names of the parameters, in order
+	 */
+	public List<String> getParameterNames() {
+		return getParameterTexts(1);
+	}
+
+	/***
+	 * Returns the statements of the body of the function.
+	 * 
+	 * @return the statements, in order
+	 */
+	public List<Statement> getBody() {
+		return Statement.listOf(ast, getChild(3).getIndex());
+	}
+
+	/***
+	 * Returns the returned value.
+	 * 
+	 * @return the expression of the returned value
+	 */
+	public Expression getReturnValue() {
+		// The return node has the return keyword and the value
+		return Expression.of(ast, getChild(4).getChild(1).getIndex());
+	}
+
+	/***
+	 * Returns every other text of the parameters, whose node holds the type and
+	 * the name of each parameter in turn.
+	 * 
+	 * @param offset 0 for the types, 1 for the names
+	 * @return the texts, in order
+	 */
+	private List<String> getParameterTexts(int offset) {
+		List<String> texts = new ArrayList<String>();
+		List<AstNode> parameters = getChild(2).getChildren();
+		for (int i = offset; i < parameters.size(); i += 2) {
+			texts.add(parameters.get(i).getText());
+		}
+		return texts;
+	}
+}
@@ -0,0 +1,72 @@
+package com.litsynp.parser.ast;
+
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Defines the kinds of the nodes of the syntax tree: one per non-terminal of
+ * the grammar, except the dummy start symbol, and one for the tokens.
+ */
+public enum NodeKind {
+	CODE(Symbol.NTERM_CODE),
+	VDECL(Symbol.NTERM_VDECL),
+	FDECL(Symbol.NTERM_FDECL),
+	ARG(Symbol.NTERM_ARG),
+	MOREARGS(Symbol.NTERM_MOREARGS),
+	BLOCK(Symbol.NTERM_BLOCK),
+	STMT(Symbol.NTERM_STMT),
+	ELSE(Symbol.NTERM_ELSE),
+	ASSIGN(Symbol.NTERM_ASSIGN),
+	RHS(Symbol.NTERM_RHS),
+	EXPR(Symbol.NTERM_EXPR),
+	TERM(Symbol.NTERM_TERM),
+	FACTOR(Symbol.NTERM_FACTOR),
+	COND(Symbol.NTERM_COND),
+	RETURN(Symbol.NTERM_RETURN),
+	TOKEN(null);
+
+	/***
+	 * Node kinds indexed by the ordinal of their non-terminal.
+	 */
+	private static final NodeKind[] BY_SYMBOL = new NodeKind[Symbol.values().length];
+
+	static {
+		for (NodeKind kind : values()) {
+			if (kind.symbol != null) {
+				BY_SYMBOL[kind.symbol.ordinal()] = kind;
+			}
+		}
+	}
+
+	/***
+	 * The non-terminal of the node kind, or null for tokens.
+	 */
+	private final Symbol symbol;
+
+	/***
+	 * Creates a node kind.
+	 * 
+	 * @param symbol the non-terminal of the node kind, or null for tokens
+	 */
+	private NodeKind(Symbol symbol) {
+		this.symbol = symbol;
+	}
+
+	/***
+	 * Returns the non-terminal of the node kind.
+	 * 
+	 * @return the non-terminal, or null for tokens
+	 */
+	public Symbol getSymbol() {
+		return symbol;
+	}
+
+	/***
+	 * Finds the node kind of a non-terminal.
+	 * 
+	 * @param nonterminal the non-terminal
+	 * @return the node kind, or null for the dummy start symbol
+	 */
+	public static NodeKind of(Symbol nonterminal) {
+		return BY_SYMBOL[nonterminal.ordinal()];
+	}
+}
@@ -0,0 +1,148 @@
+package com.litsynp.parser.ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * View of a statement in a block, of kind STMT.
+ */
+public final class Statement extends AstNode {
+
+	/***
+	 * Defines the forms of a statement.
+	 */
+	public enum Form {
+		DECLARATION, ASSIGNMENT, IF, WHILE, FOR
+	}
+
+	/***
+	 * Creates a view of a statement.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index
+	 */
+	Statement(Ast ast, int node) {
+		super(ast, node);
+	}
+
+	/***
+	 * Returns the statements of a block node.
+	 * 
+	 * @param ast   the syntax tree
+	 * @param block the block node, of kind BLOCK
+	 * @return the statements, in order
+	 */
+	static List<Statement> listOf(Ast ast, int block) {
+		List<Statement> statements = new ArrayList<Statement>();
+		AstArena arena = ast.getArena();
+		for (int child = arena.getFirstChild(block); child != AstArena.NONE; child = arena.getNextSibling(child)) {
+			statements.add(new Statement(ast, child));
+		}
+		return statements;
+	}
+
+	/***
+	 * Returns the form of the statement.
+	 * 
+	 * @return the form
+	 */
+	public Form getForm() {
+		AstNode first = getFirstChild();
+		switch (first.getKind()) {
+		case VDECL:
+			return Form.DECLARATION;
+		case ASSIGN:
+			return Form.ASSIGNMENT;
+		default:
+			Symbol keyword = first.getTerminal();
+			if (keyword == Symbol.TERM_IF) {
+				return Form.IF;
+			}
+			return (keyword == Symbol.TERM_WHILE) ? Form.WHILE : Form.FOR;
+		}
+	}
+
+	/***
+	 * Returns the variable declaration of a declaration.
+	 * 
+	 * @return the variable declaration, or null for other forms
+	 */
+	public VariableDeclaration getDeclaration() {
+		return (getForm() == Form.DECLARATION) ? new VariableDeclaration(ast, getChild(0).getIndex()) : null;
+	}
+
+	/***
+	 * Returns the assignment of an assignment, or the first assignment of a for
+	 * loop.
+	 * 
+	 * @return the assignment, or null for other forms
+	 */
+	public Assignment getAssignment() {
+		Form form = getForm();
+		if (form == Form.ASSIGNMENT) {
+			return new Assignment(ast, getChild(0).getIndex());
+		}
+		return (form == Form.FOR) ? new Assignment(ast, getChild(1).getIndex()) : null;
+	}
+
+	/***
+	 * Returns the assignment after every iteration of a for loop.
+	 * 
+	 * @return the assignment, or null for other forms
+	 */
+	public Assignment getUpdate() {
+		return (getForm() == Form.FOR) ? new Assignment(ast, getChild(3).getIndex()) : null;
+	}
+
+	/***
+	 * Returns the condition of an if statement or a loop, as a comparison.
+	 * 
+	 * @return the expression of the condition, or null for other forms
+	 */
+	public Expression getCondition() {
+		switch (getForm()) {
+		case IF:
+		case WHILE:
+			return Expression.of(ast, getChild(1).getIndex());
+		case FOR:
+			return Expression.of(ast, getChild(2).getIndex());
+		default:
+			return null;
+		}
+	}
+
+	/***
+	 * Returns the statements of the block of an if statement or a loop.
+	 * 
+	 * @return the statements, or an empty list for other forms
+	 */
+	public List<Statement> getBody() {
+		switch (getForm()) {
+		case IF:
+		case WHILE:
+			return listOf(ast, getChild(2).getIndex());
+		case FOR:
+			return listOf(ast, getChild(4).getIndex());
+		default:
+			return Collections.emptyList();
+		}
+	}
+
+	/***
+	 * Returns the statements of the else block of an if statement.
+	 * 
+	 * @return the statements, or an empty list if there is no else block
+	 */
+	public List<Statement> getElseBody() {
+		if (getForm() != Form.IF) {
+			return Collections.emptyList();
+		}
+
+		// The else node has the else keyword and the block, or no children
+		AstNode elseBlock = getChild(3).getChild(1);
+		return (elseBlock == null) ? Collections.<Statement>emptyList() : listOf(ast, elseBlock.getIndex());
+	}
+}
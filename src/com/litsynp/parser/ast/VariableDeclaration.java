@@ -0,0 +1,57 @@
+package com.litsynp.parser.ast;
+
+/***
+ * View of a variable declaration, of kind VDECL, with an optional initial
+ * value.
+ */
+public final class VariableDeclaration extends AstNode {
+
+	/***
+	 * Creates a view of a variable declaration.
+	 * 
+	 * @param ast  the syntax tree
+	 * @param node the node index
+	 */
+	VariableDeclaration(Ast ast, int node) {
+		super(ast, node);
+	}
+
+	/***
+	 * Returns the type of the variable.
+	 * 
+	 * @return the type, such as "int"
+	 */
+	public String getType() {
+		return getChildText(0);
+	}
+
+	/***
+	 * Returns the name of the variable.
+	 * 
+	 * @return the name of the variable
+	 */
+	public String getName() {
+		Assignment assignment = getAssignment();
+		return (assignment == null) ? getChildText(1) : assignment.getName();
+	}
+
+	/***
+	 * Returns the initial value of the variable.
+	 * 
+	 * @return the expression of the initial value, or null if there is none
+	 */
+	public Expression getInitializer() {
+		Assignment assignment = getAssignment();
+		return (assignment == null) ? null : assignment.getValue();
+	}
+
+	/***
+	 * Returns the assignment of the initial value.
+	 * 
+	 * @return the assignment, or null if there is none
+	 */
+	private Assignment getAssignment() {
+		AstNode second = getChild(1);
+		return (second.getKind() == NodeKind.ASSIGN) ? new Assignment(ast, second.getIndex()) : null;
+	}
+}
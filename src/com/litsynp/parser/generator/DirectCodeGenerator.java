@@ -0,0 +1,409 @@
+package com.litsynp.parser.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.litsynp.parser.ParsingTable;
+import com.litsynp.parser.Rule;
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Generator of a direct-coded parser, which is the Java source of a class
+ * whose code takes the actions of the parsing table instead of looking them up.
+ * <p>
+ * Each state is a case of a switch on the state, whose shifts and reductions
+ * are the cases of a switch on the next terminal, as in the direct-coded
+ * parsers of bison. Each rule is reduced by a method of its own, and each
+ * non-terminal goes to the next state by a switch on the state below.
+ * <p>
+ * A state that reduces by a single rule reduces on every terminal it does not
+ * shift, and the most common next state of a non-terminal is taken when none
+ * of the others is. Both leave out tests that only tell where an error is
+ * found, which is never after the erroneous terminal is shifted. The generated
+ * parser tells no more than whether the input is accepted, so a rejected input
+ * has to be parsed again with the table to report its errors.
+ */
+public final class DirectCodeGenerator {
+
+	/***
+	 * Path of the generated class from the root of the project.
+	 */
+	public static final String DEFAULT_PATH = "src" + File.separator + "com" + File.separator + "litsynp"
+			+ File.separator + "parser" + File.separator + "DirectParser.java";
+
+	/***
+	 * All symbols, indexed by ordinal.
+	 */
+	private static final Symbol[] SYMBOLS = Symbol.values();
+
+	/***
+	 * The parsing table to generate the parser from.
+	 */
+	private final ParsingTable table;
+
+	/***
+	 * The production rules, with the augmented start rule first.
+	 */
+	private final Rule[] rules;
+
+	/***
+	 * The generated source.
+	 */
+	private final StringBuilder source = new StringBuilder();
+
+	/***
+	 * Creates a generator for a parsing table.
+	 *
+	 * @param table the parsing table
+	 * @param rules the production rules that the table has been generated from
+	 */
+	private DirectCodeGenerator(ParsingTable table, Rule[] rules) {
+		this.table = table;
+		this.rules = rules;
+	}
+
+	/***
+	 * Writes the direct-coded parser of the grammar of the syntax analyzer.
+	 *
+	 * @param args the path to write the class to (default:
+	 *             "src/com/litsynp/parser/DirectParser.java")
+	 * @throws IOException when the class cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		File outputFile = new File(args.length > 0 ? args[0] : DEFAULT_PATH);
+		Writer writer = new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8");
+		try {
+			writer.write(generate(ParserGenerator.generate(), Rule.values()));
+		} finally {
+			writer.close();
+		}
+		System.out.println("Direct-coded parser is generated as \"" + outputFile.getPath() + "\".");
+	}
+
+	/***
+	 * Generates the source of the class com.litsynp.parser.DirectParser from a
+	 * parsing table.
+	 *
+	 * @param table the parsing table
+	 * @param rules the production rules that the table has been generated from,
+	 *              with the augmented start rule first
+	 * @return the Java source of the class
+	 */
+	public static String generate(ParsingTable table, Rule[] rules) {
+		DirectCodeGenerator generator = new DirectCodeGenerator(table, rules);
+		generator.writeClass();
+		return generator.source.toString();
+	}
+
+	/***
+	 * Writes the class.
+	 */
+	private void writeClass() {
+		line(0, "package com.litsynp.parser;");
+		line(0, "");
+		line(0, "import com.litsynp.lexer.token.TokenStream;");
+		line(0, "import com.litsynp.parser.ast.AstArena;");
+		line(0, "import com.litsynp.parser.ast.AstBuilder;");
+		line(0, "import com.litsynp.parser.symbol.Symbol;");
+		line(0, "import com.litsynp.parser.symbol.TokenMapper;");
+		line(0, "");
+		line(0, "/***");
+		line(0, " * Direct-coded SLR parser of the syntax analyzer, which takes the actions of");
+		line(0, " * each state by a switch instead of looking them up in the parsing table.");
+		line(0, " * <p>");
+		line(0, " * GENERATED by {@link com.litsynp.parser.generator.DirectCodeGenerator} from");
+		line(0, " * the parsing table. Do not edit this file, but run the generator again after");
+		line(0, " * changing the rules.");
+		line(0, " */");
+		line(0, "final class DirectParser {");
+		line(0, "");
+		line(1, "/***");
+		line(1, " * Fingerprint of the parsing table that the parser has been generated from.");
+		line(1, " */");
+		line(1, "static final int TABLE_FINGERPRINT = " + table.fingerprint() + ";");
+		line(0, "");
+		line(1, "/***");
+		line(1, " * All symbols, indexed by ordinal.");
+		line(1, " */");
+		line(1, "private static final Symbol[] SYMBOLS = Symbol.values();");
+		line(0, "");
+		line(1, "private DirectParser() {");
+		line(1, "}");
+		line(0, "");
+		writeParse();
+		for (int r = 1; r < rules.length; r++) {
+			writeReduce(rules[r]);
+		}
+		for (int n = ParsingTable.TERMINAL_COUNT + 1; n < ParsingTable.TERMINAL_COUNT
+				+ ParsingTable.NONTERMINAL_COUNT; n++) {
+			writeGoTo(SYMBOLS[n]);
+		}
+		writeTerminalAt();
+		line(0, "}");
+	}
+
+	/***
+	 * Writes the method that parses, with a case for each state.
+	 */
+	private void writeParse() {
+		line(1, "/***");
+		line(1, " * Parses a range of tokens, and builds the syntax tree of the range.");
+		line(1, " * ");
+		line(1, " * @param tokens  the tokens of the input");
+		line(1, " * @param from    the position of the first token to parse");
+		line(1, " * @param to      the position right after the last token to parse");
+		line(1, " * @param stack   the empty parse stack");
+		line(1, " * @param builder the builder of the syntax tree");
+		line(1, " * @return the node of the dummy start symbol, or NONE if the tokens are not");
+		line(1, " *         accepted");
+		line(1, " */");
+		line(1, "static int parse(TokenStream tokens, int from, int to, ParseStack stack, AstBuilder builder) {");
+		line(2, "int position = from;");
+		line(2, "int terminal = terminalAt(tokens, position, to);");
+		line(2, "int state = 0;");
+		line(2, "stack.push(state, AstArena.NONE);");
+		line(0, "");
+		line(2, "while (true) {");
+		line(3, "switch (state) {");
+		for (int state = 0; state < table.getStateCount(); state++) {
+			writeState(state);
+		}
+		line(3, "default:");
+		line(4, "return AstArena.NONE;");
+		line(3, "}");
+		line(0, "");
+		line(3, "// Shift the terminal and go to the state");
+		line(3, "stack.push(state, builder.shift(SYMBOLS[terminal], position));");
+		line(3, "terminal = terminalAt(tokens, ++position, to);");
+		line(2, "}");
+		line(1, "}");
+		line(0, "");
+	}
+
+	/***
+	 * Writes the case of a state, which breaks to shift, continues after reducing
+	 * and returns otherwise.
+	 *
+	 * @param state the state number
+	 */
+	private void writeState(int state) {
+		// Group the terminals by their actions, in the order of the terminals
+		Map<Integer, List<Symbol>> actions = new LinkedHashMap<Integer, List<Symbol>>();
+		int defaultReduce = ParsingTable.ERROR;
+		for (int t = 0; t < ParsingTable.TERMINAL_COUNT; t++) {
+			int action = table.action(state, t);
+			if (action == ParsingTable.ERROR) {
+				continue;
+			}
+			if (!actions.containsKey(action)) {
+				actions.put(action, new ArrayList<Symbol>());
+			}
+			actions.get(action).add(SYMBOLS[t]);
+
+			if (ParsingTable.isReduce(action) && action != ParsingTable.ACCEPT) {
+				defaultReduce = (defaultReduce == ParsingTable.ERROR || defaultReduce == action) ? action
+						: ParsingTable.ACCEPT;
+			}
+		}
+		if (defaultReduce == ParsingTable.ACCEPT) {
+			// A state that reduces by more than one rule has no default
+			defaultReduce = ParsingTable.ERROR;
+		}
+
+		line(3, "case " + state + ":");
+		if (defaultReduce != ParsingTable.ERROR && actions.size() == 1) {
+			writeReduceCall(4, defaultReduce);
+			return;
+		}
+
+		boolean shifts = false;
+		line(4, "switch (terminal) {");
+		for (Map.Entry<Integer, List<Symbol>> entry : actions.entrySet()) {
+			int action = entry.getKey();
+			if (action == defaultReduce) {
+				continue;
+			}
+
+			for (Symbol terminal : entry.getValue()) {
+				line(4, "case " + terminal.ordinal() + ": // " + terminal);
+			}
+			if (ParsingTable.isShift(action)) {
+				line(5, "state = " + ParsingTable.shiftState(action) + ";");
+				line(5, "break;");
+				shifts = true;
+			} else if (action == ParsingTable.ACCEPT) {
+				line(5, "return builder.reduce(1, 1, stack);");
+			} else {
+				writeReduceCall(5, action);
+			}
+		}
+		line(4, "default:");
+		if (defaultReduce != ParsingTable.ERROR) {
+			writeReduceCall(5, defaultReduce);
+		} else {
+			line(5, "return AstArena.NONE;");
+		}
+		line(4, "}");
+		if (shifts) {
+			line(4, "break;");
+		}
+	}
+
+	/***
+	 * Writes a reduction within a case, which goes on with the next state.
+	 *
+	 * @param indent the number of tabs
+	 * @param action the encoded reduce action
+	 */
+	private void writeReduceCall(int indent, int action) {
+		line(indent, "state = reduce" + ParsingTable.reduceRule(action) + "(stack, builder);");
+		line(indent, "continue;");
+	}
+
+	/***
+	 * Escapes the characters of a text that are not ASCII, such as the epsilon
+	 * of an empty rule body, so the generated source compiles whatever the
+	 * encoding of the compiler is.
+	 *
+	 * @param text the text
+	 * @return the text with Unicode escapes for the characters that are not ASCII
+	 */
+	private static String escape(String text) {
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				escaped.append(c);
+			} else {
+				escaped.append(String.format("\\u%04x", (int) c));
+			}
+		}
+		return escaped.toString();
+	}
+
+	/***
+	 * Writes the method that reduces by a rule.
+	 *
+	 * @param rule the rule
+	 */
+	private void writeReduce(Rule rule) {
+		int bodyLength = (rule.body[0] == Symbol.EPSILON) ? 0 : rule.body.length;
+
+		line(1, "/***");
+		line(1, " * Reduces by " + escape(rule.toString()) + ".");
+		line(1, " */");
+		line(1, "private static int reduce" + rule.ruleNumber + "(ParseStack stack, AstBuilder builder) {");
+		line(2, "int node = builder.reduce(" + rule.ruleNumber + ", " + bodyLength + ", stack);");
+		if (bodyLength > 0) {
+			line(2, "stack.popN(" + bodyLength + ");");
+		}
+		line(2, "int state = goTo" + nameOf(rule.head) + "(stack.peekState());");
+		line(2, "stack.push(state, node);");
+		line(2, "return state;");
+		line(1, "}");
+		line(0, "");
+	}
+
+	/***
+	 * Writes the method that goes to the next state on a non-terminal.
+	 *
+	 * @param nonterminal the non-terminal
+	 */
+	private void writeGoTo(Symbol nonterminal) {
+		// Count the states that go to each next state
+		Map<Integer, List<Integer>> targets = new LinkedHashMap<Integer, List<Integer>>();
+		for (int state = 0; state < table.getStateCount(); state++) {
+			int next = table.goTo(state, nonterminal.ordinal());
+			if (next == ParsingTable.NO_STATE) {
+				continue;
+			}
+			if (!targets.containsKey(next)) {
+				targets.put(next, new ArrayList<Integer>());
+			}
+			targets.get(next).add(state);
+		}
+
+		int defaultTarget = ParsingTable.NO_STATE;
+		for (Map.Entry<Integer, List<Integer>> entry : targets.entrySet()) {
+			if (defaultTarget == ParsingTable.NO_STATE
+					|| entry.getValue().size() > targets.get(defaultTarget).size()) {
+				defaultTarget = entry.getKey();
+			}
+		}
+
+		line(1, "/***");
+		line(1, " * Returns the state to go to on " + nonterminal + ".");
+		line(1, " */");
+		line(1, "private static int goTo" + nameOf(nonterminal) + "(int state) {");
+		if (targets.size() <= 1) {
+			line(2, "return " + defaultTarget + ";");
+			line(1, "}");
+			line(0, "");
+			return;
+		}
+
+		line(2, "switch (state) {");
+		for (Map.Entry<Integer, List<Integer>> entry : targets.entrySet()) {
+			if (entry.getKey() == defaultTarget) {
+				continue;
+			}
+			for (int state : entry.getValue()) {
+				line(2, "case " + state + ":");
+			}
+			line(3, "return " + entry.getKey() + ";");
+		}
+		line(2, "default:");
+		line(3, "return " + defaultTarget + ";");
+		line(2, "}");
+		line(1, "}");
+		line(0, "");
+	}
+
+	/***
+	 * Writes the method that returns the terminal of a token.
+	 */
+	private void writeTerminalAt() {
+		line(1, "/***");
+		line(1, " * Returns the terminal ordinal of a token, or of eof ($) after the range.");
+		line(1, " */");
+		line(1, "private static int terminalAt(TokenStream tokens, int position, int to) {");
+		line(2, "if (position == to) {");
+		line(3, "return " + Symbol.TERM_EOF.ordinal() + ";");
+		line(2, "}");
+		line(2, "Symbol symbol = TokenMapper.convertToken(tokens, position);");
+		line(2, "return (symbol == null) ? -1 : symbol.ordinal();");
+		line(1, "}");
+	}
+
+	/***
+	 * Returns the name of a non-terminal in the generated methods.
+	 *
+	 * @param nonterminal the non-terminal
+	 * @return the name of its constant without the prefix, such as "VDECL"
+	 */
+	private static String nameOf(Symbol nonterminal) {
+		return nonterminal.name().substring("NTERM_".length());
+	}
+
+	/***
+	 * Appends a line of source.
+	 *
+	 * @param indent the number of tabs
+	 * @param text   the text of the line
+	 */
+	private void line(int indent, String text) {
+		if (!text.isEmpty()) {
+			for (int i = 0; i < indent; i++) {
+				source.append('\t');
+			}
+		}
+		source.append(text).append('\n');
+	}
+}
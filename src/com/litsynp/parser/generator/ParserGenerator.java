@@ -0,0 +1,372 @@
+package com.litsynp.parser.generator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.litsynp.parser.ParsingTable;
+import com.litsynp.parser.Rule;
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Generator of the SLR(1) parsing table of the syntax analyzer from the
+ * production rules of a grammar.
+ * <p>
+ * The canonical collection of LR(0) item sets is built from the first rule,
+ * whose head is the augmented start symbol. A state shifts on the terminals and
+ * goes to the next state on the non-terminals after the dots of its items, and
+ * reduces by the rules of its complete items on the terminals in the FOLLOW set
+ * of their heads. Reducing by the first rule accepts the input.
+ * <p>
+ * The FIRST and FOLLOW sets are bitsets of terminal ordinals. The states are
+ * numbered in the order they are found, following the symbols in the order of
+ * their ordinals, so the table is the same on every run.
+ */
+public final class ParserGenerator {
+
+	/***
+	 * Marks an absent symbol or state.
+	 */
+	private static final int NONE = -1;
+
+	/***
+	 * Number of symbols of the grammar, the terminals followed by the
+	 * non-terminals.
+	 */
+	private static final int SYMBOL_COUNT = ParsingTable.TERMINAL_COUNT + ParsingTable.NONTERMINAL_COUNT;
+
+	/***
+	 * All symbols, indexed by ordinal.
+	 */
+	private static final Symbol[] SYMBOLS = Symbol.values();
+
+	/***
+	 * The production rules, with the augmented start rule first.
+	 */
+	private final Rule[] rules;
+
+	/***
+	 * Symbols of the body of each rule, without epsilon, indexed by rule index.
+	 */
+	private final Symbol[][] bodies;
+
+	/***
+	 * Index of the first item of each rule. The item of a rule with the dot before
+	 * the n-th symbol of its body is itemBase[rule] + n.
+	 */
+	private final int[] itemBase;
+
+	/***
+	 * Rule index of each item.
+	 */
+	private final int[] itemRules;
+
+	/***
+	 * Whether each non-terminal derives the empty string, indexed by ordinal.
+	 */
+	private final boolean[] nullable = new boolean[SYMBOL_COUNT];
+
+	/***
+	 * FIRST set of each symbol, indexed by ordinal.
+	 */
+	private final BitSet[] first = new BitSet[SYMBOL_COUNT];
+
+	/***
+	 * FOLLOW set of each non-terminal, indexed by ordinal.
+	 */
+	private final BitSet[] follow = new BitSet[SYMBOL_COUNT];
+
+	/***
+	 * Descriptions of the conflicts found while filling in the table.
+	 */
+	private final List<String> conflicts = new ArrayList<String>();
+
+	/***
+	 * Creates a generator for a grammar.
+	 *
+	 * @param rules the production rules, with the augmented start rule first
+	 */
+	private ParserGenerator(Rule[] rules) {
+		this.rules = rules;
+		this.bodies = new Symbol[rules.length][];
+		this.itemBase = new int[rules.length];
+
+		int itemCount = 0;
+		for (int r = 0; r < rules.length; r++) {
+			bodies[r] = (rules[r].body[0] == Symbol.EPSILON) ? new Symbol[0] : rules[r].body;
+			itemBase[r] = itemCount;
+			itemCount += bodies[r].length + 1;
+		}
+
+		itemRules = new int[itemCount];
+		for (int r = 0; r < rules.length; r++) {
+			for (int dot = 0; dot <= bodies[r].length; dot++) {
+				itemRules[itemBase[r] + dot] = r;
+			}
+		}
+
+		for (int s = 0; s < SYMBOL_COUNT; s++) {
+			first[s] = new BitSet(ParsingTable.TERMINAL_COUNT);
+			follow[s] = new BitSet(ParsingTable.TERMINAL_COUNT);
+			if (SYMBOLS[s].isTerminal) {
+				first[s].set(s);
+			}
+		}
+	}
+
+	/***
+	 * Generates the SLR(1) parsing table of the grammar of the syntax analyzer.
+	 *
+	 * @return the parsing table
+	 * @throws IllegalStateException when the grammar is not SLR(1)
+	 */
+	public static ParsingTable generate() {
+		return generate(Rule.values());
+	}
+
+	/***
+	 * Generates the SLR(1) parsing table of a grammar.
+	 *
+	 * @param rules the production rules, with the augmented start rule first
+	 * @return the parsing table
+	 * @throws IllegalStateException when the grammar is not SLR(1), listing every
+	 *                               conflict
+	 */
+	public static ParsingTable generate(Rule[] rules) {
+		ParserGenerator generator = new ParserGenerator(rules);
+		generator.computeFirstSets();
+		generator.computeFollowSets();
+		ParsingTable table = generator.buildTable();
+
+		if (!generator.conflicts.isEmpty()) {
+			StringBuilder message = new StringBuilder("The grammar is not SLR(1):");
+			for (String conflict : generator.conflicts) {
+				message.append("\n  ").append(conflict);
+			}
+			throw new IllegalStateException(message.toString());
+		}
+		return table;
+	}
+
+	/***
+	 * Computes the nullable non-terminals and the FIRST sets, until nothing
+	 * changes.
+	 */
+	private void computeFirstSets() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int r = 0; r < rules.length; r++) {
+				int head = rules[r].head.ordinal();
+				BitSet set = first[head];
+				int before = set.cardinality();
+
+				boolean allNullable = true;
+				for (Symbol symbol : bodies[r]) {
+					set.or(first[symbol.ordinal()]);
+					if (!nullable[symbol.ordinal()]) {
+						allNullable = false;
+						break;
+					}
+				}
+
+				if (allNullable && !nullable[head]) {
+					nullable[head] = true;
+					changed = true;
+				}
+				if (set.cardinality() != before) {
+					changed = true;
+				}
+			}
+		}
+	}
+
+	/***
+	 * Computes the FOLLOW sets, until nothing changes. The FOLLOW set of the start
+	 * symbol holds the eof ($) symbol.
+	 */
+	private void computeFollowSets() {
+		follow[rules[0].head.ordinal()].set(Symbol.TERM_EOF.ordinal());
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int r = 0; r < rules.length; r++) {
+				Symbol[] body = bodies[r];
+
+				// Walk the body backwards, carrying what can follow each symbol
+				BitSet trailer = (BitSet) follow[rules[r].head.ordinal()].clone();
+				for (int i = body.length - 1; i >= 0; i--) {
+					int symbol = body[i].ordinal();
+					if (!body[i].isTerminal) {
+						int before = follow[symbol].cardinality();
+						follow[symbol].or(trailer);
+						if (follow[symbol].cardinality() != before) {
+							changed = true;
+						}
+					}
+
+					if (nullable[symbol]) {
+						trailer.or(first[symbol]);
+					} else {
+						trailer = (BitSet) first[symbol].clone();
+					}
+				}
+			}
+		}
+	}
+
+	/***
+	 * Builds the canonical collection of LR(0) item sets and fills in the parsing
+	 * table from it.
+	 *
+	 * @return the parsing table
+	 */
+	private ParsingTable buildTable() {
+		// Item sets are identified by their kernels
+		List<BitSet> kernels = new ArrayList<BitSet>();
+		Map<BitSet, Integer> stateOfKernel = new HashMap<BitSet, Integer>();
+		List<int[]> transitions = new ArrayList<int[]>();
+
+		BitSet startKernel = new BitSet(itemRules.length);
+		startKernel.set(itemBase[0]);
+		kernels.add(startKernel);
+		stateOfKernel.put(startKernel, 0);
+
+		for (int state = 0; state < kernels.size(); state++) {
+			BitSet items = closure(kernels.get(state));
+
+			// Move the dot over each symbol in turn
+			int[] next = new int[SYMBOL_COUNT];
+			for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+				BitSet kernel = new BitSet(itemRules.length);
+				for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+					if (symbolAfterDot(item) == symbol) {
+						kernel.set(item + 1);
+					}
+				}
+
+				if (kernel.isEmpty()) {
+					next[symbol] = ParsingTable.NO_STATE;
+					continue;
+				}
+				Integer target = stateOfKernel.get(kernel);
+				if (target == null) {
+					target = kernels.size();
+					kernels.add(kernel);
+					stateOfKernel.put(kernel, target);
+				}
+				next[symbol] = target;
+			}
+			transitions.add(next);
+		}
+
+		short[] actions = new short[kernels.size() * ParsingTable.TERMINAL_COUNT];
+		short[] gotos = new short[kernels.size() * ParsingTable.NONTERMINAL_COUNT];
+		short[] symbols = new short[kernels.size()];
+		symbols[0] = NONE;
+		for (int state = 0; state < kernels.size(); state++) {
+			int[] next = transitions.get(state);
+
+			// Every state but the first is entered on a single symbol
+			for (int symbol = 0; symbol < SYMBOL_COUNT; symbol++) {
+				if (next[symbol] != ParsingTable.NO_STATE) {
+					symbols[next[symbol]] = (short) symbol;
+				}
+			}
+
+			// Shift on the terminals and go to on the non-terminals after the dots
+			for (int symbol = 0; symbol < ParsingTable.TERMINAL_COUNT; symbol++) {
+				if (next[symbol] != ParsingTable.NO_STATE) {
+					actions[state * ParsingTable.TERMINAL_COUNT + symbol] = ParsingTable.shift(next[symbol]);
+				}
+			}
+			for (int symbol = ParsingTable.TERMINAL_COUNT; symbol < SYMBOL_COUNT; symbol++) {
+				gotos[state * ParsingTable.NONTERMINAL_COUNT + symbol - ParsingTable.TERMINAL_COUNT] = (short) next[symbol];
+			}
+
+			// Reduce by the complete items on what can follow their heads
+			BitSet items = closure(kernels.get(state));
+			for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+				if (symbolAfterDot(item) != NONE) {
+					continue;
+				}
+
+				Rule rule = rules[itemRules[item]];
+				short reduce = ParsingTable.reduce(rule.ruleNumber);
+				BitSet lookaheads = follow[rule.head.ordinal()];
+				for (int t = lookaheads.nextSetBit(0); t >= 0; t = lookaheads.nextSetBit(t + 1)) {
+					int index = state * ParsingTable.TERMINAL_COUNT + t;
+					if (actions[index] != ParsingTable.ERROR) {
+						conflicts.add(describeConflict(state, SYMBOLS[t], actions[index], reduce));
+						continue;
+					}
+					actions[index] = reduce;
+				}
+			}
+		}
+
+		return ParsingTable.fromArrays(kernels.size(), actions, gotos, symbols);
+	}
+
+	/***
+	 * Returns the closure of a set of items, adding the items with the dot at the
+	 * beginning of every rule of the non-terminals after the dots.
+	 *
+	 * @param kernel the set of items
+	 * @return the closure of the set
+	 */
+	private BitSet closure(BitSet kernel) {
+		BitSet items = (BitSet) kernel.clone();
+		BitSet expanded = new BitSet(SYMBOL_COUNT);
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int item = items.nextSetBit(0); item >= 0; item = items.nextSetBit(item + 1)) {
+				int symbol = symbolAfterDot(item);
+				if (symbol == NONE || SYMBOLS[symbol].isTerminal || expanded.get(symbol)) {
+					continue;
+				}
+
+				expanded.set(symbol);
+				for (int r = 0; r < rules.length; r++) {
+					if (rules[r].head.ordinal() == symbol && !items.get(itemBase[r])) {
+						items.set(itemBase[r]);
+						changed = true;
+					}
+				}
+			}
+		}
+		return items;
+	}
+
+	/***
+	 * Returns the symbol right after the dot of an item.
+	 *
+	 * @param item the item
+	 * @return the ordinal of the symbol, or NONE if the item is complete
+	 */
+	private int symbolAfterDot(int item) {
+		int r = itemRules[item];
+		int dot = item - itemBase[r];
+		return (dot < bodies[r].length) ? bodies[r][dot].ordinal() : NONE;
+	}
+
+	/***
+	 * Describes a conflict between two actions in the table.
+	 *
+	 * @param state    the state of the conflict
+	 * @param terminal the terminal of the conflict
+	 * @param existing the action already in the table
+	 * @param reduce   the reduce action that conflicts with it
+	 * @return the description of the conflict
+	 */
+	private static String describeConflict(int state, Symbol terminal, short existing, short reduce) {
+		String kind = ParsingTable.isShift(existing) ? "Shift/reduce" : "Reduce/reduce";
+		return kind + " conflict at 'Q" + state + "', '" + terminal + "' between "
+				+ ParsingTable.describe(existing) + " and " + ParsingTable.describe(reduce);
+	}
+}
@@ -0,0 +1,392 @@
+package com.litsynp.parser.incremental;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.litsynp.lexer.LexicalAnalyzer;
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.lexer.token.TokenType;
+import com.litsynp.parser.Diagnostic;
+import com.litsynp.parser.ParseSnapshot;
+import com.litsynp.parser.SyntaxAnalyzer;
+import com.litsynp.parser.ast.AstNode;
+import com.litsynp.parser.trace.ParseTracer;
+
+/***
+ * Parser that keeps a source split into sections of top-level declarations,
+ * and lexically and syntactically analyzes only the sections that an edit
+ * touches, for editors and file watchers.
+ * <p>
+ * A source is split where the parser records a snapshot of the stack after a
+ * top-level declaration, if a vtype that begins the next declaration begins a
+ * new line. Every line is scanned from the start state of the lexer, and the
+ * declarations after a snapshot are parsed the same way whatever comes before
+ * it, so a section can be analyzed on its own. Any other token after a
+ * declaration, such as one in error, is acted on at a state that depends on
+ * the declaration, and is not split at. An edit replaces the sections around
+ * it by those of their edited bytes, and the section before them when it
+ * edits the first line of a section, since the parser looks ahead at the vtype
+ * there to end the declaration before it. If the edited bytes do not end with
+ * a whole declaration, such as after a brace has been removed, the sections
+ * after them are taken in as well, twice as many at each try, until they do or
+ * the end of the source is reached.
+ */
+public final class IncrementalParser {
+
+	/***
+	 * The sections of the source, in order. There is always at least one, which
+	 * is empty for an empty source.
+	 */
+	private final List<Section> sections = new ArrayList<Section>();
+
+	/***
+	 * Parses a whole source.
+	 *
+	 * @param source the bytes of the source, which are copied
+	 */
+	public IncrementalParser(byte[] source) {
+		parseRegion(source.clone(), 0, 0, sections);
+	}
+
+	/***
+	 * Replaces a range of bytes of the source, and parses the sections that it
+	 * touches again.
+	 *
+	 * @param offset        the offset of the range
+	 * @param removedLength the number of bytes to remove
+	 * @param inserted      the bytes to insert instead
+	 * @return the number of sections that have been parsed again
+	 * @throws IndexOutOfBoundsException when the range is not within the source
+	 */
+	public int edit(int offset, int removedLength, byte[] inserted) {
+		int length = getLength();
+		if (offset < 0 || removedLength < 0 || offset + removedLength > length) {
+			throw new IndexOutOfBoundsException(
+					"Range " + offset + " to " + (offset + removedLength) + " is not within " + length + " bytes");
+		}
+
+		// Include the line terminators next to the range, since removing one joins
+		// two lines
+		int first = sectionAt(offset - 1);
+		if (first > 0 && isFirstLine(sections.get(first), offset)) {
+			first--;
+		}
+		int last = sectionAt(offset + removedLength);
+		int start = sections.get(first).getOffset();
+		int end = endOf(last);
+
+		byte[] text = new byte[end - start - removedLength + inserted.length];
+		copy(start, offset, text, 0);
+		System.arraycopy(inserted, 0, text, offset - start, inserted.length);
+		copy(offset + removedLength, end, text, offset - start + inserted.length);
+
+		// Take in more sections until the edited bytes end with a whole declaration
+		int startLine = sections.get(first).getStartLine();
+		List<Section> replacement = new ArrayList<Section>();
+		int more = 1;
+		while (!parseRegion(text, start, startLine, replacement) && last < sections.size() - 1) {
+			int newLast = Math.min(last + more, sections.size() - 1);
+			byte[] longer = new byte[text.length + endOf(newLast) - endOf(last)];
+			System.arraycopy(text, 0, longer, 0, text.length);
+			copy(endOf(last), endOf(newLast), longer, text.length);
+
+			text = longer;
+			last = newLast;
+			more *= 2;
+			replacement.clear();
+		}
+
+		// Splice the new sections in, and move the sections after them
+		int lineDelta = 0;
+		for (int i = first; i <= last; i++) {
+			lineDelta -= sections.get(i).getLineCount();
+		}
+		for (Section section : replacement) {
+			lineDelta += section.getLineCount();
+		}
+		int offsetDelta = inserted.length - removedLength;
+
+		List<Section> replaced = sections.subList(first, last + 1);
+		int count = replaced.size();
+		replaced.clear();
+		sections.addAll(first, replacement);
+		for (int i = first + replacement.size(); i < sections.size(); i++) {
+			sections.get(i).shift(offsetDelta, lineDelta);
+		}
+		return count;
+	}
+
+	/***
+	 * Returns the length of the source.
+	 *
+	 * @return the length in bytes
+	 */
+	public int getLength() {
+		return endOf(sections.size() - 1);
+	}
+
+	/***
+	 * Returns the bytes of the source.
+	 *
+	 * @return a copy of the source
+	 */
+	public byte[] getSource() {
+		byte[] source = new byte[getLength()];
+		copy(0, source.length, source, 0);
+		return source;
+	}
+
+	/***
+	 * Returns the sections of the source.
+	 *
+	 * @return the unmodifiable list of sections, in order
+	 */
+	public List<Section> getSections() {
+		return Collections.unmodifiableList(sections);
+	}
+
+	/***
+	 * Returns the top-level declarations of the sections without errors, with
+	 * line numbers that count from the start of the source, whichever section
+	 * they are in.
+	 *
+	 * @return the function and variable declarations, in order
+	 */
+	public List<AstNode> getDeclarations() {
+		List<AstNode> declarations = new ArrayList<AstNode>();
+		for (Section section : sections) {
+			declarations.addAll(section.getDeclarations());
+		}
+		return declarations;
+	}
+
+	/***
+	 * Returns the syntax errors of the source.
+	 *
+	 * @return the syntax errors, in order
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+		for (Section section : sections) {
+			diagnostics.addAll(section.getDiagnostics());
+		}
+		return diagnostics;
+	}
+
+	/***
+	 * Returns the lexical errors of the source, at most one per section.
+	 *
+	 * @return the lexical errors, in order
+	 */
+	public List<NullTokenException> getLexErrors() {
+		List<NullTokenException> errors = new ArrayList<NullTokenException>();
+		for (Section section : sections) {
+			if (section.getLexError() != null) {
+				errors.add(section.getLexError());
+			}
+		}
+		return errors;
+	}
+
+	/***
+	 * Returns whether the whole source is accepted, without lexical or syntax
+	 * errors.
+	 *
+	 * @return boolean value of whether the source is accepted
+	 */
+	public boolean isAccepted() {
+		for (Section section : sections) {
+			if (section.hasErrors()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/***
+	 * Analyzes a region of whole lines, and adds its sections to a list.
+	 * <p>
+	 * When the region has syntax errors, the parser keeps no tree, so the
+	 * sections of the region without errors are parsed again one by one for
+	 * their trees.
+	 *
+	 * @param text      the bytes of the region
+	 * @param offset    the offset of the region in the source
+	 * @param startLine the line number of the first line of the region
+	 * @param out       the list to add the sections to
+	 * @return boolean value of whether the region ends with a whole declaration,
+	 *         or a lexical error that leaves its end unknown
+	 */
+	private static boolean parseRegion(byte[] text, int offset, int startLine, List<Section> out) {
+		int[] lineStarts = lineStarts(text);
+		TokenStream tokens;
+		try {
+			tokens = LexicalAnalyzer.lex(SourceBuffer.wrap(text, text.length), startLine);
+		} catch (NullTokenException e) {
+			// Lexical errors never span lines, so the sections after the region
+			// are not affected
+			out.add(new Section(text, offset, startLine, lineStarts.length - 1, startLine,
+					Collections.<AstNode>emptyList(), Collections.<Diagnostic>emptyList(), e));
+			return true;
+		}
+
+		SyntaxAnalyzer parser = new SyntaxAnalyzer(tokens);
+		parser.setTracer(ParseTracer.quiet());
+		parser.recordSnapshots();
+		boolean accepted = parser.parse();
+
+		// Split the tokens after the snapshots where a vtype begins a line
+		List<ParseSnapshot> snapshots = parser.getSnapshots();
+		int tokenCount = tokens.size();
+		int[] splits = new int[snapshots.size() + 2];
+		int splitCount = 1;
+		for (ParseSnapshot snapshot : snapshots) {
+			int position = snapshot.getInputPosition();
+			if (position > 0 && position < tokenCount && tokens.getType(position) == TokenType.VARIABLE_TYPE
+					&& tokens.getLineNo(position) > tokens.getLineNo(position - 1)) {
+				splits[splitCount++] = position;
+			}
+		}
+		splits[splitCount] = tokenCount;
+
+		List<AstNode> declarations = accepted ? parser.getAst().getDeclarations()
+				: Collections.<AstNode>emptyList();
+		List<Diagnostic> diagnostics = parser.getDiagnostics();
+		int nextDeclaration = 0;
+		int nextDiagnostic = 0;
+
+		for (int s = 0; s < splitCount; s++) {
+			int firstLine = (s == 0) ? 0 : tokens.getLineNo(splits[s]);
+			boolean lastSplit = s == splitCount - 1;
+			int endLine = lastSplit ? lineStarts.length - 1 : tokens.getLineNo(splits[s + 1]);
+			int sectionStart = lineStarts[firstLine];
+			int sectionEnd = lastSplit ? text.length : lineStarts[endLine];
+			byte[] sectionText = (splitCount == 1) ? text : Arrays.copyOfRange(text, sectionStart, sectionEnd);
+
+			List<AstNode> sectionDeclarations = new ArrayList<AstNode>();
+			while (nextDeclaration < declarations.size()
+					&& (lastSplit || declarations.get(nextDeclaration).getTokenIndex() < splits[s + 1])) {
+				sectionDeclarations.add(declarations.get(nextDeclaration++));
+			}
+			List<Diagnostic> sectionDiagnostics = new ArrayList<Diagnostic>();
+			while (nextDiagnostic < diagnostics.size()
+					&& (lastSplit || diagnostics.get(nextDiagnostic).getTokenIndex() < splits[s + 1])) {
+				sectionDiagnostics.add(diagnostics.get(nextDiagnostic++));
+			}
+
+			if (!accepted && sectionDiagnostics.isEmpty()) {
+				parseRegion(sectionText, offset + sectionStart, startLine + firstLine, out);
+			} else {
+				out.add(new Section(sectionText, offset + sectionStart, startLine + firstLine, endLine - firstLine,
+						startLine, sectionDeclarations, sectionDiagnostics, null));
+			}
+		}
+
+		// A declaration that is cut off is only found at the eof ($) symbol, where
+		// the parser may also recover to a declaration
+		if (!diagnostics.isEmpty() && diagnostics.get(diagnostics.size() - 1).getTokenIndex() == tokenCount) {
+			return false;
+		}
+		return tokenCount == 0
+				|| (!snapshots.isEmpty() && snapshots.get(snapshots.size() - 1).getInputPosition() == tokenCount);
+	}
+
+	/***
+	 * Returns the offsets where the lines of a region begin, the same way as the
+	 * lexer ends the lines: at "\r\n", "\r" or "\n".
+	 *
+	 * @param text the bytes of the region
+	 * @return the offset of each line, and of the end of the region after the last
+	 *         line terminator
+	 */
+	private static int[] lineStarts(byte[] text) {
+		int[] starts = new int[16];
+		int count = 1;
+		for (int i = 0; i < text.length; i++) {
+			byte b = text[i];
+			if (b != '\n' && b != '\r') {
+				continue;
+			}
+			if (b == '\r' && i + 1 < text.length && text[i + 1] == '\n') {
+				i++;
+			}
+
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count * 2);
+			}
+			starts[count++] = i + 1;
+		}
+		return Arrays.copyOf(starts, count);
+	}
+
+	/***
+	 * Returns whether an offset is on the first line of a section, up to its
+	 * first line terminator.
+	 *
+	 * @param section the section
+	 * @param offset  the offset in the source
+	 * @return boolean value of whether the offset is on the first line
+	 */
+	private static boolean isFirstLine(Section section, int offset) {
+		byte[] text = section.getText();
+		for (int i = 0; i < offset - section.getOffset() && i < text.length; i++) {
+			if (text[i] == '\n' || text[i] == '\r') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/***
+	 * Returns the section that holds a byte of the source.
+	 *
+	 * @param position the offset of the byte, clamped to the source
+	 * @return the index of the section
+	 */
+	private int sectionAt(int position) {
+		int low = 0;
+		int high = sections.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (sections.get(middle).getOffset() <= position) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/***
+	 * Returns the offset of the end of a section.
+	 *
+	 * @param index the index of the section
+	 * @return the offset right after the section
+	 */
+	private int endOf(int index) {
+		Section section = sections.get(index);
+		return section.getOffset() + section.getLength();
+	}
+
+	/***
+	 * Copies a range of bytes of the source into an array.
+	 *
+	 * @param from    the offset of the range
+	 * @param to      the offset of the end of the range
+	 * @param dest    the array to copy to
+	 * @param destPos the position in the array to copy to
+	 */
+	private void copy(int from, int to, byte[] dest, int destPos) {
+		for (int i = sectionAt(from); from < to; i++) {
+			Section section = sections.get(i);
+			int count = Math.min(to, section.getOffset() + section.getLength()) - from;
+			System.arraycopy(section.getText(), from - section.getOffset(), dest, destPos, count);
+			from += count;
+			destPos += count;
+		}
+	}
+}
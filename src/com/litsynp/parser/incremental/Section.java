@@ -0,0 +1,213 @@
+package com.litsynp.parser.incremental;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.parser.Diagnostic;
+import com.litsynp.parser.ast.AstNode;
+
+/***
+ * Section of a source that is parsed incrementally, which is a run of whole
+ * lines holding one or more top-level declarations.
+ * <p>
+ * A section keeps its own bytes, so an edit only copies the bytes of the
+ * sections it touches. The trees of the declarations of a section may be
+ * shared with the sections that were parsed along with it, and the line
+ * numbers of their tokens count from the line base of the section.
+ */
+public final class Section {
+
+	/***
+	 * Bytes of the section.
+	 */
+	private final byte[] text;
+
+	/***
+	 * Offset of the section in the source.
+	 */
+	private int offset;
+
+	/***
+	 * Line number of the first line of the section, from 0.
+	 */
+	private int startLine;
+
+	/***
+	 * Number of line terminators in the section.
+	 */
+	private final int lineCount;
+
+	/***
+	 * Line number that the line numbers of the tokens of the section count from.
+	 */
+	private int lineBase;
+
+	/***
+	 * The top-level declarations of the section, or none if it has errors, with
+	 * line numbers from the line base.
+	 */
+	private final List<AstNode> declarations;
+
+	/***
+	 * The syntax errors of the section, with line numbers from the line base.
+	 */
+	private final List<Diagnostic> diagnostics;
+
+	/***
+	 * The lexical error of the section, or null if it has been tokenized.
+	 */
+	private final NullTokenException lexError;
+
+	/***
+	 * Creates a section.
+	 *
+	 * @param text         the bytes of the section
+	 * @param offset       the offset of the section in the source
+	 * @param startLine    the line number of the first line of the section
+	 * @param lineCount    the number of line terminators in the section
+	 * @param lineBase     the line number that the line numbers of the tokens
+	 *                     count from
+	 * @param declarations the top-level declarations of the section
+	 * @param diagnostics  the syntax errors of the section
+	 * @param lexError     the lexical error of the section, or null
+	 */
+	Section(byte[] text, int offset, int startLine, int lineCount, int lineBase, List<AstNode> declarations,
+			List<Diagnostic> diagnostics, NullTokenException lexError) {
+		this.text = text;
+		this.offset = offset;
+		this.startLine = startLine;
+		this.lineCount = lineCount;
+		this.lineBase = lineBase;
+		this.declarations = declarations;
+		this.diagnostics = diagnostics;
+		this.lexError = lexError;
+	}
+
+	/***
+	 * Moves the section after an edit before it.
+	 *
+	 * @param offsetDelta the number of bytes inserted before the section, or
+	 *                    removed if negative
+	 * @param lineDelta   the number of lines inserted before the section, or
+	 *                    removed if negative
+	 */
+	void shift(int offsetDelta, int lineDelta) {
+		offset += offsetDelta;
+		startLine += lineDelta;
+		lineBase += lineDelta;
+	}
+
+	/***
+	 * Returns the bytes of the section, which must not be modified.
+	 *
+	 * @return the bytes
+	 */
+	byte[] getText() {
+		return text;
+	}
+
+	/***
+	 * Returns the offset of the section in the source.
+	 *
+	 * @return the offset in bytes
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/***
+	 * Returns the length of the section.
+	 *
+	 * @return the length in bytes
+	 */
+	public int getLength() {
+		return text.length;
+	}
+
+	/***
+	 * Returns the line number of the first line of the section.
+	 *
+	 * @return the line number, from 0
+	 */
+	public int getStartLine() {
+		return startLine;
+	}
+
+	/***
+	 * Returns the number of line terminators in the section, which is the number
+	 * of lines before the next section.
+	 *
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	/***
+	 * Returns the line number that the line numbers of the tokens and the
+	 * declarations of the section count from.
+	 *
+	 * @return the line number, from 0
+	 */
+	public int getLineBase() {
+		return lineBase;
+	}
+
+	/***
+	 * Returns the top-level declarations of the section, as views whose line
+	 * numbers count from the start of the whole source, like those of
+	 * {@link #getDiagnostics()}.
+	 *
+	 * @return the function and variable declarations, which are none if the
+	 *         section has errors
+	 */
+	public List<AstNode> getDeclarations() {
+		List<AstNode> shifted = new ArrayList<AstNode>(declarations.size());
+		for (AstNode declaration : declarations) {
+			shifted.add(declaration.getAst().withLineBase(lineBase).declaration(declaration.getIndex()));
+		}
+		return shifted;
+	}
+
+	/***
+	 * Returns the syntax errors of the section.
+	 *
+	 * @return the syntax errors, with line numbers in the whole source
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		List<Diagnostic> shifted = new ArrayList<Diagnostic>(diagnostics.size());
+		for (Diagnostic d : diagnostics) {
+			shifted.add(new Diagnostic(lineBase + d.getLineNo(), d.getTokenIndex(), d.getState(), d.getFound(),
+					d.getText(), d.getExpected()));
+		}
+		return shifted;
+	}
+
+	/***
+	 * Returns the lexical error of the section.
+	 *
+	 * @return the lexical error, or null if the section has been tokenized
+	 */
+	public NullTokenException getLexError() {
+		return lexError;
+	}
+
+	/***
+	 * Returns whether the section has a lexical or syntax error.
+	 *
+	 * @return boolean value of whether the section has errors
+	 */
+	public boolean hasErrors() {
+		return lexError != null || !diagnostics.isEmpty();
+	}
+
+	/***
+	 * Returns string value of the section.
+	 */
+	@Override
+	public String toString() {
+		return "Section of " + text.length + " bytes at offset " + offset + " from line " + (startLine + 1) + ", with "
+				+ declarations.size() + " declarations" + (hasErrors() ? " and errors" : "");
+	}
+}
@@ -47,7 +47,7 @@ public enum Symbol {
 	
 	// Neither a terminal or a non-terminal, but used for parsing
 	SPLITTER("|"),
-	EPSILON("ϵ");
+	EPSILON("\u03f5");
 	
 	/***
 	 * String value of the symbol.
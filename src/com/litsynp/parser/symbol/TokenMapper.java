@@ -1,17 +1,45 @@
 package com.litsynp.parser.symbol;
 
 import com.litsynp.lexer.token.Token;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.lexer.token.TokenType;
 
 /***
  * Maps a token into a terminal symbol to be used in the syntax analyzer
+ * <p>
+ * Operators and keywords are told apart by their first character, so the
+ * value of a token is never created here.
  */
 public class TokenMapper {
 	public static Symbol convertToken(Token token) {
-		Symbol symbol = null;
+		return convert(token.getName(), token.charAt(0));
+	}
+
+	/***
+	 * Maps a token of a token stream into a terminal symbol, without creating a
+	 * token object. A token without a terminal is left to the syntax analyzer to
+	 * report as a syntax error.
+	 * 
+	 * @param tokens the token stream
+	 * @param index  the index of the token
+	 * @return the terminal symbol, or null if the token has none
+	 */
+	public static Symbol convertToken(TokenStream tokens, int index) {
+		return convert(tokens.getType(index), tokens.charAt(index, 0));
+	}
 
-		String tokenValue = token.getValue();
+	/***
+	 * Maps a token type into a terminal symbol, telling operators and keywords
+	 * apart by their first character.
+	 * 
+	 * @param type      the token type
+	 * @param firstChar the first character of the token
+	 * @return the terminal symbol, or null if the token has none
+	 */
+	private static Symbol convert(TokenType type, char firstChar) {
+		Symbol symbol = null;
 
-		switch (token.getName()) {
+		switch (type) {
 		case LPAREN:
 			symbol = Symbol.TERM_LPAREN;
 			break;
@@ -40,7 +68,7 @@ public class TokenMapper {
 			symbol = Symbol.TERM_LITERAL;
 			break;
 		case ARITHMETIC_OP:
-			if (tokenValue.equals("+") || tokenValue.equals("-")) {
+			if (firstChar == '+' || firstChar == '-') {
 				symbol = Symbol.TERM_ADDSUB;
 			} else {
 				symbol = Symbol.TERM_MULTDIV;
@@ -56,15 +84,21 @@ public class TokenMapper {
 			symbol = Symbol.TERM_VTYPE;
 			break;
 		case STATEMENT:
-			if (token.getValue().equals("if")) {
+			// if | else | while | for | return
+			switch (firstChar) {
+			case 'i':
 				symbol = Symbol.TERM_IF;
-			} else if (token.getValue().equals("else")) {
+				break;
+			case 'e':
 				symbol = Symbol.TERM_ELSE;
-			} else if (token.getValue().equals("while")) {
+				break;
+			case 'w':
 				symbol = Symbol.TERM_WHILE;
-			} else if (token.getValue().equals("for")) {
+				break;
+			case 'f':
 				symbol = Symbol.TERM_FOR;
-			} else {
+				break;
+			default:
 				symbol = Symbol.TERM_RETURN;
 			}
 			break;
@@ -74,7 +108,6 @@ public class TokenMapper {
 		case BITWISE_OP:
 		case BOOLEAN_STRING:
 		default:
-			System.out.println("Error while converting {" + token.getName() + " : " + token.getValue() + "}");
 			symbol = null;
 		}
 
@@ -0,0 +1,241 @@
+package com.litsynp.parser.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import com.litsynp.parser.Rule;
+import com.litsynp.parser.symbol.Symbol;
+
+/***
+ * Tracer of the syntax analyzer, which prints the lines of the enabled trace
+ * levels to a buffered output.
+ * <p>
+ * Whatever the level, the last actions of the parser are kept in a fixed-size
+ * ring buffer of packed longs, so recording an action costs a single array
+ * store. The ring buffer is only turned into text when the input is rejected,
+ * to show how the parser got to the error.
+ */
+public final class ParseTracer {
+
+	/***
+	 * Number of actions kept in the ring buffer by default.
+	 */
+	public static final int DEFAULT_CONTEXT_SIZE = 16;
+
+	/***
+	 * Size of the output buffer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/***
+	 * All symbols, indexed by ordinal.
+	 */
+	private static final Symbol[] SYMBOLS = Symbol.values();
+
+	/***
+	 * Output that discards everything written to it.
+	 */
+	private static final OutputStream DISCARD = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	/***
+	 * The trace level.
+	 */
+	private final TraceLevel level;
+
+	/***
+	 * The buffered output of the trace.
+	 */
+	private final PrintStream out;
+
+	/***
+	 * The last actions, each packed as state, symbol ordinal and rule number or
+	 * next state, with a flag for shifts.
+	 */
+	private final long[] ring;
+
+	/***
+	 * Number of actions recorded so far.
+	 */
+	private long actionCount = 0;
+
+	/***
+	 * Creates a tracer that prints to the standard output, and keeps the default
+	 * number of actions.
+	 *
+	 * @param level the trace level
+	 */
+	public ParseTracer(TraceLevel level) {
+		this(level, new FileOutputStream(FileDescriptor.out), DEFAULT_CONTEXT_SIZE);
+	}
+
+	/***
+	 * Creates a tracer.
+	 *
+	 * @param level       the trace level
+	 * @param out         the output of the trace, which is buffered by the tracer
+	 * @param contextSize the number of actions to keep for a rejection
+	 */
+	public ParseTracer(TraceLevel level, OutputStream out, int contextSize) {
+		this(level, new PrintStream(new BufferedOutputStream(out, BUFFER_SIZE), false), contextSize);
+	}
+
+	/***
+	 * Creates a tracer that prints to a print stream.
+	 *
+	 * @param level       the trace level
+	 * @param out         the output of the trace
+	 * @param contextSize the number of actions to keep for a rejection
+	 */
+	private ParseTracer(TraceLevel level, PrintStream out, int contextSize) {
+		this.level = level;
+		this.out = out;
+		this.ring = new long[Math.max(contextSize, 1)];
+	}
+
+	/***
+	 * Creates a tracer that prints nothing, not even the errors, for a caller that
+	 * reads the diagnostics of the syntax analyzer instead.
+	 *
+	 * @return the new tracer
+	 */
+	public static ParseTracer quiet() {
+		return new ParseTracer(TraceLevel.OFF, new PrintStream(DISCARD, false), 1);
+	}
+
+	/***
+	 * Returns whether the lines of a trace level are printed.
+	 *
+	 * @param lineLevel the trace level of the lines
+	 * @return boolean value of whether the lines are printed
+	 */
+	public boolean isEnabled(TraceLevel lineLevel) {
+		return lineLevel != TraceLevel.OFF && level.compareTo(lineLevel) >= 0;
+	}
+
+	/***
+	 * Prints a line if its trace level is enabled.
+	 *
+	 * @param lineLevel the trace level of the line
+	 * @param line      the line
+	 */
+	public void println(TraceLevel lineLevel, String line) {
+		if (isEnabled(lineLevel)) {
+			out.println(line);
+		}
+	}
+
+	/***
+	 * Prints a line whatever the trace level, such as an error.
+	 *
+	 * @param line the line
+	 */
+	public void println(String line) {
+		out.println(line);
+	}
+
+	/***
+	 * Records a shift action.
+	 *
+	 * @param state     the state before the action
+	 * @param symbol    the next symbol
+	 * @param nextState the state to go to
+	 */
+	public void shift(int state, Symbol symbol, int nextState) {
+		record(state, symbol, nextState, true);
+		if (isEnabled(TraceLevel.ACTIONS)) {
+			out.println(describe(state, symbol, nextState, true, false));
+		}
+	}
+
+	/***
+	 * Records a reduce action.
+	 *
+	 * @param state  the state before the action
+	 * @param symbol the next symbol
+	 * @param rule   the rule to reduce by
+	 */
+	public void reduce(int state, Symbol symbol, Rule rule) {
+		record(state, symbol, rule.ruleNumber, false);
+		if (isEnabled(TraceLevel.ACTIONS)) {
+			out.println(describe(state, symbol, rule.ruleNumber, false, false));
+		}
+	}
+
+	/***
+	 * Returns the number of actions recorded so far.
+	 *
+	 * @return the number of actions
+	 */
+	public long getActionCount() {
+		return actionCount;
+	}
+
+	/***
+	 * Prints the actions in the ring buffer, unless they have been printed already
+	 * as they were taken.
+	 */
+	public void dumpContext() {
+		if (isEnabled(TraceLevel.ACTIONS) || actionCount == 0) {
+			return;
+		}
+
+		int count = (int) Math.min(actionCount, ring.length);
+		out.println("Last " + count + " of " + actionCount + " actions before the error:");
+		for (long i = actionCount - count; i < actionCount; i++) {
+			long packed = ring[(int) (i % ring.length)];
+			int state = (int) (packed >>> 32);
+			Symbol symbol = SYMBOLS[(int) (packed >>> 16) & 0x7FFF];
+			boolean isShift = (packed & 0x80000000L) == 0;
+			out.println(describe(state, symbol, (int) packed & 0xFFFF, isShift, true));
+		}
+	}
+
+	/***
+	 * Flushes the buffered output.
+	 */
+	public void flush() {
+		out.flush();
+	}
+
+	/***
+	 * Stores an action in the ring buffer.
+	 *
+	 * @param state    the state before the action
+	 * @param symbol   the next symbol
+	 * @param argument the next state of a shift, or the rule number of a reduce
+	 * @param isShift  boolean value of whether the action is a shift
+	 */
+	private void record(int state, Symbol symbol, int argument, boolean isShift) {
+		ring[(int) (actionCount % ring.length)] = ((long) state << 32) | (isShift ? 0 : 0x80000000L)
+				| ((long) symbol.ordinal() << 16) | argument;
+		actionCount++;
+	}
+
+	/***
+	 * Returns string value of an action.
+	 *
+	 * @param state     the state before the action
+	 * @param symbol    the next symbol
+	 * @param argument  the next state of a shift, or the rule number of a reduce
+	 * @param isShift   boolean value of whether the action is a shift
+	 * @param withInput boolean value of whether to show the state and the next
+	 *                  symbol
+	 * @return string value of the action
+	 */
+	private static String describe(int state, Symbol symbol, int argument, boolean isShift, boolean withInput) {
+		String action = isShift ? "> [Shifting and going to state Q" + argument + "]"
+				: "> [Reducing using " + Rule.valueOf(argument) + "]";
+		return withInput ? "  at 'Q" + state + "', '" + symbol + "' " + action : action;
+	}
+}
@@ -0,0 +1,42 @@
+package com.litsynp.parser.trace;
+
+/***
+ * Defines how much the syntax analyzer prints while parsing. Every level prints
+ * what the levels before it print.
+ */
+public enum TraceLevel {
+	/***
+	 * Prints nothing but the reason of a rejection and the last actions before
+	 * it.
+	 */
+	OFF,
+	/***
+	 * Also prints the start and the result of the parse, with a count of the
+	 * steps.
+	 */
+	SUMMARY,
+	/***
+	 * Also prints every shift and reduce action.
+	 */
+	ACTIONS,
+	/***
+	 * Also prints the symbols on the stack and the input after every action.
+	 */
+	FULL;
+
+	/***
+	 * Finds the trace level by its name, ignoring the case.
+	 * 
+	 * @param name the name of the trace level, such as "summary"
+	 * @return the trace level
+	 * @throws IllegalArgumentException when there is no trace level of the name
+	 */
+	public static TraceLevel fromName(String name) {
+		for (TraceLevel level : values()) {
+			if (level.name().equalsIgnoreCase(name)) {
+				return level;
+			}
+		}
+		throw new IllegalArgumentException("Unknown trace level \"" + name + "\"");
+	}
+}
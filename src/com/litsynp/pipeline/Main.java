@@ -0,0 +1,73 @@
+package com.litsynp.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.litsynp.lexer.source.SourceInput;
+import com.litsynp.parser.SyntaxAnalyzer;
+import com.litsynp.parser.trace.ParseTracer;
+import com.litsynp.parser.trace.TraceLevel;
+
+/**
+ * Main class of the pipelined compiler program, which reads, lexically
+ * analyzes, maps and parses a source file on a thread per stage, and prints the
+ * throughput of each stage.
+ */
+public class Main {
+
+	/**
+	 * Main method of the pipelined compiler program. The exit status is 0 if the
+	 * source file is accepted, and 1 otherwise.
+	 *
+	 * @param args the source file path (default: "files/a.c"), optionally
+	 *             preceded by "--trace=off|summary|actions|full" (default:
+	 *             "summary")
+	 */
+	public static void main(String[] args) {
+		TraceLevel traceLevel = TraceLevel.SUMMARY;
+		int argIndex = 0;
+		for (; argIndex < args.length && args[argIndex].startsWith("--"); argIndex++) {
+			if (args[argIndex].startsWith("--trace=")) {
+				try {
+					traceLevel = TraceLevel.fromName(args[argIndex].substring("--trace=".length()));
+				} catch (IllegalArgumentException e) {
+					System.out.println(e.getMessage());
+					System.exit(1);
+				}
+			} else {
+				System.out.println("Unknown option \"" + args[argIndex] + "\"");
+				System.exit(1);
+			}
+		}
+		String fileName = (argIndex < args.length) ? args[argIndex] : "files" + File.separator + "a.c";
+
+		Pipeline pipeline;
+		try {
+			pipeline = Pipeline.start(SourceInput.open(new File(fileName)));
+		} catch (IOException e) {
+			System.out.println(e);
+			System.exit(1);
+			return;
+		}
+
+		long start = System.nanoTime();
+		SyntaxAnalyzer parser = new SyntaxAnalyzer(pipeline);
+		parser.setTracer(new ParseTracer(traceLevel));
+		boolean isAccepted = parser.parse();
+		long elapsed = System.nanoTime() - start;
+
+		try {
+			pipeline.close();
+		} catch (IOException e) {
+			System.out.println(e);
+		}
+		System.out.printf("Pipeline took %.2f ms:%n", elapsed / 1e6);
+		for (StageCounters counters : pipeline.getCounters()) {
+			System.out.println("  " + counters);
+		}
+
+		if (!isAccepted) {
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,529 @@
+package com.litsynp.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.litsynp.lexer.LineScanner;
+import com.litsynp.lexer.source.SourceBuffer;
+import com.litsynp.lexer.source.SourceInput;
+import com.litsynp.lexer.token.NameTable;
+import com.litsynp.lexer.token.NullTokenException;
+import com.litsynp.lexer.token.TokenStream;
+import com.litsynp.parser.TokenSource;
+import com.litsynp.parser.symbol.Symbol;
+import com.litsynp.parser.symbol.TokenMapper;
+
+/**
+ * Pipeline that reads, lexically analyzes and maps an input into terminal
+ * symbols on threads of their own, and hands the tokens to a syntax analyzer on
+ * the thread that parses.
+ * <p>
+ * The stages are:
+ * <ul>
+ * <li>read, which reads the input in chunks of whole lines, and touches each
+ * page of a memory-mapped file so that the lexer does not wait for the disk,
+ * </li>
+ * <li>lex, which scans the chunks line by line into batches of tokens,</li>
+ * <li>map, which maps the tokens of a batch into terminal symbols,</li>
+ * <li>and parse, which pulls the tokens from the batches through
+ * {@link TokenSource}.</li>
+ * </ul>
+ * Each pair of stages passes preallocated chunks or batches through a
+ * {@link RingBuffer}, so a stage that runs ahead waits for the next one, and
+ * the chunks and batches in flight are bounded. The tokens that the parser has
+ * taken are still kept for the syntax tree, as when the tokens are pulled from
+ * a {@link com.litsynp.lexer.Lexer}.
+ * <p>
+ * The names of the tokens in a batch are those of the lexer, which only the
+ * lexer thread reads or writes. The parser interns the names of the tokens it
+ * takes into its own names, from their text.
+ */
+public final class Pipeline implements TokenSource, Closeable {
+
+	/**
+	 * Smallest number of bytes in a chunk but the last one of a source buffer.
+	 */
+	public static final int CHUNK_SIZE = 1 << 18;
+
+	/**
+	 * Smallest number of tokens in a batch but the last one.
+	 */
+	public static final int BATCH_SIZE = 1 << 12;
+
+	/**
+	 * Number of chunks between the read and the lex stage.
+	 */
+	private static final int CHUNK_SLOTS = 8;
+
+	/**
+	 * Number of batches between two of the lex, map and parse stages.
+	 */
+	private static final int BATCH_SLOTS = 8;
+
+	/**
+	 * Number of bytes of a page of a memory-mapped file.
+	 */
+	private static final int PAGE_SIZE = 4096;
+
+	/**
+	 * The input to read.
+	 */
+	private final SourceInput input;
+
+	/**
+	 * Chunks from the read stage to the lex stage.
+	 */
+	private final RingBuffer<Chunk> chunks;
+
+	/**
+	 * Batches from the lex stage to the map stage.
+	 */
+	private final RingBuffer<TokenBatch> lexed;
+
+	/**
+	 * Batches from the map stage to the parse stage.
+	 */
+	private final RingBuffer<TokenBatch> mapped;
+
+	/**
+	 * Scanner of the lex stage.
+	 */
+	private final LineScanner scanner = new LineScanner();
+
+	/**
+	 * Names of the tokens of the parser.
+	 */
+	private final NameTable names = new NameTable();
+
+	/**
+	 * Counters of the stages, in order.
+	 */
+	private final StageCounters[] counters = { new StageCounters("read", "bytes"),
+			new StageCounters("lex", "tokens"), new StageCounters("map", "tokens"),
+			new StageCounters("parse", "tokens") };
+
+	/**
+	 * Threads of the read, lex and map stages.
+	 */
+	private final Thread[] threads;
+
+	/**
+	 * Number of lines that the lex stage has scanned when it stopped.
+	 */
+	private volatile int lineCount = 0;
+
+	/**
+	 * Position of the character where the lex stage stopped in its line.
+	 */
+	private volatile int charCount = 0;
+
+	/**
+	 * Batch that the parse stage is taking tokens from, or null.
+	 */
+	private TokenBatch current = null;
+
+	/**
+	 * Index of the next token of the current batch.
+	 */
+	private int next = 0;
+
+	/**
+	 * Time the parse stage has taken its first token, or -1.
+	 */
+	private long parseStart = -1;
+
+	/**
+	 * Whether the parse stage has taken the last token.
+	 */
+	private boolean isFinished = false;
+
+	/**
+	 * Creates a pipeline.
+	 *
+	 * @param input the input to read
+	 */
+	private Pipeline(SourceInput input) {
+		this.input = input;
+
+		Chunk[] chunkSlots = new Chunk[CHUNK_SLOTS];
+		for (int i = 0; i < chunkSlots.length; i++) {
+			chunkSlots[i] = new Chunk();
+		}
+		this.chunks = new RingBuffer<Chunk>(chunkSlots);
+		this.lexed = new RingBuffer<TokenBatch>(newBatches(scanner.getNames()));
+		this.mapped = new RingBuffer<TokenBatch>(newBatches(scanner.getNames()));
+
+		this.threads = new Thread[] { new Thread(new ReadStage(), "pipeline-read"),
+				new Thread(new LexStage(), "pipeline-lex"), new Thread(new MapStage(), "pipeline-map") };
+	}
+
+	/**
+	 * Starts the read, lex and map stages on an input. The tokens are then pulled
+	 * through {@link #nextToken(TokenStream)}, such as by a syntax analyzer.
+	 *
+	 * @param input the input to read, which is closed with the pipeline
+	 * @return the running pipeline
+	 */
+	public static Pipeline start(SourceInput input) {
+		Pipeline pipeline = new Pipeline(input);
+		for (Thread thread : pipeline.threads) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+		return pipeline;
+	}
+
+	/**
+	 * Adds the next token at the end of a token stream, waiting for the map stage
+	 * to publish a batch when the current one runs out.
+	 */
+	@Override
+	public Symbol nextToken(TokenStream tokens) throws IOException, NullTokenException {
+		if (parseStart == -1) {
+			parseStart = System.nanoTime();
+		}
+
+		while (current == null || next == current.tokens.size()) {
+			if (current != null) {
+				mapped.release();
+				current = null;
+			}
+			if (isFinished) {
+				return Symbol.TERM_EOF;
+			}
+
+			current = mapped.take();
+			next = 0;
+			if (current == null) {
+				isFinished = true;
+				counters[3].finish(System.nanoTime() - parseStart, mapped.getConsumerWaitNanos(), 0);
+				throwFailure(mapped.getFailure());
+				return Symbol.TERM_EOF;
+			}
+			counters[3].count(current.tokens.size());
+		}
+
+		tokens.addRenamed(current.tokens, next);
+		return current.symbols[next++];
+	}
+
+	/**
+	 * Returns the names of the tokens that have been taken.
+	 */
+	@Override
+	public NameTable getNames() {
+		return names;
+	}
+
+	/**
+	 * Returns the number of lines scanned by the lex stage when it stopped at a
+	 * lexical error, or so far.
+	 */
+	@Override
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * Returns the position of the character where the lex stage stopped at a
+	 * lexical error.
+	 */
+	@Override
+	public int getCharCount() {
+		return charCount;
+	}
+
+	/**
+	 * Returns the counters of the stages, which are complete after all tokens
+	 * have been taken and the pipeline has been closed.
+	 *
+	 * @return the counters of the read, lex, map and parse stages
+	 */
+	public List<StageCounters> getCounters() {
+		return Arrays.asList(counters);
+	}
+
+	/**
+	 * Stops the stages if they are still running, waits for them to finish, and
+	 * closes the input.
+	 */
+	@Override
+	public void close() throws IOException {
+		mapped.cancel();
+		lexed.cancel();
+		chunks.cancel();
+		try {
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Throws the error that has stopped a stage.
+	 *
+	 * @param failure the error, or null
+	 * @throws IOException        when the input could not be read
+	 * @throws NullTokenException when the input does not belong to any token type
+	 */
+	private static void throwFailure(Exception failure) throws IOException, NullTokenException {
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure instanceof NullTokenException) {
+			throw (NullTokenException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure != null) {
+			throw new IllegalStateException(failure);
+		}
+	}
+
+	/**
+	 * Creates the preallocated batches of a ring buffer.
+	 *
+	 * @param lexerNames the names of the lexer
+	 * @return the batches
+	 */
+	private static TokenBatch[] newBatches(NameTable lexerNames) {
+		TokenBatch[] batches = new TokenBatch[BATCH_SLOTS];
+		for (int i = 0; i < batches.length; i++) {
+			batches[i] = new TokenBatch(lexerNames);
+		}
+		return batches;
+	}
+
+	/**
+	 * Chunk of whole lines of the input.
+	 */
+	private static class Chunk {
+
+		/**
+		 * Source buffer of the chunk.
+		 */
+		SourceBuffer source;
+	}
+
+	/**
+	 * Batch of tokens of whole lines, and their terminal symbols once mapped.
+	 */
+	private static class TokenBatch {
+
+		/**
+		 * Tokens of the batch, which the map stage swaps with those of another
+		 * batch instead of copying them.
+		 */
+		TokenStream tokens;
+
+		/**
+		 * Terminal symbol of each token, or null if it has none.
+		 */
+		Symbol[] symbols = new Symbol[BATCH_SIZE];
+
+		/**
+		 * Creates a batch.
+		 *
+		 * @param lexerNames the names of the lexer
+		 */
+		TokenBatch(NameTable lexerNames) {
+			this.tokens = new TokenStream(BATCH_SIZE, lexerNames);
+		}
+	}
+
+	/**
+	 * Stage that reads the input into chunks.
+	 */
+	private class ReadStage implements Runnable {
+
+		/**
+		 * Sum of a byte of each page that has been touched, so the reads are not
+		 * optimized away.
+		 */
+		private int touched = 0;
+
+		/**
+		 * Reads the input until its end, or until the lex stage stops.
+		 */
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			Exception failure = null;
+			try {
+				read();
+			} catch (IOException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				chunks.close(failure);
+				counters[0].finish(System.nanoTime() - start, 0, chunks.getProducerWaitNanos());
+			}
+		}
+
+		/**
+		 * Reads the source buffers of the input, and publishes them in chunks.
+		 *
+		 * @throws IOException when the input cannot be read
+		 */
+		private void read() throws IOException {
+			SourceBuffer source;
+			while ((source = input.next()) != null) {
+				int length = source.length();
+				for (int start = 0; start < length;) {
+					int end = (length - start <= CHUNK_SIZE) ? length : source.nextLineStart(start + CHUNK_SIZE);
+					SourceBuffer slice = (start == 0 && end == length) ? source : source.slice(start, end - start);
+					if (input.isMapped()) {
+						for (int i = 0; i < slice.length(); i += PAGE_SIZE) {
+							touched += slice.byteAt(i);
+						}
+					}
+
+					Chunk chunk = chunks.claim();
+					if (chunk == null) {
+						return;
+					}
+					chunk.source = slice;
+					chunks.publish();
+					counters[0].count(slice.length());
+					start = end;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stage that scans the chunks into batches of tokens.
+	 */
+	private class LexStage implements Runnable {
+
+		/**
+		 * Scans the chunks until the read stage ends, or until the map stage stops.
+		 */
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			Exception failure = null;
+			try {
+				lex();
+				failure = chunks.getFailure();
+			} catch (NullTokenException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				chunks.cancel();
+				lineCount = scanner.getLineCount();
+				charCount = scanner.getCharCount();
+				lexed.close(failure);
+				counters[1].finish(System.nanoTime() - start, chunks.getConsumerWaitNanos(),
+						lexed.getProducerWaitNanos());
+			}
+		}
+
+		/**
+		 * Scans the chunks line by line, and publishes the tokens in batches.
+		 *
+		 * @throws NullTokenException when the input does not belong to any token type
+		 */
+		private void lex() throws NullTokenException {
+			TokenBatch batch = claim();
+			Chunk chunk;
+			while (batch != null && (chunk = chunks.take()) != null) {
+				SourceBuffer source = chunk.source;
+				chunk.source = null;
+
+				for (int pos = 0; pos < source.length() && batch != null;) {
+					pos = scanner.scanLine(source, pos);
+					TokenStream line = scanner.getTokens();
+					for (int i = 0; i < line.size(); i++) {
+						batch.tokens.add(line, i);
+					}
+
+					if (batch.tokens.size() >= BATCH_SIZE) {
+						counters[1].count(batch.tokens.size());
+						lexed.publish();
+						batch = claim();
+					}
+				}
+				chunks.release();
+			}
+
+			if (batch != null && batch.tokens.size() > 0) {
+				counters[1].count(batch.tokens.size());
+				lexed.publish();
+			}
+		}
+
+		/**
+		 * Claims an empty batch.
+		 *
+		 * @return the batch, or null if the map stage has stopped
+		 */
+		private TokenBatch claim() {
+			TokenBatch batch = lexed.claim();
+			if (batch != null) {
+				batch.tokens.clear();
+			}
+			return batch;
+		}
+	}
+
+	/**
+	 * Stage that maps the tokens of the batches into terminal symbols.
+	 */
+	private class MapStage implements Runnable {
+
+		/**
+		 * Maps the batches until the lex stage ends, or until the parse stage stops.
+		 */
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			Exception failure = null;
+			try {
+				map();
+				failure = lexed.getFailure();
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				lexed.cancel();
+				mapped.close(failure);
+				counters[2].finish(System.nanoTime() - start, lexed.getConsumerWaitNanos(),
+						mapped.getProducerWaitNanos());
+			}
+		}
+
+		/**
+		 * Maps the tokens of each batch, and hands the batch over to the parse stage
+		 * by swapping its tokens into a batch of the next ring buffer.
+		 */
+		private void map() {
+			TokenBatch in;
+			while ((in = lexed.take()) != null) {
+				TokenBatch out = mapped.claim();
+				if (out == null) {
+					return;
+				}
+
+				TokenStream tokens = in.tokens;
+				in.tokens = out.tokens;
+				out.tokens = tokens;
+				if (out.symbols.length < tokens.size()) {
+					out.symbols = new Symbol[tokens.size()];
+				}
+				for (int i = 0; i < tokens.size(); i++) {
+					out.symbols[i] = TokenMapper.convertToken(tokens, i);
+				}
+
+				counters[2].count(tokens.size());
+				mapped.publish();
+				lexed.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.litsynp.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded ring buffer that passes preallocated slots from a single producer
+ * thread to a single consumer thread.
+ * <p>
+ * The slots are never replaced: the producer claims the next free slot, fills
+ * it in place and publishes it, and the consumer takes the next published slot
+ * and releases it when it is done with it, so that the producer may fill it
+ * again. A producer that runs ahead waits until the consumer releases a slot,
+ * and a consumer that runs ahead waits until the producer publishes one, by
+ * yielding for a while and then parking for short periods.
+ *
+ * @param <T> the type of the slots
+ */
+final class RingBuffer<T> {
+
+	/**
+	 * Number of times a waiting thread yields before it parks.
+	 */
+	private static final int YIELDS_BEFORE_PARKING = 64;
+
+	/**
+	 * Time a waiting thread parks at a time, in nanoseconds.
+	 */
+	private static final long PARK_NANOS = 50000;
+
+	/**
+	 * The slots.
+	 */
+	private final T[] slots;
+
+	/**
+	 * Mask of a sequence number for the index of its slot.
+	 */
+	private final int mask;
+
+	/**
+	 * Sequence number of the next slot to take, written by the consumer only.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * Sequence number of the next slot to claim, written by the producer only.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Whether the producer has published its last slot.
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * Whether the consumer has stopped taking slots.
+	 */
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Error that has stopped the producer, or null.
+	 */
+	private volatile Exception failure = null;
+
+	/**
+	 * Time the producer has waited for a free slot, in nanoseconds.
+	 */
+	private long producerWaitNanos = 0;
+
+	/**
+	 * Time the consumer has waited for a published slot, in nanoseconds.
+	 */
+	private long consumerWaitNanos = 0;
+
+	/**
+	 * Creates a ring buffer.
+	 *
+	 * @param slots the preallocated slots, whose number is a power of two
+	 */
+	RingBuffer(T[] slots) {
+		if (Integer.bitCount(slots.length) != 1) {
+			throw new IllegalArgumentException("Number of slots " + slots.length + " is not a power of two");
+		}
+		this.slots = slots;
+		this.mask = slots.length - 1;
+	}
+
+	/**
+	 * Claims the next free slot, waiting until the consumer releases one. Called
+	 * by the producer only.
+	 *
+	 * @return the slot to fill, or null if the consumer has stopped
+	 */
+	T claim() {
+		long sequence = tail.get();
+		if (sequence - head.get() == slots.length) {
+			long start = System.nanoTime();
+			for (int waits = 0; sequence - head.get() == slots.length && !cancelled; waits++) {
+				pause(waits);
+			}
+			producerWaitNanos += System.nanoTime() - start;
+		}
+		return cancelled ? null : slots[(int) sequence & mask];
+	}
+
+	/**
+	 * Publishes the slot that has been claimed last. Called by the producer only.
+	 */
+	void publish() {
+		tail.lazySet(tail.get() + 1);
+	}
+
+	/**
+	 * Marks the end of the slots, after the last one has been published. Called
+	 * by the producer only.
+	 *
+	 * @param failure the error that has stopped the producer, or null if it has
+	 *                reached the end of its input
+	 */
+	void close(Exception failure) {
+		this.failure = failure;
+		closed = true;
+	}
+
+	/**
+	 * Takes the next published slot, waiting until the producer publishes one.
+	 * Called by the consumer only.
+	 *
+	 * @return the slot to read, or null after the last slot
+	 */
+	T take() {
+		long sequence = head.get();
+		if (sequence == tail.get()) {
+			long start = System.nanoTime();
+			for (int waits = 0; sequence == tail.get(); waits++) {
+				// The last slot is published before the end is marked
+				if (closed && sequence == tail.get()) {
+					consumerWaitNanos += System.nanoTime() - start;
+					return null;
+				}
+				pause(waits);
+			}
+			consumerWaitNanos += System.nanoTime() - start;
+		}
+		return slots[(int) sequence & mask];
+	}
+
+	/**
+	 * Releases the slot that has been taken last. Called by the consumer only.
+	 */
+	void release() {
+		head.lazySet(head.get() + 1);
+	}
+
+	/**
+	 * Stops the producer, which gets no more slots. Called by the consumer only.
+	 */
+	void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Returns the error that has stopped the producer. Only meaningful after
+	 * {@link #take()} has returned null.
+	 *
+	 * @return the error, or null if the producer has reached the end of its input
+	 */
+	Exception getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Returns the time the producer has waited for a free slot. Only meaningful
+	 * after the producer has finished.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	long getProducerWaitNanos() {
+		return producerWaitNanos;
+	}
+
+	/**
+	 * Returns the time the consumer has waited for a published slot. Only
+	 * meaningful on the consumer thread or after it has finished.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	long getConsumerWaitNanos() {
+		return consumerWaitNanos;
+	}
+
+	/**
+	 * Waits a little, yielding first and parking later.
+	 *
+	 * @param waits the number of times the thread has waited so far
+	 */
+	private static void pause(int waits) {
+		if (waits < YIELDS_BEFORE_PARKING) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package com.litsynp.pipeline;
+
+/**
+ * Throughput counters of a stage of a pipeline, to find the stage that holds
+ * the others back.
+ * <p>
+ * The busy time of a stage is the time it has run minus the time it has waited
+ * for the stage before it to publish a batch, and for the stage after it to
+ * release one. The bottleneck is the stage that is busy the longest, while the
+ * others wait for it.
+ */
+public final class StageCounters {
+
+	/**
+	 * Name of the stage.
+	 */
+	private final String name;
+
+	/**
+	 * Name of the units that the stage processes, such as "tokens".
+	 */
+	private final String unit;
+
+	/**
+	 * Number of batches that the stage has processed.
+	 */
+	private long batches = 0;
+
+	/**
+	 * Number of units that the stage has processed.
+	 */
+	private long units = 0;
+
+	/**
+	 * Time from the start to the end of the stage, in nanoseconds.
+	 */
+	private long elapsedNanos = 0;
+
+	/**
+	 * Time the stage has waited for its input, in nanoseconds.
+	 */
+	private long inputWaitNanos = 0;
+
+	/**
+	 * Time the stage has waited to hand over its output, in nanoseconds.
+	 */
+	private long outputWaitNanos = 0;
+
+	/**
+	 * Creates counters of a stage.
+	 *
+	 * @param name the name of the stage
+	 * @param unit the name of the units that the stage processes
+	 */
+	StageCounters(String name, String unit) {
+		this.name = name;
+		this.unit = unit;
+	}
+
+	/**
+	 * Counts a batch.
+	 *
+	 * @param count the number of units of the batch
+	 */
+	void count(int count) {
+		batches++;
+		units += count;
+	}
+
+	/**
+	 * Records the times of the stage after it has finished.
+	 *
+	 * @param elapsedNanos    the time from the start to the end of the stage
+	 * @param inputWaitNanos  the time the stage has waited for its input
+	 * @param outputWaitNanos the time the stage has waited to hand over its
+	 *                        output
+	 */
+	void finish(long elapsedNanos, long inputWaitNanos, long outputWaitNanos) {
+		this.elapsedNanos = elapsedNanos;
+		this.inputWaitNanos = inputWaitNanos;
+		this.outputWaitNanos = outputWaitNanos;
+	}
+
+	/**
+	 * Returns the name of the stage.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of batches that the stage has processed.
+	 *
+	 * @return the number of batches
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Returns the number of units that the stage has processed.
+	 *
+	 * @return the number of units
+	 */
+	public long getUnits() {
+		return units;
+	}
+
+	/**
+	 * Returns the time from the start to the end of the stage.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns the time the stage has waited for its input.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getInputWaitNanos() {
+		return inputWaitNanos;
+	}
+
+	/**
+	 * Returns the time the stage has waited to hand over its output.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getOutputWaitNanos() {
+		return outputWaitNanos;
+	}
+
+	/**
+	 * Returns the time the stage has been busy.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getBusyNanos() {
+		return Math.max(elapsedNanos - inputWaitNanos - outputWaitNanos, 0);
+	}
+
+	/**
+	 * Returns string value of the counters, in the form of
+	 * <code>lex: 870 batches, 3540000 tokens, busy 810.52 ms (4.37 M tokens/s),
+	 * waited 20.10 ms for input and 5.02 ms for output</code>.
+	 */
+	@Override
+	public String toString() {
+		long busy = getBusyNanos();
+		double rate = (busy == 0) ? 0 : units * 1e3 / busy;
+		return String.format("%s: %d batches, %d %s, busy %.2f ms (%.2f M %s/s), "
+				+ "waited %.2f ms for input and %.2f ms for output", name, batches, units, unit, busy / 1e6, rate, unit,
+				inputWaitNanos / 1e6, outputWaitNanos / 1e6);
+	}
+}
@@ -0,0 +1,144 @@
+package com.litsynp.server;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request of a client of the compile server, which is a source to check. See
+ * {@link CompileServer} for the layout of its frame.
+ */
+final class CompileRequest {
+
+	/**
+	 * Flag of a request whose response includes the tokens of the source.
+	 */
+	static final int FLAG_TOKENS = 0x1;
+
+	/**
+	 * Largest name of a source that a request may carry, in bytes.
+	 */
+	static final int MAX_NAME_LENGTH = 1 << 12;
+
+	/**
+	 * Largest source that a request may carry, in bytes.
+	 */
+	static final int MAX_SOURCE_LENGTH = 1 << 28;
+
+	/**
+	 * Id of the request, which its response carries back.
+	 */
+	private final int id;
+
+	/**
+	 * Flags of the request.
+	 */
+	private final int flags;
+
+	/**
+	 * Name of the source, to report it by.
+	 */
+	private final String name;
+
+	/**
+	 * Bytes of the source.
+	 */
+	private final byte[] source;
+
+	/**
+	 * Creates a request.
+	 *
+	 * @param id     the id of the request
+	 * @param flags  the flags of the request
+	 * @param name   the name of the source
+	 * @param source the bytes of the source
+	 */
+	CompileRequest(int id, int flags, String name, byte[] source) {
+		this.id = id;
+		this.flags = flags;
+		this.name = name;
+		this.source = source;
+	}
+
+	/**
+	 * Reads the frame of a request.
+	 *
+	 * @param in the stream to read from
+	 * @return the request, or null if the stream ends before a new frame
+	 * @throws IOException when the stream cannot be read, or ends in the middle
+	 *                     of a frame, or the frame is malformed
+	 */
+	static CompileRequest read(DataInputStream in) throws IOException {
+		int first = in.read();
+		if (first < 0) {
+			return null;
+		}
+
+		try {
+			int id = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedShort());
+			int flags = in.readUnsignedByte();
+			String name = new String(readBytes(in, MAX_NAME_LENGTH), StandardCharsets.UTF_8);
+			byte[] source = readBytes(in, MAX_SOURCE_LENGTH);
+			return new CompileRequest(id, flags, name, source);
+		} catch (EOFException e) {
+			throw new IOException("Stream ends in the middle of a request", e);
+		}
+	}
+
+	/**
+	 * Reads a run of bytes that is preceded by its length.
+	 *
+	 * @param in        the stream to read from
+	 * @param maxLength the largest length allowed
+	 * @return the bytes
+	 * @throws IOException when the stream cannot be read, or the length is not
+	 *                     allowed
+	 */
+	private static byte[] readBytes(DataInputStream in, int maxLength) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > maxLength) {
+			throw new IOException("Length " + length + " is not within " + maxLength + " bytes");
+		}
+
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Returns the id of the request.
+	 *
+	 * @return the id
+	 */
+	int getId() {
+		return id;
+	}
+
+	/**
+	 * Returns whether the response includes the tokens of the source.
+	 *
+	 * @return boolean value of whether the tokens are requested
+	 */
+	boolean wantsTokens() {
+		return (flags & FLAG_TOKENS) != 0;
+	}
+
+	/**
+	 * Returns the name of the source.
+	 *
+	 * @return the name
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the bytes of the source.
+	 *
+	 * @return the bytes, which must not be modified
+	 */
+	byte[] getSource() {
+		return source;
+	}
+}
@@ -0,0 +1,487 @@
+package com.litsynp.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+
+import com.litsynp.CompileResult;
+import com.litsynp.Compiler;
+import com.litsynp.lexer.token.TokenFileWriter;
+import com.litsynp.parser.Diagnostic;
+
+/**
+ * Long-running compile server, which checks sources that its clients send over
+ * a stream, such as a connection to a localhost port or the standard input and
+ * output, without starting a JVM per source.
+ * <p>
+ * The transition table and the parsing table are built once for all requests,
+ * and {@link #warmUp()} runs the lexer and the parser on a synthetic source
+ * before the first request, so that the requests are served by compiled code.
+ * <p>
+ * A client sends frames of requests and receives frames of responses, which
+ * may come in a different order than the requests. All fixed-size integers are
+ * big-endian, and all texts are UTF-8 preceded by their length in bytes as an
+ * integer.
+ * <ul>
+ * <li>a request: its id as an integer, its flags as a byte (1: return the
+ * tokens), the name of the source as a text, and the length of the source as
+ * an integer followed by its bytes</li>
+ * <li>a response: the id of its request as an integer, the status as a byte
+ * (0: accepted, 1: syntax errors, 2: lexical error, 3: internal error), the
+ * token count as an integer, the number of syntax errors as an integer
+ * followed by each of them as a text, the message of the lexical or internal
+ * error as a text if there is one, and the length of the tokens as an integer
+ * followed by the tokens in the format of a .tok file, or 0 if they have not
+ * been asked for</li>
+ * </ul>
+ * A session ends when the client closes its side of the stream, after the
+ * responses of all of its requests have been sent.
+ * <p>
+ * Small requests that arrive together are checked in batches, so that a client
+ * that sends many small sources at once costs one task and one flush of the
+ * stream per batch rather than per source.
+ */
+public final class CompileServer {
+
+	/**
+	 * Status of an accepted source.
+	 */
+	public static final int STATUS_ACCEPTED = 0;
+
+	/**
+	 * Status of a source with syntax errors.
+	 */
+	public static final int STATUS_SYNTAX_ERRORS = 1;
+
+	/**
+	 * Status of a source with a lexical error.
+	 */
+	public static final int STATUS_LEXICAL_ERROR = 2;
+
+	/**
+	 * Status of a source that the compiler failed on, rather than accepting or
+	 * rejecting it.
+	 */
+	public static final int STATUS_INTERNAL_ERROR = 3;
+
+	/**
+	 * Largest source of a request that is checked in a batch with others, in
+	 * bytes.
+	 */
+	static final int SMALL_REQUEST_LENGTH = 1 << 13;
+
+	/**
+	 * Largest number of requests in a batch.
+	 */
+	static final int MAX_BATCH_SIZE = 64;
+
+	/**
+	 * Number of batches of a session that may wait for a thread of the pool, per
+	 * thread, before the session stops reading requests.
+	 */
+	private static final int BATCHES_PER_THREAD = 4;
+
+	/**
+	 * Number of functions of the synthetic source of the warm-up.
+	 */
+	private static final int WARM_UP_FUNCTIONS = 200;
+
+	/**
+	 * Number of times the warm-up checks the synthetic sources.
+	 */
+	private static final int WARM_UP_ROUNDS = 20;
+
+	/**
+	 * Pool to check the requests on.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a new compile server.
+	 *
+	 * @param pool pool to check the requests on
+	 */
+	public CompileServer(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Checks a synthetic source, the same source with a syntax error and one
+	 * with a lexical error a number of times, with their responses, so that the
+	 * JIT compiler compiles the lexer and both parsing engines before the first
+	 * request.
+	 *
+	 * @return the time taken in nanoseconds
+	 */
+	public long warmUp() {
+		long start = System.nanoTime();
+
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < WARM_UP_FUNCTIONS; i++) {
+			text.append("int x").append(i).append(" = ").append(i).append(";\n");
+			text.append("int f").append(i).append("(int a, float b) {\n");
+			text.append("\tint i = -").append(i + 1).append(";\n");
+			text.append("\tchar s = \"warm up\";\n");
+			text.append("\tif (a < b) { i = i + 1; } else { i = i * 2; }\n");
+			text.append("\twhile (i != 10) { i = i - 1; }\n");
+			text.append("\tfor (i = 0; i < 10; i = i + 1) { b = b / 2.5; }\n");
+			text.append("\treturn i;\n");
+			text.append("}\n");
+		}
+		byte[] source = text.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] syntaxError = text.append("int g( {\n").toString().getBytes(StandardCharsets.UTF_8);
+		byte[] lexicalError = text.append("int y = #;\n").toString().getBytes(StandardCharsets.UTF_8);
+
+		ByteArrayOutputStream sink = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(sink);
+		for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+			for (byte[] bytes : new byte[][] { source, syntaxError, lexicalError }) {
+				try {
+					respond(new CompileRequest(round, CompileRequest.FLAG_TOKENS, "warm-up", bytes), out);
+				} catch (IOException e) {
+					// Never thrown by a byte array
+					throw new IllegalStateException(e);
+				}
+				sink.reset();
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Serves a session over a stream, until the client closes its side of it.
+	 *
+	 * @param in  the stream to read the requests from
+	 * @param out the stream to write the responses to, which is not closed
+	 * @throws IOException when a stream cannot be read or written, or a request
+	 *                     is malformed, after the requests before it have been
+	 *                     answered
+	 */
+	public void serve(InputStream in, OutputStream out) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		Session session = new Session(new DataOutputStream(new BufferedOutputStream(out, 1 << 16)),
+				pool.getParallelism() * BATCHES_PER_THREAD);
+
+		List<CompileRequest> batch = new ArrayList<CompileRequest>();
+		try {
+			CompileRequest request;
+			while ((request = CompileRequest.read(input)) != null) {
+				session.checkWrites();
+				if (request.getSource().length > SMALL_REQUEST_LENGTH) {
+					// Check the requests before it first, since they arrived first
+					if (!batch.isEmpty()) {
+						session.submit(batch);
+						batch = new ArrayList<CompileRequest>();
+					}
+					batch.add(request);
+					session.submit(batch);
+					batch = new ArrayList<CompileRequest>();
+					continue;
+				}
+
+				// Send a batch off when no more requests have arrived with it
+				batch.add(request);
+				if (batch.size() == MAX_BATCH_SIZE || input.available() == 0) {
+					session.submit(batch);
+					batch = new ArrayList<CompileRequest>();
+				}
+			}
+		} finally {
+			// Answer the requests that arrived before the end of the stream, or
+			// before a malformed request, before its error is thrown
+			try {
+				if (!batch.isEmpty()) {
+					session.submit(batch);
+				}
+			} finally {
+				session.await();
+			}
+		}
+		session.checkWrites();
+	}
+
+	/**
+	 * Accepts connections to a server socket, and serves a session over each of
+	 * them on a thread of its own, until the server socket is closed. The errors
+	 * of a session are printed to the standard error.
+	 *
+	 * @param server the server socket
+	 * @throws IOException when the server socket is closed, or a connection
+	 *                     cannot be accepted
+	 */
+	public void listen(ServerSocket server) throws IOException {
+		while (true) {
+			Socket socket = server.accept();
+			Thread thread = new Thread(new Connection(socket), "compile-session-" + socket.getPort());
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Checks the source of a request, and writes the frame of its response. If
+	 * the compiler fails on the source, the response has the status of an
+	 * internal error, with the failure as its message.
+	 *
+	 * @param request the request
+	 * @param out     the stream to write to
+	 * @throws IOException when the stream cannot be written
+	 */
+	static void respond(CompileRequest request, DataOutputStream out) throws IOException {
+		CompileResult result;
+		try {
+			result = Compiler.check(request.getName(), request.getSource());
+		} catch (RuntimeException e) {
+			// Answer the request anyway, so the others of its batch are answered too
+			System.err.println(request.getName() + ": " + e);
+			out.writeInt(request.getId());
+			out.writeByte(STATUS_INTERNAL_ERROR);
+			out.writeInt(0);
+			out.writeInt(0);
+			writeText(out, "Internal error in " + request.getName() + ": " + e);
+			out.writeInt(0);
+			return;
+		}
+
+		int status = STATUS_ACCEPTED;
+		if (result.getLexError() != null) {
+			status = STATUS_LEXICAL_ERROR;
+		} else if (!result.getDiagnostics().isEmpty()) {
+			status = STATUS_SYNTAX_ERRORS;
+		}
+		out.writeInt(request.getId());
+		out.writeByte(status);
+		out.writeInt(result.getTokenCount());
+
+		List<Diagnostic> diagnostics = result.getDiagnostics();
+		out.writeInt(diagnostics.size());
+		for (Diagnostic diagnostic : diagnostics) {
+			writeText(out, diagnostic.toString());
+		}
+		if (status == STATUS_LEXICAL_ERROR) {
+			writeText(out, result.getLexError().getMessage());
+		}
+
+		if (request.wantsTokens() && result.getTokens() != null) {
+			ByteArrayOutputStream tokens = new ByteArrayOutputStream(result.getTokenCount() * 3 + 64);
+			TokenFileWriter.write(tokens, result.getTokens(), false);
+			out.writeInt(tokens.size());
+			tokens.writeTo(out);
+		} else {
+			out.writeInt(0);
+		}
+	}
+
+	/**
+	 * Writes a text preceded by its length.
+	 *
+	 * @param out  the stream to write to
+	 * @param text the text
+	 * @throws IOException when the stream cannot be written
+	 */
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Session of a client, which checks batches of its requests on the pool and
+	 * writes their responses to the client.
+	 */
+	private final class Session {
+
+		/**
+		 * Stream to write the responses to.
+		 */
+		private final DataOutputStream out;
+
+		/**
+		 * Number of batches that may be submitted at once.
+		 */
+		private final int maxBatches;
+
+		/**
+		 * Permits to submit a batch, one per batch that may be submitted at once.
+		 */
+		private final Semaphore permits;
+
+		/**
+		 * First error in writing the responses, or null.
+		 */
+		private volatile IOException writeError;
+
+		/**
+		 * Creates a new session.
+		 *
+		 * @param out        stream to write the responses to
+		 * @param maxBatches number of batches that may be submitted at once
+		 */
+		Session(DataOutputStream out, int maxBatches) {
+			this.out = out;
+			this.maxBatches = maxBatches;
+			this.permits = new Semaphore(maxBatches);
+		}
+
+		/**
+		 * Submits a batch of requests to the pool, after the batches that are
+		 * being checked leave room for it.
+		 *
+		 * @param batch the requests
+		 * @throws IOException when the thread is interrupted while waiting
+		 */
+		void submit(List<CompileRequest> batch) throws IOException {
+			try {
+				permits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while submitting requests");
+			}
+			pool.execute(new BatchTask(this, batch));
+		}
+
+		/**
+		 * Writes the responses of a batch and flushes them to the client.
+		 *
+		 * @param responses the frames of the responses
+		 */
+		void write(ByteArrayOutputStream responses) {
+			synchronized (out) {
+				if (writeError != null) {
+					return;
+				}
+				try {
+					responses.writeTo(out);
+					out.flush();
+				} catch (IOException e) {
+					writeError = e;
+				}
+			}
+		}
+
+		/**
+		 * Marks a batch as done.
+		 */
+		void done() {
+			permits.release();
+		}
+
+		/**
+		 * Throws the first error in writing the responses.
+		 *
+		 * @throws IOException when a response could not be written
+		 */
+		void checkWrites() throws IOException {
+			if (writeError != null) {
+				throw writeError;
+			}
+		}
+
+		/**
+		 * Waits until all of the batches that have been submitted are done.
+		 */
+		void await() {
+			permits.acquireUninterruptibly(maxBatches);
+			permits.release(maxBatches);
+		}
+	}
+
+	/**
+	 * Task that checks a batch of requests of a session.
+	 */
+	private static class BatchTask implements Runnable {
+
+		/**
+		 * Session of the requests.
+		 */
+		private final Session session;
+
+		/**
+		 * Requests of the batch, in the order they arrived.
+		 */
+		private final List<CompileRequest> batch;
+
+		/**
+		 * Creates a new task.
+		 *
+		 * @param session session of the requests
+		 * @param batch   requests of the batch
+		 */
+		BatchTask(Session session, List<CompileRequest> batch) {
+			this.session = session;
+			this.batch = batch;
+		}
+
+		/**
+		 * Checks the requests, and writes their responses at once.
+		 */
+		@Override
+		public void run() {
+			try {
+				ByteArrayOutputStream responses = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(responses);
+				for (CompileRequest request : batch) {
+					respond(request, out);
+				}
+				session.write(responses);
+			} catch (IOException e) {
+				// Never thrown by a byte array
+				throw new IllegalStateException(e);
+			} finally {
+				session.done();
+			}
+		}
+	}
+
+	/**
+	 * Connection of a client to the server socket.
+	 */
+	private class Connection implements Runnable {
+
+		/**
+		 * Socket of the connection.
+		 */
+		private final Socket socket;
+
+		/**
+		 * Creates a new connection.
+		 *
+		 * @param socket socket of the connection
+		 */
+		Connection(Socket socket) {
+			this.socket = socket;
+		}
+
+		/**
+		 * Serves the session of the connection, and closes it.
+		 */
+		@Override
+		public void run() {
+			try {
+				socket.setTcpNoDelay(true);
+				serve(socket.getInputStream(), socket.getOutputStream());
+			} catch (IOException e) {
+				System.err.println(socket.getRemoteSocketAddress() + ": " + e);
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					// Nothing left to do with the connection
+				}
+			}
+		}
+	}
+}
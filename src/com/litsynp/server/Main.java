@@ -0,0 +1,90 @@
+package com.litsynp.server;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Main class of the compile server program. The standard output may carry the
+ * responses, so the messages of the server are printed to the standard error.
+ */
+public class Main {
+
+	/**
+	 * Main method of the compile server program.
+	 *
+	 * @param args "--port=n" to listen on a localhost port (0: any free port), or
+	 *             "--stdio" to serve one session over the standard input and
+	 *             output, optionally with "--threads=n" (default: the number of
+	 *             processors), the number of requests to check at once
+	 */
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int port = -1;
+		boolean stdio = false;
+		for (String arg : args) {
+			if (arg.startsWith("--threads=")) {
+				threads = parseOption(arg, "--threads=", 1, Integer.MAX_VALUE);
+			} else if (arg.startsWith("--port=")) {
+				port = parseOption(arg, "--port=", 0, 65535);
+			} else if (arg.equals("--stdio")) {
+				stdio = true;
+			} else {
+				System.err.println("Unknown option: " + arg);
+				System.exit(1);
+			}
+		}
+		if (stdio == (port >= 0)) {
+			System.err.println("Usage: com.litsynp.server.Main (--port=n | --stdio) [--threads=n]");
+			System.exit(1);
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+		CompileServer server = new CompileServer(pool);
+		System.err.printf("Warmed up in %.2f ms.%n", server.warmUp() / 1e6);
+
+		try {
+			if (stdio) {
+				server.serve(new FileInputStream(FileDescriptor.in), new FileOutputStream(FileDescriptor.out));
+			} else {
+				ServerSocket socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+				System.err.println("Listening on " + socket.getLocalSocketAddress() + " with " + threads
+						+ " thread(s).");
+				server.listen(socket);
+			}
+		} catch (IOException e) {
+			System.err.println(e);
+			System.exit(1);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Parses the value of a numeric option, or prints the option and exits if it
+	 * is not a number in a range.
+	 *
+	 * @param arg    the argument of the option
+	 * @param prefix the name of the option followed by '='
+	 * @param min    the smallest value allowed
+	 * @param max    the largest value allowed
+	 * @return the value
+	 */
+	private static int parseOption(String arg, String prefix, int min, int max) {
+		try {
+			int value = Integer.parseInt(arg.substring(prefix.length()));
+			if (value >= min && value <= max) {
+				return value;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below along with the values out of range
+		}
+		System.err.println("Invalid option: " + arg);
+		System.exit(1);
+		return min;
+	}
+}